@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.draw;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import gov.nasa.worldwind.WorldWind;
+
+/**
+ * Measures sorting a frame's drawables. Each invocation sorts a queue filled in the order a frame's renderables are
+ * typically rendered: terrain and surface drawables first, then shapes and screen drawables at random depths.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DrawableQueueBenchmark {
+
+    @Param({"1000", "10000"})
+    public int drawableCount;
+
+    private final DrawableQueue queue = new DrawableQueue();
+
+    private final Drawable drawable = new Drawable() {
+        @Override
+        public void recycle() {
+        }
+
+        @Override
+        public void draw(DrawContext dc) {
+        }
+    };
+
+    private int[] groupIds;
+
+    private double[] depths;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int[] groups = {WorldWind.BACKGROUND_DRAWABLE, WorldWind.SURFACE_DRAWABLE, WorldWind.SHAPE_DRAWABLE,
+            WorldWind.SCREEN_DRAWABLE};
+        Random random = new Random(1);
+        this.groupIds = new int[this.drawableCount];
+        this.depths = new double[this.drawableCount];
+        for (int idx = 0; idx < this.drawableCount; idx++) {
+            int group = Math.min(idx * groups.length / this.drawableCount, groups.length - 1);
+            this.groupIds[idx] = groups[group];
+            this.depths[idx] = (this.groupIds[idx] == WorldWind.SHAPE_DRAWABLE) ? -random.nextDouble() * 1e6 : 0;
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void fillQueue() {
+        this.queue.clearDrawables();
+        for (int idx = 0; idx < this.drawableCount; idx++) {
+            this.queue.offerDrawable(this.drawable, this.groupIds[idx], this.depths[idx]);
+        }
+    }
+
+    @Benchmark
+    public DrawableQueue sortDrawables() {
+        this.queue.sortDrawables();
+        return this.queue;
+    }
+}
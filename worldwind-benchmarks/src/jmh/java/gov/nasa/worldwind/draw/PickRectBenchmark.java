@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.draw;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import gov.nasa.worldwind.PickedObject;
+import gov.nasa.worldwind.render.Color;
+import gov.nasa.worldwind.util.IntSet;
+
+/**
+ * Measures resolving the picked objects in a 1920 x 1080 pick rectangle read from the frame buffer. The pixels hold
+ * terrain covering the rectangle and a number of shapes at random locations, each drawn in its unique pick color.
+ * Compares converting each pixel to a Color accumulated in a HashSet, as DrawContext.readPixelColors does, with
+ * accumulating int identifiers read in bulk, as DrawContext.readPixelIdentifiers does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PickRectBenchmark {
+
+    private static final int WIDTH = 1920;
+
+    private static final int HEIGHT = 1080;
+
+    @Param({"10", "1000"})
+    public int shapeCount;
+
+    private ByteBuffer pixelBuffer;
+
+    private final byte[] pixelArray = new byte[4];
+
+    private final int[] pixelIdentifierArray = new int[1024];
+
+    private final IntSet pickIdentifiers = new IntSet();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int[] identifiers = new int[WIDTH * HEIGHT];
+        Arrays.fill(identifiers, 1); // the terrain
+
+        Random random = new Random(1);
+        for (int id = 2; id < this.shapeCount + 2; id++) {
+            int w = 8 + random.nextInt(120), h = 8 + random.nextInt(120);
+            int x0 = random.nextInt(WIDTH - w), y0 = random.nextInt(HEIGHT - h);
+            for (int y = y0; y < y0 + h; y++) {
+                Arrays.fill(identifiers, x0 + y * WIDTH, x0 + w + y * WIDTH, id);
+            }
+        }
+
+        this.pixelBuffer = ByteBuffer.allocateDirect(WIDTH * HEIGHT * 4).order(ByteOrder.nativeOrder());
+        for (int identifier : identifiers) {
+            this.pixelBuffer.put((byte) (identifier >> 16)).put((byte) (identifier >> 8)).put((byte) identifier).put((byte) 0xFF);
+        }
+    }
+
+    @Benchmark
+    public int resolveColors() {
+        ByteBuffer pixelBuffer = this.pixelBuffer;
+        pixelBuffer.clear();
+        HashSet<Color> resultSet = new HashSet<>();
+        Color result = new Color();
+
+        for (int idx = 0, pixelCount = WIDTH * HEIGHT; idx < pixelCount; idx++) {
+            pixelBuffer.get(this.pixelArray, 0, 4);
+            result.red = (this.pixelArray[0] & 0xFF) / (float) 0xFF;
+            result.green = (this.pixelArray[1] & 0xFF) / (float) 0xFF;
+            result.blue = (this.pixelArray[2] & 0xFF) / (float) 0xFF;
+            result.alpha = (this.pixelArray[3] & 0xFF) / (float) 0xFF;
+            if (resultSet.add(result)) {
+                result = new Color();
+            }
+        }
+
+        int count = 0;
+        for (Color pickColor : resultSet) {
+            if (PickedObject.uniqueColorToIdentifier(pickColor) != 0) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    @Benchmark
+    public int resolveIdentifiers() {
+        ByteBuffer pixelBuffer = this.pixelBuffer;
+        pixelBuffer.clear();
+        DrawContext.addPixelIdentifiers(pixelBuffer.asIntBuffer(), pixelBuffer.order() == ByteOrder.BIG_ENDIAN,
+            this.pixelIdentifierArray, this.pickIdentifiers.clear());
+
+        return this.pickIdentifiers.size();
+    }
+}
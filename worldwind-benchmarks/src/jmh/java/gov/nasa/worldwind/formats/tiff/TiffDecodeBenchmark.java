@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.formats.tiff;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures decoding an elevation tile as ElevationRetriever does: parsing the Tiff and writing its data to a buffer.
+ * Each image is the same 256 x 256 tile of 16 bit signed heights, 128 KiB decoded, stored as little endian strips of
+ * 16 rows. LZW and Deflate images use the horizontal predictor. Decode throughput is 128 KiB divided by the average
+ * time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TiffDecodeBenchmark {
+
+    @Param({"none", "lzw", "deflate", "packbits"})
+    public String compression;
+
+    private byte[] tiffData;
+
+    private ByteBuffer result;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        try (InputStream stream = this.getClass().getResourceAsStream("elevation_" + this.compression + ".tif")) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] page = new byte[4096];
+            int readCount;
+            while ((readCount = stream.read(page)) != -1) {
+                bytes.write(page, 0, readCount);
+            }
+            this.tiffData = bytes.toByteArray();
+        }
+
+        Subfile subfile = new Tiff(ByteBuffer.wrap(this.tiffData)).getSubfiles().get(0);
+        this.result = ByteBuffer.allocate(subfile.getDataSize());
+    }
+
+    @Benchmark
+    public ByteBuffer getData() {
+        Subfile subfile = new Tiff(ByteBuffer.wrap(this.tiffData)).getSubfiles().get(0);
+        this.result.clear();
+        return subfile.getData(this.result);
+    }
+}
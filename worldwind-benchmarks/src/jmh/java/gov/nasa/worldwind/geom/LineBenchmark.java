@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.geom;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures picking a terrain tile: intersecting a ray with the triangle strip of a 34 x 34 point tile, the size
+ * BasicTessellator produces for 32 x 32 tiles with their border. One ray hits the tile near its center, the other
+ * misses the tile and therefore tests every triangle.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LineBenchmark {
+
+    private static final int TILE_POINTS = 34;
+
+    private static final double TILE_SPACING = 100; // meters between adjacent points
+
+    private float[] points;
+
+    private short[] elements;
+
+    private final Line hitRay = new Line();
+
+    private final Line missRay = new Line();
+
+    private final Vec3 result = new Vec3();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Points on a gently curved, rough surface centered on the origin, with z as the vertical axis.
+        Random random = new Random(1);
+        this.points = new float[TILE_POINTS * TILE_POINTS * 3];
+        double halfExtent = (TILE_POINTS - 1) * TILE_SPACING * 0.5;
+        for (int row = 0, pos = 0; row < TILE_POINTS; row++) {
+            for (int col = 0; col < TILE_POINTS; col++) {
+                double x = col * TILE_SPACING - halfExtent;
+                double y = row * TILE_SPACING - halfExtent;
+                double z = -(x * x + y * y) / (2 * 6378137.0) + random.nextDouble() * 50;
+                this.points[pos++] = (float) x;
+                this.points[pos++] = (float) y;
+                this.points[pos++] = (float) z;
+            }
+        }
+
+        this.elements = assembleTriStripElements(TILE_POINTS, TILE_POINTS);
+
+        // Rays looking down at the tile from 1 km at an oblique angle.
+        this.hitRay.set(new Vec3(-200, -300, 1000), new Vec3(0.2, 0.3, -1));
+        this.missRay.set(new Vec3(halfExtent * 3, 0, 1000), new Vec3(0.2, 0.3, -1));
+    }
+
+    @Benchmark
+    public boolean triStripIntersectionHit() {
+        return this.hitRay.triStripIntersection(this.points, 3, this.elements, this.elements.length, this.result);
+    }
+
+    @Benchmark
+    public boolean triStripIntersectionMiss() {
+        return this.missRay.triStripIntersection(this.points, 3, this.elements, this.elements.length, this.result);
+    }
+
+    /**
+     * Assembles a triangle strip joining rows of grid points with degenerate triangles, in the same layout as
+     * BasicTessellator's terrain tile elements.
+     */
+    private static short[] assembleTriStripElements(int numLat, int numLon) {
+        short[] result = new short[((numLat - 1) * numLon + (numLat - 2)) * 2];
+        int pos = 0, vertex = 0;
+
+        for (int latIndex = 0; latIndex < numLat - 1; latIndex++) {
+            for (int lonIndex = 0; lonIndex < numLon; lonIndex++) {
+                vertex = lonIndex + latIndex * numLon;
+                result[pos++] = (short) (vertex + numLon);
+                result[pos++] = (short) vertex;
+            }
+
+            if (latIndex < numLat - 2) {
+                result[pos++] = (short) vertex;
+                result[pos++] = (short) ((latIndex + 2) * numLon);
+            }
+        }
+
+        return result;
+    }
+}
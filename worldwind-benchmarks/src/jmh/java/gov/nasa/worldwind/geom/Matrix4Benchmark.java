@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.geom;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the 4 x 4 matrix products computed each frame for every camera, drawable and terrain tile. The operands are
+ * a perspective projection and a modelview matrix for a camera looking at the globe from 10 km, as computed by the
+ * render context.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class Matrix4Benchmark {
+
+    private final Matrix4 projection = new Matrix4();
+
+    private final Matrix4 modelview = new Matrix4();
+
+    private final Matrix4 result = new Matrix4();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.projection.setToPerspectiveProjection(1920, 1080, 45, 100, 1e7);
+
+        this.modelview.setToIdentity();
+        this.modelview.multiplyByTranslation(0, 0, -10000);
+        this.modelview.multiplyByRotation(1, 0, 0, 60); // tilt
+        this.modelview.multiplyByRotation(0, 0, 1, 30); // heading
+        this.modelview.multiplyByTranslation(-2500000, -4500000, -3700000);
+    }
+
+    @Benchmark
+    public Matrix4 multiplyByMatrix() {
+        return this.result.set(this.projection).multiplyByMatrix(this.modelview);
+    }
+
+    @Benchmark
+    public Matrix4 setToMultiply() {
+        return this.result.setToMultiply(this.projection, this.modelview);
+    }
+}
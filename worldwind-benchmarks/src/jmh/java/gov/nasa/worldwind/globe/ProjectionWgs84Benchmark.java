@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.globe;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.geom.Vec3;
+
+/**
+ * Measures the conversion of a terrain tile's height grid to Cartesian points, laid out as BasicTessellator lays out
+ * tile points: a grid surrounded by a one point border, relative to the tile's origin.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProjectionWgs84Benchmark {
+
+    @Param({"32", "64"})
+    public int tileSize;
+
+    private ProjectionWgs84 projection;
+
+    private Globe globe;
+
+    private final Sector sector = Sector.fromDegrees(36.0, -112.5, 0.25, 0.25); // tile over the Grand Canyon
+
+    private final Vec3 origin = new Vec3();
+
+    private float[] heights;
+
+    private float[] points;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.projection = new ProjectionWgs84();
+        this.globe = new Globe(WorldWind.WGS84_ELLIPSOID, this.projection);
+        this.globe.geographicToCartesian(this.sector.centroidLatitude(), this.sector.centroidLongitude(), 0, this.origin);
+
+        Random random = new Random(1);
+        this.heights = new float[this.tileSize * this.tileSize];
+        for (int idx = 0; idx < this.heights.length; idx++) {
+            this.heights[idx] = 700 + random.nextFloat() * 2000;
+        }
+
+        this.points = new float[(this.tileSize + 2) * (this.tileSize + 2) * 3];
+    }
+
+    @Benchmark
+    public float[] geographicToCartesianGrid() {
+        int rowStride = (this.tileSize + 2) * 3;
+        return this.projection.geographicToCartesianGrid(this.globe, this.sector, this.tileSize, this.tileSize,
+            this.heights, 1, this.origin, this.points, rowStride + 3, rowStride);
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.globe;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.geom.TileMatrix;
+import gov.nasa.worldwind.geom.TileMatrixSet;
+import gov.nasa.worldwind.render.ImageSource;
+
+/**
+ * Measures reading a 32 x 32 terrain tile's heights from an elevation coverage whose tiles are already in memory. The
+ * coverage is a three level pyramid of 256 x 256 tiles over a 1 degree sector, filled with random heights, and the
+ * terrain tile straddles the coverage's tile boundaries so each read spans four coverage tiles.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TiledElevationCoverageBenchmark {
+
+    private static final int GRID_SIZE = 32;
+
+    private static final int LOCATION_COUNT = 1000;
+
+    private TiledElevationCoverage coverage;
+
+    private final Sector gridSector = Sector.fromDegrees(36.375, -112.625, 0.25, 0.25);
+
+    private final TiledElevationCoverage.TileBlock tileBlock = new TiledElevationCoverage.TileBlock();
+
+    private final float[] heights = new float[GRID_SIZE * GRID_SIZE];
+
+    private final double[] latitudes = new double[LOCATION_COUNT];
+
+    private final double[] longitudes = new double[LOCATION_COUNT];
+
+    private final float[] locationHeights = new float[LOCATION_COUNT];
+
+    private final float[] locationHeight = new float[1];
+
+    private final float[] heightLimits = new float[2];
+
+    private final Sector locationSector = new Sector();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.coverage = new TiledElevationCoverage();
+        this.coverage.setTileMatrixSet(TileMatrixSet.fromTilePyramid(Sector.fromDegrees(36, -113, 1, 1), 1, 1, 256, 256, 3));
+        this.coverage.setTileFactory((tileMatrix, row, column) ->
+            ImageSource.fromUrl("https://localhost/" + tileMatrix.ordinal + "/" + row + "/" + column));
+
+        // Put every coverage tile in the coverage cache, avoiding retrieval.
+        Random random = new Random(1);
+        TileMatrixSet tileMatrixSet = this.coverage.getTileMatrixSet();
+        for (int idx = 0, len = tileMatrixSet.count(); idx < len; idx++) {
+            TileMatrix tileMatrix = tileMatrixSet.matrix(idx);
+            for (int row = 0; row < tileMatrix.matrixHeight; row++) {
+                for (int col = 0; col < tileMatrix.matrixWidth; col++) {
+                    short[] tileArray = new short[tileMatrix.tileWidth * tileMatrix.tileHeight];
+                    for (int pos = 0; pos < tileArray.length; pos++) {
+                        tileArray[pos] = (short) (700 + random.nextInt(2000));
+                    }
+                    ImageSource tileSource = this.coverage.tileFactory.createTileSource(tileMatrix, row, col);
+                    this.coverage.coverageCache.put(tileSource, tileArray, tileArray.length * 2);
+                }
+            }
+        }
+
+        // A track winding across the coverage, as when clamping a route to the terrain.
+        for (int idx = 0; idx < LOCATION_COUNT; idx++) {
+            double f = (double) idx / LOCATION_COUNT;
+            this.latitudes[idx] = 36.1 + 0.8 * f;
+            this.longitudes[idx] = -112.5 + 0.4 * Math.sin(f * 6 * Math.PI);
+        }
+
+        TileMatrix lastMatrix = tileMatrixSet.matrix(tileMatrixSet.count() - 1);
+        this.coverage.fetchTileBlock(this.gridSector, GRID_SIZE, GRID_SIZE, lastMatrix, this.tileBlock);
+    }
+
+    /**
+     * Reads heights through the public API, including selecting the tile matrix and gathering coverage tiles.
+     */
+    @Benchmark
+    public float[] getHeightGrid() {
+        this.coverage.getHeightGrid(this.gridSector, GRID_SIZE, GRID_SIZE, this.heights);
+        return this.heights;
+    }
+
+    /**
+     * Reads heights from a block of coverage tiles gathered in advance, isolating the bilinear interpolation.
+     */
+    @Benchmark
+    public float[] readHeightGrid() {
+        this.coverage.readHeightGrid(this.gridSector, GRID_SIZE, GRID_SIZE, this.tileBlock, this.heights);
+        return this.heights;
+    }
+
+    /**
+     * Reads the height limits of the terrain tile's sector, as Tile.getExtent does when the elevation model changes.
+     * Coverage tiles' height limit pyramids are built on the first call.
+     */
+    @Benchmark
+    public float[] getHeightLimits() {
+        this.heightLimits[0] = Float.MAX_VALUE;
+        this.heightLimits[1] = -Float.MAX_VALUE;
+        this.coverage.getHeightLimits(this.gridSector, this.heightLimits);
+        return this.heightLimits;
+    }
+
+    /**
+     * Reads the heights at a batch of locations, grouping the locations by coverage tile.
+     */
+    @Benchmark
+    public float[] getHeights() {
+        this.coverage.getHeights(this.latitudes, this.longitudes, LOCATION_COUNT, this.locationHeights);
+        return this.locationHeights;
+    }
+
+    /**
+     * Reads the heights at the same locations one at a time, as Globe.getElevationAtLocation does.
+     */
+    @Benchmark
+    public float[] getHeightGridPerLocation() {
+        for (int idx = 0; idx < LOCATION_COUNT; idx++) {
+            this.locationSector.set(this.latitudes[idx], this.longitudes[idx], 1E-15, 1E-15);
+            this.coverage.getHeightGrid(this.locationSector, 1, 1, this.locationHeight);
+            this.locationHeights[idx] = this.locationHeight[0];
+        }
+        return this.locationHeights;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.ogc.wms;
+
+import org.kxml2.io.KXmlParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.xmlpull.v1.XmlPullParser;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing a large WMS 1.3.0 capabilities document into WMS models, as WmsCapabilities.getCapabilities does.
+ * The document is generated with the specified number of named layers, each with a title, an abstract, keywords, a
+ * list of CRS, bounding boxes and a style, resembling a national catalog. Two thousand layers make a document of
+ * about 3 MB. The pull parser is kXML, the parser Android's Xml.newPullParser returns.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class WmsCapabilitiesBenchmark {
+
+    @Param({"200", "2000"})
+    public int layerCount;
+
+    private byte[] document;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        StringBuilder xml = new StringBuilder();
+        xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        xml.append("<WMS_Capabilities version=\"1.3.0\" xmlns=\"http://www.opengis.net/wms\"\n");
+        xml.append("    xmlns:xlink=\"http://www.w3.org/1999/xlink\">\n");
+        xml.append("  <Service>\n    <Name>WMS</Name>\n    <Title>Benchmark Catalog</Title>\n  </Service>\n");
+        xml.append("  <Capability>\n    <Request>\n      <GetMap>\n        <Format>image/png</Format>\n");
+        xml.append("        <DCPType><HTTP><Get><OnlineResource xlink:type=\"simple\"");
+        xml.append(" xlink:href=\"https://example.com/wms?\"/></Get></HTTP></DCPType>\n");
+        xml.append("      </GetMap>\n    </Request>\n");
+        xml.append("    <Layer>\n      <Title>Root</Title>\n      <CRS>EPSG:4326</CRS>\n      <CRS>CRS:84</CRS>\n");
+        for (int idx = 0; idx < this.layerCount; idx++) {
+            double west = -180 + (idx % 36) * 10, south = -90 + (idx / 36 % 18) * 10;
+            xml.append("      <Layer queryable=\"1\" opaque=\"0\">\n");
+            xml.append("        <Name>catalog:layer_").append(idx).append("</Name>\n");
+            xml.append("        <Title>Catalog Layer ").append(idx).append("</Title>\n");
+            xml.append("        <Abstract>\n          Imagery and derived products for catalog layer ").append(idx);
+            xml.append(", collected from multiple\n          sources and mosaicked to a common resolution.\n");
+            xml.append("        </Abstract>\n");
+            xml.append("        <KeywordList>\n          <Keyword>imagery</Keyword>\n          <Keyword>mosaic</Keyword>\n");
+            xml.append("          <Keyword>layer ").append(idx).append("</Keyword>\n        </KeywordList>\n");
+            for (int crs = 0; crs < 8; crs++) {
+                xml.append("        <CRS>EPSG:").append(32601 + crs).append("</CRS>\n");
+            }
+            xml.append("        <EX_GeographicBoundingBox>\n");
+            xml.append("          <westBoundLongitude>").append(west).append("</westBoundLongitude>\n");
+            xml.append("          <eastBoundLongitude>").append(west + 10).append("</eastBoundLongitude>\n");
+            xml.append("          <southBoundLatitude>").append(south).append("</southBoundLatitude>\n");
+            xml.append("          <northBoundLatitude>").append(south + 10).append("</northBoundLatitude>\n");
+            xml.append("        </EX_GeographicBoundingBox>\n");
+            xml.append("        <BoundingBox CRS=\"CRS:84\" minx=\"").append(west).append("\" miny=\"").append(south);
+            xml.append("\" maxx=\"").append(west + 10).append("\" maxy=\"").append(south + 10).append("\"/>\n");
+            xml.append("        <BoundingBox CRS=\"EPSG:4326\" minx=\"").append(south).append("\" miny=\"").append(west);
+            xml.append("\" maxx=\"").append(south + 10).append("\" maxy=\"").append(west + 10).append("\"/>\n");
+            xml.append("        <Style>\n          <Name>default</Name>\n          <Title>Default</Title>\n");
+            xml.append("          <LegendURL width=\"20\" height=\"20\">\n            <Format>image/png</Format>\n");
+            xml.append("            <OnlineResource xlink:type=\"simple\" xlink:href=\"https://example.com/legend?layer=");
+            xml.append(idx).append("\"/>\n          </LegendURL>\n        </Style>\n");
+            xml.append("      </Layer>\n");
+        }
+        xml.append("    </Layer>\n  </Capability>\n</WMS_Capabilities>\n");
+
+        this.document = xml.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Object parse() throws Exception {
+        XmlPullParser pullParser = new KXmlParser();
+        pullParser.setFeature(XmlPullParser.FEATURE_PROCESS_NAMESPACES, true); // as Android's Xml.newPullParser
+        pullParser.setInput(new ByteArrayInputStream(this.document), null /*inputEncoding*/);
+
+        WmsXmlParser modelParser = new WmsXmlParser();
+        modelParser.setPullParser(pullParser);
+        return modelParser.parse();
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares LruMemoryCache against the sorting implementation it replaced, {@link SortedLruMemoryCache}. Each cache is
+ * filled to capacity with unit sized entries, so every put of a new key beyond that point exercises eviction.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LruMemoryCacheBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int entryCount;
+
+    private Integer[] keys;
+
+    private int[] hitOrder;
+
+    private int hitIndex;
+
+    private int nextKey;
+
+    private LruMemoryCache<Integer, Object> linkedCache;
+
+    private SortedLruMemoryCache<Integer, Object> sortedCache;
+
+    private final Object value = new Object();
+
+    @Setup(Level.Trial)
+    public void setUpKeys() {
+        // Allocate enough keys for the initial contents plus the new keys put during the measured iterations.
+        this.keys = new Integer[this.entryCount * 8];
+        for (int idx = 0; idx < this.keys.length; idx++) {
+            this.keys[idx] = idx;
+        }
+
+        Random random = new Random(1);
+        this.hitOrder = new int[4096];
+        for (int idx = 0; idx < this.hitOrder.length; idx++) {
+            this.hitOrder[idx] = random.nextInt(this.entryCount);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpCaches() {
+        this.linkedCache = new LruMemoryCache<>(this.entryCount);
+        this.sortedCache = new SortedLruMemoryCache<>(this.entryCount);
+
+        for (int idx = 0; idx < this.entryCount; idx++) {
+            this.linkedCache.put(this.keys[idx], this.value, 1);
+            this.sortedCache.put(this.keys[idx], this.value, 1);
+        }
+
+        this.hitIndex = 0;
+        this.nextKey = this.entryCount;
+    }
+
+    @Benchmark
+    public Object getLinked() {
+        return this.linkedCache.get(this.keys[this.hitOrder[this.hitIndex++ & (this.hitOrder.length - 1)]]);
+    }
+
+    @Benchmark
+    public Object getSorted() {
+        return this.sortedCache.get(this.keys[this.hitOrder[this.hitIndex++ & (this.hitOrder.length - 1)]]);
+    }
+
+    @Benchmark
+    public Object putWithEvictionLinked() {
+        return this.linkedCache.put(this.nextKey(), this.value, 1);
+    }
+
+    @Benchmark
+    public Object putWithEvictionSorted() {
+        return this.sortedCache.put(this.nextKey(), this.value, 1);
+    }
+
+    private Integer nextKey() {
+        if (this.nextKey == this.keys.length) {
+            this.nextKey = this.entryCount; // wrap around; keys that old have been evicted long ago
+        }
+
+        return this.keys[this.nextKey++];
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util.glu;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures tessellating a polygon into triangles the way Polygon does: a concave, star shaped outer boundary with a
+ * noisy edge, and a square hole, with the vertex, combine, edge flag and error callbacks registered.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GLUTessellatorBenchmark {
+
+    @Param({"100", "1000"})
+    public int boundaryVertexCount;
+
+    private GLUtessellator tess;
+
+    private double[][] boundaries;
+
+    private int vertexCount;
+
+    private final GLUtessellatorCallbackAdapter callback = new GLUtessellatorCallbackAdapter() {
+        @Override
+        public void combineData(double[] coords, Object[] data, float[] weight, Object[] outData, Object polygonData) {
+            outData[0] = coords.clone();
+        }
+
+        @Override
+        public void vertexData(Object vertexData, Object polygonData) {
+            vertexCount++;
+        }
+
+        @Override
+        public void edgeFlagData(boolean boundaryEdge, Object polygonData) {
+        }
+
+        @Override
+        public void errorData(int errnum, Object polygonData) {
+            throw new IllegalStateException("GLU tessellation error " + errnum);
+        }
+    };
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.tess = GLU.gluNewTess();
+        GLU.gluTessNormal(this.tess, 0, 0, 1);
+        GLU.gluTessCallback(this.tess, GLU.GLU_TESS_COMBINE_DATA, this.callback);
+        GLU.gluTessCallback(this.tess, GLU.GLU_TESS_VERTEX_DATA, this.callback);
+        GLU.gluTessCallback(this.tess, GLU.GLU_TESS_EDGE_FLAG_DATA, this.callback);
+        GLU.gluTessCallback(this.tess, GLU.GLU_TESS_ERROR_DATA, this.callback);
+
+        Random random = new Random(1);
+        double[] outer = new double[this.boundaryVertexCount * 3];
+        for (int idx = 0, pos = 0; idx < this.boundaryVertexCount; idx++) {
+            double angle = 2 * Math.PI * idx / this.boundaryVertexCount;
+            double radius = (idx % 2 == 0 ? 100 : 60) + random.nextDouble() * 10; // alternate tips and notches
+            outer[pos++] = radius * Math.cos(angle);
+            outer[pos++] = radius * Math.sin(angle);
+            outer[pos++] = 0;
+        }
+
+        double[] hole = {-20, -20, 0, -20, 20, 0, 20, 20, 0, 20, -20, 0}; // clockwise
+
+        this.boundaries = new double[][] {outer, hole};
+    }
+
+    @Benchmark
+    public int tessellate() {
+        this.vertexCount = 0;
+        GLU.gluTessBeginPolygon(this.tess, this);
+
+        for (double[] boundary : this.boundaries) {
+            GLU.gluTessBeginContour(this.tess);
+            for (int pos = 0; pos < boundary.length; pos += 3) {
+                GLU.gluTessVertex(this.tess, boundary, pos, boundary);
+            }
+            GLU.gluTessEndContour(this.tess);
+        }
+
+        GLU.gluTessEndPolygon(this.tess);
+        return this.vertexCount;
+    }
+}
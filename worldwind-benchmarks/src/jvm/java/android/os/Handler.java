@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package android.os;
+
+/**
+ * JVM implementation of the Android handler, used by the benchmarks in place of the android.jar stub. The benchmarks
+ * have no message loop, so posted messages and runnables are never delivered. Benchmarked code paths may create
+ * handlers, but must not depend on them.
+ */
+public class Handler {
+
+    public interface Callback {
+
+        boolean handleMessage(Message msg);
+    }
+
+    private final Looper looper;
+
+    private final Callback callback;
+
+    public Handler() {
+        this(Looper.getMainLooper(), null);
+    }
+
+    public Handler(Looper looper) {
+        this(looper, null);
+    }
+
+    public Handler(Looper looper, Callback callback) {
+        this.looper = looper;
+        this.callback = callback;
+    }
+
+    public final Looper getLooper() {
+        return this.looper;
+    }
+
+    public void handleMessage(Message msg) {
+    }
+
+    public final boolean post(Runnable r) {
+        return false;
+    }
+
+    public final boolean postDelayed(Runnable r, long delayMillis) {
+        return false;
+    }
+
+    public final boolean sendMessage(Message msg) {
+        return false;
+    }
+
+    public final boolean sendEmptyMessage(int what) {
+        return false;
+    }
+
+    public final boolean sendEmptyMessageDelayed(int what, long delayMillis) {
+        return false;
+    }
+
+    public final boolean hasMessages(int what) {
+        return false;
+    }
+
+    public final void removeMessages(int what) {
+    }
+
+    public final Message obtainMessage(int what, Object obj) {
+        Message msg = Message.obtain();
+        msg.what = what;
+        msg.obj = obj;
+        return msg;
+    }
+}
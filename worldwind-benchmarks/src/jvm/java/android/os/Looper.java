@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package android.os;
+
+/**
+ * JVM implementation of the Android looper, used by the benchmarks in place of the android.jar stub. The benchmarks
+ * have no main thread message loop; the main looper exists only so that library classes can create handlers.
+ */
+public final class Looper {
+
+    private static final Looper mainLooper = new Looper(Thread.currentThread());
+
+    private final Thread thread;
+
+    private Looper(Thread thread) {
+        this.thread = thread;
+    }
+
+    public static Looper getMainLooper() {
+        return mainLooper;
+    }
+
+    public static Looper myLooper() {
+        return null;
+    }
+
+    public Thread getThread() {
+        return this.thread;
+    }
+}
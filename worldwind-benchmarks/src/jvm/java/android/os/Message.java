@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package android.os;
+
+/**
+ * JVM implementation of the Android message, used by the benchmarks in place of the android.jar stub.
+ */
+public final class Message {
+
+    public int what;
+
+    public int arg1;
+
+    public int arg2;
+
+    public Object obj;
+
+    public Message() {
+    }
+
+    public static Message obtain() {
+        return new Message();
+    }
+
+    public static Message obtain(Handler target, int what, Object obj) {
+        Message msg = new Message();
+        msg.what = what;
+        msg.obj = obj;
+        return msg;
+    }
+}
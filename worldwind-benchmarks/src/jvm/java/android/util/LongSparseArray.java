@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package android.util;
+
+import java.util.Arrays;
+
+/**
+ * JVM implementation of the Android long sparse array, used by the benchmarks in place of the android.jar stub. Keys
+ * are kept sorted in a primitive array and found by binary search, as in the Android implementation.
+ */
+public class LongSparseArray<E> {
+
+    private long[] keys;
+
+    private Object[] values;
+
+    private int size;
+
+    public LongSparseArray() {
+        this(10);
+    }
+
+    public LongSparseArray(int initialCapacity) {
+        this.keys = new long[Math.max(initialCapacity, 1)];
+        this.values = new Object[Math.max(initialCapacity, 1)];
+    }
+
+    public E get(long key) {
+        return this.get(key, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    public E get(long key, E valueIfKeyNotFound) {
+        int index = Arrays.binarySearch(this.keys, 0, this.size, key);
+        return (index >= 0) ? (E) this.values[index] : valueIfKeyNotFound;
+    }
+
+    public void put(long key, E value) {
+        int index = Arrays.binarySearch(this.keys, 0, this.size, key);
+        if (index >= 0) {
+            this.values[index] = value;
+            return;
+        }
+
+        index = ~index;
+        if (this.size == this.keys.length) {
+            this.keys = Arrays.copyOf(this.keys, this.size * 2);
+            this.values = Arrays.copyOf(this.values, this.size * 2);
+        }
+
+        System.arraycopy(this.keys, index, this.keys, index + 1, this.size - index);
+        System.arraycopy(this.values, index, this.values, index + 1, this.size - index);
+        this.keys[index] = key;
+        this.values[index] = value;
+        this.size++;
+    }
+
+    public void remove(long key) {
+        int index = Arrays.binarySearch(this.keys, 0, this.size, key);
+        if (index >= 0) {
+            System.arraycopy(this.keys, index + 1, this.keys, index, this.size - index - 1);
+            System.arraycopy(this.values, index + 1, this.values, index, this.size - index - 1);
+            this.values[--this.size] = null;
+        }
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public long keyAt(int index) {
+        return this.keys[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    public E valueAt(int index) {
+        return (E) this.values[index];
+    }
+
+    public void clear() {
+        Arrays.fill(this.values, 0, this.size, null);
+        this.size = 0;
+    }
+}
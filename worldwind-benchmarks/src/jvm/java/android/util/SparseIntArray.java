@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package android.util;
+
+import java.util.Arrays;
+
+/**
+ * JVM implementation of the Android sparse int array, used by the benchmarks in place of the android.jar stub. Keys are
+ * kept sorted in a primitive array and found by binary search, as in the Android implementation.
+ */
+public class SparseIntArray {
+
+    private int[] keys;
+
+    private int[] values;
+
+    private int size;
+
+    public SparseIntArray() {
+        this(10);
+    }
+
+    public SparseIntArray(int initialCapacity) {
+        this.keys = new int[Math.max(initialCapacity, 1)];
+        this.values = new int[Math.max(initialCapacity, 1)];
+    }
+
+    public int get(int key) {
+        return this.get(key, 0);
+    }
+
+    public int get(int key, int valueIfKeyNotFound) {
+        int index = Arrays.binarySearch(this.keys, 0, this.size, key);
+        return (index >= 0) ? this.values[index] : valueIfKeyNotFound;
+    }
+
+    public void put(int key, int value) {
+        int index = Arrays.binarySearch(this.keys, 0, this.size, key);
+        if (index >= 0) {
+            this.values[index] = value;
+            return;
+        }
+
+        index = ~index;
+        if (this.size == this.keys.length) {
+            this.keys = Arrays.copyOf(this.keys, this.size * 2);
+            this.values = Arrays.copyOf(this.values, this.size * 2);
+        }
+
+        System.arraycopy(this.keys, index, this.keys, index + 1, this.size - index);
+        System.arraycopy(this.values, index, this.values, index + 1, this.size - index);
+        this.keys[index] = key;
+        this.values[index] = value;
+        this.size++;
+    }
+
+    public void append(int key, int value) {
+        if (this.size > 0 && key <= this.keys[this.size - 1]) {
+            this.put(key, value);
+            return;
+        }
+
+        if (this.size == this.keys.length) {
+            this.keys = Arrays.copyOf(this.keys, this.size * 2);
+            this.values = Arrays.copyOf(this.values, this.size * 2);
+        }
+
+        this.keys[this.size] = key;
+        this.values[this.size] = value;
+        this.size++;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public int keyAt(int index) {
+        return this.keys[index];
+    }
+
+    public int valueAt(int index) {
+        return this.values[index];
+    }
+
+    public int indexOfKey(int key) {
+        return Arrays.binarySearch(this.keys, 0, this.size, key);
+    }
+
+    public void clear() {
+        this.size = 0;
+    }
+}
@@ -7,8 +7,6 @@ package gov.nasa.worldwind;
 
 import android.opengl.GLES20;
 
-import java.util.Set;
-
 import gov.nasa.worldwind.draw.DrawContext;
 import gov.nasa.worldwind.draw.Drawable;
 import gov.nasa.worldwind.draw.DrawableSurfaceColor;
@@ -17,6 +15,7 @@ import gov.nasa.worldwind.geom.Vec3;
 import gov.nasa.worldwind.render.BasicShaderProgram;
 import gov.nasa.worldwind.render.Color;
 import gov.nasa.worldwind.render.RenderContext;
+import gov.nasa.worldwind.util.IntSet;
 import gov.nasa.worldwind.util.Logger;
 import gov.nasa.worldwind.util.Pool;
 
@@ -24,6 +23,10 @@ public class BasicFrameController implements FrameController {
 
     private Color pickColor;
 
+    private final IntSet pickIdentifiers = new IntSet();
+
+    private int[] pickIdentifierArray;
+
     private final Vec3 pickPoint = new Vec3();
 
     private final Position pickPos = new Position();
@@ -61,6 +64,12 @@ public class BasicFrameController implements FrameController {
         }
         rc.offerSurfaceDrawable(drawable, Double.NEGATIVE_INFINITY /*z-order before all other surface drawables*/);
 
+        // When drawing a pick buffer, record the terrain and its picked object ID. Pick buffer queries intersect the
+        // terrain with each query's pick ray.
+        if (rc.pickBuffer != null) {
+            rc.pickBuffer.setTerrain(rc.terrain, pickedObjectId);
+        }
+
         // If the pick ray intersects the terrain, enqueue a picked object that associates the terrain drawable with its
         // picked object ID and the intersection position.
         if (rc.pickRay != null && rc.terrain.intersect(rc.pickRay, this.pickPoint)) {
@@ -74,7 +83,9 @@ public class BasicFrameController implements FrameController {
         this.clearFrame(dc);
         this.drawDrawables(dc);
 
-        if (dc.pickMode && dc.pickPoint != null) {
+        if (dc.pickMode && dc.pickBuffer != null) {
+            dc.pickBuffer.readIdentifiers(dc);
+        } else if (dc.pickMode && dc.pickPoint != null) {
             this.resolvePick(dc);
         } else if (dc.pickMode) {
             this.resolvePickRect(dc);
@@ -132,18 +143,16 @@ public class BasicFrameController implements FrameController {
             return; // no eligible objects; avoid expensive calls to glReadPixels
         }
 
-        // Read the unique fragment colors in the pick rectangle.
-        Set<Color> pickColors = dc.readPixelColors(dc.pickViewport.x, dc.pickViewport.y, dc.pickViewport.width, dc.pickViewport.height);
-
-        for (Color pickColor : pickColors) {
-            // Convert the fragment color to a picked object ID. This returns zero if the color cannot indicate a picked
-            // object ID.
-            int topObjectId = PickedObject.uniqueColorToIdentifier(pickColor);
-            if (topObjectId != 0) {
-                PickedObject topObject = dc.pickedObjects.pickedObjectWithId(topObjectId);
-                if (topObject != null) {
-                    topObject.markOnTop();
-                }
+        // Read the unique picked object IDs in the pick rectangle. This excludes the zero ID, which indicates that no
+        // objects have been drawn.
+        IntSet pickIds = dc.readPixelIdentifiers(dc.pickViewport.x, dc.pickViewport.y, dc.pickViewport.width, dc.pickViewport.height,
+            this.pickIdentifiers.clear());
+        int[] pickIdArray = this.pickIdentifierArray = pickIds.toArray(this.pickIdentifierArray);
+
+        for (int idx = 0, len = pickIds.size(); idx < len; idx++) {
+            PickedObject topObject = dc.pickedObjects.pickedObjectWithId(pickIdArray[idx]);
+            if (topObject != null) {
+                topObject.markOnTop();
             }
         }
 
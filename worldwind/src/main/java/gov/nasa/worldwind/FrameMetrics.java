@@ -23,6 +23,8 @@ public class FrameMetrics {
 
     protected final CacheMetrics renderResourceCacheMetrics = new CacheMetrics();
 
+    protected final UploadMetrics uploadMetrics = new UploadMetrics();
+
     public FrameMetrics() {
     }
 
@@ -76,6 +78,43 @@ public class FrameMetrics {
         }
     }
 
+    /**
+     * Returns the number of bytes uploaded to OpenGL during the most recent frame draw.
+     */
+    public int getUploadedBytes() {
+        synchronized (this.drawLock) {
+            return this.uploadMetrics.uploadedBytes;
+        }
+    }
+
+    /**
+     * Returns the number of bytes uploaded to OpenGL since the metrics were last reset.
+     */
+    public long getUploadedBytesTotal() {
+        synchronized (this.drawLock) {
+            return this.uploadMetrics.uploadedBytesSum;
+        }
+    }
+
+    /**
+     * Returns the number of texture uploads deferred to a subsequent frame during the most recent frame draw, because
+     * the frame's upload budget was exhausted.
+     */
+    public int getDeferredUploadCount() {
+        synchronized (this.drawLock) {
+            return this.uploadMetrics.deferredCount;
+        }
+    }
+
+    /**
+     * Returns the number of texture uploads deferred to a subsequent frame since the metrics were last reset.
+     */
+    public long getDeferredUploadCountTotal() {
+        synchronized (this.drawLock) {
+            return this.uploadMetrics.deferredCountSum;
+        }
+    }
+
     public int getRenderResourceCacheCapacity() {
         return this.renderResourceCacheMetrics.capacity;
     }
@@ -98,6 +137,10 @@ public class FrameMetrics {
         this.printTimeMetrics(this.drawMetrics, sb);
         sb.append("}, renderResourceCacheMetrics={");
         this.printCacheMetrics(this.renderResourceCacheMetrics, sb);
+        sb.append("}, uploadMetrics={");
+        synchronized (this.drawLock) {
+            this.printUploadMetrics(this.uploadMetrics, sb);
+        }
         sb.append("}");
 
         return sb.toString();
@@ -128,6 +171,7 @@ public class FrameMetrics {
 
         synchronized (this.drawLock) {
             this.markEnd(this.drawMetrics, now);
+            this.assembleUploadMetrics(this.uploadMetrics, dc);
         }
     }
 
@@ -136,6 +180,7 @@ public class FrameMetrics {
 
         synchronized (this.drawLock) {
             this.resetTimeMetrics(this.drawMetrics);
+            this.resetUploadMetrics(this.uploadMetrics);
         }
     }
 
@@ -181,12 +226,32 @@ public class FrameMetrics {
         metrics.entryCount = cache.getEntryCount();
     }
 
+    protected void assembleUploadMetrics(UploadMetrics metrics, DrawContext dc) {
+        metrics.uploadedBytes = dc.getUploadedBytes();
+        metrics.uploadedBytesSum += metrics.uploadedBytes;
+        metrics.deferredCount = dc.getDeferredUploadCount();
+        metrics.deferredCountSum += metrics.deferredCount;
+    }
+
+    protected void resetUploadMetrics(UploadMetrics metrics) {
+        // reset the metrics collected across multiple frames
+        metrics.uploadedBytesSum = 0;
+        metrics.deferredCountSum = 0;
+    }
+
     protected void printCacheMetrics(CacheMetrics metrics, StringBuilder out) {
         out.append("capacity=").append(String.format(Locale.US, "%,.0f", metrics.capacity / 1024.0)).append("KB");
         out.append(", usedCapacity=").append(String.format(Locale.US, "%,.0f", metrics.usedCapacity / 1024.0)).append("KB");
         out.append(", entryCount=").append(metrics.entryCount);
     }
 
+    protected void printUploadMetrics(UploadMetrics metrics, StringBuilder out) {
+        out.append("lastUploaded=").append(String.format(Locale.US, "%,.0f", metrics.uploadedBytes / 1024.0)).append("KB");
+        out.append(", totalUploaded=").append(String.format(Locale.US, "%,.0f", metrics.uploadedBytesSum / 1024.0)).append("KB");
+        out.append(", lastDeferred=").append(metrics.deferredCount);
+        out.append(", totalDeferred=").append(metrics.deferredCountSum);
+    }
+
     protected void printTimeMetrics(TimeMetrics metrics, StringBuilder out) {
         out.append("lastTime=").append(metrics.time).append("ms");
         out.append(", totalTime=").append(metrics.timeSum).append("ms");
@@ -204,6 +269,17 @@ public class FrameMetrics {
         public int entryCount;
     }
 
+    protected static class UploadMetrics {
+
+        public int uploadedBytes;
+
+        public long uploadedBytesSum;
+
+        public int deferredCount;
+
+        public long deferredCountSum;
+    }
+
     protected static class TimeMetrics {
 
         public long begin;
@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind;
+
+import gov.nasa.worldwind.draw.DrawContext;
+import gov.nasa.worldwind.geom.Matrix4;
+import gov.nasa.worldwind.geom.Viewport;
+import gov.nasa.worldwind.globe.Terrain;
+import gov.nasa.worldwind.util.Logger;
+
+/**
+ * The picked object identifiers drawn across a WorldWindow's entire viewport, retained to resolve many pick queries
+ * from a single pick frame. A pick buffer is drawn at a fraction of the viewport's resolution; each buffer pixel holds
+ * the identifier of the top object drawn at the corresponding screen pixels, or 0 if nothing was drawn there.
+ * <p>
+ * The buffer records the viewport and viewing matrices it was drawn with, and the scene version it was drawn for.
+ * WorldWindow discards the buffer when any of these change. See {@link WorldWindow#setPickBufferEnabled(boolean)}.
+ */
+public class PickBuffer {
+
+    protected double scale = 0.5;
+
+    protected final Viewport viewport = new Viewport();
+
+    protected final Matrix4 projection = new Matrix4();
+
+    protected final Matrix4 modelview = new Matrix4();
+
+    protected int sceneVersion;
+
+    protected int width;
+
+    protected int height;
+
+    protected int[] identifiers = new int[0];
+
+    protected PickedObjectList pickedObjects;
+
+    protected Terrain terrain;
+
+    protected int terrainIdentifier;
+
+    protected boolean complete;
+
+    public PickBuffer() {
+    }
+
+    /**
+     * Returns the resolution of this buffer relative to the viewport.
+     */
+    public double getScale() {
+        return this.scale;
+    }
+
+    /**
+     * Sets the resolution of this buffer relative to the viewport. Lower resolutions draw and read fewer pixels, at the
+     * cost of missing objects smaller than a buffer pixel.
+     *
+     * @param scale the buffer's resolution relative to the viewport, greater than 0 and at most 1
+     *
+     * @throws IllegalArgumentException If the scale is not in the range (0, 1]
+     */
+    public void setScale(double scale) {
+        if (!(scale > 0 && scale <= 1)) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "PickBuffer", "setScale", "invalidScale"));
+        }
+
+        this.scale = scale;
+        this.invalidate();
+    }
+
+    public int getWidth() {
+        return this.width;
+    }
+
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * Indicates whether this buffer has been drawn for a specified viewport, viewing matrices and scene version.
+     */
+    public boolean isValid(Viewport viewport, Matrix4 projection, Matrix4 modelview, int sceneVersion) {
+        return this.complete &&
+            this.sceneVersion == sceneVersion &&
+            this.viewport.equals(viewport) &&
+            this.projection.equals(projection) &&
+            this.modelview.equals(modelview);
+    }
+
+    /**
+     * Discards this buffer's contents. The buffer must be drawn again before it can resolve pick queries.
+     */
+    public void invalidate() {
+        this.complete = false;
+        this.pickedObjects = null;
+        this.terrain = null;
+        this.terrainIdentifier = 0;
+    }
+
+    /**
+     * Prepares this buffer to be drawn for a specified viewport, viewing matrices and scene version. The buffer is not
+     * valid until the pick frame that draws it completes.
+     */
+    protected void reset(Viewport viewport, Matrix4 projection, Matrix4 modelview, int sceneVersion,
+                         PickedObjectList pickedObjects) {
+        this.invalidate();
+        this.viewport.set(viewport);
+        this.projection.set(projection);
+        this.modelview.set(modelview);
+        this.sceneVersion = sceneVersion;
+        this.width = Math.max(1, (int) Math.ceil(viewport.width * this.scale));
+        this.height = Math.max(1, (int) Math.ceil(viewport.height * this.scale));
+        this.pickedObjects = pickedObjects;
+
+        int pixelCount = this.width * this.height;
+        if (this.identifiers.length != pixelCount) {
+            this.identifiers = new int[pixelCount];
+        }
+    }
+
+    /**
+     * Reads this buffer's identifiers from the pick frame drawn in the currently active OpenGL frame buffer, completing
+     * the buffer. The pick frame must be drawn in a viewport at the frame buffer's origin with this buffer's width and
+     * height. This is called on the OpenGL thread by the frame controller.
+     *
+     * @param dc the draw context that drew the pick frame
+     */
+    public void readIdentifiers(DrawContext dc) {
+        dc.readPixelIdentifiers(0, 0, this.width, this.height, this.identifiers);
+        this.complete = true;
+    }
+
+    /**
+     * Returns the identifier drawn at a point in OpenGL screen coordinates, or 0 if nothing was drawn at the point or
+     * the point is outside the buffer's viewport.
+     */
+    public int identifierAt(int x, int y) {
+        int col = this.bufferColumn(x), row = this.bufferRow(y);
+        if (col < 0 || col >= this.width || row < 0 || row >= this.height) {
+            return 0;
+        }
+
+        return this.identifiers[col + row * this.width];
+    }
+
+    /**
+     * Returns the shape drawn on top at a point in OpenGL screen coordinates, marked as on top, or null if no shape was
+     * drawn at the point.
+     */
+    public PickedObject topShapeAt(int x, int y) {
+        int identifier = this.identifierAt(x, y);
+        PickedObject pickedObject = (identifier != 0 && this.pickedObjects != null) ?
+            this.pickedObjects.pickedObjectWithId(identifier) : null;
+        if (pickedObject == null || pickedObject.isTerrain()) {
+            return null;
+        }
+
+        pickedObject.markOnTop();
+        return pickedObject;
+    }
+
+    /**
+     * Adds the shapes drawn on top within a rectangle in OpenGL screen coordinates to a picked object list, each marked
+     * as on top.
+     */
+    public void topShapesInRect(int x, int y, int width, int height, PickedObjectList result) {
+        if (result == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "PickBuffer", "topShapesInRect", "missingResult"));
+        }
+
+        if (this.pickedObjects == null || this.pickedObjects.count() == 0) {
+            return; // no eligible objects
+        }
+
+        int col0 = Math.max(0, this.bufferColumn(x));
+        int row0 = Math.max(0, this.bufferRow(y));
+        int col1 = Math.min(this.width - 1, this.bufferColumn(x + width - 1));
+        int row1 = Math.min(this.height - 1, this.bufferRow(y + height - 1));
+
+        int lastIdentifier = 0;
+        for (int row = row0; row <= row1; row++) {
+            for (int col = col0, pos = col0 + row * this.width; col <= col1; col++, pos++) {
+                int identifier = this.identifiers[pos];
+                if (identifier == 0 || identifier == lastIdentifier) {
+                    continue; // nothing drawn, or the same object as the previous pixel
+                }
+
+                lastIdentifier = identifier;
+                PickedObject pickedObject = this.pickedObjects.pickedObjectWithId(identifier);
+                if (pickedObject != null && !pickedObject.isTerrain()) {
+                    pickedObject.markOnTop();
+                    result.offerPickedObject(pickedObject); // handles duplicate objects
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the terrain drawn with this buffer. The terrain is valid for intersection on the main thread while this
+     * buffer is valid.
+     */
+    public Terrain getTerrain() {
+        return this.terrain;
+    }
+
+    /**
+     * Returns the picked object identifier the terrain was drawn with, or 0 if the terrain was not drawn.
+     */
+    public int getTerrainIdentifier() {
+        return this.terrainIdentifier;
+    }
+
+    /**
+     * Records the terrain drawn with this buffer and its picked object identifier. Called by the frame controller while
+     * rendering the pick frame that draws this buffer.
+     *
+     * @param terrain    the terrain drawn with this buffer
+     * @param identifier the terrain's picked object identifier
+     */
+    public void setTerrain(Terrain terrain, int identifier) {
+        this.terrain = terrain;
+        this.terrainIdentifier = identifier;
+    }
+
+    protected int bufferColumn(int x) {
+        return (int) Math.floor((x - this.viewport.x) * this.width / (double) this.viewport.width);
+    }
+
+    protected int bufferRow(int y) {
+        return (int) Math.floor((y - this.viewport.y) * this.height / (double) this.viewport.height);
+    }
+}
@@ -0,0 +1,321 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind;
+
+import java.util.Arrays;
+
+import gov.nasa.worldwind.geom.Viewport;
+import gov.nasa.worldwind.layer.Layer;
+import gov.nasa.worldwind.render.Renderable;
+import gov.nasa.worldwind.util.Logger;
+
+/**
+ * The screen rectangles of the screen-space shapes displayed in a WorldWindow frame, such as placemark icons and label
+ * text, indexed to resolve pick queries on the CPU. Shapes offer their screen rectangles while the WorldWindow renders
+ * a frame; see {@link gov.nasa.worldwind.render.RenderContext#offerScreenPickRect(Renderable, Viewport, double)}. The
+ * rectangles are organized into a grid of 64 pixel cells on the first query, so frames that are never queried only
+ * record their rectangles.
+ * <p>
+ * Queries are answered from the rectangles alone, without drawing a pick frame. A shape is therefore picked anywhere
+ * within its screen bounding rectangle, including transparent parts of its image, and even when it is hidden behind
+ * terrain or another shape. Where rectangles overlap, the shape nearest the camera is on top. The index is built and
+ * queried on the main thread.
+ */
+public class ScreenPickIndex {
+
+    protected static final int CELL_SIZE = 64;
+
+    protected static final int MIN_CAPACITY_INCREMENT = 12;
+
+    protected final Viewport viewport = new Viewport();
+
+    protected int count;
+
+    protected Renderable[] renderables = new Renderable[0];
+
+    protected Layer[] layers = new Layer[0];
+
+    /**
+     * The screen rectangle of each entry, as four consecutive values: x, y, width and height.
+     */
+    protected int[] rects = new int[0];
+
+    protected double[] depths = new double[0];
+
+    protected boolean indexed;
+
+    protected int cols;
+
+    protected int rows;
+
+    /**
+     * The position in cellEntries of each cell's first entry. Cell i's entries occupy cellEntries[cellStart[i]] up to
+     * cellEntries[cellStart[i + 1]].
+     */
+    protected int[] cellStart = new int[1];
+
+    protected int[] cellEntries = new int[0];
+
+    protected int[] entryMarks = new int[0];
+
+    protected int queryMark;
+
+    public ScreenPickIndex() {
+    }
+
+    /**
+     * Returns the number of screen rectangles in this index.
+     */
+    public int count() {
+        return this.count;
+    }
+
+    /**
+     * Removes all screen rectangles from this index, and prepares it to index the rectangles of a frame displayed in a
+     * specified viewport.
+     *
+     * @param viewport the viewport the frame is displayed in, in OpenGL screen coordinates
+     *
+     * @throws IllegalArgumentException If the viewport is null
+     */
+    public void reset(Viewport viewport) {
+        if (viewport == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ScreenPickIndex", "reset", "missingViewport"));
+        }
+
+        Arrays.fill(this.renderables, 0, this.count, null); // release references to the previous frame's shapes
+        Arrays.fill(this.layers, 0, this.count, null);
+        this.viewport.set(viewport);
+        this.count = 0;
+        this.indexed = false;
+    }
+
+    /**
+     * Adds a shape's screen rectangle to this index.
+     *
+     * @param renderable     the shape displayed in the rectangle
+     * @param layer          the layer that displayed the shape
+     * @param screenBounds   the shape's screen bounding rectangle in OpenGL screen coordinates
+     * @param cameraDistance the distance from the camera to the shape, which determines the top shape where rectangles
+     *                       overlap
+     *
+     * @throws IllegalArgumentException If any argument is null
+     */
+    public void offerRect(Renderable renderable, Layer layer, Viewport screenBounds, double cameraDistance) {
+        if (renderable == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ScreenPickIndex", "offerRect", "missingRenderable"));
+        }
+
+        if (layer == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ScreenPickIndex", "offerRect", "missingLayer"));
+        }
+
+        if (screenBounds == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ScreenPickIndex", "offerRect", "missingViewport"));
+        }
+
+        if (screenBounds.isEmpty() || !this.viewport.intersects(screenBounds)) {
+            return; // nothing can be picked in the rectangle
+        }
+
+        int capacity = this.depths.length;
+        if (capacity == this.count) {
+            int newCapacity = capacity + Math.max(capacity >> 1, MIN_CAPACITY_INCREMENT);
+            this.renderables = Arrays.copyOf(this.renderables, newCapacity);
+            this.layers = Arrays.copyOf(this.layers, newCapacity);
+            this.rects = Arrays.copyOf(this.rects, newCapacity * 4);
+            this.depths = Arrays.copyOf(this.depths, newCapacity);
+        }
+
+        int idx = this.count++;
+        this.renderables[idx] = renderable;
+        this.layers[idx] = layer;
+        this.rects[idx * 4] = screenBounds.x;
+        this.rects[idx * 4 + 1] = screenBounds.y;
+        this.rects[idx * 4 + 2] = screenBounds.width;
+        this.rects[idx * 4 + 3] = screenBounds.height;
+        this.depths[idx] = cameraDistance;
+        this.indexed = false;
+    }
+
+    /**
+     * Returns the top shape at a point in OpenGL screen coordinates, marked as on top, or null if no shape's rectangle
+     * contains the point. Where rectangles overlap the top shape is the shape nearest the camera, or the shape offered
+     * last when shapes are equally distant.
+     */
+    public PickedObject topObjectAt(int x, int y) {
+        if (!this.viewport.contains(x, y)) {
+            return null;
+        }
+
+        this.assembleIndex();
+
+        int cell = this.cellColumn(x) + this.cellRow(y) * this.cols;
+        int topIdx = -1;
+        for (int pos = this.cellStart[cell], end = this.cellStart[cell + 1]; pos < end; pos++) {
+            int idx = this.cellEntries[pos];
+            if (this.rectContains(idx, x, y) && (topIdx < 0 || this.depths[idx] <= this.depths[topIdx])) {
+                topIdx = idx;
+            }
+        }
+
+        if (topIdx < 0) {
+            return null;
+        }
+
+        PickedObject pickedObject = PickedObject.fromRenderable(topIdx + 1, this.renderables[topIdx], this.layers[topIdx]);
+        pickedObject.markOnTop();
+        return pickedObject;
+    }
+
+    /**
+     * Adds the shapes whose rectangles intersect a rectangle in OpenGL screen coordinates to a picked object list, each
+     * marked as on top.
+     */
+    public void objectsInRect(int x, int y, int width, int height, PickedObjectList result) {
+        if (result == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ScreenPickIndex", "objectsInRect", "missingResult"));
+        }
+
+        if (!this.viewport.intersects(x, y, width, height)) {
+            return;
+        }
+
+        this.assembleIndex();
+
+        // Mark each entry as it's visited; entries spanning several cells are visited once per query.
+        if (++this.queryMark == 0) {
+            Arrays.fill(this.entryMarks, 0);
+            this.queryMark = 1;
+        }
+
+        int col0 = this.cellColumn(Math.max(x, this.viewport.x));
+        int row0 = this.cellRow(Math.max(y, this.viewport.y));
+        int col1 = this.cellColumn(Math.min(x + width, this.viewport.x + this.viewport.width) - 1);
+        int row1 = this.cellRow(Math.min(y + height, this.viewport.y + this.viewport.height) - 1);
+
+        for (int row = row0; row <= row1; row++) {
+            for (int col = col0; col <= col1; col++) {
+                int cell = col + row * this.cols;
+                for (int pos = this.cellStart[cell], end = this.cellStart[cell + 1]; pos < end; pos++) {
+                    int idx = this.cellEntries[pos];
+                    if (this.entryMarks[idx] == this.queryMark) {
+                        continue; // already visited in another cell
+                    }
+
+                    this.entryMarks[idx] = this.queryMark;
+                    if (this.rectIntersects(idx, x, y, width, height)) {
+                        PickedObject pickedObject = PickedObject.fromRenderable(idx + 1, this.renderables[idx], this.layers[idx]);
+                        pickedObject.markOnTop();
+                        result.offerPickedObject(pickedObject);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Organizes the rectangles into a grid of cells covering the viewport, listing each rectangle in every cell it
+     * overlaps. The grid is stored as one array of entry indices sorted by cell, with an array of each cell's start.
+     */
+    protected void assembleIndex() {
+        if (this.indexed) {
+            return;
+        }
+
+        this.cols = Math.max(1, (this.viewport.width + CELL_SIZE - 1) / CELL_SIZE);
+        this.rows = Math.max(1, (this.viewport.height + CELL_SIZE - 1) / CELL_SIZE);
+        int cellCount = this.cols * this.rows;
+        if (this.cellStart.length < cellCount + 1) {
+            this.cellStart = new int[cellCount + 1];
+        } else {
+            Arrays.fill(this.cellStart, 0, cellCount + 1, 0);
+        }
+
+        if (this.entryMarks.length < this.count) {
+            this.entryMarks = new int[this.depths.length];
+            this.queryMark = 0;
+        }
+
+        // Count the entries in each cell, storing each cell's count in the element following the cell.
+        int[] cellStart = this.cellStart;
+        for (int idx = 0; idx < this.count; idx++) {
+            int col0 = this.entryColumn(idx, 0), col1 = this.entryColumn(idx, 1);
+            int row0 = this.entryRow(idx, 0), row1 = this.entryRow(idx, 1);
+            for (int row = row0; row <= row1; row++) {
+                for (int col = col0; col <= col1; col++) {
+                    cellStart[col + row * this.cols + 1]++;
+                }
+            }
+        }
+
+        // Convert the counts to each cell's start position, then place the entries. Placing an entry advances its
+        // cell's start, which is restored afterwards by shifting the starts one cell.
+        for (int cell = 0; cell < cellCount; cell++) {
+            cellStart[cell + 1] += cellStart[cell];
+        }
+
+        if (this.cellEntries.length < cellStart[cellCount]) {
+            this.cellEntries = new int[cellStart[cellCount]];
+        }
+
+        for (int idx = 0; idx < this.count; idx++) {
+            int col0 = this.entryColumn(idx, 0), col1 = this.entryColumn(idx, 1);
+            int row0 = this.entryRow(idx, 0), row1 = this.entryRow(idx, 1);
+            for (int row = row0; row <= row1; row++) {
+                for (int col = col0; col <= col1; col++) {
+                    this.cellEntries[cellStart[col + row * this.cols]++] = idx;
+                }
+            }
+        }
+
+        System.arraycopy(cellStart, 0, cellStart, 1, cellCount);
+        cellStart[0] = 0;
+
+        this.indexed = true;
+    }
+
+    protected boolean rectContains(int idx, int x, int y) {
+        int rx = this.rects[idx * 4], ry = this.rects[idx * 4 + 1];
+        return x >= rx && x < rx + this.rects[idx * 4 + 2] && y >= ry && y < ry + this.rects[idx * 4 + 3];
+    }
+
+    protected boolean rectIntersects(int idx, int x, int y, int width, int height) {
+        int rx = this.rects[idx * 4], ry = this.rects[idx * 4 + 1];
+        return width > 0 && height > 0
+            && rx < x + width && x < rx + this.rects[idx * 4 + 2]
+            && ry < y + height && y < ry + this.rects[idx * 4 + 3];
+    }
+
+    /**
+     * Returns the grid column of an entry's first (side 0) or last (side 1) pixel column, limited to the grid.
+     */
+    protected int entryColumn(int idx, int side) {
+        int x = this.rects[idx * 4] + side * (this.rects[idx * 4 + 2] - 1);
+        return Math.min(Math.max(this.cellColumn(x), 0), this.cols - 1);
+    }
+
+    /**
+     * Returns the grid row of an entry's first (side 0) or last (side 1) pixel row, limited to the grid.
+     */
+    protected int entryRow(int idx, int side) {
+        int y = this.rects[idx * 4 + 1] + side * (this.rects[idx * 4 + 3] - 1);
+        return Math.min(Math.max(this.cellRow(y), 0), this.rows - 1);
+    }
+
+    protected int cellColumn(int x) {
+        return (x - this.viewport.x) / CELL_SIZE;
+    }
+
+    protected int cellRow(int y) {
+        return (y - this.viewport.y) / CELL_SIZE;
+    }
+}
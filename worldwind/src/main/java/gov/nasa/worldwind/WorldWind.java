@@ -11,7 +11,9 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 
 import gov.nasa.worldwind.geom.Ellipsoid;
+import gov.nasa.worldwind.util.DiskCache;
 import gov.nasa.worldwind.util.MessageService;
+import gov.nasa.worldwind.util.RetrievalScheduler;
 import gov.nasa.worldwind.util.TaskService;
 
 public class WorldWind {
@@ -330,6 +332,18 @@ public class WorldWind {
      */
     protected static final TaskService taskService = new TaskService();
 
+    /**
+     * Provides a global scheduler for prioritized retrieval of remote and local resources within the WorldWind
+     * library.
+     */
+    protected static final RetrievalScheduler retrievalScheduler = new RetrievalScheduler(10, 10);
+
+    /**
+     * Provides an optional global file cache for remote resources retrieved by the WorldWind library. May be null, in
+     * which case remote resources are always retrieved from the network.
+     */
+    protected static volatile DiskCache diskCache;
+
     /**
      * Returns a singleton MessageService instance that provides a mechanism for broadcasting notifications within the
      * WorldWind library and WorldWind applications.
@@ -350,6 +364,37 @@ public class WorldWind {
         return taskService;
     }
 
+    /**
+     * Returns a singleton RetrievalScheduler instance that runs the WorldWind library's asynchronous resource
+     * retrievals in priority order, and cancels retrievals that are no longer requested. Applications may configure the
+     * scheduler's worker count and idle frame limit.
+     *
+     * @return the singleton retrieval scheduler
+     */
+    public static RetrievalScheduler retrievalScheduler() {
+        return retrievalScheduler;
+    }
+
+    /**
+     * Returns the DiskCache instance used by the WorldWind library to cache remote imagery and elevation resources, or
+     * null if no disk cache has been configured. WorldWindow configures a disk cache in the application's cache
+     * directory when it is created, unless one has already been specified.
+     *
+     * @return the global disk cache, or null if no disk cache is configured
+     */
+    public static DiskCache diskCache() {
+        return diskCache;
+    }
+
+    /**
+     * Specifies the DiskCache instance used by the WorldWind library to cache remote imagery and elevation resources.
+     *
+     * @param cache the global disk cache, or null to always retrieve remote resources from the network
+     */
+    public static void setDiskCache(DiskCache cache) {
+        diskCache = cache;
+    }
+
     /**
      * Requests that all WorldWindow instances update their display. Internally, this dispatches a REQUEST_REDRAW
      * message to the WorldWind message center.
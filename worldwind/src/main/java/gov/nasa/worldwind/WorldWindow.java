@@ -17,6 +17,7 @@ import android.view.Choreographer;
 import android.view.MotionEvent;
 import android.view.SurfaceHolder;
 
+import java.io.File;
 import java.util.Map;
 import java.util.Queue;
 import java.util.TimeZone;
@@ -31,16 +32,19 @@ import gov.nasa.worldwind.geom.Camera;
 import gov.nasa.worldwind.geom.Line;
 import gov.nasa.worldwind.geom.Location;
 import gov.nasa.worldwind.geom.Matrix4;
+import gov.nasa.worldwind.geom.Position;
 import gov.nasa.worldwind.geom.Vec2;
 import gov.nasa.worldwind.geom.Vec3;
 import gov.nasa.worldwind.geom.Viewport;
 import gov.nasa.worldwind.globe.BasicTessellator;
 import gov.nasa.worldwind.globe.Globe;
 import gov.nasa.worldwind.globe.ProjectionWgs84;
+import gov.nasa.worldwind.globe.Terrain;
 import gov.nasa.worldwind.globe.Tessellator;
 import gov.nasa.worldwind.layer.LayerList;
 import gov.nasa.worldwind.render.RenderContext;
 import gov.nasa.worldwind.render.RenderResourceCache;
+import gov.nasa.worldwind.util.DiskCache;
 import gov.nasa.worldwind.util.Logger;
 import gov.nasa.worldwind.util.MessageListener;
 import gov.nasa.worldwind.util.Pool;
@@ -62,6 +66,10 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
 
     protected static final int MSG_ID_SET_DEPTH_BITS = 4;
 
+    protected static final String DISK_CACHE_DIRECTORY = "worldwind";
+
+    protected static final long DISK_CACHE_CAPACITY = 256L * 1024 * 1024;
+
     /**
      * Planet or celestial object displayed by this WorldWindow.
      */
@@ -108,6 +116,27 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
 
     protected boolean isWaitingForRedraw;
 
+    protected final PickBuffer pickBuffer = new PickBuffer();
+
+    protected boolean pickBufferEnabled;
+
+    /**
+     * Incremented on each redraw request, indicating that the scene may have changed since the pick buffer was drawn.
+     */
+    protected int sceneVersion;
+
+    /**
+     * The screen-space shapes displayed in the most recently rendered frame, indexed for picking on the CPU.
+     */
+    protected ScreenPickIndex screenPickIndex = new ScreenPickIndex();
+
+    /**
+     * The index the next frame is rendered into, swapped with screenPickIndex when the frame has been rendered.
+     */
+    protected ScreenPickIndex nextScreenPickIndex = new ScreenPickIndex();
+
+    protected boolean screenPickingEnabled = true;
+
     protected final Handler mainThreadHandler = new Handler(Looper.getMainLooper(), new Handler.Callback() {
         @Override
         public boolean handleMessage(Message msg) {
@@ -177,6 +206,12 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
         int cacheCapacity = RenderResourceCache.recommendedCapacity();
         this.renderResourceCache = new RenderResourceCache(cacheCapacity);
 
+        // Initialize the global disk cache for remote resources, unless the application has already specified one.
+        if (WorldWind.diskCache() == null) {
+            File cacheDir = new File(this.getContext().getCacheDir(), DISK_CACHE_DIRECTORY);
+            WorldWind.setDiskCache(new DiskCache(cacheDir, DISK_CACHE_CAPACITY));
+        }
+
         // Set up to render on demand to an OpenGL ES 2.x context
         // TODO Investigate and use the EGL chooser submitted by jgiovino
         this.setEGLConfigChooser(configChooser);
@@ -358,6 +393,50 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
         this.frameMetrics = frameMetrics;
     }
 
+    /**
+     * Returns the number of bytes of texture image data this WorldWindow uploads to OpenGL per frame. Uploads beyond
+     * this budget are deferred to subsequent frames.
+     *
+     * @return the per-frame upload budget in bytes
+     */
+    public int getUploadBudgetBytes() {
+        return this.dc.getUploadBudgetBytes();
+    }
+
+    /**
+     * Sets the number of bytes of texture image data this WorldWindow uploads to OpenGL per frame. Uploads beyond this
+     * budget are deferred to subsequent frames, spreading the cost of many newly retrieved textures over several frames.
+     *
+     * @param byteCount the per-frame upload budget in bytes
+     *
+     * @throws IllegalArgumentException If the byte count is negative
+     */
+    public void setUploadBudgetBytes(int byteCount) {
+        this.dc.setUploadBudgetBytes(byteCount);
+    }
+
+    /**
+     * Returns the time this WorldWindow spends uploading texture image data to OpenGL per frame. Uploads beyond this
+     * budget are deferred to subsequent frames.
+     *
+     * @return the per-frame upload budget in nanoseconds
+     */
+    public long getUploadBudgetNanos() {
+        return this.dc.getUploadBudgetNanos();
+    }
+
+    /**
+     * Sets the time this WorldWindow spends uploading texture image data to OpenGL per frame. Uploads beyond this
+     * budget are deferred to subsequent frames.
+     *
+     * @param nanos the per-frame upload budget in nanoseconds
+     *
+     * @throws IllegalArgumentException If the time is negative
+     */
+    public void setUploadBudgetNanos(long nanos) {
+        this.dc.setUploadBudgetNanos(nanos);
+    }
+
     public WorldWindowController getWorldWindowController() {
         return this.worldWindowController;
     }
@@ -389,6 +468,138 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
         return this.viewport;
     }
 
+    /**
+     * Indicates whether pick and pickShapesInRect resolve queries from a retained pick buffer. See {@link
+     * #setPickBufferEnabled(boolean)}.
+     *
+     * @return true if the pick buffer is enabled, otherwise false
+     */
+    public boolean isPickBufferEnabled() {
+        return this.pickBufferEnabled;
+    }
+
+    /**
+     * Sets whether pick and pickShapesInRect resolve queries from a retained pick buffer. When enabled, the first query
+     * draws the picked object identifiers across the entire viewport once, at the resolution specified by {@link
+     * #setPickBufferScale(double)}, and subsequent queries read the retained buffer without drawing another frame. The
+     * buffer is drawn again after the camera or viewport changes, after any redraw request, or after a call to {@link
+     * #invalidatePickBuffer()}. This suits frequent queries against a static scene, such as highlighting shapes under a
+     * moving pointer. Disabled by default.
+     *
+     * @param enabled true to enable the pick buffer, false to draw a pick frame for each query
+     */
+    public void setPickBufferEnabled(boolean enabled) {
+        this.pickBufferEnabled = enabled;
+        this.pickBuffer.invalidate();
+    }
+
+    /**
+     * Returns the pick buffer's resolution relative to the viewport.
+     *
+     * @return the pick buffer's scale
+     */
+    public double getPickBufferScale() {
+        return this.pickBuffer.getScale();
+    }
+
+    /**
+     * Sets the pick buffer's resolution relative to the viewport. Lower resolutions draw and read fewer pixels, at the
+     * cost of missing objects smaller than a buffer pixel. The default is 0.5.
+     *
+     * @param scale the pick buffer's resolution relative to the viewport, greater than 0 and at most 1
+     *
+     * @throws IllegalArgumentException If the scale is not in the range (0, 1]
+     */
+    public void setPickBufferScale(double scale) {
+        this.pickBuffer.setScale(scale);
+    }
+
+    /**
+     * Discards the retained pick buffer, causing the next pick query to draw it again. Applications changing the scene
+     * without requesting a redraw call this to keep pick queries current.
+     */
+    public void invalidatePickBuffer() {
+        this.pickBuffer.invalidate();
+    }
+
+    /**
+     * Indicates whether this WorldWindow indexes the screen-space shapes it displays for {@link
+     * #pickScreenObjects(float, float)} and {@link #pickScreenObjectsInRect(float, float, float, float)}.
+     *
+     * @return true if screen picking is enabled, otherwise false
+     */
+    public boolean isScreenPickingEnabled() {
+        return this.screenPickingEnabled;
+    }
+
+    /**
+     * Sets whether this WorldWindow indexes the screen-space shapes it displays, such as placemarks and labels, for
+     * picking on the CPU. When disabled, pickScreenObjects and pickScreenObjectsInRect return empty lists. Enabled by
+     * default.
+     *
+     * @param enabled true to index screen-space shapes, otherwise false
+     */
+    public void setScreenPickingEnabled(boolean enabled) {
+        this.screenPickingEnabled = enabled;
+        if (!enabled) {
+            // Release references to the shapes and layers of the displayed frame and the frame before it.
+            this.screenPickIndex.reset(this.viewport);
+            this.nextScreenPickIndex.reset(this.viewport);
+        }
+    }
+
+    /**
+     * Determines the top screen-space shape displayed at a screen point, such as a placemark or a label, without drawing
+     * a pick frame. The screen point is interpreted as coordinates in Android screen pixels relative to this View.
+     * <br>
+     * Unlike {@link #pick(float, float)}, this answers the query immediately on the calling thread from the screen
+     * rectangles recorded while rendering the most recent frame, and never waits for the OpenGL thread. A shape is
+     * picked anywhere within its screen bounding rectangle, regardless of transparent parts of its image or terrain in
+     * front of it, and the shape nearest the camera is on top where rectangles overlap. Shapes drawn in geographic
+     * coordinates and the terrain are not indexed; use pick for those. Must be called on the main thread.
+     *
+     * @param x the screen point's X coordinate in Android screen pixels
+     * @param y the screen point's Y coordinate in Android screen pixels
+     *
+     * @return a list containing the top screen-space shape at the screen point, marked as on top, or an empty list
+     */
+    public PickedObjectList pickScreenObjects(float x, float y) {
+        PickedObjectList pickedObjects = new PickedObjectList();
+
+        int px = Math.round(x);
+        int py = Math.round(this.getHeight() - y);
+        pickedObjects.offerPickedObject(this.screenPickIndex.topObjectAt(px, py)); // handles null objects
+
+        return pickedObjects;
+    }
+
+    /**
+     * Determines the screen-space shapes displayed in a screen rectangle, such as placemarks and labels, without drawing
+     * a pick frame. The screen rectangle is interpreted as coordinates in Android screen pixels relative to this View.
+     * <br>
+     * This answers the query on the calling thread in the same manner as {@link #pickScreenObjects(float, float)}. The
+     * returned list contains every indexed shape whose screen bounding rectangle intersects the screen rectangle, each
+     * marked as on top. Must be called on the main thread.
+     *
+     * @param x      the screen rectangle's X coordinate in Android screen pixels
+     * @param y      the screen rectangle's Y coordinate in Android screen pixels
+     * @param width  the screen rectangle's width in Android screen pixels
+     * @param height the screen rectangle's height in Android screen pixels
+     *
+     * @return a list of the screen-space shapes in the screen rectangle
+     */
+    public PickedObjectList pickScreenObjectsInRect(float x, float y, float width, float height) {
+        PickedObjectList pickedObjects = new PickedObjectList();
+
+        int px = (int) Math.floor(x);
+        int py = (int) Math.floor(this.getHeight() - (y + height));
+        int pw = (int) Math.ceil(width);
+        int ph = (int) Math.ceil(height);
+        this.screenPickIndex.objectsInRect(px, py, pw, ph, pickedObjects);
+
+        return pickedObjects;
+    }
+
     /**
      * Determines the WorldWind objects displayed at a screen point. The screen point is interpreted as coordinates in
      * Android screen pixels relative to this View.
@@ -436,6 +647,12 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
             return pickedObjects;
         }
 
+        // Resolve the pick from the retained pick buffer when enabled, drawing the buffer if necessary.
+        if (this.pickBufferEnabled) {
+            this.pickFromBuffer(px, py, pickRay, pickedObjects);
+            return pickedObjects;
+        }
+
         // Obtain a frame from the pool and render the frame, accumulating Drawables to process in the OpenGL thread.
         Frame frame = Frame.obtain(this.framePool);
         frame.pickedObjects = pickedObjects;
@@ -490,6 +707,15 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
             return pickedObjects;
         }
 
+        // Resolve the pick from the retained pick buffer when enabled, drawing the buffer if necessary.
+        if (this.pickBufferEnabled) {
+            PickBuffer buffer = this.validPickBuffer();
+            if (buffer != null) {
+                buffer.topShapesInRect(px, py, pw, ph, pickedObjects);
+            }
+            return pickedObjects;
+        }
+
         // Obtain a frame from the pool and render the frame, accumulating Drawables to process in the OpenGL thread.
         Frame frame = Frame.obtain(this.framePool);
         frame.pickedObjects = pickedObjects;
@@ -504,6 +730,69 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
         return pickedObjects;
     }
 
+    /**
+     * Resolves a pick at a point in OpenGL screen coordinates from the pick buffer, in the same manner as a pick frame.
+     * The result contains the top shape at the point, if any, and the terrain position where the pick ray intersects
+     * the terrain. The terrain is marked as on top when it is the top object at the point.
+     */
+    protected void pickFromBuffer(int px, int py, Line pickRay, PickedObjectList result) {
+        PickBuffer buffer = this.validPickBuffer();
+        if (buffer == null) {
+            return; // the pick buffer could not be drawn
+        }
+
+        int topObjectId = buffer.identifierAt(px, py);
+        if (topObjectId == 0) {
+            return; // no objects drawn at the pick point
+        }
+
+        PickedObject topObject = buffer.topShapeAt(px, py);
+        boolean terrainOnTop = topObjectId == buffer.getTerrainIdentifier();
+        if (topObject == null && !terrainOnTop) {
+            return; // no eligible objects drawn at the pick point
+        }
+
+        result.offerPickedObject(topObject);
+
+        Terrain terrain = buffer.getTerrain();
+        if (terrain != null && terrain.intersect(pickRay, this.scratchPoint)) {
+            Position position = this.globe.cartesianToGeographic(this.scratchPoint.x, this.scratchPoint.y, this.scratchPoint.z, new Position());
+            PickedObject terrainObject = PickedObject.fromTerrain(buffer.getTerrainIdentifier(), position);
+            if (terrainOnTop) {
+                terrainObject.markOnTop();
+            }
+            result.offerPickedObject(terrainObject);
+        }
+    }
+
+    /**
+     * Returns the pick buffer for the current viewport, camera and scene, drawing the buffer if it is not valid. This
+     * blocks until the OpenGL thread has drawn the buffer, and returns null if the OpenGL thread is paused.
+     */
+    protected PickBuffer validPickBuffer() {
+        this.computeViewingTransform(this.scratchProjection, this.scratchModelview);
+        if (this.pickBuffer.isValid(this.viewport, this.scratchProjection, this.scratchModelview, this.sceneVersion)) {
+            return this.pickBuffer;
+        }
+
+        // Obtain a frame from the pool and render a pick frame covering the entire viewport, accumulating Drawables to
+        // process in the OpenGL thread. The OpenGL thread draws the frame at the pick buffer's resolution and reads
+        // the picked object identifiers into the buffer.
+        Frame frame = Frame.obtain(this.framePool);
+        frame.pickedObjects = new PickedObjectList();
+        frame.pickViewport = new Viewport(this.viewport);
+        frame.pickBuffer = this.pickBuffer;
+        frame.pickMode = true;
+        this.pickBuffer.reset(this.viewport, this.scratchProjection, this.scratchModelview, this.sceneVersion, frame.pickedObjects);
+        this.renderFrame(frame);
+
+        // Wait until the OpenGL thread is done drawing the pick buffer. The buffer remains invalid if the OpenGL thread
+        // discarded the frame.
+        frame.awaitDone();
+
+        return this.pickBuffer.isValid(this.viewport, this.scratchProjection, this.scratchModelview, this.sceneVersion) ? this.pickBuffer : null;
+    }
+
     /**
      * Transforms a Cartesian coordinate point to Android screen coordinates. The resultant screen point is in Android
      * screen pixels relative to this View.
@@ -651,6 +940,9 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
             return;
         }
 
+        // The scene may have changed; draw the pick buffer again before its next use.
+        this.sceneVersion++;
+
         // Suppress duplicate redraw requests, request that occur while the WorldWindow is paused, and requests that
         // occur before we have an Android surface to draw to.
         if (!this.isWaitingForRedraw && !this.isPaused && !this.viewport.isEmpty()) {
@@ -887,6 +1179,7 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
         boolean pickMode = frame.pickMode;
         if (!pickMode) {
             this.frameMetrics.beginRendering(this.rc);
+            WorldWind.retrievalScheduler().advanceFrame(); // cancel pending retrievals that are no longer requested
         }
 
         // Setup the render context according to the WorldWindow's current state.
@@ -924,10 +1217,24 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
         this.rc.pickPoint = frame.pickPoint;
         this.rc.pickRay = frame.pickRay;
         this.rc.pickMode = frame.pickMode;
+        this.rc.pickBuffer = frame.pickBuffer;
+
+        // Index the screen-space shapes displayed in the frame.
+        if (!pickMode && this.screenPickingEnabled) {
+            this.nextScreenPickIndex.reset(frame.viewport);
+            this.rc.screenPickIndex = this.nextScreenPickIndex;
+        }
 
         // Let the frame controller render the WorldWindow's current state.
         this.frameController.renderFrame(this.rc);
 
+        // Answer screen pick queries from the frame just rendered.
+        if (this.rc.screenPickIndex != null) {
+            ScreenPickIndex index = this.screenPickIndex;
+            this.screenPickIndex = this.nextScreenPickIndex;
+            this.nextScreenPickIndex = index;
+        }
+
         // Enqueue the frame for processing on the OpenGL thread as soon as possible and wake the OpenGL thread.
         if (pickMode) {
             this.pickQueue.offer(frame);
@@ -965,7 +1272,12 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
 
         // Setup the draw context according to the frame's current state.
         this.dc.eyePoint = frame.modelview.extractEyePoint(this.dc.eyePoint);
-        this.dc.viewport.set(frame.viewport);
+        if (frame.pickBuffer != null) { // draw the pick buffer at its reduced resolution
+            this.dc.viewport.set(0, 0, frame.pickBuffer.getWidth(), frame.pickBuffer.getHeight());
+            GLES20.glViewport(0, 0, frame.pickBuffer.getWidth(), frame.pickBuffer.getHeight());
+        } else {
+            this.dc.viewport.set(frame.viewport);
+        }
         this.dc.projection.set(frame.projection);
         this.dc.modelview.set(frame.modelview);
         this.dc.modelviewProjection.setToMultiply(frame.projection, frame.modelview);
@@ -979,13 +1291,32 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
         this.dc.pickViewport = frame.pickViewport;
         this.dc.pickPoint = frame.pickPoint;
         this.dc.pickMode = frame.pickMode;
+        this.dc.pickBuffer = frame.pickBuffer;
+        this.dc.renderResourceCache = this.renderResourceCache;
 
         // Let the frame controller draw the frame.
         this.frameController.drawFrame(this.dc);
 
+        // Restore the OpenGL viewport after drawing the pick buffer.
+        if (frame.pickBuffer != null) {
+            GLES20.glViewport(frame.viewport.x, frame.viewport.y, frame.viewport.width, frame.viewport.height);
+        }
+
+        // Draw the frame again when texture uploads have been deferred to stay within the per-frame upload budget. The
+        // deferred textures are uploaded in subsequent frames, while renderables draw fallbacks in their place.
+        if (this.dc.getDeferredUploadCount() > 0) {
+            super.requestRender();
+        }
+
         // Release resources evicted during the previous frame.
         this.renderResourceCache.releaseEvictedResources(this.dc);
 
+        // Release texture atlas pages that have gone unused for several frames.
+        this.dc.releaseUnusedAtlasPages();
+
+        // Release surface shape textures for terrain that has gone undrawn for several frames.
+        this.dc.releaseUnusedSurfaceShapeTextures();
+
         // Mark the end of a frame draw.
         if (!pickMode) {
             this.frameMetrics.endDrawing(this.dc);
@@ -6,15 +6,18 @@
 package gov.nasa.worldwind.draw;
 
 import android.opengl.GLES20;
+import android.util.SparseArray;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 
+import gov.nasa.worldwind.PickBuffer;
 import gov.nasa.worldwind.PickedObjectList;
 import gov.nasa.worldwind.geom.Matrix4;
 import gov.nasa.worldwind.geom.Vec2;
@@ -23,10 +26,30 @@ import gov.nasa.worldwind.geom.Viewport;
 import gov.nasa.worldwind.render.BufferObject;
 import gov.nasa.worldwind.render.Color;
 import gov.nasa.worldwind.render.Framebuffer;
+import gov.nasa.worldwind.render.RenderResourceCache;
 import gov.nasa.worldwind.render.Texture;
+import gov.nasa.worldwind.render.TextureAtlas;
+import gov.nasa.worldwind.util.IntSet;
+import gov.nasa.worldwind.util.Logger;
 
 public class DrawContext {
 
+    /**
+     * The maximum number of recycled OpenGL buffer objects retained for each data store size. Buffer objects recycled
+     * beyond this limit are deleted.
+     */
+    protected static final int MAX_RECYCLED_BUFFER_OBJECTS = 64;
+
+    /**
+     * The default number of bytes of texture image data uploaded to OpenGL per frame.
+     */
+    protected static final int DEFAULT_UPLOAD_BUDGET_BYTES = 4 * 1024 * 1024;
+
+    /**
+     * The default time spent uploading texture image data to OpenGL per frame, in nanoseconds.
+     */
+    protected static final long DEFAULT_UPLOAD_BUDGET_NANOS = 5000000L; // 5 milliseconds
+
     public Vec3 eyePoint = new Vec3();
 
     public final Viewport viewport = new Viewport();
@@ -53,6 +76,10 @@ public class DrawContext {
 
     public boolean pickMode;
 
+    public PickBuffer pickBuffer;
+
+    public RenderResourceCache renderResourceCache;
+
     private int framebufferId;
 
     private int programId;
@@ -67,14 +94,46 @@ public class DrawContext {
 
     private Framebuffer scratchFramebuffer;
 
+    private Framebuffer textureFramebuffer;
+
+    private TextureAtlas textureAtlas;
+
+    private SurfaceShapeTextureCache surfaceShapeTextureCache;
+
+    private int surfaceShapeBatchCount;
+
+    private int uploadBudgetBytes = DEFAULT_UPLOAD_BUDGET_BYTES;
+
+    private long uploadBudgetNanos = DEFAULT_UPLOAD_BUDGET_NANOS;
+
+    private int uploadedBytes;
+
+    private int textureUploadCount;
+
+    private int textureUploadedBytes;
+
+    private long uploadNanos;
+
+    private long uploadBeginNanos;
+
+    private int deferredUploadCount;
+
     private BufferObject unitSquareBuffer;
 
+    private final SparseArray<ArrayList<Integer>> recycledBufferObjects = new SparseArray<>();
+
+    private final int[] recycledBufferId = new int[1];
+
     private ByteBuffer scratchBuffer = ByteBuffer.allocateDirect(4).order(ByteOrder.nativeOrder());
 
     private final ArrayList<Object> scratchList = new ArrayList<>();
 
+    private final DrawableSectorIndex scratchSectorIndex = new DrawableSectorIndex();
+
     private final byte[] pixelArray = new byte[4];
 
+    private final int[] pixelIdentifierArray = new int[1024];
+
     public DrawContext() {
     }
 
@@ -92,8 +151,17 @@ public class DrawContext {
         this.pickViewport = null;
         this.pickPoint = null;
         this.pickMode = false;
+        this.pickBuffer = null;
+        this.renderResourceCache = null;
+        this.surfaceShapeBatchCount = 0;
+        this.uploadedBytes = 0;
+        this.textureUploadCount = 0;
+        this.textureUploadedBytes = 0;
+        this.uploadNanos = 0;
+        this.deferredUploadCount = 0;
         this.scratchBuffer.clear();
         this.scratchList.clear();
+        this.scratchSectorIndex.clear();
     }
 
     public void contextLost() {
@@ -104,7 +172,11 @@ public class DrawContext {
         this.arrayBufferId = 0;
         this.elementArrayBufferId = 0;
         this.scratchFramebuffer = null;
+        this.textureFramebuffer = null;
+        this.textureAtlas = null;
+        this.surfaceShapeTextureCache = null;
         this.unitSquareBuffer = null;
+        this.recycledBufferObjects.clear();
         Arrays.fill(this.textureId, 0);
     }
 
@@ -185,6 +257,203 @@ public class DrawContext {
         return (this.scratchFramebuffer = framebuffer);
     }
 
+    /**
+     * Returns an OpenGL framebuffer object with no attachments, suitable for rendering into textures owned by the
+     * caller. Callers attach their texture as the framebuffer's color attachment before binding the framebuffer, and
+     * are responsible for disabling the depth test while rendering.
+     * <br>
+     * The OpenGL framebuffer object is created on first use and cached. Subsequent calls to this method return the
+     * cached framebuffer object.
+     *
+     * @return the draw context's texture framebuffer object
+     */
+    public Framebuffer textureFramebuffer() {
+        if (this.textureFramebuffer != null) {
+            return this.textureFramebuffer;
+        }
+
+        return (this.textureFramebuffer = new Framebuffer());
+    }
+
+    /**
+     * Returns a texture atlas shared by drawables that batch small textures, such as placemark icons, into a few large
+     * textures. The atlas is created on first use and retained until the OpenGL context is lost.
+     *
+     * @return the draw context's texture atlas
+     */
+    public TextureAtlas textureAtlas() {
+        if (this.textureAtlas != null) {
+            return this.textureAtlas;
+        }
+
+        return (this.textureAtlas = new TextureAtlas());
+    }
+
+    /**
+     * Releases the texture atlas pages that have gone unused for several frames. This must be called once at the end of
+     * each frame, and has no effect when the texture atlas has not been created.
+     */
+    public void releaseUnusedAtlasPages() {
+        if (this.textureAtlas != null) {
+            this.textureAtlas.releaseUnusedPages(this);
+        }
+    }
+
+    /**
+     * Returns a cache of the textures surface shapes are rasterized into, shared by surface shape drawables. The cache
+     * is created on first use and retained until the OpenGL context is lost.
+     *
+     * @return the draw context's surface shape texture cache
+     */
+    public SurfaceShapeTextureCache surfaceShapeTextureCache() {
+        if (this.surfaceShapeTextureCache != null) {
+            return this.surfaceShapeTextureCache;
+        }
+
+        return (this.surfaceShapeTextureCache = new SurfaceShapeTextureCache());
+    }
+
+    /**
+     * Releases the surface shape textures that have gone unused for several frames. This must be called once at the
+     * end of each frame, and has no effect when the surface shape texture cache has not been created.
+     */
+    public void releaseUnusedSurfaceShapeTextures() {
+        if (this.surfaceShapeTextureCache != null) {
+            this.surfaceShapeTextureCache.releaseUnusedTextures(this);
+        }
+    }
+
+    /**
+     * Returns the index of the next batch of surface shapes drawn during the current frame, starting at 0 for each
+     * frame. Surface shape drawables use this index to distinguish textures cached for separate batches drawn on the
+     * same terrain.
+     *
+     * @return the next surface shape batch index
+     */
+    public int nextSurfaceShapeBatch() {
+        return this.surfaceShapeBatchCount++;
+    }
+
+    /**
+     * Returns the number of bytes of texture image data uploaded to OpenGL per frame before subsequent uploads are
+     * deferred to a later frame.
+     *
+     * @return the per-frame upload budget in bytes
+     */
+    public int getUploadBudgetBytes() {
+        return this.uploadBudgetBytes;
+    }
+
+    /**
+     * Sets the number of bytes of texture image data uploaded to OpenGL per frame before subsequent uploads are
+     * deferred to a later frame. At least one upload proceeds in each frame, regardless of its size.
+     *
+     * @param byteCount the per-frame upload budget in bytes
+     *
+     * @throws IllegalArgumentException If the byte count is negative
+     */
+    public void setUploadBudgetBytes(int byteCount) {
+        if (byteCount < 0) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "DrawContext", "setUploadBudgetBytes", "invalidCount"));
+        }
+
+        this.uploadBudgetBytes = byteCount;
+    }
+
+    /**
+     * Returns the time spent uploading texture image data to OpenGL per frame before subsequent uploads are deferred to
+     * a later frame.
+     *
+     * @return the per-frame upload budget in nanoseconds
+     */
+    public long getUploadBudgetNanos() {
+        return this.uploadBudgetNanos;
+    }
+
+    /**
+     * Sets the time spent uploading texture image data to OpenGL per frame before subsequent uploads are deferred to a
+     * later frame. At least one upload proceeds in each frame, regardless of its duration.
+     *
+     * @param nanos the per-frame upload budget in nanoseconds
+     *
+     * @throws IllegalArgumentException If the time is negative
+     */
+    public void setUploadBudgetNanos(long nanos) {
+        if (nanos < 0) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "DrawContext", "setUploadBudgetNanos", "invalidTime"));
+        }
+
+        this.uploadBudgetNanos = nanos;
+    }
+
+    /**
+     * Requests permission to upload texture image data to OpenGL during the current frame. Returns true and marks the
+     * upload's beginning when the frame's upload budget has room for the upload, in which case the caller must upload
+     * its data and then call {@link #endUpload(int)}. Returns false when the budget is exhausted, in which case the
+     * caller must defer its upload to a subsequent frame and report that it is not ready.
+     * <br>
+     * Uploads in pick frames are never deferred; picking must see the same textures as the frame it picks.
+     *
+     * @param byteCount the number of bytes to upload
+     *
+     * @return true if the upload may proceed, false if it must be deferred
+     */
+    public boolean beginUpload(int byteCount) {
+        if (!this.pickMode && this.textureUploadCount > 0 &&
+            (this.textureUploadedBytes + byteCount > this.uploadBudgetBytes || this.uploadNanos >= this.uploadBudgetNanos)) {
+            this.deferredUploadCount++;
+            return false;
+        }
+
+        this.uploadBeginNanos = System.nanoTime();
+        return true;
+    }
+
+    /**
+     * Marks the end of an upload permitted by {@link #beginUpload(int)}, charging its size and duration to the current
+     * frame's upload budget.
+     *
+     * @param byteCount the number of bytes uploaded
+     */
+    public void endUpload(int byteCount) {
+        this.uploadNanos += System.nanoTime() - this.uploadBeginNanos;
+        this.uploadedBytes += byteCount;
+        this.textureUploadedBytes += byteCount;
+        this.textureUploadCount++;
+    }
+
+    /**
+     * Records data uploaded to OpenGL outside of {@link #beginUpload(int)}, such as vertex data that must be uploaded
+     * before it can be drawn. Recorded data counts toward the bytes uploaded during the current frame, but not toward
+     * the texture upload budget.
+     *
+     * @param byteCount the number of bytes uploaded
+     */
+    public void chargeUpload(int byteCount) {
+        this.uploadedBytes += byteCount;
+    }
+
+    /**
+     * Returns the number of bytes uploaded to OpenGL during the current frame.
+     *
+     * @return the number of bytes uploaded
+     */
+    public int getUploadedBytes() {
+        return this.uploadedBytes;
+    }
+
+    /**
+     * Returns the number of uploads deferred to a subsequent frame during the current frame. A texture bound several
+     * times in a frame is counted each time its upload is deferred.
+     *
+     * @return the number of deferred uploads
+     */
+    public int getDeferredUploadCount() {
+        return this.deferredUploadCount;
+    }
+
     /**
      * Returns the name of the OpenGL program object that is currently active.
      *
@@ -303,6 +572,47 @@ public class DrawContext {
         }
     }
 
+    /**
+     * Returns a recycled OpenGL buffer object whose data store has the specified size in bytes. Buffer objects are
+     * recycled by {@link #recycleBufferObject(int, int)}, and enable components that frequently create and release
+     * buffer objects of the same size to reuse existing OpenGL storage.
+     *
+     * @param byteCount the size of the buffer object's data store in bytes
+     *
+     * @return the name of a recycled OpenGL buffer object, or 0 if no buffer object of the specified size is available
+     */
+    public int obtainBufferObject(int byteCount) {
+        ArrayList<Integer> bufferIds = this.recycledBufferObjects.get(byteCount);
+        if (bufferIds != null && !bufferIds.isEmpty()) {
+            return bufferIds.remove(bufferIds.size() - 1);
+        } else {
+            return 0;
+        }
+    }
+
+    /**
+     * Recycles an OpenGL buffer object whose data store has the specified size in bytes, making it available to
+     * subsequent calls to {@link #obtainBufferObject(int)}. The buffer object is deleted when the draw context already
+     * retains its maximum number of recycled buffer objects of that size.
+     *
+     * @param byteCount the size of the buffer object's data store in bytes
+     * @param bufferId  the name of the OpenGL buffer object to recycle
+     */
+    public void recycleBufferObject(int byteCount, int bufferId) {
+        ArrayList<Integer> bufferIds = this.recycledBufferObjects.get(byteCount);
+        if (bufferIds == null) {
+            bufferIds = new ArrayList<>();
+            this.recycledBufferObjects.put(byteCount, bufferIds);
+        }
+
+        if (bufferIds.size() < MAX_RECYCLED_BUFFER_OBJECTS) {
+            bufferIds.add(bufferId);
+        } else {
+            this.recycledBufferId[0] = bufferId;
+            GLES20.glDeleteBuffers(1, this.recycledBufferId, 0);
+        }
+    }
+
     /**
      * Returns an OpenGL buffer object containing a unit square expressed as four vertices at (0, 1), (0, 0), (1, 1) and
      * (1, 0). Each vertex is stored as two 32-bit floating point coordinates. The four vertices are in the order
@@ -373,6 +683,8 @@ public class DrawContext {
      * @param height the screen rectangle's height
      *
      * @return a set containing the unique fragment colors
+     *
+     * @see #readPixelIdentifiers(int, int, int, int, IntSet)
      */
     public Set<Color> readPixelColors(int x, int y, int width, int height) {
         // Read the fragment pixels as a tightly packed array of RGBA 8888 colors.
@@ -402,6 +714,111 @@ public class DrawContext {
         return resultSet;
     }
 
+    /**
+     * Reads the picked object identifiers within a screen rectangle in the currently active OpenGL frame buffer. Each
+     * pixel's identifier is its RGB 888 color interpreted as in {@link gov.nasa.worldwind.PickedObject#uniqueColorToIdentifier(Color)}.
+     * The components indicate OpenGL screen coordinates, which originate in the frame buffer's lower left corner.
+     *
+     * @param x      the screen rectangle's X component
+     * @param y      the screen rectangle's Y component
+     * @param width  the screen rectangle's width
+     * @param height the screen rectangle's height
+     * @param result an array with at least width * height elements in which to return the identifiers in row-major
+     *               order, starting with the rectangle's lower left pixel
+     *
+     * @return the result argument set to the identifiers
+     */
+    public int[] readPixelIdentifiers(int x, int y, int width, int height, int[] result) {
+        int pixelCount = width * height;
+        if (result == null || result.length < pixelCount) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "DrawContext", "readPixelIdentifiers", "missingResult"));
+        }
+
+        // Read the fragment pixels as a tightly packed array of RGBA 8888 colors.
+        ByteBuffer pixelBuffer = (ByteBuffer) this.scratchBuffer(pixelCount * 4).clear();
+        GLES20.glReadPixels(x, y, width, height, GLES20.GL_RGBA, GLES20.GL_UNSIGNED_BYTE, pixelBuffer);
+
+        // Copy the pixels from the NIO buffer in bulk through an int view, then convert each RGB 888 color to an
+        // identifier, ignoring the alpha component.
+        pixelBuffer.limit(pixelCount * 4);
+        pixelBuffer.asIntBuffer().get(result, 0, pixelCount);
+        boolean bigEndian = pixelBuffer.order() == ByteOrder.BIG_ENDIAN;
+        for (int idx = 0; idx < pixelCount; idx++) {
+            int rgba = result[idx];
+            result[idx] = bigEndian ? (rgba >>> 8) : (Integer.reverseBytes(rgba) >>> 8);
+        }
+
+        return result;
+    }
+
+    /**
+     * Reads the unique picked object identifiers within a screen rectangle in the currently active OpenGL frame buffer,
+     * adding them to a set. Each pixel's identifier is its RGB 888 color interpreted as in {@link
+     * gov.nasa.worldwind.PickedObject#uniqueColorToIdentifier(Color)}. Pixels where nothing was drawn have identifier 0,
+     * which is not added to the set. The components indicate OpenGL screen coordinates, which originate in the frame
+     * buffer's lower left corner.
+     * <p>
+     * Unlike {@link #readPixelColors(int, int, int, int)}, this reads the pixels in bulk and allocates nothing once the
+     * result set reaches its working size, making it suitable for pick rectangles covering the entire screen.
+     *
+     * @param x      the screen rectangle's X component
+     * @param y      the screen rectangle's Y component
+     * @param width  the screen rectangle's width
+     * @param height the screen rectangle's height
+     * @param result a set in which to accumulate the identifiers
+     *
+     * @return the result argument with the identifiers added
+     */
+    public IntSet readPixelIdentifiers(int x, int y, int width, int height, IntSet result) {
+        if (result == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "DrawContext", "readPixelIdentifiers", "missingResult"));
+        }
+
+        // Read the fragment pixels as a tightly packed array of RGBA 8888 colors.
+        int pixelCount = width * height;
+        ByteBuffer pixelBuffer = (ByteBuffer) this.scratchBuffer(pixelCount * 4).clear();
+        GLES20.glReadPixels(x, y, width, height, GLES20.GL_RGBA, GLES20.GL_UNSIGNED_BYTE, pixelBuffer);
+
+        pixelBuffer.limit(pixelCount * 4);
+        addPixelIdentifiers(pixelBuffer.asIntBuffer(), pixelBuffer.order() == ByteOrder.BIG_ENDIAN,
+            this.pixelIdentifierArray, result);
+
+        return result;
+    }
+
+    /**
+     * Adds the unique non-zero identifiers of RGBA 8888 pixels to a set. The pixels are copied from the NIO buffer to a
+     * heap array in bulk, one block at a time, and runs of identical pixels are added once.
+     *
+     * @param pixels    the RGBA 8888 pixels viewed as ints, from the buffer's position to its limit
+     * @param bigEndian true if the pixels are viewed in big-endian byte order
+     * @param block     a heap array in which to copy blocks of pixels
+     * @param result    a set in which to accumulate the identifiers
+     */
+    protected static void addPixelIdentifiers(IntBuffer pixels, boolean bigEndian, int[] block, IntSet result) {
+        int lastRgba = 0; // the clear color, which has identifier 0
+
+        while (pixels.hasRemaining()) {
+            int count = Math.min(pixels.remaining(), block.length);
+            pixels.get(block, 0, count);
+
+            for (int idx = 0; idx < count; idx++) {
+                int rgba = block[idx];
+                if (rgba == lastRgba) {
+                    continue; // the same color as the previous pixel; usually the same object
+                }
+
+                lastRgba = rgba;
+                int identifier = bigEndian ? (rgba >>> 8) : (Integer.reverseBytes(rgba) >>> 8);
+                if (identifier != 0) {
+                    result.add(identifier);
+                }
+            }
+        }
+    }
+
     /**
      * Returns a scratch NIO buffer suitable for use during drawing. The returned buffer has capacity at least equal to
      * the specified capacity. The buffer is cleared before each frame, otherwise its contents, position, limit and mark
@@ -428,4 +845,14 @@ public class DrawContext {
     public ArrayList<Object> scratchList() {
         return this.scratchList;
     }
+
+    /**
+     * Returns a scratch geographic index suitable for finding the entries of the scratch list that overlap each
+     * drawable terrain. The index is cleared before each frame, otherwise its contents are undefined.
+     *
+     * @return the draw context's scratch sector index
+     */
+    public DrawableSectorIndex scratchSectorIndex() {
+        return this.scratchSectorIndex;
+    }
 }
@@ -7,16 +7,44 @@ package gov.nasa.worldwind.draw;
 
 import android.opengl.GLES20;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.util.ArrayList;
+
+import gov.nasa.worldwind.geom.Matrix3;
 import gov.nasa.worldwind.geom.Matrix4;
 import gov.nasa.worldwind.render.BasicShaderProgram;
 import gov.nasa.worldwind.render.Color;
+import gov.nasa.worldwind.render.ScreenBatchProgram;
 import gov.nasa.worldwind.render.Texture;
+import gov.nasa.worldwind.render.TextureAtlas;
 import gov.nasa.worldwind.util.Pool;
 
 public class DrawableScreenTexture implements Drawable {
 
+    /**
+     * The number of bytes per batch vertex: a screen point and a tex coord as floats, and a color as unsigned bytes.
+     */
+    protected static final int BATCH_VERTEX_STRIDE = 24;
+
+    /**
+     * The maximum number of quads in one batch draw call, limited by the range of unsigned short vertex indices.
+     */
+    protected static final int MAX_BATCH_QUADS = 16384;
+
+    protected static ShortBuffer batchElements;
+
     public BasicShaderProgram program = null;
 
+    /**
+     * Optional program used to draw this drawable in a batch with the adjacent drawables that specify the same batch
+     * program. Batched drawables take their texture from the draw context's texture atlas when the texture is small
+     * enough, and are drawn with one draw call for each run of drawables sharing an atlas page. The basic program
+     * remains required in order to copy textures into the atlas.
+     */
+    public ScreenBatchProgram batchProgram = null;
+
     public final Matrix4 unitSquareTransform = new Matrix4();
 
     public final Color color = new Color();
@@ -29,6 +57,8 @@ public class DrawableScreenTexture implements Drawable {
 
     private final Matrix4 mvpMatrix = new Matrix4();
 
+    private TextureAtlas.Region atlasRegion;
+
     public DrawableScreenTexture() {
     }
 
@@ -45,7 +75,9 @@ public class DrawableScreenTexture implements Drawable {
     @Override
     public void recycle() {
         this.program = null;
+        this.batchProgram = null;
         this.texture = null;
+        this.atlasRegion = null;
 
         if (this.pool != null) { // return this instance to the pool
             this.pool.release(this);
@@ -55,6 +87,11 @@ public class DrawableScreenTexture implements Drawable {
 
     @Override
     public void draw(DrawContext dc) {
+        if (this.batchProgram != null) {
+            this.drawBatch(dc);
+            return;
+        }
+
         if (this.program == null || !this.program.useProgram(dc)) {
             return; // program unspecified or failed to build
         }
@@ -93,12 +130,18 @@ public class DrawableScreenTexture implements Drawable {
     }
 
     protected void doDraw(DrawContext dc, DrawableScreenTexture drawable) {
+        // Attempt to bind the drawable's texture. Skip the drawable while its texture's upload is deferred to a
+        // subsequent frame, rather than drawing it without its texture.
+        boolean textureBound = drawable.texture != null && drawable.texture.bindTexture(dc);
+        if (drawable.texture != null && !textureBound && !drawable.texture.isReady()) {
+            return;
+        }
+
         // Use the drawable's color.
         drawable.program.loadColor(drawable.color);
 
-        // Attempt to bind the drawable's texture, configuring the shader program appropriately if there is no texture
-        // or if the texture failed to bind.
-        if (drawable.texture != null && drawable.texture.bindTexture(dc)) {
+        // Configure the shader program appropriately if there is no texture or if the texture failed to bind.
+        if (textureBound) {
             drawable.program.enableTexture(true);
             drawable.program.loadTexCoordMatrix(drawable.texture.getTexCoordTransform());
         } else {
@@ -123,7 +166,183 @@ public class DrawableScreenTexture implements Drawable {
         }
     }
 
+    protected void drawBatch(DrawContext dc) {
+        // Accumulate this drawable and all DrawableScreenTextures adjacent in the queue that share the same batch
+        // program.
+        ArrayList<Object> scratchList = dc.scratchList();
+        scratchList.add(this);
+        Drawable next;
+        while ((next = dc.peekDrawable()) != null && this.canBatchWith(next)) {
+            scratchList.add(dc.pollDrawable());
+        }
+
+        try {
+            // Find or copy each drawable's texture in the atlas before drawing. Copying a texture renders into an atlas
+            // page and changes the current program.
+            TextureAtlas atlas = dc.textureAtlas();
+            for (int idx = 0, len = scratchList.size(); idx < len; idx++) {
+                DrawableScreenTexture drawable = (DrawableScreenTexture) scratchList.get(idx);
+                if (drawable.texture != null && drawable.program != null) {
+                    drawable.atlasRegion = atlas.getRegion(dc, drawable.texture, drawable.program);
+                }
+            }
+
+            if (!this.batchProgram.useProgram(dc)) {
+                return; // program failed to build
+            }
+
+            this.drawBatchQuads(dc, scratchList);
+        } finally {
+            for (int idx = 0, len = scratchList.size(); idx < len; idx++) {
+                ((DrawableScreenTexture) scratchList.get(idx)).atlasRegion = null;
+            }
+            scratchList.clear();
+        }
+    }
+
+    protected void drawBatchQuads(DrawContext dc, ArrayList<Object> drawables) {
+        // Use the draw context's pick mode and a projection that transforms screen coordinates to clip coordinates.
+        this.batchProgram.enablePickMode(dc.pickMode);
+        this.batchProgram.loadModelviewProjection(dc.screenProjection);
+
+        // Make multi-texture unit 0 active.
+        dc.activeTextureUnit(GLES20.GL_TEXTURE0);
+
+        // Disable writing to the depth buffer.
+        GLES20.glDepthMask(false);
+
+        // Use client-side vertex and element arrays.
+        dc.bindBuffer(GLES20.GL_ARRAY_BUFFER, 0);
+        dc.bindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, 0);
+        GLES20.glEnableVertexAttribArray(1 /*vertexTexCoord*/); // only vertexPoint is enabled by default
+        GLES20.glEnableVertexAttribArray(2 /*vertexColor*/);
+
+        int maxQuads = Math.min(drawables.size(), MAX_BATCH_QUADS);
+        ByteBuffer vertices = dc.scratchBuffer(maxQuads * 4 * BATCH_VERTEX_STRIDE);
+        vertices.clear();
+
+        // Append a quad for each drawable, drawing the accumulated quads whenever the texture to bind or the depth test
+        // changes. Drawables whose atlas region is unavailable draw with their own texture.
+        int quadCount = 0;
+        Texture batchTexture = null;
+        boolean batchDepthTest = true;
+        for (int idx = 0, len = drawables.size(); idx < len; idx++) {
+            DrawableScreenTexture drawable = (DrawableScreenTexture) drawables.get(idx);
+            TextureAtlas.Region region = drawable.atlasRegion;
+            if (region != null && !region.isValid()) {
+                region = null; // the atlas evicted this region's page after this region was copied
+            }
+
+            Texture texture = (region != null) ? region.page : drawable.texture;
+            if (quadCount > 0 && (texture != batchTexture || drawable.enableDepthTest != batchDepthTest || quadCount == maxQuads)) {
+                this.drawBatchQuads(dc, vertices, quadCount, batchTexture, batchDepthTest);
+                vertices.clear();
+                quadCount = 0;
+            }
+
+            batchTexture = texture;
+            batchDepthTest = drawable.enableDepthTest;
+            this.appendBatchQuad(vertices, drawable, region);
+            quadCount++;
+        }
+
+        if (quadCount > 0) {
+            this.drawBatchQuads(dc, vertices, quadCount, batchTexture, batchDepthTest);
+        }
+
+        // Restore the default WorldWind OpenGL state.
+        GLES20.glDepthMask(true);
+        GLES20.glDisableVertexAttribArray(1 /*vertexTexCoord*/);
+        GLES20.glDisableVertexAttribArray(2 /*vertexColor*/);
+    }
+
+    protected void appendBatchQuad(ByteBuffer vertices, DrawableScreenTexture drawable, TextureAtlas.Region region) {
+        // Premultiply the drawable's color by its alpha. Pick colors are opaque, and are preserved exactly.
+        Color color = drawable.color;
+        byte r = (byte) Math.round(color.red * color.alpha * 255);
+        byte g = (byte) Math.round(color.green * color.alpha * 255);
+        byte b = (byte) Math.round(color.blue * color.alpha * 255);
+        byte a = (byte) Math.round(color.alpha * 255);
+
+        double[] m = drawable.unitSquareTransform.m;
+        Matrix3 texCoordMatrix = (drawable.texture != null) ? drawable.texture.getTexCoordTransform() : null;
+
+        // Transform the unit square corners to screen coordinates in counter-clockwise order.
+        for (int corner = 0; corner < 4; corner++) {
+            int u = (corner == 1 || corner == 2) ? 1 : 0;
+            int v = (corner >= 2) ? 1 : 0;
+
+            vertices.putFloat((float) (m[0] * u + m[1] * v + m[3]));
+            vertices.putFloat((float) (m[4] * u + m[5] * v + m[7]));
+            vertices.putFloat((float) (m[8] * u + m[9] * v + m[11]));
+
+            if (region != null) {
+                vertices.putFloat(u == 0 ? region.minS : region.maxS);
+                vertices.putFloat(v == 0 ? region.minT : region.maxT);
+            } else if (texCoordMatrix != null) {
+                double[] t = texCoordMatrix.m;
+                vertices.putFloat((float) (t[0] * u + t[1] * v + t[2]));
+                vertices.putFloat((float) (t[3] * u + t[4] * v + t[5]));
+            } else {
+                vertices.putFloat(0);
+                vertices.putFloat(0);
+            }
+
+            vertices.put(r).put(g).put(b).put(a);
+        }
+    }
+
+    protected void drawBatchQuads(DrawContext dc, ByteBuffer vertices, int quadCount, Texture texture, boolean depthTest) {
+        // Attempt to bind the batch texture, configuring the program appropriately if there is no texture or if the
+        // texture failed to bind. Skip the batch while its texture's upload is deferred to a subsequent frame.
+        boolean textureBound = texture != null && texture.bindTexture(dc);
+        if (texture != null && !textureBound && !texture.isReady()) {
+            return;
+        }
+
+        this.batchProgram.enableTexture(textureBound);
+
+        vertices.position(0);
+        GLES20.glVertexAttribPointer(0 /*vertexPoint*/, 3, GLES20.GL_FLOAT, false, BATCH_VERTEX_STRIDE, vertices);
+        vertices.position(12);
+        GLES20.glVertexAttribPointer(1 /*vertexTexCoord*/, 2, GLES20.GL_FLOAT, false, BATCH_VERTEX_STRIDE, vertices);
+        vertices.position(20);
+        GLES20.glVertexAttribPointer(2 /*vertexColor*/, 4, GLES20.GL_UNSIGNED_BYTE, true, BATCH_VERTEX_STRIDE, vertices);
+
+        // Disable depth testing if requested.
+        if (!depthTest) {
+            GLES20.glDisable(GLES20.GL_DEPTH_TEST);
+        }
+
+        // Draw the quads as indexed triangles.
+        GLES20.glDrawElements(GLES20.GL_TRIANGLES, quadCount * 6, GLES20.GL_UNSIGNED_SHORT, batchElements());
+
+        // Restore the default WorldWind OpenGL state.
+        if (!depthTest) {
+            GLES20.glEnable(GLES20.GL_DEPTH_TEST);
+        }
+    }
+
+    protected static ShortBuffer batchElements() {
+        if (batchElements != null) {
+            return batchElements;
+        }
+
+        // Two counter-clockwise triangles for each quad, indexing the quad's four vertices.
+        ShortBuffer elements = ByteBuffer.allocateDirect(MAX_BATCH_QUADS * 6 * 2).order(ByteOrder.nativeOrder()).asShortBuffer();
+        for (int quad = 0; quad < MAX_BATCH_QUADS; quad++) {
+            int vertex = quad * 4;
+            elements.put((short) vertex).put((short) (vertex + 1)).put((short) (vertex + 2));
+            elements.put((short) vertex).put((short) (vertex + 2)).put((short) (vertex + 3));
+        }
+
+        elements.rewind();
+        return (batchElements = elements);
+    }
+
     protected boolean canBatchWith(Drawable that) {
-        return this.getClass() == that.getClass() && this.program == ((DrawableScreenTexture) that).program;
+        return this.getClass() == that.getClass()
+            && this.program == ((DrawableScreenTexture) that).program
+            && this.batchProgram == ((DrawableScreenTexture) that).batchProgram;
     }
 }
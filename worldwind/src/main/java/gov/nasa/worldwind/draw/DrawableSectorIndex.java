@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.draw;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.util.Logger;
+import gov.nasa.worldwind.util.SectorQuadtree;
+
+/**
+ * Geographic index of the sectors of a batch of surface drawables, used to find the drawables overlapping each terrain
+ * tile without testing every drawable against every tile. Sectors are identified by the order they are added, and
+ * queries return the indices of the sectors intersecting or adjacent to the query sector in that order, so drawables
+ * are drawn in their original order.
+ * <p>
+ * Sectors are indexed in a {@link SectorQuadtree} that is retained while the index is cleared and refilled for each
+ * batch. Each sector keeps its quadtree entry from batch to batch, so refilling the index moves entries between nodes
+ * rather than allocating new entries. Batches of fewer than 16 sectors are not indexed; their queries return every
+ * index.
+ */
+public class DrawableSectorIndex {
+
+    protected static final int MIN_INDEXED_COUNT = 16;
+
+    protected final SectorQuadtree<Integer> quadtree = new SectorQuadtree<>();
+
+    protected final ArrayList<SectorQuadtree.Entry<Integer>> entries = new ArrayList<>();
+
+    protected final ArrayList<Sector> sectors = new ArrayList<>();
+
+    protected int count;
+
+    protected boolean indexed;
+
+    protected final ArrayList<Integer> queryList = new ArrayList<>();
+
+    protected final Sector resultSector = new Sector();
+
+    protected boolean resultValid;
+
+    protected int[] results = new int[MIN_INDEXED_COUNT];
+
+    protected int resultCount;
+
+    public DrawableSectorIndex() {
+    }
+
+    /**
+     * Returns the number of sectors in this index.
+     */
+    public int count() {
+        return this.count;
+    }
+
+    /**
+     * Removes all sectors from this index, retaining the quadtree and its entries for the next batch.
+     */
+    public void clear() {
+        this.count = 0;
+        this.indexed = false;
+        this.resultValid = false;
+    }
+
+    /**
+     * Adds a sector to this index. The sector is copied.
+     *
+     * @param sector the sector to add
+     *
+     * @return the sector's index, which is the number of sectors previously added
+     *
+     * @throws IllegalArgumentException If the sector is null
+     */
+    public int add(Sector sector) {
+        if (sector == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "DrawableSectorIndex", "add", "missingSector"));
+        }
+
+        if (this.count < this.sectors.size()) {
+            this.sectors.get(this.count).set(sector);
+        } else {
+            this.sectors.add(new Sector(sector));
+        }
+
+        this.indexed = false;
+        this.resultValid = false;
+        return this.count++;
+    }
+
+    /**
+     * Finds the sectors that intersect or are adjacent to a query sector. The query's results are available from
+     * {@link #resultAt(int)} until the next query or the next change to this index. Results may include sectors that
+     * do not intersect the query sector, but never omit sectors that do.
+     *
+     * @param sector the sector to query
+     *
+     * @return the number of results
+     *
+     * @throws IllegalArgumentException If the sector is null
+     */
+    public int query(Sector sector) {
+        if (sector == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "DrawableSectorIndex", "query", "missingSector"));
+        }
+
+        if (this.resultValid && this.resultSector.equals(sector)) {
+            return this.resultCount; // repeated query for the same sector
+        }
+
+        if (this.results.length < this.count) {
+            this.results = new int[this.count];
+        }
+
+        if (this.count < MIN_INDEXED_COUNT) {
+            for (int idx = 0; idx < this.count; idx++) {
+                this.results[idx] = idx; // small batches are tested one sector at a time by the caller
+            }
+            this.resultCount = this.count;
+        } else {
+            this.assembleQuadtree();
+            this.queryList.clear();
+            int resultCount = this.quadtree.query(sector, this.queryList);
+            for (int idx = 0; idx < resultCount; idx++) {
+                this.results[idx] = this.queryList.get(idx);
+            }
+
+            // Restore the order in which the sectors were added; the quadtree returns results in no particular order.
+            Arrays.sort(this.results, 0, resultCount);
+            this.resultCount = resultCount;
+        }
+
+        this.resultSector.set(sector);
+        this.resultValid = true;
+        return this.resultCount;
+    }
+
+    /**
+     * Returns the index of a sector found by the most recent query, in the order the sectors were added.
+     *
+     * @param index the result's position, less than the count returned by the query
+     *
+     * @return the sector's index
+     */
+    public int resultAt(int index) {
+        return this.results[index];
+    }
+
+    protected void assembleQuadtree() {
+        if (this.indexed) {
+            return;
+        }
+
+        // Move the entries retained from the previous batch to their new sectors, and insert entries for sectors
+        // beyond the previous batch. Entry values are the sector indices.
+        for (int idx = 0; idx < this.count; idx++) {
+            Sector sector = this.sectors.get(idx);
+            if (idx < this.entries.size()) {
+                this.quadtree.update(this.entries.get(idx), sector);
+            } else {
+                this.entries.add(this.quadtree.insert(sector, idx));
+            }
+        }
+
+        // Remove entries for sectors beyond this batch.
+        for (int idx = this.entries.size() - 1; idx >= this.count; idx--) {
+            this.quadtree.remove(this.entries.remove(idx));
+        }
+
+        this.indexed = true;
+    }
+}
@@ -89,9 +89,14 @@ public class DrawableShape implements Drawable {
         // Draw the specified primitives.
         for (int idx = 0; idx < this.drawState.primCount; idx++) {
             DrawShapeState.DrawElements prim = this.drawState.prims[idx];
+            boolean textureBound = prim.texture != null && prim.texture.bindTexture(dc);
+            if (prim.texture != null && !textureBound && !prim.texture.isReady()) {
+                continue; // texture upload deferred to a subsequent frame; don't draw the primitive without it
+            }
+
             this.drawState.program.loadColor(prim.color);
 
-            if (prim.texture != null && prim.texture.bindTexture(dc)) {
+            if (textureBound) {
                 this.drawState.program.loadTexCoordMatrix(prim.texCoordMatrix);
                 this.drawState.program.enableTexture(true);
             } else {
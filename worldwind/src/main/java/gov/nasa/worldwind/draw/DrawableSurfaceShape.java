@@ -8,6 +8,7 @@ package gov.nasa.worldwind.draw;
 import android.opengl.GLES20;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import gov.nasa.worldwind.geom.Matrix3;
 import gov.nasa.worldwind.geom.Matrix4;
@@ -15,11 +16,19 @@ import gov.nasa.worldwind.geom.Sector;
 import gov.nasa.worldwind.geom.Vec3;
 import gov.nasa.worldwind.render.Color;
 import gov.nasa.worldwind.render.Framebuffer;
+import gov.nasa.worldwind.render.RenderResource;
 import gov.nasa.worldwind.render.Texture;
 import gov.nasa.worldwind.util.Pool;
 
 public class DrawableSurfaceShape implements Drawable {
 
+    /**
+     * Width and height of the textures that hold cached surface shape rasterizations, one per terrain tile. Terrain
+     * tiles typically cover a few hundred pixels on screen, so 512 texels keep shape outlines sharp while holding the
+     * cache's memory to 1 MB per tile.
+     */
+    protected static final int CACHED_TEXTURE_SIZE = 512;
+
     public final DrawShapeState drawState = new DrawShapeState();
 
     public final Sector sector = new Sector();
@@ -32,6 +41,12 @@ public class DrawableSurfaceShape implements Drawable {
 
     private final Color color = new Color();
 
+    private final ShapeSignature signature = new ShapeSignature();
+
+    private final TextureKey textureKey = new TextureKey();
+
+    private boolean shapesDrawnFully;
+
     private Pool<DrawableSurfaceShape> pool;
 
     public DrawableSurfaceShape() {
@@ -68,9 +83,10 @@ public class DrawableSurfaceShape implements Drawable {
         // Set up to use vertex tex coord attributes.
         GLES20.glEnableVertexAttribArray(1 /*vertexTexCoord*/); // only vertexPoint is enabled by default
 
-        // Accumulate shapes in the draw context's scratch list.
-        // TODO accumulate in a geospatial quadtree
+        // Accumulate shapes in the draw context's scratch list, and index their sectors in the draw context's scratch
+        // sector index.
         ArrayList<Object> scratchList = dc.scratchList();
+        DrawableSectorIndex sectorIndex = dc.scratchSectorIndex();
 
         try {
             // Add this shape.
@@ -82,12 +98,28 @@ public class DrawableSurfaceShape implements Drawable {
                 scratchList.add(dc.pollDrawable()); // take it off the queue
             }
 
+            // Index the shapes by sector in the order they are drawn.
+            sectorIndex.clear();
+            for (int idx = 0, len = scratchList.size(); idx < len; idx++) {
+                sectorIndex.add(((DrawableSurfaceShape) scratchList.get(idx)).sector);
+            }
+
+            // Rasterizations are cached across frames outside of picking, when the accumulated shapes' contents are
+            // the same as the previous frame. Picking uses unique colors for each shape and is always rasterized.
+            boolean useCache = !dc.pickMode;
+            int batchIndex = useCache ? dc.nextSurfaceShapeBatch() : 0;
+
             // Draw the accumulated shapes on each drawable terrain.
             for (int idx = 0, len = dc.getDrawableTerrainCount(); idx < len; idx++) {
                 // Get the drawable terrain associated with the draw context.
                 DrawableTerrain terrain = dc.getDrawableTerrain(idx);
-                // Draw the accumulated surface shapes to a texture representing the terrain's sector.
-                if (this.drawShapesToTexture(dc, terrain) > 0) {
+                if (useCache) {
+                    // Draw the texture containing the shapes rasterized in this or a previous frame onto the terrain.
+                    Texture texture = this.cachedShapeTexture(dc, terrain, batchIndex);
+                    if (texture != null) {
+                        this.drawTextureToTerrain(dc, terrain, texture);
+                    }
+                } else if (this.drawShapesToTexture(dc, terrain) > 0) {
                     // Draw the texture containing the rasterized shapes onto the terrain geometry.
                     this.drawTextureToTerrain(dc, terrain);
                 }
@@ -95,23 +127,77 @@ public class DrawableSurfaceShape implements Drawable {
         } finally {
             // Clear the accumulated shapes.
             scratchList.clear();
+            sectorIndex.clear();
             // Restore the default WorldWind OpenGL state.
             GLES20.glDisableVertexAttribArray(1 /*vertexTexCoord*/); // only vertexPoint is enabled by default
         }
     }
 
+    /**
+     * Returns a texture containing the accumulated shapes rasterized for the terrain's sector, or null if no shapes
+     * intersect the terrain. The texture is cached in the draw context's surface shape texture cache under the
+     * terrain's sector and the batch index, and is rasterized again only when the content of the shapes intersecting
+     * the terrain changes. When the cache is full, the shapes are rasterized into the scratch framebuffer instead.
+     */
+    protected Texture cachedShapeTexture(DrawContext dc, DrawableTerrain terrain, int batchIndex) {
+        // Capture the content of the accumulated shapes intersecting the terrain's sector.
+        Sector terrainSector = terrain.getSector();
+        if (this.assembleSignature(dc, terrainSector, this.signature) == 0) {
+            return null; // no shapes intersect the terrain
+        }
+
+        // Reuse the cached rasterization when its content matches the shapes drawn this frame.
+        SurfaceShapeTextureCache cache = dc.surfaceShapeTextureCache();
+        CachedTexture cached = cache.get(this.textureKey.set(terrainSector, batchIndex));
+        if (cached != null && cached.signature.contentEquals(this.signature)) {
+            return cached.texture;
+        }
+
+        // Rasterize the shapes into a new cached texture, or into the existing texture when the content changed.
+        if (cached == null) {
+            cached = new CachedTexture(new Texture(CACHED_TEXTURE_SIZE, CACHED_TEXTURE_SIZE, GLES20.GL_RGBA, GLES20.GL_UNSIGNED_BYTE));
+            if (!cache.put(dc, new TextureKey().set(terrainSector, batchIndex), cached)) {
+                // The cache is full of textures drawn this frame. Rasterize the shapes without caching them.
+                return (this.drawShapesToTexture(dc, terrain) > 0) ?
+                    dc.scratchFramebuffer().getAttachedTexture(GLES20.GL_COLOR_ATTACHMENT0) : null;
+            }
+        }
+
+        Framebuffer framebuffer = dc.textureFramebuffer();
+        if (!framebuffer.attachTexture(dc, cached.texture, GLES20.GL_COLOR_ATTACHMENT0)) {
+            return null; // framebuffer failed to attach the texture
+        }
+
+        // Keep the rasterization's signature only when every shape drew fully. Shapes whose buffers failed to bind or
+        // whose textures are waiting to upload are missing from the rasterization, which must be drawn again.
+        int shapeCount = this.drawShapesToTexture(dc, terrain, framebuffer);
+        if (shapeCount > 0 && this.shapesDrawnFully) {
+            cached.signature.set(this.signature);
+        } else {
+            cached.signature.clear(); // rasterize the shapes again in the next frame
+        }
+
+        return (shapeCount > 0) ? cached.texture : null;
+    }
+
     protected int drawShapesToTexture(DrawContext dc, DrawableTerrain terrain) {
-        // Shapes have been accumulated in the draw context's scratch list.
+        return this.drawShapesToTexture(dc, terrain, dc.scratchFramebuffer());
+    }
+
+    protected int drawShapesToTexture(DrawContext dc, DrawableTerrain terrain, Framebuffer framebuffer) {
+        // Shapes have been accumulated in the draw context's scratch list, and indexed by sector.
         ArrayList<Object> scratchList = dc.scratchList();
+        DrawableSectorIndex sectorIndex = dc.scratchSectorIndex();
 
         // The terrain's sector defines the geographic region in which to draw.
         Sector terrainSector = terrain.getSector();
 
-        // Keep track of the number of shapes drawn into the texture.
+        // Keep track of the number of shapes drawn into the texture, and whether any shape was drawn partially or not
+        // at all.
         int shapeCount = 0;
+        this.shapesDrawnFully = true;
 
         try {
-            Framebuffer framebuffer = dc.scratchFramebuffer();
             if (!framebuffer.bindFramebuffer(dc)) {
                 return 0; // framebuffer failed to bind
             }
@@ -133,19 +219,21 @@ public class DrawableSurfaceShape implements Drawable {
             this.textureMvpMatrix.multiplyByScale(2 / terrainSector.deltaLongitude(), 2 / terrainSector.deltaLatitude(), 0);
             this.textureMvpMatrix.multiplyByTranslation(-terrainSector.minLongitude(), -terrainSector.minLatitude(), 0);
 
-            for (int idx = 0, len = scratchList.size(); idx < len; idx++) {
+            for (int idx = 0, len = sectorIndex.query(terrainSector); idx < len; idx++) {
                 // Get the shape.
-                DrawableSurfaceShape shape = (DrawableSurfaceShape) scratchList.get(idx);
+                DrawableSurfaceShape shape = (DrawableSurfaceShape) scratchList.get(sectorIndex.resultAt(idx));
 
                 if (!shape.sector.intersectsOrNextTo(terrainSector)) {
                     continue;
                 }
 
                 if (shape.drawState.vertexBuffer == null || !shape.drawState.vertexBuffer.bindBuffer(dc)) {
+                    this.shapesDrawnFully = false;
                     continue; // vertex buffer unspecified or failed to bind
                 }
 
                 if (shape.drawState.elementBuffer == null || !shape.drawState.elementBuffer.bindBuffer(dc)) {
+                    this.shapesDrawnFully = false;
                     continue; // element buffer unspecified or failed to bind
                 }
 
@@ -160,9 +248,15 @@ public class DrawableSurfaceShape implements Drawable {
                 // Draw the specified primitives to the framebuffer texture.
                 for (int primIdx = 0; primIdx < shape.drawState.primCount; primIdx++) {
                     DrawShapeState.DrawElements prim = shape.drawState.prims[primIdx];
+                    boolean textureBound = prim.texture != null && prim.texture.bindTexture(dc);
+                    if (prim.texture != null && !textureBound && !prim.texture.isReady()) {
+                        this.shapesDrawnFully = false;
+                        continue; // texture upload deferred to a subsequent frame; don't draw the primitive without it
+                    }
+
                     this.drawState.program.loadColor(prim.color);
 
-                    if (prim.texture != null && prim.texture.bindTexture(dc)) {
+                    if (textureBound) {
                         this.drawState.program.loadTexCoordMatrix(prim.texCoordMatrix);
                         this.drawState.program.enableTexture(true);
                     } else {
@@ -189,6 +283,10 @@ public class DrawableSurfaceShape implements Drawable {
     }
 
     protected void drawTextureToTerrain(DrawContext dc, DrawableTerrain terrain) {
+        this.drawTextureToTerrain(dc, terrain, dc.scratchFramebuffer().getAttachedTexture(GLES20.GL_COLOR_ATTACHMENT0));
+    }
+
+    protected void drawTextureToTerrain(DrawContext dc, DrawableTerrain terrain, Texture texture) {
         if (!terrain.useVertexPointAttrib(dc, 0 /*vertexPoint*/)) {
             return; // terrain vertex attribute failed to bind
         }
@@ -197,8 +295,7 @@ public class DrawableSurfaceShape implements Drawable {
             return; // terrain vertex attribute failed to bind
         }
 
-        Texture colorAttachment = dc.scratchFramebuffer().getAttachedTexture(GLES20.GL_COLOR_ATTACHMENT0);
-        if (!colorAttachment.bindTexture(dc)) {
+        if (!texture.bindTexture(dc)) {
             return; // framebuffer texture failed to bind
         }
 
@@ -219,4 +316,183 @@ public class DrawableSurfaceShape implements Drawable {
         // Draw the terrain as triangles.
         terrain.drawTriangles(dc);
     }
+
+    /**
+     * Captures the state of each accumulated shape intersecting a sector, in drawing order. Signatures of the same
+     * shapes are equal until a shape's geometry, colors, line widths or textures change.
+     */
+    protected int assembleSignature(DrawContext dc, Sector sector, ShapeSignature result) {
+        ArrayList<Object> shapes = dc.scratchList();
+        DrawableSectorIndex sectorIndex = dc.scratchSectorIndex();
+        int shapeCount = 0;
+        result.clear();
+
+        for (int idx = 0, len = sectorIndex.query(sector); idx < len; idx++) {
+            DrawableSurfaceShape shape = (DrawableSurfaceShape) shapes.get(sectorIndex.resultAt(idx));
+            if (!shape.sector.intersectsOrNextTo(sector)) {
+                continue;
+            }
+
+            DrawShapeState state = shape.drawState;
+            result.addObject(state.vertexBuffer);
+            result.addObject(state.elementBuffer);
+            result.addValue(state.vertexOrigin.x);
+            result.addValue(state.vertexOrigin.y);
+            result.addValue(state.vertexOrigin.z);
+            result.addValue(state.vertexStride);
+            result.addValue(state.primCount);
+
+            for (int primIdx = 0; primIdx < state.primCount; primIdx++) {
+                DrawShapeState.DrawElements prim = state.prims[primIdx];
+                result.addObject(prim.texture);
+                result.addValue(prim.mode);
+                result.addValue(prim.count);
+                result.addValue(prim.type);
+                result.addValue(prim.offset);
+                result.addValue(prim.color.red);
+                result.addValue(prim.color.green);
+                result.addValue(prim.color.blue);
+                result.addValue(prim.color.alpha);
+                result.addValue(prim.lineWidth);
+                result.addValue(prim.texCoordAttrib.size);
+                result.addValue(prim.texCoordAttrib.offset);
+
+                if (prim.texture != null) {
+                    double[] m = prim.texCoordMatrix.m;
+                    for (int midx = 0; midx < m.length; midx++) {
+                        result.addValue(m[midx]);
+                    }
+                }
+            }
+
+            shapeCount++;
+        }
+
+        return shapeCount;
+    }
+
+    protected static class TextureKey {
+
+        public final Sector sector = new Sector();
+
+        public int batchIndex;
+
+        public TextureKey set(Sector sector, int batchIndex) {
+            this.sector.set(sector);
+            this.batchIndex = batchIndex;
+            return this;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == null || this.getClass() != o.getClass()) {
+                return false;
+            }
+
+            TextureKey that = (TextureKey) o;
+            return this.batchIndex == that.batchIndex && this.sector.equals(that.sector);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * this.sector.hashCode() + this.batchIndex;
+        }
+
+        @Override
+        public String toString() {
+            return "DrawableSurfaceShape.TextureKey{sector=" + this.sector + ", batchIndex=" + this.batchIndex + "}";
+        }
+    }
+
+    protected static class CachedTexture implements RenderResource {
+
+        public final Texture texture;
+
+        public final ShapeSignature signature = new ShapeSignature();
+
+        public long lastUsedFrame;
+
+        public CachedTexture(Texture texture) {
+            this.texture = texture;
+        }
+
+        @Override
+        public void release(DrawContext dc) {
+            this.texture.release(dc);
+        }
+    }
+
+    /**
+     * The content of a batch of surface shapes intersecting a sector, expressed as object references compared by
+     * identity and numeric values compared by value.
+     */
+    protected static class ShapeSignature {
+
+        protected Object[] objects = new Object[32];
+
+        protected int objectCount;
+
+        protected double[] values = new double[256];
+
+        protected int valueCount;
+
+        public void clear() {
+            Arrays.fill(this.objects, 0, this.objectCount, null);
+            this.objectCount = 0;
+            this.valueCount = 0;
+        }
+
+        public void addObject(Object object) {
+            if (this.objectCount == this.objects.length) {
+                this.objects = Arrays.copyOf(this.objects, this.objectCount * 2);
+            }
+
+            this.objects[this.objectCount++] = object;
+        }
+
+        public void addValue(double value) {
+            if (this.valueCount == this.values.length) {
+                this.values = Arrays.copyOf(this.values, this.valueCount * 2);
+            }
+
+            this.values[this.valueCount++] = value;
+        }
+
+        public void set(ShapeSignature that) {
+            this.clear();
+
+            if (this.objects.length < that.objectCount) {
+                this.objects = new Object[that.objects.length];
+            }
+
+            if (this.values.length < that.valueCount) {
+                this.values = new double[that.values.length];
+            }
+
+            System.arraycopy(that.objects, 0, this.objects, 0, that.objectCount);
+            System.arraycopy(that.values, 0, this.values, 0, that.valueCount);
+            this.objectCount = that.objectCount;
+            this.valueCount = that.valueCount;
+        }
+
+        public boolean contentEquals(ShapeSignature that) {
+            if (this.objectCount != that.objectCount || this.valueCount != that.valueCount) {
+                return false;
+            }
+
+            for (int idx = 0; idx < this.objectCount; idx++) {
+                if (this.objects[idx] != that.objects[idx]) {
+                    return false;
+                }
+            }
+
+            for (int idx = 0; idx < this.valueCount; idx++) {
+                if (this.values[idx] != that.values[idx]) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
 }
@@ -82,9 +82,10 @@ public class DrawableSurfaceTexture implements Drawable, SurfaceTexture {
             return; // program unspecified or failed to build
         }
 
-        // Accumulate surface textures in the draw context's scratch list.
-        // TODO accumulate in a geospatial quadtree
+        // Accumulate surface textures in the draw context's scratch list, and index their sectors in the draw
+        // context's scratch sector index.
         ArrayList<Object> scratchList = dc.scratchList();
+        DrawableSectorIndex sectorIndex = dc.scratchSectorIndex();
 
         try {
             // Add this surface texture.
@@ -96,11 +97,18 @@ public class DrawableSurfaceTexture implements Drawable, SurfaceTexture {
                 scratchList.add(dc.pollDrawable()); // take it off the queue
             }
 
+            // Index the surface textures by sector in the order they are drawn.
+            sectorIndex.clear();
+            for (int idx = 0, len = scratchList.size(); idx < len; idx++) {
+                sectorIndex.add(((DrawableSurfaceTexture) scratchList.get(idx)).sector);
+            }
+
             // Draw the accumulated surface textures.
             this.drawSurfaceTextures(dc);
         } finally {
             // Clear the accumulated surface textures.
             scratchList.clear();
+            sectorIndex.clear();
         }
     }
 
@@ -115,8 +123,9 @@ public class DrawableSurfaceTexture implements Drawable, SurfaceTexture {
         // Set up to use vertex tex coord attributes.
         GLES20.glEnableVertexAttribArray(1);
 
-        // Surface textures have been accumulated in the draw context's scratch list.
+        // Surface textures have been accumulated in the draw context's scratch list, and indexed by sector.
         ArrayList<Object> scratchList = dc.scratchList();
+        DrawableSectorIndex sectorIndex = dc.scratchSectorIndex();
 
         for (int idx = 0, len = dc.getDrawableTerrainCount(); idx < len; idx++) {
             // Get the drawable terrain associated with the draw context.
@@ -127,9 +136,10 @@ public class DrawableSurfaceTexture implements Drawable, SurfaceTexture {
             Vec3 terrainOrigin = terrain.getVertexOrigin();
             boolean usingTerrainAttrs = false;
 
-            for (int jidx = 0, jlen = scratchList.size(); jidx < jlen; jidx++) {
+            // Visit only the surface textures whose sectors overlap the terrain, in the order they were accumulated.
+            for (int jidx = 0, jlen = sectorIndex.query(terrainSector); jidx < jlen; jidx++) {
                 // Get the surface texture and its sector.
-                DrawableSurfaceTexture texture = (DrawableSurfaceTexture) scratchList.get(jidx);
+                DrawableSurfaceTexture texture = (DrawableSurfaceTexture) scratchList.get(sectorIndex.resultAt(jidx));
                 Sector textureSector = texture.sector;
 
                 if (!textureSector.intersects(terrainSector)) {
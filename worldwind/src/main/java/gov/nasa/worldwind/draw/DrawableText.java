@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.draw;
+
+import android.opengl.GLES20;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+import gov.nasa.worldwind.geom.Matrix4;
+import gov.nasa.worldwind.render.Color;
+import gov.nasa.worldwind.render.GlyphAtlas;
+import gov.nasa.worldwind.render.ScreenBatchProgram;
+import gov.nasa.worldwind.render.Texture;
+import gov.nasa.worldwind.util.Pool;
+
+/**
+ * Draws a string as quads over glyphs in the glyph atlas. Each quad's screen coordinates are computed on the render
+ * thread from the string's {@link GlyphAtlas.TextLayout}, so drawing changed text requires no new texture. Adjacent
+ * DrawableText instances sharing the same program are drawn together, with one draw call for each run of quads sharing
+ * an atlas page.
+ */
+public class DrawableText implements Drawable {
+
+    /**
+     * The number of floats per quad corner: a screen point and a tex coord.
+     */
+    protected static final int VERTEX_SIZE = 5;
+
+    public ScreenBatchProgram program = null;
+
+    public final Color textColor = new Color();
+
+    public final Color outlineColor = new Color();
+
+    public boolean enableDepthTest = true;
+
+    /**
+     * Screen points and tex coords for the four corners of each quad, in counter-clockwise order.
+     */
+    public float[] vertices = new float[VERTEX_SIZE * 4 * 16];
+
+    /**
+     * The atlas page texture used by each quad.
+     */
+    public Texture[] pages = new Texture[16];
+
+    /**
+     * The number of quads in use.
+     */
+    public int quadCount;
+
+    /**
+     * The number of leading quads drawn with the outline color. The remaining quads are drawn with the text color.
+     */
+    public int outlineQuadCount;
+
+    private Pool<DrawableText> pool;
+
+    public DrawableText() {
+    }
+
+    public static DrawableText obtain(Pool<DrawableText> pool) {
+        DrawableText instance = pool.acquire(); // get an instance from the pool
+        return (instance != null) ? instance.setPool(pool) : new DrawableText().setPool(pool);
+    }
+
+    private DrawableText setPool(Pool<DrawableText> pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    /**
+     * Replaces this drawable's quads with the quads of a text layout, transforming the layout's coordinates to screen
+     * coordinates.
+     *
+     * @param layout    the text layout
+     * @param transform the transform from layout coordinates to screen coordinates
+     */
+    public void setQuads(GlyphAtlas.TextLayout layout, Matrix4 transform) {
+        int count = layout.quadCount;
+        if (this.pages.length < count) {
+            this.vertices = new float[VERTEX_SIZE * 4 * count];
+            this.pages = new Texture[count];
+        }
+
+        double[] m = transform.m;
+        float[] quads = layout.quads;
+        float[] v = this.vertices;
+        int vidx = 0;
+        for (int idx = 0, qidx = 0; idx < count; idx++, qidx += GlyphAtlas.TextLayout.QUAD_STRIDE) {
+            for (int corner = 0; corner < 4; corner++) {
+                boolean right = (corner == 1 || corner == 2);
+                boolean top = (corner >= 2);
+                double x = quads[qidx + (right ? 2 : 0)];
+                double y = quads[qidx + (top ? 3 : 1)];
+                v[vidx++] = (float) (m[0] * x + m[1] * y + m[3]);
+                v[vidx++] = (float) (m[4] * x + m[5] * y + m[7]);
+                v[vidx++] = (float) (m[8] * x + m[9] * y + m[11]);
+                v[vidx++] = quads[qidx + (right ? 5 : 4)];
+                v[vidx++] = quads[qidx + (top ? 6 : 7)];
+            }
+        }
+
+        System.arraycopy(layout.pages, 0, this.pages, 0, count);
+        this.quadCount = count;
+        this.outlineQuadCount = layout.outlineQuadCount;
+    }
+
+    @Override
+    public void recycle() {
+        this.program = null;
+        for (int idx = 0; idx < this.quadCount; idx++) {
+            this.pages[idx] = null;
+        }
+        this.quadCount = 0;
+        this.outlineQuadCount = 0;
+
+        if (this.pool != null) { // return this instance to the pool
+            this.pool.release(this);
+            this.pool = null;
+        }
+    }
+
+    @Override
+    public void draw(DrawContext dc) {
+        if (this.program == null || !this.program.useProgram(dc)) {
+            return; // program unspecified or failed to build
+        }
+
+        // Accumulate this drawable and all DrawableText instances adjacent in the queue that share the same program.
+        ArrayList<Object> scratchList = dc.scratchList();
+        scratchList.add(this);
+        int totalQuads = this.quadCount;
+        Drawable next;
+        while ((next = dc.peekDrawable()) != null && this.canBatchWith(next)) {
+            DrawableText drawable = (DrawableText) dc.pollDrawable();
+            scratchList.add(drawable);
+            totalQuads += drawable.quadCount;
+        }
+
+        try {
+            this.drawQuads(dc, scratchList, Math.min(totalQuads, DrawableScreenTexture.MAX_BATCH_QUADS));
+        } finally {
+            scratchList.clear();
+        }
+    }
+
+    protected void drawQuads(DrawContext dc, ArrayList<Object> drawables, int maxQuads) {
+        // Use the draw context's pick mode and a projection that transforms screen coordinates to clip coordinates.
+        this.program.enablePickMode(dc.pickMode);
+        this.program.loadModelviewProjection(dc.screenProjection);
+
+        // Make multi-texture unit 0 active.
+        dc.activeTextureUnit(GLES20.GL_TEXTURE0);
+
+        // Disable writing to the depth buffer.
+        GLES20.glDepthMask(false);
+
+        // Use client-side vertex and element arrays.
+        dc.bindBuffer(GLES20.GL_ARRAY_BUFFER, 0);
+        dc.bindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, 0);
+        GLES20.glEnableVertexAttribArray(1 /*vertexTexCoord*/); // only vertexPoint is enabled by default
+        GLES20.glEnableVertexAttribArray(2 /*vertexColor*/);
+
+        ByteBuffer vertices = dc.scratchBuffer(maxQuads * 4 * DrawableScreenTexture.BATCH_VERTEX_STRIDE);
+        vertices.clear();
+
+        // Append each drawable's quads, drawing the accumulated quads whenever the atlas page or the depth test
+        // changes. Outline quads precede fill quads within each drawable.
+        int quadCount = 0;
+        Texture batchPage = null;
+        boolean batchDepthTest = true;
+        for (int idx = 0, len = drawables.size(); idx < len; idx++) {
+            DrawableText drawable = (DrawableText) drawables.get(idx);
+            int outlineColor = this.packColor(drawable.outlineColor);
+            int textColor = this.packColor(drawable.textColor);
+
+            for (int quad = 0; quad < drawable.quadCount; quad++) {
+                Texture page = drawable.pages[quad];
+                if (quadCount > 0 && (page != batchPage || drawable.enableDepthTest != batchDepthTest || quadCount == maxQuads)) {
+                    this.drawQuads(dc, vertices, quadCount, batchPage, batchDepthTest);
+                    vertices.clear();
+                    quadCount = 0;
+                }
+
+                batchPage = page;
+                batchDepthTest = drawable.enableDepthTest;
+                this.appendQuad(vertices, drawable.vertices, quad, quad < drawable.outlineQuadCount ? outlineColor : textColor);
+                quadCount++;
+            }
+        }
+
+        if (quadCount > 0) {
+            this.drawQuads(dc, vertices, quadCount, batchPage, batchDepthTest);
+        }
+
+        // Restore the default WorldWind OpenGL state.
+        GLES20.glDepthMask(true);
+        GLES20.glDisableVertexAttribArray(1 /*vertexTexCoord*/);
+        GLES20.glDisableVertexAttribArray(2 /*vertexColor*/);
+    }
+
+    protected void appendQuad(ByteBuffer vertices, float[] source, int quad, int color) {
+        int offset = quad * VERTEX_SIZE * 4;
+        for (int corner = 0; corner < 4; corner++, offset += VERTEX_SIZE) {
+            vertices.putFloat(source[offset]);
+            vertices.putFloat(source[offset + 1]);
+            vertices.putFloat(source[offset + 2]);
+            vertices.putFloat(source[offset + 3]);
+            vertices.putFloat(source[offset + 4]);
+            vertices.put((byte) (color >>> 24)).put((byte) (color >>> 16)).put((byte) (color >>> 8)).put((byte) color);
+        }
+    }
+
+    protected int packColor(Color color) {
+        // Premultiply the color by its alpha, packing its components as RGBA from the most significant byte. Pick
+        // colors are opaque, and are preserved exactly.
+        int r = Math.round(color.red * color.alpha * 255);
+        int g = Math.round(color.green * color.alpha * 255);
+        int b = Math.round(color.blue * color.alpha * 255);
+        int a = Math.round(color.alpha * 255);
+        return (r << 24) | (g << 16) | (b << 8) | a;
+    }
+
+    protected void drawQuads(DrawContext dc, ByteBuffer vertices, int quadCount, Texture page, boolean depthTest) {
+        // Attempt to bind the atlas page, configuring the program appropriately if the page failed to bind.
+        this.program.enableTexture(page != null && page.bindTexture(dc));
+
+        int stride = DrawableScreenTexture.BATCH_VERTEX_STRIDE;
+        vertices.position(0);
+        GLES20.glVertexAttribPointer(0 /*vertexPoint*/, 3, GLES20.GL_FLOAT, false, stride, vertices);
+        vertices.position(12);
+        GLES20.glVertexAttribPointer(1 /*vertexTexCoord*/, 2, GLES20.GL_FLOAT, false, stride, vertices);
+        vertices.position(20);
+        GLES20.glVertexAttribPointer(2 /*vertexColor*/, 4, GLES20.GL_UNSIGNED_BYTE, true, stride, vertices);
+
+        // Disable depth testing if requested.
+        if (!depthTest) {
+            GLES20.glDisable(GLES20.GL_DEPTH_TEST);
+        }
+
+        // Draw the quads as indexed triangles.
+        GLES20.glDrawElements(GLES20.GL_TRIANGLES, quadCount * 6, GLES20.GL_UNSIGNED_SHORT, DrawableScreenTexture.batchElements());
+
+        // Restore the default WorldWind OpenGL state.
+        if (!depthTest) {
+            GLES20.glEnable(GLES20.GL_DEPTH_TEST);
+        }
+    }
+
+    protected boolean canBatchWith(Drawable that) {
+        return this.getClass() == that.getClass() && this.program == ((DrawableText) that).program;
+    }
+}
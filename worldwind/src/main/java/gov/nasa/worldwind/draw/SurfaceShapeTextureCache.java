@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.draw;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import gov.nasa.worldwind.util.Logger;
+
+/**
+ * Holds the textures surface shapes are rasterized into, one for each terrain tile and batch of surface shapes, so
+ * that unchanged shapes need not be rasterized every frame. The cache holds a bounded number of bytes separate from the
+ * render resource cache, so that surface shape textures do not evict imagery and terrain resources.
+ * <p>
+ * When the cache is full it evicts the least recently used texture, unless every texture has been used during the
+ * current frame, in which case the new texture is left out of the cache. Textures for terrain tiles that have gone
+ * undrawn for several frames are released by {@link #releaseUnusedTextures(DrawContext)}.
+ * <p>
+ * SurfaceShapeTextureCache is used exclusively on the OpenGL thread, and is owned by the {@link DrawContext}.
+ */
+public class SurfaceShapeTextureCache {
+
+    protected static final int DEFAULT_CAPACITY = 1024 * 1024 * 32;
+
+    /**
+     * Number of frames a texture may go unused before it is released.
+     */
+    protected static final int TEXTURE_EXPIRATION_FRAMES = 60;
+
+    protected final int capacity;
+
+    protected int usedCapacity;
+
+    protected final HashMap<Object, DrawableSurfaceShape.CachedTexture> entries = new HashMap<>();
+
+    protected long frameNumber;
+
+    public SurfaceShapeTextureCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a cache holding at most a specified number of bytes of textures.
+     *
+     * @param capacity the cache capacity in bytes
+     *
+     * @throws IllegalArgumentException if the capacity is less than 1
+     */
+    public SurfaceShapeTextureCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "SurfaceShapeTextureCache", "constructor", "invalidCapacity"));
+        }
+
+        this.capacity = capacity;
+    }
+
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    public int getUsedCapacity() {
+        return this.usedCapacity;
+    }
+
+    public int getEntryCount() {
+        return this.entries.size();
+    }
+
+    /**
+     * Returns the texture cached under a key, or null if the cache holds no such texture. The returned texture is
+     * marked as used in the current frame.
+     */
+    public DrawableSurfaceShape.CachedTexture get(Object key) {
+        DrawableSurfaceShape.CachedTexture cached = this.entries.get(key);
+        if (cached != null) {
+            cached.lastUsedFrame = this.frameNumber;
+        }
+
+        return cached;
+    }
+
+    /**
+     * Adds a texture to the cache, evicting and releasing least recently used textures to make room for it.
+     *
+     * @return true if the texture was added, or false if the cache is filled with textures used in the current frame
+     */
+    public boolean put(DrawContext dc, Object key, DrawableSurfaceShape.CachedTexture cached) {
+        int size = cached.texture.getByteCount();
+        if (size > this.capacity) {
+            return false;
+        }
+
+        while (this.usedCapacity + size > this.capacity) {
+            if (!this.evictLeastRecentlyUsed(dc)) {
+                return false;
+            }
+        }
+
+        DrawableSurfaceShape.CachedTexture oldCached = this.entries.put(key, cached);
+        if (oldCached != null) {
+            this.usedCapacity -= oldCached.texture.getByteCount();
+            oldCached.release(dc);
+        }
+
+        cached.lastUsedFrame = this.frameNumber;
+        this.usedCapacity += size;
+        return true;
+    }
+
+    /**
+     * Releases the textures that have gone unused for several frames. This must be called once at the end of each
+     * frame.
+     */
+    public void releaseUnusedTextures(DrawContext dc) {
+        Iterator<DrawableSurfaceShape.CachedTexture> iterator = this.entries.values().iterator();
+        while (iterator.hasNext()) {
+            DrawableSurfaceShape.CachedTexture cached = iterator.next();
+            if (this.frameNumber - cached.lastUsedFrame >= TEXTURE_EXPIRATION_FRAMES) {
+                iterator.remove();
+                this.usedCapacity -= cached.texture.getByteCount();
+                cached.release(dc);
+            }
+        }
+
+        this.frameNumber++;
+    }
+
+    protected boolean evictLeastRecentlyUsed(DrawContext dc) {
+        Map.Entry<Object, DrawableSurfaceShape.CachedTexture> lruEntry = null;
+        for (Map.Entry<Object, DrawableSurfaceShape.CachedTexture> entry : this.entries.entrySet()) {
+            if (lruEntry == null || lruEntry.getValue().lastUsedFrame > entry.getValue().lastUsedFrame) {
+                lruEntry = entry;
+            }
+        }
+
+        // Keep textures used in the current frame; they may already have been drawn onto the terrain.
+        if (lruEntry == null || lruEntry.getValue().lastUsedFrame == this.frameNumber) {
+            return false;
+        }
+
+        DrawableSurfaceShape.CachedTexture cached = this.entries.remove(lruEntry.getKey());
+        this.usedCapacity -= cached.texture.getByteCount();
+        cached.release(dc);
+        return true;
+    }
+}
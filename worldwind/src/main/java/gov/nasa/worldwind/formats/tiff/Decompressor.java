@@ -0,0 +1,312 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.formats.tiff;
+
+import java.nio.ByteOrder;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import gov.nasa.worldwind.util.Logger;
+
+/**
+ * Decodes Tiff strips and tiles compressed with LZW, Deflate or PackBits, and reverses the horizontal differencing
+ * predictor. Decoding reads from and writes to caller provided arrays, allowing a strip to be decoded directly into
+ * its place in the image data. A Decompressor retains its LZW string table and Deflate inflater between blocks, and
+ * must be released with {@link #release()} when no longer needed. This class is not thread safe.
+ */
+public class Decompressor {
+
+    protected static final int LZW_CLEAR_CODE = 256;
+
+    protected static final int LZW_EOI_CODE = 257;
+
+    protected static final int LZW_FIRST_CODE = 258;
+
+    protected static final int LZW_MIN_BITS = 9;
+
+    protected static final int LZW_MAX_BITS = 12;
+
+    protected static final int LZW_TABLE_SIZE = 1 << LZW_MAX_BITS;
+
+    /**
+     * The offset in the destination array at which each LZW string table entry was last written. Every table entry
+     * is a string already written to the destination, extended by the byte that follows it there, so each entry can be
+     * copied from its earlier occurrence rather than stored.
+     */
+    protected int[] lzwOffset;
+
+    /**
+     * The length of each LZW string table entry, in bytes.
+     */
+    protected int[] lzwLength;
+
+    protected Inflater inflater;
+
+    public Decompressor() {
+    }
+
+    /**
+     * Indicates whether this class can decode the specified Tiff compression scheme.
+     *
+     * @param compression the Tiff compression code
+     *
+     * @return true if the compression is supported, otherwise false
+     */
+    public static boolean isCompressionSupported(@Tiff.COMPRESSION int compression) {
+        return compression == Tiff.NO_COMPRESSION ||
+            compression == Tiff.LZW_COMPRESSION ||
+            compression == Tiff.DEFLATE_COMPRESSION ||
+            compression == Tiff.OBSOLETE_DEFLATE_COMPRESSION ||
+            compression == Tiff.PACKBITS_COMPRESSION;
+    }
+
+    /**
+     * Decodes a compressed block of image data, a strip or a tile, into the specified destination range. Decoding stops
+     * when the source is exhausted or the destination range is full, whichever comes first.
+     *
+     * @param compression the Tiff compression code
+     * @param src         the array containing the compressed data
+     * @param srcOffset   the compressed data's offset in src
+     * @param srcLength   the compressed data's length in bytes
+     * @param dst         the array in which to write the decoded data
+     * @param dstOffset   the offset in dst at which to write the decoded data
+     * @param dstLength   the maximum number of bytes to write
+     *
+     * @return the number of bytes written to dst
+     */
+    public int decode(@Tiff.COMPRESSION int compression, byte[] src, int srcOffset, int srcLength, byte[] dst, int dstOffset, int dstLength) {
+        switch (compression) {
+            case Tiff.NO_COMPRESSION:
+                int length = Math.min(srcLength, dstLength);
+                System.arraycopy(src, srcOffset, dst, dstOffset, length);
+                return length;
+            case Tiff.LZW_COMPRESSION:
+                return this.decodeLzw(src, srcOffset, srcLength, dst, dstOffset, dstLength);
+            case Tiff.DEFLATE_COMPRESSION:
+            case Tiff.OBSOLETE_DEFLATE_COMPRESSION:
+                return this.inflate(src, srcOffset, srcLength, dst, dstOffset, dstLength);
+            case Tiff.PACKBITS_COMPRESSION:
+                return this.unpackBits(src, srcOffset, srcLength, dst, dstOffset, dstLength);
+            default:
+                throw new UnsupportedOperationException(
+                    Logger.logMessage(Logger.ERROR, "Decompressor", "decode", "unsupported compression " + compression));
+        }
+    }
+
+    /**
+     * Releases the native resources held by this Decompressor.
+     */
+    public void release() {
+        if (this.inflater != null) {
+            this.inflater.end();
+            this.inflater = null;
+        }
+    }
+
+    protected int decodeLzw(byte[] src, int srcOffset, int srcLength, byte[] dst, int dstOffset, int dstLength) {
+        if (this.lzwOffset == null) {
+            this.lzwOffset = new int[LZW_TABLE_SIZE];
+            this.lzwLength = new int[LZW_TABLE_SIZE];
+        }
+
+        int[] offset = this.lzwOffset;
+        int[] length = this.lzwLength;
+
+        int srcPos = srcOffset;
+        int srcEnd = srcOffset + srcLength;
+        int dstPos = dstOffset;
+        int dstEnd = dstOffset + dstLength;
+        int bitBuffer = 0;
+        int bitCount = 0;
+        int codeBits = LZW_MIN_BITS;
+        int nextCode = LZW_FIRST_CODE;
+        int oldCode = -1;
+        int oldPos = 0;
+
+        while (dstPos < dstEnd) {
+            // Read the next code, most significant bit first. An exhausted source ends the data like an EOI code.
+            while (bitCount < codeBits && srcPos < srcEnd) {
+                bitBuffer = (bitBuffer << 8) | (src[srcPos++] & 0xFF);
+                bitCount += 8;
+            }
+            if (bitCount < codeBits) {
+                break;
+            }
+            int code = (bitBuffer >>> (bitCount - codeBits)) & ((1 << codeBits) - 1);
+            bitCount -= codeBits;
+
+            if (code == LZW_EOI_CODE) {
+                break;
+            } else if (code == LZW_CLEAR_CODE) {
+                codeBits = LZW_MIN_BITS;
+                nextCode = LZW_FIRST_CODE;
+                oldCode = -1;
+                continue;
+            } else if (code > nextCode || (oldCode == -1 && code > 255)) {
+                throw new RuntimeException(
+                    Logger.logMessage(Logger.ERROR, "Decompressor", "decodeLzw", "invalid LZW code"));
+            }
+
+            // Add the previous string extended by this string's first byte to the table. That is the previous string
+            // together with the byte following it in the destination. A full table stays unchanged until the next
+            // clear code.
+            if (oldCode != -1 && nextCode < LZW_TABLE_SIZE) {
+                offset[nextCode] = oldPos;
+                length[nextCode] = ((oldCode < 256) ? 1 : length[oldCode]) + 1;
+                nextCode++;
+
+                // Increase the code width one code early, as Tiff LZW encoders do.
+                if (nextCode == (1 << codeBits) - 1 && codeBits < LZW_MAX_BITS) {
+                    codeBits++;
+                }
+            }
+
+            // Write the string, truncating it at the end of the destination range. Strings are copied forward one byte
+            // at a time, since the entry just added may overlap the string being written.
+            oldPos = dstPos;
+            oldCode = code;
+            if (code < 256) {
+                dst[dstPos++] = (byte) code;
+            } else {
+                int from = offset[code];
+                int end = Math.min(dstPos + length[code], dstEnd);
+                while (dstPos < end) {
+                    dst[dstPos++] = dst[from++];
+                }
+            }
+        }
+
+        return dstPos - dstOffset;
+    }
+
+    protected int inflate(byte[] src, int srcOffset, int srcLength, byte[] dst, int dstOffset, int dstLength) {
+        if (this.inflater == null) {
+            this.inflater = new Inflater();
+        } else {
+            this.inflater.reset();
+        }
+
+        this.inflater.setInput(src, srcOffset, srcLength);
+
+        try {
+            int dstPos = dstOffset;
+            int dstEnd = dstOffset + dstLength;
+            while (dstPos < dstEnd && !this.inflater.finished()) {
+                int count = this.inflater.inflate(dst, dstPos, dstEnd - dstPos);
+                if (count == 0 && (this.inflater.needsInput() || this.inflater.needsDictionary())) {
+                    break; // truncated data
+                }
+                dstPos += count;
+            }
+
+            return dstPos - dstOffset;
+        } catch (DataFormatException ex) {
+            throw new RuntimeException(
+                Logger.logMessage(Logger.ERROR, "Decompressor", "inflate", "invalid Deflate data"), ex);
+        }
+    }
+
+    protected int unpackBits(byte[] src, int srcOffset, int srcLength, byte[] dst, int dstOffset, int dstLength) {
+        int srcPos = srcOffset;
+        int srcEnd = srcOffset + srcLength;
+        int dstPos = dstOffset;
+        int dstEnd = dstOffset + dstLength;
+
+        while (srcPos < srcEnd && dstPos < dstEnd) {
+            int n = src[srcPos++];
+            if (n >= 0) { // copy the next n + 1 bytes literally
+                int count = Math.min(Math.min(n + 1, srcEnd - srcPos), dstEnd - dstPos);
+                System.arraycopy(src, srcPos, dst, dstPos, count);
+                srcPos += n + 1;
+                dstPos += count;
+            } else if (n != -128 && srcPos < srcEnd) { // repeat the next byte -n + 1 times; -128 is a no-op
+                byte value = src[srcPos++];
+                int count = Math.min(-n + 1, dstEnd - dstPos);
+                for (int end = dstPos + count; dstPos < end; dstPos++) {
+                    dst[dstPos] = value;
+                }
+            }
+        }
+
+        return dstPos - dstOffset;
+    }
+
+    /**
+     * Reverses the horizontal differencing predictor in place, replacing each sample's difference from the
+     * corresponding sample of the previous pixel with the sample's value.
+     *
+     * @param data            the array containing the decoded rows
+     * @param offset          the first row's offset in data
+     * @param rowCount        the number of rows
+     * @param rowBytes        the length of each row, in bytes
+     * @param samplesPerPixel the number of samples per pixel
+     * @param bitsPerSample   the number of bits per sample, which must be 8, 16 or 32
+     * @param order           the byte order of the samples
+     */
+    public static void undoHorizontalPredictor(byte[] data, int offset, int rowCount, int rowBytes, int samplesPerPixel,
+                                               int bitsPerSample, ByteOrder order) {
+        if (bitsPerSample != 8 && bitsPerSample != 16 && bitsPerSample != 32) {
+            throw new UnsupportedOperationException(
+                Logger.logMessage(Logger.ERROR, "Decompressor", "undoHorizontalPredictor", "unsupported bits per sample " + bitsPerSample));
+        }
+
+        boolean bigEndian = (order == ByteOrder.BIG_ENDIAN);
+        int sampleBytes = bitsPerSample / 8;
+        int stride = samplesPerPixel * sampleBytes;
+
+        // Accumulate each sample's differences along the row, independently for each sample of the pixel.
+        for (int row = 0, rowOffset = offset; row < rowCount; row++, rowOffset += rowBytes) {
+            int rowEnd = rowOffset + rowBytes - sampleBytes;
+            for (int sample = 0; sample < samplesPerPixel; sample++) {
+                int pos = rowOffset + sample * sampleBytes;
+                if (bitsPerSample == 8) {
+                    byte value = data[pos];
+                    for (pos += stride; pos <= rowEnd; pos += stride) {
+                        value += data[pos];
+                        data[pos] = value;
+                    }
+                } else if (bitsPerSample == 16) {
+                    int hi = bigEndian ? 0 : 1;
+                    int lo = 1 - hi;
+                    int value = (data[pos + hi] << 8) | (data[pos + lo] & 0xFF);
+                    for (pos += stride; pos <= rowEnd; pos += stride) {
+                        value += (data[pos + hi] << 8) | (data[pos + lo] & 0xFF);
+                        data[pos + hi] = (byte) (value >>> 8);
+                        data[pos + lo] = (byte) value;
+                    }
+                } else {
+                    int value = readInt(data, pos, bigEndian);
+                    for (pos += stride; pos <= rowEnd; pos += stride) {
+                        value += readInt(data, pos, bigEndian);
+                        writeInt(data, pos, value, bigEndian);
+                    }
+                }
+            }
+        }
+    }
+
+    protected static int readInt(byte[] data, int pos, boolean bigEndian) {
+        if (bigEndian) {
+            return (data[pos] & 0xFF) << 24 | (data[pos + 1] & 0xFF) << 16 | (data[pos + 2] & 0xFF) << 8 | (data[pos + 3] & 0xFF);
+        } else {
+            return (data[pos + 3] & 0xFF) << 24 | (data[pos + 2] & 0xFF) << 16 | (data[pos + 1] & 0xFF) << 8 | (data[pos] & 0xFF);
+        }
+    }
+
+    protected static void writeInt(byte[] data, int pos, int value, boolean bigEndian) {
+        if (bigEndian) {
+            data[pos] = (byte) (value >>> 24);
+            data[pos + 1] = (byte) (value >>> 16);
+            data[pos + 2] = (byte) (value >>> 8);
+            data[pos + 3] = (byte) value;
+        } else {
+            data[pos + 3] = (byte) (value >>> 24);
+            data[pos + 2] = (byte) (value >>> 16);
+            data[pos + 1] = (byte) (value >>> 8);
+            data[pos] = (byte) value;
+        }
+    }
+}
@@ -6,6 +6,7 @@
 package gov.nasa.worldwind.formats.tiff;
 
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -191,9 +192,9 @@ public class Subfile {
         field = this.fields.get(Tiff.COMPRESSION_TAG);
         if (field != null) {
             this.compression = Tiff.readWord(field.getDataBuffer());
-            if (this.compression != 1) {
+            if (!Decompressor.isCompressionSupported(this.compression)) {
                 throw new UnsupportedOperationException(
-                    Logger.logMessage(Logger.ERROR, "Subfile", "populateDefineFields", "compressed images are not supported"));
+                    Logger.logMessage(Logger.ERROR, "Subfile", "populateDefineFields", "unsupported compression " + this.compression));
             }
         }
 
@@ -246,6 +247,10 @@ public class Subfile {
         field = this.fields.get(Tiff.COMPRESSION_PREDICTOR_TAG);
         if (field != null) {
             this.compressionPredictor = Tiff.readWord(field.getDataBuffer());
+            if (this.compressionPredictor != Tiff.NO_PREDICTOR && this.compressionPredictor != Tiff.HORIZONTAL_PREDICTOR) {
+                throw new UnsupportedOperationException(
+                    Logger.logMessage(Logger.ERROR, "Subfile", "populateDefinedFields", "unsupported predictor " + this.compressionPredictor));
+            }
         }
 
         field = this.fields.get(Tiff.SAMPLE_FORMAT_TAG);
@@ -277,6 +282,10 @@ public class Subfile {
         return this.compression;
     }
 
+    public int getCompressionPredictor() {
+        return this.compressionPredictor;
+    }
+
     public int getPhotometricInterpretation() {
         return this.photometricInterpretation;
     }
@@ -475,9 +484,10 @@ public class Subfile {
     }
 
     /**
-     * Writes the uncompressed data from the Tiff data associated with the Subfile to the provided
-     * ByteBuffer. The data copied to the provided buffer will use the original datas byte order and may override the
-     * byte order specified by the provided buffer.
+     * Writes the uncompressed data from the Tiff data associated with the Subfile to the provided ByteBuffer,
+     * decompressing each strip or tile and reversing the horizontal differencing predictor when the Subfile specifies
+     * them. The data copied to the provided buffer will use the original datas byte order and may override the byte
+     * order specified by the provided buffer. Strips are decoded directly into buffers backed by an accessible array.
      *
      * @param result a ByteBuffer ready for the uncompressed Tiff data, should have a capacity of at least the return
      *               value of {@link Subfile#getDataSize()}
@@ -498,7 +508,6 @@ public class Subfile {
         // set the result ByteBuffer to our datas byte order
         result.order(this.tiff.buffer.order());
 
-        // TODO handle compression
         if (this.fields.containsKey(Tiff.STRIP_OFFSETS_TAG)) {
             this.combineStrips(result);
         } else {
@@ -509,46 +518,120 @@ public class Subfile {
     }
 
     protected void combineStrips(ByteBuffer result) {
-        // this works when the data is not compressed and may work when it is compressed as well
+        Decompressor decompressor = new Decompressor();
+        try {
+            this.combineStrips(decompressor, result);
+        } finally {
+            decompressor.release();
+            this.tiff.buffer.clear();
+        }
+    }
+
+    protected void combineStrips(Decompressor decompressor, ByteBuffer result) {
+        int rowBytes = this.imageWidth * this.getTotalBytesPerPixel();
+        int rowsPerStrip = (this.rowsPerStrip > 0 && this.rowsPerStrip < this.imageLength) ? this.rowsPerStrip : this.imageLength;
+        byte[] scratch = null;
+
         for (int i = 0; i < this.stripOffsets.length; i++) {
-            this.tiff.buffer.limit(this.stripOffsets[i] + this.stripByteCounts[i]);
-            this.tiff.buffer.position(this.stripOffsets[i]);
-            result.put(this.tiff.buffer);
+            int rowCount = Math.min(rowsPerStrip, this.imageLength - i * rowsPerStrip);
+            if (rowCount <= 0) {
+                break; // ignore strips beyond the image
+            }
+
+            // Decode the strip in place when the result's array is accessible, otherwise decode it to a scratch array
+            // and copy it to the result.
+            int stripBytes = rowCount * rowBytes;
+            byte[] dst;
+            int dstOffset;
+            if (result.hasArray()) {
+                dst = result.array();
+                dstOffset = result.arrayOffset() + result.position();
+            } else {
+                if (scratch == null) {
+                    scratch = new byte[rowsPerStrip * rowBytes];
+                }
+                dst = scratch;
+                dstOffset = 0;
+            }
+
+            this.decodeBlock(decompressor, this.stripOffsets[i], this.stripByteCounts[i], dst, dstOffset, stripBytes);
+            this.undoPredictor(dst, dstOffset, rowCount, rowBytes);
+
+            if (dst == scratch) {
+                result.put(scratch, 0, stripBytes);
+            } else {
+                result.position(result.position() + stripBytes);
+            }
         }
-        this.tiff.buffer.clear();
     }
 
     protected void combineTiles(ByteBuffer result) {
-        // this works when the data is not compressed, but it will cause problems if it is compressed and needs to be
-        // decompressed as this detiles the tiles, each tile should be decompressed prior to this operation
+        Decompressor decompressor = new Decompressor();
+        try {
+            this.combineTiles(decompressor, result);
+        } finally {
+            decompressor.release();
+            this.tiff.buffer.clear();
+        }
+    }
+
+    protected void combineTiles(Decompressor decompressor, ByteBuffer result) {
+        int bytesPerPixel = this.getTotalBytesPerPixel();
+        int tileRowBytes = this.tileWidth * bytesPerPixel;
+        int imageRowBytes = this.imageWidth * bytesPerPixel;
         int tilesAcross = (this.imageWidth + this.tileWidth - 1) / this.tileWidth;
-        // int tilesDown = (this.imageLength + this.tileLength - 1) / this.tileLength;
-        int currentTileRow;
-        int currentTileCol;
-        int tileIndex;
-        int tilePixelRow;
-        int tilePixelCol;
-        int tilePixelIndex;
-        int totalBytesPerSample = this.getTotalBytesPerPixel();
-        int offsetIndex;
-        for (int pixelRow = 0; pixelRow < this.imageLength; pixelRow++) {
-            currentTileRow = floorDiv(pixelRow, this.tileLength);
-            tilePixelRow = pixelRow - currentTileRow * this.tileLength;
-            for (int pixelCol = 0; pixelCol < this.imageWidth; pixelCol++) {
-                currentTileCol = floorDiv(pixelCol, this.tileWidth);
-                tileIndex = (currentTileRow * tilesAcross) + currentTileCol;
-
-                // offset byte row/column
-                tilePixelCol = pixelCol - currentTileCol * this.tileWidth;
-                tilePixelIndex = (tilePixelRow * this.tileWidth + tilePixelCol) * totalBytesPerSample;
-
-                offsetIndex = this.tileOffsets[tileIndex] + tilePixelIndex;
-                this.tiff.buffer.limit(offsetIndex + totalBytesPerSample);
-                this.tiff.buffer.position(offsetIndex);
-                result.put(this.tiff.buffer);
+        int tilesDown = (this.imageLength + this.tileLength - 1) / this.tileLength;
+        int resultStart = result.position();
+        byte[] tile = new byte[this.tileLength * tileRowBytes];
+
+        // Decode each tile to a scratch array, then copy the tile's rows within the image to their place in the result.
+        // Tiles at the right and bottom edges of the image may extend beyond the image.
+        for (int tileRow = 0; tileRow < tilesDown; tileRow++) {
+            int rowCount = Math.min(this.tileLength, this.imageLength - tileRow * this.tileLength);
+
+            for (int tileCol = 0; tileCol < tilesAcross; tileCol++) {
+                int tileIndex = tileRow * tilesAcross + tileCol;
+                int colBytes = Math.min(this.tileWidth, this.imageWidth - tileCol * this.tileWidth) * bytesPerPixel;
+
+                // Uncompressed tiles have a fixed size, and do not depend on the tile byte counts.
+                int byteCount = (this.compression == Tiff.NO_COMPRESSION) ? tile.length : this.tileByteCounts[tileIndex];
+                this.decodeBlock(decompressor, this.tileOffsets[tileIndex], byteCount, tile, 0, tile.length);
+                this.undoPredictor(tile, 0, rowCount, tileRowBytes);
+
+                int resultPos = resultStart + tileRow * this.tileLength * imageRowBytes + tileCol * tileRowBytes;
+                for (int row = 0; row < rowCount; row++, resultPos += imageRowBytes) {
+                    result.position(resultPos);
+                    result.put(tile, row * tileRowBytes, colBytes);
+                }
             }
         }
-        this.tiff.buffer.clear();
+
+        result.position(resultStart + this.imageLength * imageRowBytes);
+    }
+
+    protected void decodeBlock(Decompressor decompressor, int offset, int byteCount, byte[] dst, int dstOffset, int dstLength) {
+        ByteBuffer buffer = this.tiff.buffer;
+        int count;
+        if (buffer.hasArray()) {
+            count = decompressor.decode(this.compression, buffer.array(), buffer.arrayOffset() + offset, byteCount, dst, dstOffset, dstLength);
+        } else {
+            byte[] src = new byte[byteCount];
+            buffer.clear();
+            buffer.position(offset);
+            buffer.get(src);
+            count = decompressor.decode(this.compression, src, 0, byteCount, dst, dstOffset, dstLength);
+        }
+
+        if (count < dstLength) { // fill incomplete blocks with zeros
+            Arrays.fill(dst, dstOffset + count, dstOffset + dstLength, (byte) 0);
+        }
+    }
+
+    protected void undoPredictor(byte[] data, int offset, int rowCount, int rowBytes) {
+        if (this.compressionPredictor == Tiff.HORIZONTAL_PREDICTOR) {
+            Decompressor.undoHorizontalPredictor(data, offset, rowCount, rowBytes, this.samplesPerPixel,
+                this.bitsPerSample[0], this.tiff.buffer.order());
+        }
     }
 
     protected int getTotalBytesPerPixel() {
@@ -564,21 +647,4 @@ public class Subfile {
         long denominator = Tiff.readDWord(buffer);
         return numerator / denominator;
     }
-
-    /**
-     * Borrowed from 1.8 Math package
-     *
-     * @param x X value
-     * @param y Y value
-     *
-     * @return Result
-     */
-    private static int floorDiv(int x, int y) {
-        int r = x / y;
-        // if the signs are different and modulo not zero, round down
-        if ((x ^ y) < 0 && (r * y != x)) {
-            r--;
-        }
-        return r;
-    }
 }
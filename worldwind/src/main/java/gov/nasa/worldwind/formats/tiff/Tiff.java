@@ -85,6 +85,36 @@ public class Tiff {
 
     }
 
+    public static final int NO_COMPRESSION = 1;
+
+    public static final int LZW_COMPRESSION = 5;
+
+    public static final int DEFLATE_COMPRESSION = 8;
+
+    public static final int PACKBITS_COMPRESSION = 32773;
+
+    /**
+     * The Deflate compression code used before Deflate was registered as code 8. Readers should treat both codes the
+     * same.
+     */
+    public static final int OBSOLETE_DEFLATE_COMPRESSION = 32946;
+
+    @IntDef({NO_COMPRESSION, LZW_COMPRESSION, DEFLATE_COMPRESSION, PACKBITS_COMPRESSION, OBSOLETE_DEFLATE_COMPRESSION})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface COMPRESSION {
+
+    }
+
+    public static final int NO_PREDICTOR = 1;
+
+    public static final int HORIZONTAL_PREDICTOR = 2;
+
+    @IntDef({NO_PREDICTOR, HORIZONTAL_PREDICTOR})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface PREDICTOR {
+
+    }
+
     /**
      * The {@link Subfile} contained within this Tiff.
      */
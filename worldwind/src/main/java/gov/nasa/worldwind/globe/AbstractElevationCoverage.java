@@ -19,6 +19,34 @@ public abstract class AbstractElevationCoverage implements ElevationCoverage {
 
     protected long timestamp;
 
+    /**
+     * The time of this coverage's most recent change that may affect heights anywhere in the coverage.
+     */
+    protected long globalTimestamp;
+
+    /**
+     * The times and sectors of this coverage's most recent sector-scoped changes, in a ring buffer ordered from oldest
+     * to newest. Changes older than the ring buffer's capacity are forgotten, and are assumed to affect every sector.
+     */
+    protected final long[] changeTimestamps = new long[MAX_CHANGES];
+
+    protected final Sector[] changeSectors = new Sector[MAX_CHANGES];
+
+    protected int changeStart;
+
+    protected int changeCount;
+
+    /**
+     * The time of the newest change forgotten by the ring buffer, or 0 if no change has been forgotten.
+     */
+    protected long forgottenTimestamp;
+
+    protected final Object changeLock = new Object();
+
+    protected static final int MAX_CHANGES = 256;
+
+    protected static long lastTimestamp;
+
     protected Map<Object, Object> userProperties;
 
     public AbstractElevationCoverage() {
@@ -48,11 +76,95 @@ public abstract class AbstractElevationCoverage implements ElevationCoverage {
 
     @Override
     public long getTimestamp() {
-        return this.timestamp;
+        synchronized (this.changeLock) {
+            return this.timestamp;
+        }
     }
 
+    @Override
+    public boolean hasChangedSince(long timestamp, Sector sector) {
+        if (sector == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "AbstractElevationCoverage", "hasChangedSince", "missingSector"));
+        }
+
+        synchronized (this.changeLock) {
+            if (timestamp >= this.timestamp) {
+                return false; // no changes since the specified time
+            }
+
+            if (timestamp < this.globalTimestamp || timestamp < this.forgottenTimestamp) {
+                return true; // a change since the specified time affected every sector, or has been forgotten
+            }
+
+            // Search the changes from newest to oldest, stopping at the first change at or before the specified time.
+            for (int idx = this.changeCount - 1; idx >= 0; idx--) {
+                int pos = (this.changeStart + idx) % MAX_CHANGES;
+                if (this.changeTimestamps[pos] <= timestamp) {
+                    break;
+                }
+                if (this.changeSectors[pos].intersectsOrNextTo(sector)) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+    }
+
+    /**
+     * Records a change that may affect this coverage's heights anywhere in the coverage, such as enabling or disabling
+     * the coverage.
+     */
     protected void updateTimestamp() {
-        this.timestamp = System.currentTimeMillis();
+        synchronized (this.changeLock) {
+            this.timestamp = nextTimestamp();
+            this.globalTimestamp = this.timestamp;
+            this.changeCount = 0; // changes before a global change are irrelevant
+        }
+    }
+
+    /**
+     * Records a change that affects this coverage's heights only within a specified sector, such as a newly loaded
+     * coverage tile. Terrain depending on heights outside the sector need not be recomputed. See {@link
+     * #hasChangedSince(long, Sector)}.
+     *
+     * @param sector the sector whose heights have changed
+     */
+    protected void updateTimestamp(Sector sector) {
+        if (sector == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "AbstractElevationCoverage", "updateTimestamp", "missingSector"));
+        }
+
+        synchronized (this.changeLock) {
+            this.timestamp = nextTimestamp();
+
+            if (this.changeCount == MAX_CHANGES) { // forget the oldest change
+                this.forgottenTimestamp = this.changeTimestamps[this.changeStart];
+                this.changeStart = (this.changeStart + 1) % MAX_CHANGES;
+                this.changeCount--;
+            }
+
+            int pos = (this.changeStart + this.changeCount) % MAX_CHANGES;
+            if (this.changeSectors[pos] == null) {
+                this.changeSectors[pos] = new Sector(sector);
+            } else {
+                this.changeSectors[pos].set(sector);
+            }
+            this.changeTimestamps[pos] = this.timestamp;
+            this.changeCount++;
+        }
+    }
+
+    /**
+     * Returns the current time in milliseconds, advanced as necessary to be greater than any time this method has
+     * previously returned. Coverage timestamps are therefore unique and ordered across all coverages, so a timestamp
+     * adopted from one coverage never hides a later change in another.
+     */
+    protected static synchronized long nextTimestamp() {
+        lastTimestamp = Math.max(System.currentTimeMillis(), lastTimestamp + 1);
+        return lastTimestamp;
     }
 
     @Override
@@ -98,6 +210,30 @@ public abstract class AbstractElevationCoverage implements ElevationCoverage {
         this.doGetHeightGrid(gridSector, gridWidth, gridHeight, result);
     }
 
+    @Override
+    public void getHeights(double[] latitudes, double[] longitudes, int count, float[] result) {
+        if (count < 0) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "AbstractElevationCoverage", "getHeights", "invalidCount"));
+        }
+
+        if (latitudes == null || latitudes.length < count || longitudes == null || longitudes.length < count) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "AbstractElevationCoverage", "getHeights", "missingArray"));
+        }
+
+        if (result == null || result.length < count) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "AbstractElevationCoverage", "getHeights", "missingResult"));
+        }
+
+        if (!this.isEnabled()) {
+            return;
+        }
+
+        this.doGetHeights(latitudes, longitudes, count, result);
+    }
+
     @Override
     public void getHeightLimits(Sector sector, float[] result) {
         if (sector == null) {
@@ -120,4 +256,20 @@ public abstract class AbstractElevationCoverage implements ElevationCoverage {
     protected abstract void doGetHeightGrid(Sector gridSector, int gridWidth, int gridHeight, float[] result);
 
     protected abstract void doGetHeightLimits(Sector sector, float[] result);
+
+    /**
+     * Computes the heights at a batch of locations. The default implementation computes a one point height grid for
+     * each location. Subclasses should override this method when they can compute the heights as a group.
+     */
+    protected void doGetHeights(double[] latitudes, double[] longitudes, int count, float[] result) {
+        Sector sector = new Sector();
+        float[] height = new float[1];
+
+        for (int idx = 0; idx < count; idx++) {
+            sector.set(latitudes[idx], longitudes[idx], 1E-15, 1E-15); // sector can not have zero deltas
+            height[0] = result[idx];
+            this.doGetHeightGrid(sector, 1, 1, height);
+            result[idx] = height[0];
+        }
+    }
 }
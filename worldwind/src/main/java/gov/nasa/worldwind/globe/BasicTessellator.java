@@ -7,6 +7,7 @@ package gov.nasa.worldwind.globe;
 
 import android.opengl.GLES20;
 
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
@@ -14,7 +15,10 @@ import java.nio.ShortBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import gov.nasa.worldwind.WorldWind;
 import gov.nasa.worldwind.draw.BasicDrawableTerrain;
 import gov.nasa.worldwind.geom.Location;
 import gov.nasa.worldwind.geom.Range;
@@ -27,6 +31,8 @@ import gov.nasa.worldwind.util.LevelSet;
 import gov.nasa.worldwind.util.Logger;
 import gov.nasa.worldwind.util.LruMemoryCache;
 import gov.nasa.worldwind.util.Pool;
+import gov.nasa.worldwind.util.SynchronizedPool;
+import gov.nasa.worldwind.util.TaskService;
 import gov.nasa.worldwind.util.Tile;
 import gov.nasa.worldwind.util.TileFactory;
 
@@ -37,6 +43,16 @@ public class BasicTessellator implements Tessellator, TileFactory {
 
     protected double detailControl = 80;
 
+    protected boolean asyncPreparation;
+
+    protected int maxPreparationTasks = 4;
+
+    protected int maxTileSwapsPerFrame = 16;
+
+    protected int tileSwapCount;
+
+    protected final AtomicInteger preparationTaskCount = new AtomicInteger();
+
     protected final List<Tile> topLevelTiles = new ArrayList<>();
 
     protected final BasicTerrain currentTerrain = new BasicTerrain();
@@ -49,6 +65,13 @@ public class BasicTessellator implements Tessellator, TileFactory {
      */
     protected final LruMemoryCache<String, Tile[]> tileCache = new LruMemoryCache<>(200);
 
+    /**
+     * Pool of NIO buffers used to transfer terrain tile points to OpenGL. Every tile in the level set has the same
+     * number of points, so buffers released after one tile's points are loaded are reused by the next tile update,
+     * keeping direct memory use flat while elevations stream in. The pool is replaced when the level set changes.
+     */
+    protected Pool<Buffer> pointBufferPool = new SynchronizedPool<>();
+
     protected float[] levelSetVertexTexCoords;
 
     protected short[] levelSetLineElements;
@@ -92,6 +115,81 @@ public class BasicTessellator implements Tessellator, TileFactory {
         this.detailControl = detailControl;
     }
 
+    /**
+     * Indicates whether terrain tiles are prepared asynchronously. See {@link #setAsyncPreparation(boolean)}.
+     *
+     * @return true if terrain tiles are prepared asynchronously, otherwise false
+     */
+    public boolean isAsyncPreparation() {
+        return this.asyncPreparation;
+    }
+
+    /**
+     * Sets whether terrain tiles are prepared asynchronously. When enabled, tiles that must be regenerated in response
+     * to new elevations or a vertical exaggeration change compute their heights and Cartesian points on the WorldWind
+     * task service, and the tessellator continues to draw the tile's previous geometry until the new geometry is ready.
+     * At most {@link #getMaxTileSwapsPerFrame()} tiles adopt their new geometry in each frame. Tiles that have no
+     * geometry yet are always prepared synchronously. Asynchronous preparation is disabled by default.
+     *
+     * @param asyncPreparation true to prepare terrain tiles asynchronously, false to prepare them during tessellation
+     */
+    public void setAsyncPreparation(boolean asyncPreparation) {
+        this.asyncPreparation = asyncPreparation;
+    }
+
+    /**
+     * Returns the maximum number of terrain tiles prepared simultaneously when asynchronous preparation is enabled.
+     *
+     * @return the maximum number of simultaneous tile preparations
+     */
+    public int getMaxPreparationTasks() {
+        return this.maxPreparationTasks;
+    }
+
+    /**
+     * Sets the maximum number of terrain tiles prepared simultaneously when asynchronous preparation is enabled. Tiles
+     * beyond this limit are prepared in subsequent frames.
+     *
+     * @param maxTasks the maximum number of simultaneous tile preparations
+     *
+     * @throws IllegalArgumentException if the maximum is less than 1
+     */
+    public void setMaxPreparationTasks(int maxTasks) {
+        if (maxTasks < 1) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "BasicTessellator", "setMaxPreparationTasks", "invalidCount"));
+        }
+
+        this.maxPreparationTasks = maxTasks;
+    }
+
+    /**
+     * Returns the maximum number of asynchronously prepared terrain tiles that adopt their new geometry in each frame.
+     *
+     * @return the per-frame tile swap budget
+     */
+    public int getMaxTileSwapsPerFrame() {
+        return this.maxTileSwapsPerFrame;
+    }
+
+    /**
+     * Sets the maximum number of asynchronously prepared terrain tiles that adopt their new geometry in each frame.
+     * Limiting this number spreads the cost of loading new geometry across frames when many tiles complete at once.
+     * Completed tiles beyond this limit keep their previous geometry until a subsequent frame.
+     *
+     * @param maxSwaps the per-frame tile swap budget
+     *
+     * @throws IllegalArgumentException if the budget is less than 1
+     */
+    public void setMaxTileSwapsPerFrame(int maxSwaps) {
+        if (maxSwaps < 1) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "BasicTessellator", "setMaxTileSwapsPerFrame", "invalidCount"));
+        }
+
+        this.maxTileSwapsPerFrame = maxSwaps;
+    }
+
     @Override
     public void tessellate(RenderContext rc) {
         this.currentTerrain.clear();
@@ -108,6 +206,7 @@ public class BasicTessellator implements Tessellator, TileFactory {
         // Assemble the terrain buffers and OpenGL buffer objects associated with the level set.
         this.assembleLevelSetBuffers(rc);
         this.currentTerrain.setTriStripElements(this.levelSetTriStripElements);
+        this.tileSwapCount = 0;
 
         // Assemble the tessellator's top level terrain tiles, which we keep permanent references to.
         if (this.topLevelTiles.isEmpty()) {
@@ -162,17 +261,30 @@ public class BasicTessellator implements Tessellator, TileFactory {
         this.topLevelTiles.clear();
         this.currentTerrain.clear();
         this.tileCache.clear();
+        this.pointBufferPool = new SynchronizedPool<>(); // existing buffers may not match the new level set
         this.levelSetVertexTexCoords = null;
         this.levelSetLineElements = null;
         this.levelSetTriStripElements = null;
     }
 
     protected void prepareTile(RenderContext rc, TerrainTile tile) {
+        // Prepare tiles asynchronously when their elevations change. Tiles without geometry and tiles affected by a
+        // vertical exaggeration change are prepared immediately; drawing neighboring tiles with different vertical
+        // exaggerations would open gaps in the terrain.
+        if (this.asyncPreparation && tile.getPoints() != null &&
+            rc.verticalExaggeration == tile.getVerticalExaggeration()) {
+            this.prepareTileAsync(rc, tile);
+            return; // keep drawing the tile's current geometry until its new geometry is ready
+        }
+
         int tileWidth = tile.level.tileWidth;
         int tileHeight = tile.level.tileHeight;
 
+        // Compute the tile's heights when it has none, or when the elevation model has changed within the tile's sector.
+        // Changes elsewhere only advance the tile's timestamp.
         long elevationTimestamp = rc.globe.getElevationModel().getTimestamp();
-        if (elevationTimestamp != tile.getHeightTimestamp()) {
+        boolean heightsChanged = tile.getHeights() == null || this.hasHeightsChanged(rc, tile, elevationTimestamp);
+        if (heightsChanged) {
 
             float[] heights = tile.getHeights();
             if (heights == null) {
@@ -185,23 +297,18 @@ public class BasicTessellator implements Tessellator, TileFactory {
         }
 
         double verticalExaggeration = rc.verticalExaggeration;
-        if (verticalExaggeration != tile.getVerticalExaggeration() ||
-            elevationTimestamp != tile.getHeightTimestamp()) {
+        if (verticalExaggeration != tile.getVerticalExaggeration() || heightsChanged) {
 
             Vec3 origin = tile.getOrigin();
             float[] heights = tile.getHeights();
             float[] points = tile.getPoints();
-            float borderHeight = (float) (tile.minTerrainElevation * verticalExaggeration);
 
             if (points == null) {
                 int numPoints = (tileWidth + 2) * (tileHeight + 2) * 3;
                 points = new float[numPoints];
             }
 
-            int rowStride = (tileWidth + 2) * 3;
-            rc.globe.geographicToCartesian(tile.sector.centroidLatitude(), tile.sector.centroidLongitude(), 0, origin);
-            rc.globe.geographicToCartesianGrid(tile.sector, tileWidth, tileHeight, heights, (float) verticalExaggeration, origin, points, rowStride + 3, rowStride);
-            rc.globe.geographicToCartesianBorder(tile.sector, tileWidth + 2, tileHeight + 2, borderHeight, origin, points);
+            this.assemblePoints(rc.globe, tile, heights, verticalExaggeration, origin, points);
             tile.setOrigin(origin);
             tile.setPoints(points);
         }
@@ -210,6 +317,97 @@ public class BasicTessellator implements Tessellator, TileFactory {
         tile.setVerticalExaggeration(verticalExaggeration);
     }
 
+    protected void prepareTileAsync(RenderContext rc, TerrainTile tile) {
+        long elevationTimestamp = rc.globe.getElevationModel().getTimestamp();
+        double verticalExaggeration = rc.verticalExaggeration;
+        boolean current = !this.hasHeightsChanged(rc, tile, elevationTimestamp) &&
+            verticalExaggeration == tile.getVerticalExaggeration();
+
+        // Adopt the tile's new geometry when its asynchronous preparation has completed, subject to the per-frame swap
+        // budget. Completed tiles beyond the budget are swapped in during a subsequent frame. Discard the new geometry
+        // if the tile has since been prepared immediately, or if it was computed with a different vertical exaggeration.
+        if (tile.preparationState == TerrainTile.PREPARATION_READY) {
+            if (current || tile.pendingVerticalExaggeration != verticalExaggeration) {
+                tile.preparationState = TerrainTile.PREPARATION_NONE;
+            } else if (this.tileSwapCount < this.maxTileSwapsPerFrame) {
+                this.tileSwapCount++;
+                tile.swapPendingPoints();
+                tile.preparationState = TerrainTile.PREPARATION_NONE;
+                current = !this.hasHeightsChanged(rc, tile, elevationTimestamp);
+            } else {
+                rc.requestRedraw();
+                return;
+            }
+        }
+
+        if (current || tile.preparationState != TerrainTile.PREPARATION_NONE) {
+            return; // the tile's geometry is current, or the tile is already being prepared
+        }
+
+        if (this.preparationTaskCount.incrementAndGet() > this.maxPreparationTasks) {
+            this.preparationTaskCount.decrementAndGet();
+            rc.requestRedraw(); // prepare the tile in a subsequent frame
+            return;
+        }
+
+        // Allocate the tile's back buffers on first use. The back buffers are swapped with the tile's current arrays
+        // when the preparation completes, so subsequent preparations reuse the tile's previous arrays.
+        int tileWidth = tile.level.tileWidth;
+        int tileHeight = tile.level.tileHeight;
+        if (tile.pendingHeights == null) {
+            tile.pendingHeights = new float[tileWidth * tileHeight];
+        }
+        if (tile.pendingPoints == null) {
+            tile.pendingPoints = new float[(tileWidth + 2) * (tileHeight + 2) * 3];
+        }
+
+        tile.pendingHeightTimestamp = elevationTimestamp;
+        tile.pendingVerticalExaggeration = verticalExaggeration;
+        tile.preparationState = TerrainTile.PREPARATION_RUNNING;
+
+        // Compute the heights from a snapshot of the elevation model's coverages, since coverages may be added or removed
+        // on the main thread while the task runs.
+        ElevationModel elevationModel = new ElevationModel(rc.globe.getElevationModel());
+
+        try {
+            WorldWind.taskService().execute(TaskService.DECODE_QUEUE, new PrepareTileTask(this, tile, rc.globe, elevationModel));
+        } catch (RejectedExecutionException ignored) { // singleton task service is full
+            tile.preparationState = TerrainTile.PREPARATION_NONE;
+            this.preparationTaskCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Indicates whether the elevation model has changed within a tile's sector since the tile's heights were computed.
+     * When the elevation model has changed only elsewhere, this adopts the elevation model's timestamp as the tile's
+     * height timestamp, so the tile's heights are not tested again until the elevation model changes again.
+     */
+    protected boolean hasHeightsChanged(RenderContext rc, TerrainTile tile, long elevationTimestamp) {
+        long heightTimestamp = tile.getHeightTimestamp();
+        if (elevationTimestamp == heightTimestamp) {
+            return false;
+        }
+
+        if (rc.globe.getElevationModel().hasChangedSince(heightTimestamp, tile.sector)) {
+            return true;
+        }
+
+        tile.setHeightTimestamp(elevationTimestamp);
+        return false;
+    }
+
+    protected void assemblePoints(Globe globe, TerrainTile tile, float[] heights, double verticalExaggeration,
+                                  Vec3 origin, float[] points) {
+        int tileWidth = tile.level.tileWidth;
+        int tileHeight = tile.level.tileHeight;
+        int rowStride = (tileWidth + 2) * 3;
+        float borderHeight = (float) (tile.minTerrainElevation * verticalExaggeration);
+
+        globe.geographicToCartesian(tile.sector.centroidLatitude(), tile.sector.centroidLongitude(), 0, origin);
+        globe.geographicToCartesianGrid(tile.sector, tileWidth, tileHeight, heights, (float) verticalExaggeration, origin, points, rowStride + 3, rowStride);
+        globe.geographicToCartesianBorder(tile.sector, tileWidth + 2, tileHeight + 2, borderHeight, origin, points);
+    }
+
     protected void prepareDrawableTerrain(RenderContext rc, TerrainTile tile, BasicDrawableTerrain drawable) {
         // Assemble the drawable's geographic sector and Cartesian vertex origin.
         drawable.sector.set(tile.sector);
@@ -220,7 +418,7 @@ public class BasicTessellator implements Tessellator, TileFactory {
         drawable.triStripElementRange.set(this.levelSetTriStripElementRange);
 
         // Assemble the drawable's OpenGL buffer objects.
-        drawable.vertexPoints = tile.getPointBuffer(rc);
+        drawable.vertexPoints = tile.getPointBuffer(rc, this.pointBufferPool);
         drawable.vertexTexCoords = this.levelSetVertexTexCoordBuffer;
         drawable.elements = this.levelSetElementBuffer;
     }
@@ -360,4 +558,49 @@ public class BasicTessellator implements Tessellator, TileFactory {
 
         return result;
     }
+
+    /**
+     * Computes a terrain tile's heights and Cartesian points into the tile's back buffers on a worker thread.
+     */
+    protected static class PrepareTileTask implements Runnable {
+
+        protected final BasicTessellator tessellator;
+
+        protected final TerrainTile tile;
+
+        protected final Globe globe;
+
+        protected final ElevationModel elevationModel;
+
+        public PrepareTileTask(BasicTessellator tessellator, TerrainTile tile, Globe globe, ElevationModel elevationModel) {
+            this.tessellator = tessellator;
+            this.tile = tile;
+            this.globe = globe;
+            this.elevationModel = elevationModel;
+        }
+
+        @Override
+        public void run() {
+            TerrainTile tile = this.tile;
+
+            try {
+                int tileWidth = tile.level.tileWidth;
+                int tileHeight = tile.level.tileHeight;
+                float[] heights = tile.pendingHeights;
+
+                Arrays.fill(heights, 0);
+                this.elevationModel.getHeightGrid(tile.sector, tileWidth, tileHeight, heights);
+                this.tessellator.assemblePoints(this.globe, tile, heights, tile.pendingVerticalExaggeration,
+                    tile.pendingOrigin, tile.pendingPoints);
+                tile.preparationState = TerrainTile.PREPARATION_READY;
+            } catch (Exception ex) {
+                tile.preparationState = TerrainTile.PREPARATION_NONE; // retry in a subsequent frame
+                Logger.log(Logger.ERROR, "Exception preparing terrain tile '" + tile.tileKey + "'", ex);
+            } finally {
+                this.tessellator.preparationTaskCount.decrementAndGet();
+            }
+
+            WorldWind.requestRedraw();
+        }
+    }
 }
@@ -6,6 +6,7 @@
 package gov.nasa.worldwind.globe;
 
 import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.util.Logger;
 
 public interface ElevationCoverage {
 
@@ -19,6 +20,23 @@ public interface ElevationCoverage {
 
     long getTimestamp();
 
+    /**
+     * Indicates whether this coverage's heights within a sector may have changed after a specified time. Coverages that
+     * load their heights progressively record the sector of each change, so that terrain outside a newly loaded region
+     * need not be recomputed. This is conservative, and returns true if the coverage cannot rule out a change.
+     * <p>
+     * The default implementation does not record the sector of each change, and returns true whenever the coverage's
+     * timestamp differs from the specified time.
+     *
+     * @param timestamp a time returned by {@link #getTimestamp()}
+     * @param sector    the sector of interest
+     *
+     * @return true if the heights within the sector may have changed after the time, false otherwise
+     */
+    default boolean hasChangedSince(long timestamp, Sector sector) {
+        return this.getTimestamp() != timestamp;
+    }
+
     Object getUserProperty(Object key);
 
     Object putUserProperty(Object key, Object value);
@@ -29,5 +47,49 @@ public interface ElevationCoverage {
 
     void getHeightGrid(Sector gridSector, int gridWidth, int gridHeight, float[] result);
 
+    /**
+     * Computes the heights at a batch of geographic locations, given as parallel latitude and longitude arrays.
+     * Locations outside this coverage leave their result unchanged, so multiple coverages may be composited into the
+     * same result array, as with {@link #getHeightGrid(Sector, int, int, float[])}.
+     *
+     * <p>
+     * The default implementation requests a small height grid whose southwest corner is at each location. Coverages
+     * should override it with a batch query.
+     *
+     * @param latitudes  the location latitudes, in degrees
+     * @param longitudes the location longitudes, in degrees
+     * @param count      the number of locations
+     * @param result     an array with at least count elements in which to return the height at each location
+     *
+     * @throws IllegalArgumentException if the count is negative, or if any array is null or shorter than the count
+     */
+    default void getHeights(double[] latitudes, double[] longitudes, int count, float[] result) {
+        if (count < 0) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ElevationCoverage", "getHeights", "invalidCount"));
+        }
+
+        if (latitudes == null || latitudes.length < count || longitudes == null || longitudes.length < count) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ElevationCoverage", "getHeights", "missingArray"));
+        }
+
+        if (result == null || result.length < count) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ElevationCoverage", "getHeights", "missingResult"));
+        }
+
+        // Sample a 2x2 grid spanning a fraction of an arc second, whose first sample is at the location. A 1x1 grid
+        // would need an empty sector.
+        Sector sector = new Sector();
+        float[] heights = new float[4];
+        for (int idx = 0; idx < count; idx++) {
+            sector.set(latitudes[idx], longitudes[idx], 1.0e-6, 1.0e-6);
+            heights[0] = result[idx]; // locations outside the coverage keep their height
+            this.getHeightGrid(sector, 2, 2, heights);
+            result[idx] = heights[0];
+        }
+    }
+
     void getHeightLimits(Sector sector, float[] result);
 }
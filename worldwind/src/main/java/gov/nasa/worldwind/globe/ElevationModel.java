@@ -5,19 +5,39 @@
 
 package gov.nasa.worldwind.globe;
 
+import android.os.Handler;
+import android.os.Looper;
+
 import androidx.annotation.NonNull;
 
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.Objects;
+import java.util.concurrent.RejectedExecutionException;
 
+import gov.nasa.worldwind.WorldWind;
 import gov.nasa.worldwind.geom.Sector;
 import gov.nasa.worldwind.util.Logger;
+import gov.nasa.worldwind.util.TaskService;
 
 public class ElevationModel implements Iterable<ElevationCoverage> {
 
+    public interface HeightsCallback {
+
+        void heightsAvailable(ElevationModel model, float[] result);
+
+        void heightsFailed(ElevationModel model, Throwable ex);
+    }
+
     protected final ArrayList<ElevationCoverage> coverages = new ArrayList<>();
 
+    /**
+     * The time this model's coverages were most recently added or removed.
+     */
+    protected long coveragesTimestamp;
+
+    protected Handler mainLoopHandler;
+
     public ElevationModel() {
     }
 
@@ -84,7 +104,12 @@ public class ElevationModel implements Iterable<ElevationCoverage> {
                 Logger.logMessage(Logger.ERROR, "ElevationModel", "addCoverage", "missingCoverage"));
         }
 
-        return !this.coverages.contains(coverage) && this.coverages.add(coverage);
+        if (this.coverages.contains(coverage) || !this.coverages.add(coverage)) {
+            return false;
+        }
+
+        this.coveragesChanged();
+        return true;
     }
 
     public boolean addAllCoverages(ElevationModel model) {
@@ -111,7 +136,12 @@ public class ElevationModel implements Iterable<ElevationCoverage> {
                 Logger.logMessage(Logger.ERROR, "ElevationModel", "removeCoverage", "missingCoverage"));
         }
 
-        return this.coverages.remove(coverage);
+        if (!this.coverages.remove(coverage)) {
+            return false;
+        }
+
+        this.coveragesChanged();
+        return true;
     }
 
     public boolean removeAllCoverages(ElevationModel model) {
@@ -120,11 +150,23 @@ public class ElevationModel implements Iterable<ElevationCoverage> {
                 Logger.logMessage(Logger.ERROR, "ElevationModel", "removeAllCoverages", "missingModel"));
         }
 
-        return this.coverages.removeAll(model.coverages);
+        if (!this.coverages.removeAll(model.coverages)) {
+            return false;
+        }
+
+        this.coveragesChanged();
+        return true;
     }
 
     public void clearCoverages() {
-        this.coverages.clear();
+        if (!this.coverages.isEmpty()) {
+            this.coverages.clear();
+            this.coveragesChanged();
+        }
+    }
+
+    protected void coveragesChanged() {
+        this.coveragesTimestamp = AbstractElevationCoverage.nextTimestamp();
     }
 
     @NonNull
@@ -134,7 +176,7 @@ public class ElevationModel implements Iterable<ElevationCoverage> {
     }
 
     public long getTimestamp() {
-        long maxTimestamp = 0;
+        long maxTimestamp = this.coveragesTimestamp;
 
         for (int idx = 0, len = this.coverages.size(); idx < len; idx++) {
             ElevationCoverage coverage = this.coverages.get(idx);
@@ -147,6 +189,35 @@ public class ElevationModel implements Iterable<ElevationCoverage> {
         return maxTimestamp;
     }
 
+    /**
+     * Indicates whether the heights within a sector may have changed after a specified time. Terrain depending on the
+     * heights within a sector need only be recomputed when this returns true, even if {@link #getTimestamp()} has
+     * changed.
+     *
+     * @param timestamp a time returned by {@link #getTimestamp()}
+     * @param sector    the sector of interest
+     *
+     * @return true if any coverage's heights within the sector may have changed after the time, false otherwise
+     */
+    public boolean hasChangedSince(long timestamp, Sector sector) {
+        if (sector == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ElevationModel", "hasChangedSince", "missingSector"));
+        }
+
+        if (timestamp < this.coveragesTimestamp) {
+            return true; // coverages have been added or removed since the specified time
+        }
+
+        for (int idx = 0, len = this.coverages.size(); idx < len; idx++) {
+            if (this.coverages.get(idx).hasChangedSince(timestamp, sector)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     public void getHeightGrid(Sector gridSector, int gridWidth, int gridHeight, float[] result) {
         if (gridSector == null) {
             throw new IllegalArgumentException(
@@ -164,6 +235,100 @@ public class ElevationModel implements Iterable<ElevationCoverage> {
         }
     }
 
+    /**
+     * Computes the heights at a batch of geographic locations, given as parallel latitude and longitude arrays. Each
+     * coverage reads the locations as a group, fetching each of its tiles once for the batch. This is considerably
+     * faster than computing a height grid for each location in turn.
+     *
+     * @param latitudes  the location latitudes, in degrees
+     * @param longitudes the location longitudes, in degrees
+     * @param count      the number of locations
+     * @param result     an array with at least count elements in which to return the height at each location
+     *
+     * @throws IllegalArgumentException If any array is null or shorter than count, or if count is negative
+     */
+    public void getHeights(double[] latitudes, double[] longitudes, int count, float[] result) {
+        if (count < 0) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ElevationModel", "getHeights", "invalidCount"));
+        }
+
+        if (latitudes == null || latitudes.length < count || longitudes == null || longitudes.length < count) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ElevationModel", "getHeights", "missingArray"));
+        }
+
+        if (result == null || result.length < count) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ElevationModel", "getHeights", "missingResult"));
+        }
+
+        for (int idx = 0, len = this.coverages.size(); idx < len; idx++) { // coverages composite from coarse to fine
+            ElevationCoverage coverage = this.coverages.get(idx);
+            coverage.getHeights(latitudes, longitudes, count, result);
+        }
+    }
+
+    /**
+     * Computes the heights at a batch of geographic locations on the WorldWind {@link
+     * gov.nasa.worldwind.util.TaskService}, for batches large enough to stall the calling thread. The callback is
+     * invoked on the main thread once the result array is filled. The caller must not modify the arrays until then.
+     * The batch uses the coverages in this model at the time of the call.
+     *
+     * @param latitudes  the location latitudes, in degrees
+     * @param longitudes the location longitudes, in degrees
+     * @param count      the number of locations
+     * @param result     an array with at least count elements in which to return the height at each location
+     * @param callback   the callback to invoke when the heights are available or have failed
+     *
+     * @throws IllegalArgumentException If any array is null or shorter than count, if count is negative, or if the
+     *                                  callback is null
+     */
+    public void getHeightsAsync(double[] latitudes, double[] longitudes, int count, float[] result, HeightsCallback callback) {
+        if (count < 0) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ElevationModel", "getHeightsAsync", "invalidCount"));
+        }
+
+        if (latitudes == null || latitudes.length < count || longitudes == null || longitudes.length < count) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ElevationModel", "getHeightsAsync", "missingArray"));
+        }
+
+        if (result == null || result.length < count) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ElevationModel", "getHeightsAsync", "missingResult"));
+        }
+
+        if (callback == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ElevationModel", "getHeightsAsync", "missingCallback"));
+        }
+
+        if (this.mainLoopHandler == null) {
+            this.mainLoopHandler = new Handler(Looper.getMainLooper());
+        }
+
+        final Handler handler = this.mainLoopHandler;
+        final ElevationCoverage[] coverages = this.coverages.toArray(new ElevationCoverage[0]);
+        Runnable task = () -> {
+            try {
+                for (ElevationCoverage coverage : coverages) { // coverages composite from coarse to fine
+                    coverage.getHeights(latitudes, longitudes, count, result);
+                }
+                handler.post(() -> callback.heightsAvailable(this, result));
+            } catch (final Throwable ex) {
+                handler.post(() -> callback.heightsFailed(this, ex));
+            }
+        };
+
+        try {
+            WorldWind.taskService().execute(TaskService.DECODE_QUEUE, task);
+        } catch (RejectedExecutionException logged) { // singleton task service queue is full
+            callback.heightsFailed(this, logged);
+        }
+    }
+
     public void getHeightLimits(Sector sector, float[] result) {
         if (sector == null) {
             throw new IllegalArgumentException(
@@ -10,19 +10,33 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.ShortBuffer;
 
+import gov.nasa.worldwind.WorldWind;
 import gov.nasa.worldwind.formats.tiff.Subfile;
 import gov.nasa.worldwind.formats.tiff.Tiff;
 import gov.nasa.worldwind.render.ImageSource;
+import gov.nasa.worldwind.util.DiskCache;
 import gov.nasa.worldwind.util.Logger;
 import gov.nasa.worldwind.util.Retriever;
 import gov.nasa.worldwind.util.SynchronizedPool;
 import gov.nasa.worldwind.util.WWUtil;
 
-public class ElevationRetriever extends Retriever<ImageSource, Void, ShortBuffer> {
+/**
+ * Retrieves and decodes elevation coverage tiles. Coverages are delivered as a ShortBuffer for 16-bit integer data, an
+ * IntBuffer for 32-bit integer data, or a FloatBuffer for 32-bit floating point data, so that each sample type is
+ * delivered without conversion. The 32-bit types are supported for TIFF coverages, whose sample type is
+ * self-describing.
+ * <p>
+ * The retrieval options are not used by the retriever. They are passed to the callback unchanged, typically to identify
+ * the retrieved tile.
+ *
+ * @param <O> the retrieval options type
+ */
+public class ElevationRetriever<O> extends Retriever<ImageSource, O, Buffer> {
 
     protected final SynchronizedPool<byte[]> pagePool = new SynchronizedPool<>();
 
@@ -37,12 +51,12 @@ public class ElevationRetriever extends Retriever<ImageSource, Void, ShortBuffer
     }
 
     @Override
-    protected void retrieveAsync(ImageSource key, Void unused, Callback<ImageSource, Void, ShortBuffer> callback) {
+    protected void retrieveAsync(ImageSource key, O options, Callback<ImageSource, O, Buffer> callback) {
         try {
-            ShortBuffer buffer = this.decodeCoverage(key);
+            Buffer buffer = this.decodeCoverage(key);
 
             if (buffer != null) {
-                callback.retrievalSucceeded(this, key, unused, buffer);
+                callback.retrievalSucceeded(this, key, options, buffer);
             } else {
                 callback.retrievalFailed(this, key, null); // failed but no exception
             }
@@ -51,7 +65,7 @@ public class ElevationRetriever extends Retriever<ImageSource, Void, ShortBuffer
         }
     }
 
-    protected ShortBuffer decodeCoverage(ImageSource imageSource) throws IOException {
+    protected Buffer decodeCoverage(ImageSource imageSource) throws IOException {
         if (imageSource.isUrl()) {
             return this.decodeUrl(imageSource.asUrl());
         }
@@ -59,12 +73,26 @@ public class ElevationRetriever extends Retriever<ImageSource, Void, ShortBuffer
         return this.decodeUnrecognized(imageSource);
     }
 
-    protected ShortBuffer decodeUrl(String urlString) throws IOException {
-        // TODO establish a file caching service for remote resources
+    protected Buffer decodeUrl(String urlString) throws IOException {
         // TODO retry absent resources, they are currently handled but suppressed entirely after the first failure
         // TODO configurable connect and read timeouts
 
+        // Consult the disk cache before the network. Coverages are cached in their encoded form, and only after they've
+        // been successfully decoded, so that error responses are never cached. Cached entries that fail to decode are
+        // removed and retrieved again.
+        DiskCache diskCache = WorldWind.diskCache();
+        byte[] cachedData = (diskCache != null) ? diskCache.get(urlString) : null;
+        if (cachedData != null) {
+            try {
+                return this.decodeCachedData(ByteBuffer.wrap(cachedData));
+            } catch (RuntimeException ex) {
+                Logger.log(Logger.WARN, "Removing undecodable disk cache entry '" + urlString + "'", ex);
+                diskCache.remove(urlString);
+            }
+        }
+
         InputStream stream = null;
+        ByteBuffer tiffBuffer = null;
         try {
             URLConnection conn = new URL(urlString).openConnection();
             conn.setConnectTimeout(3000);
@@ -72,32 +100,59 @@ public class ElevationRetriever extends Retriever<ImageSource, Void, ShortBuffer
 
             stream = new BufferedInputStream(conn.getInputStream());
             String contentType = conn.getContentType();
+            ByteBuffer buffer;
+            Buffer result;
             if (contentType.equalsIgnoreCase("application/bil16")) {
-                return this.readInt16Data(stream);
+                buffer = this.bufferStream(stream, ByteBuffer.allocate(BUFFER_SIZE));
+                result = this.readInt16Data(buffer);
             } else if (contentType.equalsIgnoreCase("image/tiff")) {
-                return this.readTiffData(stream);
+                tiffBuffer = this.acquireTiffBuffer();
+                buffer = this.bufferStream(stream, tiffBuffer);
+                result = this.readTiffData(buffer);
             } else {
                 throw new RuntimeException(
                     Logger.logMessage(Logger.ERROR, "ElevationRetriever", "decodeUrl", "Format not supported"));
             }
+
+            if (diskCache != null) {
+                diskCache.put(urlString, buffer.array(), buffer.arrayOffset(), buffer.limit());
+            }
+
+            return result;
         } finally {
             WWUtil.closeSilently(stream);
+            if (tiffBuffer != null) {
+                this.bufferPool.release(tiffBuffer);
+            }
+        }
+    }
+
+    protected Buffer decodeCachedData(ByteBuffer buffer) {
+        // The cache does not retain the content type, but the two supported formats are distinguishable by the TIFF
+        // header's byte order mark. Neither mark corresponds to a plausible elevation value in a 16-bit coverage. The
+        // 32-bit sample types are only supported in TIFF, since BIL data carries no indication of its sample type.
+        if (buffer.limit() >= 4 && ((buffer.get(0) == 'I' && buffer.get(1) == 'I') || (buffer.get(0) == 'M' && buffer.get(1) == 'M'))) {
+            return this.readTiffData(buffer);
+        } else {
+            return this.readInt16Data(buffer);
         }
     }
 
-    protected ShortBuffer decodeUnrecognized(ImageSource imageSource) {
+    protected Buffer decodeUnrecognized(ImageSource imageSource) {
         Logger.log(Logger.WARN, "Unrecognized image source '" + imageSource + "'");
         return null;
     }
 
-    protected ShortBuffer readTiffData(InputStream stream) throws IOException {
-
-        ByteBuffer tiffBuffer = this.bufferPool.acquire();
-        if (tiffBuffer == null) {
-            tiffBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+    protected Buffer readTiffData(InputStream stream) throws IOException {
+        ByteBuffer tiffBuffer = this.acquireTiffBuffer();
+        try {
+            return this.readTiffData(this.bufferStream(stream, tiffBuffer));
+        } finally {
+            this.bufferPool.release(tiffBuffer);
         }
-        tiffBuffer.clear();
-        ByteBuffer buffer = this.bufferStream(stream, tiffBuffer);
+    }
+
+    protected Buffer readTiffData(ByteBuffer buffer) {
         Tiff tiff = new Tiff(buffer);
         Subfile subfile = tiff.getSubfiles().get(0);
         // check that the format of the subfile matches our supported data types
@@ -105,9 +160,13 @@ public class ElevationRetriever extends Retriever<ImageSource, Void, ShortBuffer
             int dataSize = subfile.getDataSize();
             ByteBuffer result = subfile.getData(ByteBuffer.allocate(dataSize));
             result.clear();
-
-            this.bufferPool.release(tiffBuffer);
-            return result.asShortBuffer();
+            if (subfile.getBitsPerSample()[0] == 16) {
+                return result.asShortBuffer();
+            } else if (subfile.getSampleFormat()[0] == Tiff.FLOATING_POINT) {
+                return result.asFloatBuffer();
+            } else {
+                return result.asIntBuffer();
+            }
         } else {
             throw new RuntimeException(
                 Logger.logMessage(Logger.ERROR, "ElevationRetriever", "readTiffData", "Tiff file format not supported"));
@@ -115,14 +174,28 @@ public class ElevationRetriever extends Retriever<ImageSource, Void, ShortBuffer
     }
 
     protected boolean isTiffFormatSupported(Subfile subfile) {
-        return subfile.getSampleFormat()[0] == Tiff.TWOS_COMP_SIGNED_INT &&
-            subfile.getBitsPerSample()[0] == 16 &&
-            subfile.getSamplesPerPixel() == 1 &&
-            subfile.getCompression() == 1;
+        int sampleFormat = subfile.getSampleFormat()[0];
+        int bitsPerSample = subfile.getBitsPerSample()[0];
+        return ((sampleFormat == Tiff.TWOS_COMP_SIGNED_INT && (bitsPerSample == 16 || bitsPerSample == 32)) ||
+            (sampleFormat == Tiff.FLOATING_POINT && bitsPerSample == 32)) &&
+            subfile.getSamplesPerPixel() == 1; // Subfile rejects unsupported compression when parsing
     }
 
     protected ShortBuffer readInt16Data(InputStream stream) throws IOException {
-        return this.bufferStream(stream, ByteBuffer.allocate(BUFFER_SIZE)).order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+        return this.readInt16Data(this.bufferStream(stream, ByteBuffer.allocate(BUFFER_SIZE)));
+    }
+
+    protected ShortBuffer readInt16Data(ByteBuffer buffer) {
+        return buffer.order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+    }
+
+    protected ByteBuffer acquireTiffBuffer() {
+        ByteBuffer tiffBuffer = this.bufferPool.acquire();
+        if (tiffBuffer == null) {
+            tiffBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+        }
+        tiffBuffer.clear();
+        return tiffBuffer;
     }
 
     protected ByteBuffer bufferStream(InputStream stream, ByteBuffer buffer) throws IOException {
@@ -5,8 +5,12 @@
 
 package gov.nasa.worldwind.globe;
 
+import java.util.Arrays;
+import java.util.List;
+
 import gov.nasa.worldwind.geom.Ellipsoid;
 import gov.nasa.worldwind.geom.Line;
+import gov.nasa.worldwind.geom.Location;
 import gov.nasa.worldwind.geom.Matrix4;
 import gov.nasa.worldwind.geom.Position;
 import gov.nasa.worldwind.geom.Sector;
@@ -338,4 +342,60 @@ public class Globe {
         this.getElevationModel().getHeightGrid(this.scratchSector, 1, 1, this.scratchHeights);
         return this.scratchHeights[0];
     }
+
+    /**
+     * Determines the terrain altitude at a batch of geographic locations from the elevation model, given as parallel
+     * latitude and longitude arrays. This is considerably faster than calling {@link #getElevationAtLocation(double,
+     * double)} for each location. Locations without elevation coverage have an elevation of zero.
+     *
+     * @param latitudes  the location latitudes, in degrees
+     * @param longitudes the location longitudes, in degrees
+     * @param count      the number of locations
+     * @param result     an array with at least count elements in which to return the elevation at each location, in
+     *                   meters
+     *
+     * @return the result array
+     *
+     * @throws IllegalArgumentException If any array is null or shorter than count, or if count is negative
+     */
+    public float[] getElevationsAtLocations(double[] latitudes, double[] longitudes, int count, float[] result) {
+        if (result == null || result.length < count) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "Globe", "getElevationsAtLocations", "missingResult"));
+        }
+
+        Arrays.fill(result, 0, Math.max(count, 0), 0);
+        this.getElevationModel().getHeights(latitudes, longitudes, count, result);
+        return result;
+    }
+
+    /**
+     * Determines the terrain altitude at a list of geographic locations from the elevation model. See {@link
+     * #getElevationsAtLocations(double[], double[], int, float[])}.
+     *
+     * @param locations the locations, such as a list of {@link gov.nasa.worldwind.geom.Position}
+     * @param result    an array with at least as many elements as the list in which to return the elevation at each
+     *                  location, in meters
+     *
+     * @return the result array
+     *
+     * @throws IllegalArgumentException If the list is null, or if the result is null or shorter than the list
+     */
+    public float[] getElevationsAtLocations(List<? extends Location> locations, float[] result) {
+        if (locations == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "Globe", "getElevationsAtLocations", "missingList"));
+        }
+
+        int count = locations.size();
+        double[] latitudes = new double[count];
+        double[] longitudes = new double[count];
+        for (int idx = 0; idx < count; idx++) {
+            Location location = locations.get(idx);
+            latitudes[idx] = location.latitude;
+            longitudes[idx] = location.longitude;
+        }
+
+        return this.getElevationsAtLocations(latitudes, longitudes, count, result);
+    }
 }
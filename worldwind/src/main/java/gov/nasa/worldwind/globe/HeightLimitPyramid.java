@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.globe;
+
+import gov.nasa.worldwind.util.Logger;
+
+/**
+ * Minimum and maximum heights of an elevation tile, organized as a pyramid of progressively coarser cells. Each cell in
+ * the finest level holds the height limits of a block of 4 x 4 texels, and each cell in a coarser level holds the
+ * height limits of the 2 x 2 cells beneath it, up to a single cell holding the limits of the entire tile.
+ * <p>
+ * Height limit queries combine the coarsest cells that lie within the queried texel range, descending only into cells
+ * on the range's boundary. A query aligned with the pyramid's cells reads one cell per level or fewer, and any query
+ * reads a number of cells proportional to the range's perimeter in 4 texel blocks rather than every texel in the
+ * range. Boundary cells in the finest level are combined whole, so the limits may include texels up to 3 texels
+ * outside the range. Height limits bound tile extents, for which these limits are conservative.
+ */
+public class HeightLimitPyramid {
+
+    /**
+     * The base 2 logarithm of the finest level's cell size in texels.
+     */
+    protected static final int FIRST_LEVEL = 2;
+
+    protected final int tileWidth;
+
+    protected final int tileHeight;
+
+    protected final int numLevels;
+
+    protected final int[] levelWidth;
+
+    protected final int[] levelHeight;
+
+    protected final int[] levelOffset;
+
+    protected final float[] minHeights;
+
+    protected final float[] maxHeights;
+
+    /**
+     * Constructs a height limit pyramid for a tile of 16 bit heights.
+     *
+     * @param tileArray  the tile's heights in row-major order
+     * @param tileWidth  the tile's width in texels
+     * @param tileHeight the tile's height in texels
+     *
+     * @throws IllegalArgumentException if the array is null, or if the dimensions are invalid
+     */
+    public HeightLimitPyramid(short[] tileArray, int tileWidth, int tileHeight) {
+        this(tileArray, tileWidth, tileHeight, tileArray != null ? tileArray.length : 0);
+    }
+
+    /**
+     * Constructs a height limit pyramid for a tile of floating point heights.
+     *
+     * @param tileArray  the tile's heights in row-major order
+     * @param tileWidth  the tile's width in texels
+     * @param tileHeight the tile's height in texels
+     *
+     * @throws IllegalArgumentException if the array is null, or if the dimensions are invalid
+     */
+    public HeightLimitPyramid(float[] tileArray, int tileWidth, int tileHeight) {
+        this(tileArray, tileWidth, tileHeight, tileArray != null ? tileArray.length : 0);
+    }
+
+    protected HeightLimitPyramid(Object tileArray, int tileWidth, int tileHeight, int length) {
+        if (tileArray == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "HeightLimitPyramid", "constructor", "missingArray"));
+        }
+
+        if (tileWidth < 1 || tileHeight < 1 || length < tileWidth * tileHeight) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "HeightLimitPyramid", "constructor", "invalidWidthOrHeight"));
+        }
+
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+
+        // Count the levels from 4 x 4 texel cells to a single cell, and the total number of cells.
+        int levels = 1, cells = 0;
+        for (int w = cellCount(tileWidth, FIRST_LEVEL), h = cellCount(tileHeight, FIRST_LEVEL); ; w = (w + 1) / 2, h = (h + 1) / 2) {
+            cells += w * h;
+            if (w == 1 && h == 1) {
+                break;
+            }
+            levels++;
+        }
+
+        this.numLevels = levels;
+        this.levelWidth = new int[levels];
+        this.levelHeight = new int[levels];
+        this.levelOffset = new int[levels];
+        this.minHeights = new float[cells];
+        this.maxHeights = new float[cells];
+
+        for (int level = 0, offset = 0; level < levels; level++) {
+            this.levelWidth[level] = cellCount(tileWidth, FIRST_LEVEL + level);
+            this.levelHeight[level] = cellCount(tileHeight, FIRST_LEVEL + level);
+            this.levelOffset[level] = offset;
+            offset += this.levelWidth[level] * this.levelHeight[level];
+        }
+
+        if (tileArray instanceof short[]) {
+            this.assembleFirstLevel((short[]) tileArray);
+        } else {
+            this.assembleFirstLevel((float[]) tileArray);
+        }
+
+        for (int level = 1; level < levels; level++) {
+            this.assembleLevel(level);
+        }
+    }
+
+    protected static int cellCount(int texels, int levelShift) {
+        return ((texels - 1) >> levelShift) + 1;
+    }
+
+    public int getTileWidth() {
+        return this.tileWidth;
+    }
+
+    public int getTileHeight() {
+        return this.tileHeight;
+    }
+
+    /**
+     * Returns the approximate size of this pyramid in bytes, for use as a memory cache entry size.
+     */
+    public int getSizeInBytes() {
+        return 64 + (this.minHeights.length + this.maxHeights.length) * 4;
+    }
+
+    /**
+     * Expands the height limits in a result array to include the heights in a range of texels. The limits may include
+     * texels up to 3 texels outside the range.
+     *
+     * @param i0     the range's first texel column
+     * @param i1     the range's last texel column
+     * @param j0     the range's first texel row
+     * @param j1     the range's last texel row
+     * @param result a two element array whose first element is expanded to the minimum height and whose second element
+     *               is expanded to the maximum height
+     */
+    public void getHeightLimits(int i0, int i1, int j0, int j1, float[] result) {
+        i0 = Math.max(i0, 0);
+        j0 = Math.max(j0, 0);
+        i1 = Math.min(i1, this.tileWidth - 1);
+        j1 = Math.min(j1, this.tileHeight - 1);
+        if (i0 > i1 || j0 > j1) {
+            return;
+        }
+
+        this.getHeightLimits(this.numLevels - 1, 0, 0, i0, i1, j0, j1, result);
+    }
+
+    protected void getHeightLimits(int level, int col, int row, int i0, int i1, int j0, int j1, float[] result) {
+        int shift = FIRST_LEVEL + level;
+        int ci0 = col << shift, ci1 = ((col + 1) << shift) - 1;
+        int cj0 = row << shift, cj1 = ((row + 1) << shift) - 1;
+        if (ci0 > i1 || ci1 < i0 || cj0 > j1 || cj1 < j0) {
+            return; // the cell is outside the range
+        }
+
+        boolean inside = ci0 >= i0 && Math.min(ci1, this.tileWidth - 1) <= i1 && cj0 >= j0 && Math.min(cj1, this.tileHeight - 1) <= j1;
+        if (inside || level == 0) {
+            int pos = this.levelOffset[level] + col + row * this.levelWidth[level];
+            if (result[0] > this.minHeights[pos]) {
+                result[0] = this.minHeights[pos];
+            }
+            if (result[1] < this.maxHeights[pos]) {
+                result[1] = this.maxHeights[pos];
+            }
+            return;
+        }
+
+        // Descend into the cell's children that exist in the next finer level.
+        int childLevel = level - 1;
+        int childCol = col * 2, childRow = row * 2;
+        int lastCol = Math.min(childCol + 1, this.levelWidth[childLevel] - 1);
+        int lastRow = Math.min(childRow + 1, this.levelHeight[childLevel] - 1);
+        for (int r = childRow; r <= lastRow; r++) {
+            for (int c = childCol; c <= lastCol; c++) {
+                this.getHeightLimits(childLevel, c, r, i0, i1, j0, j1, result);
+            }
+        }
+    }
+
+    protected void assembleFirstLevel(short[] tileArray) {
+        int width = this.levelWidth[0], height = this.levelHeight[0];
+        for (int row = 0; row < height; row++) {
+            int j0 = row << FIRST_LEVEL, j1 = Math.min(j0 + (1 << FIRST_LEVEL), this.tileHeight);
+            for (int col = 0; col < width; col++) {
+                int i0 = col << FIRST_LEVEL, i1 = Math.min(i0 + (1 << FIRST_LEVEL), this.tileWidth);
+                short min = Short.MAX_VALUE, max = Short.MIN_VALUE;
+                for (int j = j0; j < j1; j++) {
+                    for (int i = i0, pos = i0 + j * this.tileWidth; i < i1; i++, pos++) {
+                        short texel = tileArray[pos];
+                        if (min > texel) {
+                            min = texel;
+                        }
+                        if (max < texel) {
+                            max = texel;
+                        }
+                    }
+                }
+                this.minHeights[col + row * width] = min;
+                this.maxHeights[col + row * width] = max;
+            }
+        }
+    }
+
+    protected void assembleFirstLevel(float[] tileArray) {
+        int width = this.levelWidth[0], height = this.levelHeight[0];
+        for (int row = 0; row < height; row++) {
+            int j0 = row << FIRST_LEVEL, j1 = Math.min(j0 + (1 << FIRST_LEVEL), this.tileHeight);
+            for (int col = 0; col < width; col++) {
+                int i0 = col << FIRST_LEVEL, i1 = Math.min(i0 + (1 << FIRST_LEVEL), this.tileWidth);
+                float min = Float.MAX_VALUE, max = -Float.MAX_VALUE;
+                for (int j = j0; j < j1; j++) {
+                    for (int i = i0, pos = i0 + j * this.tileWidth; i < i1; i++, pos++) {
+                        float texel = tileArray[pos];
+                        if (min > texel) {
+                            min = texel;
+                        }
+                        if (max < texel) {
+                            max = texel;
+                        }
+                    }
+                }
+                this.minHeights[col + row * width] = min;
+                this.maxHeights[col + row * width] = max;
+            }
+        }
+    }
+
+    protected void assembleLevel(int level) {
+        int width = this.levelWidth[level], height = this.levelHeight[level], offset = this.levelOffset[level];
+        int childWidth = this.levelWidth[level - 1], childHeight = this.levelHeight[level - 1], childOffset = this.levelOffset[level - 1];
+        for (int row = 0; row < height; row++) {
+            int childRow0 = row * 2, childRow1 = Math.min(childRow0 + 1, childHeight - 1);
+            for (int col = 0; col < width; col++) {
+                int childCol0 = col * 2, childCol1 = Math.min(childCol0 + 1, childWidth - 1);
+                float min = Float.MAX_VALUE, max = -Float.MAX_VALUE;
+                for (int r = childRow0; r <= childRow1; r++) {
+                    for (int c = childCol0; c <= childCol1; c++) {
+                        int pos = childOffset + c + r * childWidth;
+                        if (min > this.minHeights[pos]) {
+                            min = this.minHeights[pos];
+                        }
+                        if (max < this.maxHeights[pos]) {
+                            max = this.maxHeights[pos];
+                        }
+                    }
+                }
+                this.minHeights[offset + col + row * width] = min;
+                this.maxHeights[offset + col + row * width] = max;
+            }
+        }
+    }
+}
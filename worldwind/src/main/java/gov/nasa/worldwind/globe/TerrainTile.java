@@ -7,6 +7,7 @@ package gov.nasa.worldwind.globe;
 
 import android.opengl.GLES20;
 
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
@@ -16,6 +17,7 @@ import gov.nasa.worldwind.geom.Vec3;
 import gov.nasa.worldwind.render.BufferObject;
 import gov.nasa.worldwind.render.RenderContext;
 import gov.nasa.worldwind.util.Level;
+import gov.nasa.worldwind.util.Pool;
 import gov.nasa.worldwind.util.Tile;
 
 /**
@@ -39,16 +41,49 @@ public class TerrainTile extends Tile {
 
     private double verticalExaggeration;
 
-    private String pointBufferKey;
+    /**
+     * Back buffer heights computed asynchronously by the BasicTessellator while the tile's current heights remain in
+     * use. Swapped with the current heights when the asynchronous computation completes.
+     */
+    protected float[] pendingHeights;
+
+    /**
+     * Back buffer points computed asynchronously by the BasicTessellator while the tile's current points remain in
+     * use. Swapped with the current points when the asynchronous computation completes.
+     */
+    protected float[] pendingPoints;
+
+    protected final Vec3 pendingOrigin = new Vec3();
+
+    protected long pendingHeightTimestamp;
+
+    protected double pendingVerticalExaggeration;
+
+    /**
+     * Indicates the state of the tile's asynchronous preparation. Written by the preparation's worker thread when the
+     * back buffers are complete, and read by the render thread.
+     */
+    protected volatile int preparationState = PREPARATION_NONE;
+
+    protected static final int PREPARATION_NONE = 0;
+
+    protected static final int PREPARATION_RUNNING = 1;
+
+    protected static final int PREPARATION_READY = 2;
+
+    private final String pointBufferKey;
+
+    private boolean pointBufferModified;
 
     private static long pointBufferSequence; // must be static to avoid cache collisions when a tile instances is destroyed and re-created
 
     public TerrainTile(Sector sector, Level level, int row, int column) {
         super(sector, level, row, column);
+        this.pointBufferKey = "TerrainTile.points." + this.tileKey + "." + nextPointBufferSequence();
     }
 
-    public double getDistanceToCamera() {
-        return distanceToCamera;
+    private static synchronized long nextPointBufferSequence() {
+        return pointBufferSequence++;
     }
 
     public float[] getHeights() {
@@ -81,7 +116,24 @@ public class TerrainTile extends Tile {
 
     public void setPoints(float[] points) {
         this.points = points;
-        this.pointBufferKey = "TerrainTile.points." + this.tileKey + "." + (pointBufferSequence++);
+        this.pointBufferModified = true;
+    }
+
+    /**
+     * Swaps the tile's current heights, points and origin with the back buffers computed by an asynchronous
+     * preparation, and adopts the elevation timestamp and vertical exaggeration the back buffers were computed with.
+     * The previous current arrays become the back buffers for the next asynchronous preparation.
+     */
+    protected void swapPendingPoints() {
+        float[] heights = this.heights;
+        float[] points = this.points;
+        this.setHeights(this.pendingHeights);
+        this.setPoints(this.pendingPoints);
+        this.origin.set(this.pendingOrigin);
+        this.pendingHeights = heights;
+        this.pendingPoints = points;
+        this.heightTimestamp = this.pendingHeightTimestamp;
+        this.verticalExaggeration = this.pendingVerticalExaggeration;
     }
 
     public Vec3 getOrigin() {
@@ -101,21 +153,51 @@ public class TerrainTile extends Tile {
     }
 
     public BufferObject getPointBuffer(RenderContext rc) {
+        return this.getPointBuffer(rc, null);
+    }
+
+    /**
+     * Returns the OpenGL buffer object containing this tile's points, creating it or updating its contents when the
+     * points have changed since the last call. Updating the points reuses the tile's existing buffer object and its
+     * OpenGL storage. The optional buffer pool provides the NIO buffers used to transfer points to OpenGL; each NIO
+     * buffer returns to the pool once its contents are loaded, so repeated updates reuse the same direct memory.
+     *
+     * @param rc         the current render context
+     * @param bufferPool an optional thread safe pool of NIO buffers sized to hold this tile's points, or null to
+     *                   allocate a new NIO buffer for each update
+     *
+     * @return the tile's point buffer object, or null if the tile has no points
+     */
+    public BufferObject getPointBuffer(RenderContext rc, Pool<Buffer> bufferPool) {
         if (this.points == null) {
             return null;
         }
 
         BufferObject bufferObject = rc.getBufferObject(this.pointBufferKey);
+        if (bufferObject != null && !this.pointBufferModified) {
+            return bufferObject;
+        }
+
+        // Load the points into a recycled NIO buffer when one is available with the required capacity.
+        FloatBuffer buffer = (bufferPool != null) ? (FloatBuffer) bufferPool.acquire() : null;
+        if (buffer == null || buffer.capacity() != this.points.length) {
+            buffer = ByteBuffer.allocateDirect(this.points.length * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+        }
+
+        buffer.clear();
+        buffer.put(this.points).rewind();
+        this.pointBufferModified = false;
+
         if (bufferObject != null) {
+            bufferObject.setBuffer(buffer); // reuse the existing buffer object and its OpenGL storage
             return bufferObject;
         }
 
         // TODO consider a pool of terrain tiles
-        // TODO consider a pool of terrain tile vertex buffers
-        int size = this.points.length * 4;
-        FloatBuffer buffer = ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder()).asFloatBuffer();
-        buffer.put(this.points).rewind();
+        bufferObject = new BufferObject(GLES20.GL_ARRAY_BUFFER, this.points.length * 4, buffer);
+        bufferObject.setBufferPool(bufferPool);
+        bufferObject.setRecyclable(true);
 
-        return rc.putBufferObject(this.pointBufferKey, new BufferObject(GLES20.GL_ARRAY_BUFFER, size, buffer));
+        return rc.putBufferObject(this.pointBufferKey, bufferObject);
     }
 }
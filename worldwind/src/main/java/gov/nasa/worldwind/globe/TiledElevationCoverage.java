@@ -11,7 +11,11 @@ import android.util.LongSparseArray;
 import android.util.SparseIntArray;
 
 import java.net.SocketTimeoutException;
+import java.nio.Buffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
 import java.nio.ShortBuffer;
+import java.util.Arrays;
 import java.util.Locale;
 
 import gov.nasa.worldwind.WorldWind;
@@ -24,7 +28,7 @@ import gov.nasa.worldwind.util.LruMemoryCache;
 import gov.nasa.worldwind.util.Retriever;
 import gov.nasa.worldwind.util.WWMath;
 
-public class TiledElevationCoverage extends AbstractElevationCoverage implements Retriever.Callback<ImageSource, Void, ShortBuffer> {
+public class TiledElevationCoverage extends AbstractElevationCoverage implements Retriever.Callback<ImageSource, TiledElevationCoverage.CoverageTile, Buffer> {
 
     public interface TileFactory {
 
@@ -37,20 +41,50 @@ public class TiledElevationCoverage extends AbstractElevationCoverage implements
 
     protected final LruMemoryCache<Long, ImageSource> coverageSource;
 
-    protected final LruMemoryCache<ImageSource, short[]> coverageCache;
+    /**
+     * Coverage tiles keyed by tile source. Each tile is either a short[] holding 16-bit integer elevations or a float[]
+     * holding 32-bit floating point elevations, and is cached at its size in bytes. Tiles retrieved as 32-bit integers
+     * are scaled to float[] on arrival.
+     */
+    protected final LruMemoryCache<ImageSource, Object> coverageCache;
 
-    protected final ElevationRetriever coverageRetriever;
+    /**
+     * Height limit pyramids for the tile arrays in the coverage cache, built when tiles are decoded. Pyramids evicted
+     * separately from their tile arrays are rebuilt on demand.
+     */
+    protected final LruMemoryCache<ImageSource, HeightLimitPyramid> pyramidCache;
+
+    protected final ElevationRetriever<CoverageTile> coverageRetriever;
 
     protected final Handler coverageHandler;
 
-    protected boolean enableRetrieval;
+    /**
+     * Guards the coverage's tile matrix set, tile factory and caches. Height grids and height limits may be requested
+     * on worker threads, for example by a BasicTessellator configured for asynchronous tile preparation, while
+     * retrieved tiles are added to the cache on the main thread. The lock is held for each tile fetch rather than for
+     * an entire height grid, so that height limit requests on the render thread do not wait for a worker's grid.
+     */
+    protected final Object coverageLock = new Object();
+
+    protected boolean enableRetrieval = true;
+
+    protected double int32Scale = 1;
 
     protected static final int GET_HEIGHT_LIMIT_SAMPLES = 8;
 
+    /**
+     * Marks tiles that are absent from the coverage cache in a {@link TileBlock}.
+     */
+    protected static final short[] MISSING_TILE_ARRAY = new short[0];
+
     public TiledElevationCoverage() {
         this.coverageSource = new LruMemoryCache<>(200);
         this.coverageCache = new LruMemoryCache<>(1024 * 1024 * 8);
-        this.coverageRetriever = new ElevationRetriever(4);
+        this.pyramidCache = new LruMemoryCache<>(1024 * 1024 * 3);
+        this.coverageRetriever = new ElevationRetriever<>(4);
+        // Coverage tiles are requested when terrain is regenerated, not every frame. Keep pending retrievals until they
+        // run, since a cancelled retrieval may not be requested again until the camera moves.
+        this.coverageRetriever.setCancelIdleRetrievals(false);
         this.coverageHandler = new Handler(Looper.getMainLooper(), msg -> false);
 
         Logger.log(Logger.INFO, String.format(Locale.US, "Coverage cache initialized  %,.0f KB",
@@ -67,8 +101,10 @@ public class TiledElevationCoverage extends AbstractElevationCoverage implements
                 Logger.logMessage(Logger.ERROR, "TiledSurfaceImage", "setTileMatrixSet", "missingTileMatrixSet"));
         }
 
-        this.tileMatrixSet = tileMatrixSet;
-        this.invalidateTiles();
+        synchronized (this.coverageLock) {
+            this.tileMatrixSet = tileMatrixSet;
+            this.invalidateTiles();
+        }
     }
 
     public TileFactory getTileFactory() {
@@ -76,10 +112,43 @@ public class TiledElevationCoverage extends AbstractElevationCoverage implements
     }
 
     public void setTileFactory(TileFactory tileFactory) {
-        this.tileFactory = tileFactory;
-        this.invalidateTiles();
+        synchronized (this.coverageLock) {
+            this.tileFactory = tileFactory;
+            this.invalidateTiles();
+        }
     }
 
+    /**
+     * Indicates the factor converting 32-bit integer elevation values to meters.
+     *
+     * @return the factor applied to 32-bit integer elevation values
+     */
+    public double getInt32Scale() {
+        synchronized (this.coverageLock) {
+            return this.int32Scale;
+        }
+    }
+
+    /**
+     * Sets the factor converting 32-bit integer elevation values to meters, for example 0.01 for a coverage storing
+     * elevations in centimeters. The factor is applied when tiles are retrieved, and has no effect on 16-bit integer or
+     * floating point coverages. The default is 1.
+     *
+     * @param scale the factor to apply to 32-bit integer elevation values
+     */
+    public void setInt32Scale(double scale) {
+        synchronized (this.coverageLock) {
+            this.int32Scale = scale;
+            this.invalidateTiles();
+        }
+    }
+
+    /**
+     * Indicates whether the coverage retrieves tiles missing from its cache. Each height request retrieves only the
+     * tiles of its target tile matrix and the first tile matrix.
+     *
+     * @return true if missing tiles are retrieved, otherwise false
+     */
     protected boolean isEnableRetrieval() {
         return this.enableRetrieval;
     }
@@ -89,26 +158,30 @@ public class TiledElevationCoverage extends AbstractElevationCoverage implements
     }
 
     protected void invalidateTiles() {
-        this.coverageSource.clear();
-        this.coverageCache.clear();
-        this.updateTimestamp();
+        synchronized (this.coverageLock) {
+            this.coverageSource.clear();
+            this.coverageCache.clear();
+            this.pyramidCache.clear();
+            this.updateTimestamp();
+        }
     }
 
     @Override
     protected void doGetHeightGrid(Sector gridSector, int gridWidth, int gridHeight, float[] result) {
-        if (!this.tileMatrixSet.sector.intersects(gridSector)) {
+        TileMatrixSet tileMatrixSet = this.currentTileMatrixSet();
+        if (!tileMatrixSet.sector.intersects(gridSector)) {
             return; // no coverage in the specified sector
         }
 
         double targetPixelSpan = gridSector.deltaLatitude() / gridHeight;
-        int targetIdx = this.tileMatrixSet.indexOfMatrixNearest(targetPixelSpan);
+        int targetIdx = tileMatrixSet.indexOfMatrixNearest(targetPixelSpan);
         TileBlock tileBlock = new TileBlock();
 
         for (int idx = targetIdx; idx >= 0; idx--) {
 
-            this.setEnableRetrieval(idx == targetIdx || idx == 0); // enable retrieval of the target matrix and the first matrix
+            tileBlock.enableRetrieval = (idx == targetIdx || idx == 0); // enable retrieval of the target matrix and the first matrix
 
-            TileMatrix tileMatrix = this.tileMatrixSet.matrix(idx);
+            TileMatrix tileMatrix = tileMatrixSet.matrix(idx);
             if (this.fetchTileBlock(gridSector, gridWidth, gridHeight, tileMatrix, tileBlock)) {
                 this.readHeightGrid(gridSector, gridWidth, gridHeight, tileBlock, result);
                 return;
@@ -118,19 +191,20 @@ public class TiledElevationCoverage extends AbstractElevationCoverage implements
 
     @Override
     protected void doGetHeightLimits(Sector sector, float[] result) {
-        if (!this.tileMatrixSet.sector.intersects(sector)) {
+        TileMatrixSet tileMatrixSet = this.currentTileMatrixSet();
+        if (!tileMatrixSet.sector.intersects(sector)) {
             return; // no coverage in the specified sector
         }
 
         double targetPixelSpan = sector.deltaLatitude() / GET_HEIGHT_LIMIT_SAMPLES;
-        int targetIdx = this.tileMatrixSet.indexOfMatrixNearest(targetPixelSpan);
+        int targetIdx = tileMatrixSet.indexOfMatrixNearest(targetPixelSpan);
         TileBlock tileBlock = new TileBlock();
 
         for (int idx = targetIdx; idx >= 0; idx--) {
 
-            this.setEnableRetrieval(idx == targetIdx || idx == 0); // enable retrieval of the target matrix and the first matrix
+            tileBlock.enableRetrieval = (idx == targetIdx || idx == 0); // enable retrieval of the target matrix and the first matrix
 
-            TileMatrix tileMatrix = this.tileMatrixSet.matrix(idx);
+            TileMatrix tileMatrix = tileMatrixSet.matrix(idx);
             if (this.fetchTileBlock(sector, tileMatrix, tileBlock)) {
                 this.scanHeightLimits(sector, tileBlock, result);
                 return;
@@ -138,6 +212,81 @@ public class TiledElevationCoverage extends AbstractElevationCoverage implements
         }
     }
 
+    @Override
+    protected void doGetHeights(double[] latitudes, double[] longitudes, int count, float[] result) {
+        TileMatrixSet tileMatrixSet = this.currentTileMatrixSet();
+        int targetIdx = tileMatrixSet.count() - 1; // the finest matrix, as for a single point height grid
+        if (targetIdx < 0) {
+            return; // no coverage
+        }
+
+        int[] locations = this.sortLocations(latitudes, longitudes, count, tileMatrixSet.sector, tileMatrixSet.matrix(targetIdx));
+        int locationCount = locations.length;
+        TileBlock tileBlock = new TileBlock();
+
+        // Read the heights from the finest matrix with tiles available for each location, falling back to coarser
+        // matrices only for the locations whose tiles are missing.
+        for (int idx = targetIdx; idx >= 0 && locationCount > 0; idx--) {
+
+            tileBlock.enableRetrieval = (idx == targetIdx || idx == 0); // enable retrieval of the target matrix and the first matrix
+
+            tileBlock.tileMatrix = tileMatrixSet.matrix(idx);
+            tileBlock.clear();
+            locationCount = this.readHeights(latitudes, longitudes, locations, locationCount, tileBlock, result);
+        }
+    }
+
+    /**
+     * Returns the coverage's tile matrix set. Height requests read the tile matrix set once, then lock the coverage
+     * only while fetching each tile.
+     */
+    protected TileMatrixSet currentTileMatrixSet() {
+        synchronized (this.coverageLock) {
+            return this.tileMatrixSet;
+        }
+    }
+
+    /**
+     * Returns the indices of the locations within this coverage, ordered by the tile containing each location in the
+     * specified tile matrix. Locations sharing a tile are then read consecutively, and fetch that tile once.
+     */
+    protected int[] sortLocations(double[] latitudes, double[] longitudes, int count, Sector coverageSector, TileMatrix tileMatrix) {
+        int tileWidth = tileMatrix.tileWidth;
+        int tileHeight = tileMatrix.tileHeight;
+        int rasterWidth = tileMatrix.matrixWidth * tileWidth;
+        int rasterHeight = tileMatrix.matrixHeight * tileHeight;
+        double matrixMaxLat = tileMatrix.sector.maxLatitude();
+        double matrixMinLon = tileMatrix.sector.minLongitude();
+        double matrixDeltaLat = tileMatrix.sector.deltaLatitude();
+        double matrixDeltaLon = tileMatrix.sector.deltaLongitude();
+
+        // Sort keys combine a tile index in the upper 32 bits with a location index in the lower 32 bits. Tile indices
+        // beyond 32 bits only weaken the grouping; the sort order never affects the heights.
+        long[] keys = new long[count];
+        int keyCount = 0;
+        for (int idx = 0; idx < count; idx++) {
+            double lat = latitudes[idx];
+            double lon = longitudes[idx];
+            if (!coverageSector.contains(lat, lon)) {
+                continue; // no coverage at the location
+            }
+
+            int i = (int) WWMath.clamp(Math.floor(rasterWidth * (lon - matrixMinLon) / matrixDeltaLon), 0, rasterWidth - 1);
+            int j = (int) WWMath.clamp(Math.floor(rasterHeight * (matrixMaxLat - lat) / matrixDeltaLat), 0, rasterHeight - 1);
+            long tile = (long) (j / tileHeight) * tileMatrix.matrixWidth + (i / tileWidth);
+            keys[keyCount++] = (tile << 32) | idx;
+        }
+
+        Arrays.sort(keys, 0, keyCount);
+
+        int[] locations = new int[keyCount];
+        for (int idx = 0; idx < keyCount; idx++) {
+            locations[idx] = (int) keys[idx];
+        }
+
+        return locations;
+    }
+
     protected boolean fetchTileBlock(Sector gridSector, int gridWidth, int gridHeight, TileMatrix tileMatrix, TileBlock result) {
         int tileWidth = tileMatrix.tileWidth;
         int tileHeight = tileMatrix.tileHeight;
@@ -207,7 +356,7 @@ public class TiledElevationCoverage extends AbstractElevationCoverage implements
             for (int cidx = 0, clen = result.cols.size(); cidx < clen; cidx++) {
                 int row = result.rows.keyAt(ridx);
                 int col = result.cols.keyAt(cidx);
-                short[] tileArray = this.fetchTileArray(tileMatrix, row, col);
+                Object tileArray = this.fetchTileArray(tileMatrix, row, col, result.enableRetrieval);
                 if (tileArray != null) {
                     result.putTileArray(row, col, tileArray);
                 } else {
@@ -255,7 +404,7 @@ public class TiledElevationCoverage extends AbstractElevationCoverage implements
 
         for (int row = rowMin; row <= rowMax; row++) {
             for (int col = colMin; col <= colMax; col++) {
-                short[] tileArray = this.fetchTileArray(tileMatrix, row, col);
+                Object tileArray = this.fetchTileArray(tileMatrix, row, col, result.enableRetrieval);
                 if (tileArray != null) {
                     result.rows.put(row, 0);
                     result.cols.put(col, 0);
@@ -269,7 +418,23 @@ public class TiledElevationCoverage extends AbstractElevationCoverage implements
         return true;
     }
 
-    protected short[] fetchTileArray(TileMatrix tileMatrix, int row, int column) {
+    protected Object fetchTileArray(TileMatrix tileMatrix, int row, int column, boolean enableRetrieval) {
+        synchronized (this.coverageLock) {
+            if (this.tileMatrixSet.matrix(tileMatrix.ordinal) != tileMatrix) {
+                return null; // the tile matrix set has been replaced since the height request began
+            }
+
+            ImageSource tileSource = this.fetchTileSource(tileMatrix, row, column);
+            Object tileArray = this.coverageCache.get(tileSource);
+            if (tileArray == null && enableRetrieval && this.isEnableRetrieval()) {
+                this.coverageRetriever.retrieve(tileSource, new CoverageTile(tileMatrix, row, column), this);
+            }
+
+            return tileArray;
+        }
+    }
+
+    protected ImageSource fetchTileSource(TileMatrix tileMatrix, int row, int column) {
         long key = tileKey(tileMatrix, row, column);
         ImageSource tileSource = this.coverageSource.get(key);
 
@@ -278,12 +443,7 @@ public class TiledElevationCoverage extends AbstractElevationCoverage implements
             this.coverageSource.put(key, tileSource, 1);
         }
 
-        short[] tileArray = this.coverageCache.get(tileSource);
-        if (tileArray == null && this.isEnableRetrieval()) {
-            this.coverageRetriever.retrieve(tileSource, null, this);
-        }
-
-        return tileArray;
+        return tileSource;
     }
 
     protected static long tileKey(TileMatrix tileMatrix, int row, int column) {
@@ -294,20 +454,10 @@ public class TiledElevationCoverage extends AbstractElevationCoverage implements
     }
 
     protected void readHeightGrid(Sector gridSector, int gridWidth, int gridHeight, TileBlock tileBlock, float[] result) {
-        int tileWidth = tileBlock.tileMatrix.tileWidth;
-        int tileHeight = tileBlock.tileMatrix.tileHeight;
-        int rasterWidth = tileBlock.tileMatrix.matrixWidth * tileWidth;
-        int rasterHeight = tileBlock.tileMatrix.matrixHeight * tileHeight;
         double matrixMinLat = tileBlock.tileMatrix.sector.minLatitude();
         double matrixMaxLat = tileBlock.tileMatrix.sector.maxLatitude();
         double matrixMinLon = tileBlock.tileMatrix.sector.minLongitude();
         double matrixMaxLon = tileBlock.tileMatrix.sector.maxLongitude();
-        double matrixDeltaLat = tileBlock.tileMatrix.sector.deltaLatitude();
-        double matrixDeltaLon = tileBlock.tileMatrix.sector.deltaLongitude();
-        double sMin = 1.0 / (2.0 * rasterWidth);
-        double sMax = 1.0 - sMin;
-        double tMin = 1.0 / (2.0 * rasterHeight);
-        double tMax = 1.0 - tMin;
         int ridx = 0;
 
         double lat = gridSector.minLatitude();
@@ -317,14 +467,6 @@ public class TiledElevationCoverage extends AbstractElevationCoverage implements
                 lat = gridSector.maxLatitude(); // explicitly set the last lat to the max latitude to ensure alignment
             }
 
-            double t = (matrixMaxLat - lat) / matrixDeltaLat;
-            double v = rasterHeight * WWMath.clamp(t, tMin, tMax); // clamp the vertical coordinate to the raster edge
-            float b = (float) WWMath.fract(v - 0.5);
-            int j0 = (int) WWMath.clamp(Math.floor(v - 0.5), 0, rasterHeight - 1);
-            int j1 = (int) WWMath.clamp(j0 + 1, 0, rasterHeight - 1);
-            int row0 = j0 / tileHeight;
-            int row1 = j1 / tileHeight;
-
             double lon = gridSector.minLongitude();
             double deltaLon = gridSector.deltaLongitude() / (gridWidth - 1);
             for (int widx = 0; widx < gridWidth; widx++, lon += deltaLon) {
@@ -332,34 +474,9 @@ public class TiledElevationCoverage extends AbstractElevationCoverage implements
                     lon = gridSector.maxLongitude(); // explicitly set the last lon to the max longitude to ensure alignment
                 }
 
-                double s = (lon - matrixMinLon) / matrixDeltaLon;
-                double u;
-                int i0, i1;
-                if (tileBlock.tileMatrix.sector.isFullSphere()) {
-                    u = rasterWidth * WWMath.fract(s); // wrap the horizontal coordinate
-                    i0 = WWMath.mod((int) Math.floor(u - 0.5), rasterWidth);
-                    i1 = WWMath.mod((i0 + 1), rasterWidth);
-                } else {
-                    u = rasterWidth * WWMath.clamp(s, sMin, sMax); // clamp the horizontal coordinate
-                    i0 = (int) WWMath.clamp((int) Math.floor(u - 0.5), 0, rasterWidth - 1);
-                    i1 = (int) WWMath.clamp((i0 + 1), 0, rasterWidth - 1);
-                }
-                float a = (float) WWMath.fract(u - 0.5);
-                int col0 = i0 / tileWidth;
-                int col1 = i1 / tileWidth;
-
                 if (matrixMinLat <= lat && lat <= matrixMaxLat &&
                     matrixMinLon <= lon && lon <= matrixMaxLon) {
-
-                    short i0j0 = tileBlock.readTexel(row0, col0, i0 % tileWidth, j0 % tileHeight);
-                    short i1j0 = tileBlock.readTexel(row0, col1, i1 % tileWidth, j0 % tileHeight);
-                    short i0j1 = tileBlock.readTexel(row1, col0, i0 % tileWidth, j1 % tileHeight);
-                    short i1j1 = tileBlock.readTexel(row1, col1, i1 % tileWidth, j1 % tileHeight);
-
-                    result[ridx] = (1 - a) * (1 - b) * i0j0 +
-                        a * (1 - b) * i1j0 +
-                        (1 - a) * b * i0j1 +
-                        a * b * i1j1;
+                    this.readHeight(tileBlock, lat, lon, result, ridx);
                 }
 
                 ridx++;
@@ -367,6 +484,121 @@ public class TiledElevationCoverage extends AbstractElevationCoverage implements
         }
     }
 
+    /**
+     * Reads the heights at the specified locations from the tile block's tile matrix, fetching each tile the
+     * locations need into the tile block. Returns the number of locations that could not be read, either because they
+     * are outside the tile matrix or because their tiles are missing, having moved those location indices to the front
+     * of the locations array.
+     */
+    protected int readHeights(double[] latitudes, double[] longitudes, int[] locations, int locationCount, TileBlock tileBlock, float[] result) {
+        int unreadCount = 0;
+
+        for (int lidx = 0; lidx < locationCount; lidx++) {
+            int location = locations[lidx];
+            double lat = latitudes[location];
+            double lon = longitudes[location];
+            if (!tileBlock.tileMatrix.sector.contains(lat, lon) ||
+                !this.readHeight(tileBlock, lat, lon, result, location)) {
+                locations[unreadCount++] = location;
+            }
+        }
+
+        return unreadCount;
+    }
+
+    /**
+     * Bilinearly interpolates the height at a location within the tile block's tile matrix from the four nearest
+     * texels, fetching their tiles into the tile block on first use. Returns false without modifying the result when
+     * any of those tiles is missing.
+     */
+    protected boolean readHeight(TileBlock tileBlock, double lat, double lon, float[] result, int ridx) {
+        int tileWidth = tileBlock.tileMatrix.tileWidth;
+        int tileHeight = tileBlock.tileMatrix.tileHeight;
+        int rasterWidth = tileBlock.tileMatrix.matrixWidth * tileWidth;
+        int rasterHeight = tileBlock.tileMatrix.matrixHeight * tileHeight;
+        double matrixMaxLat = tileBlock.tileMatrix.sector.maxLatitude();
+        double matrixMinLon = tileBlock.tileMatrix.sector.minLongitude();
+        double matrixDeltaLat = tileBlock.tileMatrix.sector.deltaLatitude();
+        double matrixDeltaLon = tileBlock.tileMatrix.sector.deltaLongitude();
+        double sMin = 1.0 / (2.0 * rasterWidth);
+        double sMax = 1.0 - sMin;
+        double tMin = 1.0 / (2.0 * rasterHeight);
+        double tMax = 1.0 - tMin;
+
+        double t = (matrixMaxLat - lat) / matrixDeltaLat;
+        double v = rasterHeight * WWMath.clamp(t, tMin, tMax); // clamp the vertical coordinate to the raster edge
+        float b = (float) WWMath.fract(v - 0.5);
+        int j0 = (int) WWMath.clamp(Math.floor(v - 0.5), 0, rasterHeight - 1);
+        int j1 = (int) WWMath.clamp(j0 + 1, 0, rasterHeight - 1);
+        int row0 = j0 / tileHeight;
+        int row1 = j1 / tileHeight;
+
+        double s = (lon - matrixMinLon) / matrixDeltaLon;
+        double u;
+        int i0, i1;
+        if (tileBlock.tileMatrix.sector.isFullSphere()) {
+            u = rasterWidth * WWMath.fract(s); // wrap the horizontal coordinate
+            i0 = WWMath.mod((int) Math.floor(u - 0.5), rasterWidth);
+            i1 = WWMath.mod((i0 + 1), rasterWidth);
+        } else {
+            u = rasterWidth * WWMath.clamp(s, sMin, sMax); // clamp the horizontal coordinate
+            i0 = (int) WWMath.clamp((int) Math.floor(u - 0.5), 0, rasterWidth - 1);
+            i1 = (int) WWMath.clamp((i0 + 1), 0, rasterWidth - 1);
+        }
+        float a = (float) WWMath.fract(u - 0.5);
+        int col0 = i0 / tileWidth;
+        int col1 = i1 / tileWidth;
+
+        Object row0col0 = this.fetchTileArray(tileBlock, row0, col0);
+        Object row0col1 = this.fetchTileArray(tileBlock, row0, col1);
+        Object row1col0 = this.fetchTileArray(tileBlock, row1, col0);
+        Object row1col1 = this.fetchTileArray(tileBlock, row1, col1);
+        if (row0col0 == MISSING_TILE_ARRAY || row0col1 == MISSING_TILE_ARRAY ||
+            row1col0 == MISSING_TILE_ARRAY || row1col1 == MISSING_TILE_ARRAY) {
+            return false;
+        }
+
+        float i0j0 = readTexel(row0col0, (i0 % tileWidth) + (j0 % tileHeight) * tileWidth);
+        float i1j0 = readTexel(row0col1, (i1 % tileWidth) + (j0 % tileHeight) * tileWidth);
+        float i0j1 = readTexel(row1col0, (i0 % tileWidth) + (j1 % tileHeight) * tileWidth);
+        float i1j1 = readTexel(row1col1, (i1 % tileWidth) + (j1 % tileHeight) * tileWidth);
+
+        result[ridx] = (1 - a) * (1 - b) * i0j0 +
+            a * (1 - b) * i1j0 +
+            (1 - a) * b * i0j1 +
+            a * b * i1j1;
+
+        return true;
+    }
+
+    /**
+     * Returns a tile's array from the tile block, fetching it into the tile block on first use. Tiles absent from the
+     * coverage cache are returned as MISSING_TILE_ARRAY.
+     */
+    protected Object fetchTileArray(TileBlock tileBlock, int row, int column) {
+        Object tileArray = tileBlock.getTileArray(row, column);
+        if (tileArray == null) {
+            tileArray = this.fetchTileArray(tileBlock.tileMatrix, row, column, tileBlock.enableRetrieval);
+            if (tileArray == null) {
+                tileArray = MISSING_TILE_ARRAY;
+            }
+            tileBlock.putTileArray(row, column, tileArray);
+        }
+
+        return tileArray;
+    }
+
+    /**
+     * Returns the elevation at a position in a tile array, which is either a short[] or a float[].
+     */
+    protected static float readTexel(Object tileArray, int pos) {
+        if (tileArray instanceof short[]) {
+            return ((short[]) tileArray)[pos];
+        } else {
+            return ((float[]) tileArray)[pos];
+        }
+    }
+
     protected void scanHeightLimits(Sector sector, TileBlock tileBlock, float[] result) {
         int tileWidth = tileBlock.tileMatrix.tileWidth;
         int tileHeight = tileBlock.tileMatrix.tileHeight;
@@ -408,36 +640,92 @@ public class TiledElevationCoverage extends AbstractElevationCoverage implements
                 int i0 = (int) WWMath.clamp(iMin, coliMin, coliMax) % tileWidth;
                 int i1 = (int) WWMath.clamp(iMax, coliMin, coliMax) % tileWidth;
 
-                short[] tileArray = tileBlock.getTileArray(row, col);
-                // TODO how often do we read all of tileArray?
-
-                for (int j = j0; j <= j1; j++) {
-                    for (int i = i0; i <= i1; i++) {
+                HeightLimitPyramid pyramid = this.fetchHeightLimitPyramid(tileBlock.tileMatrix, row, col, tileBlock.getTileArray(row, col));
+                pyramid.getHeightLimits(i0, i1, j0, j1, result);
+            }
+        }
+    }
 
-                        int pos = i + j * tileWidth;
-                        short texel = tileArray[pos];
+    /**
+     * Returns the height limit pyramid for a tile array in the coverage cache, building it if the pyramid has been
+     * evicted or the tile array was added to the cache without one.
+     */
+    protected HeightLimitPyramid fetchHeightLimitPyramid(TileMatrix tileMatrix, int row, int column, Object tileArray) {
+        ImageSource tileSource;
+        HeightLimitPyramid pyramid;
+        synchronized (this.coverageLock) {
+            tileSource = this.fetchTileSource(tileMatrix, row, column);
+            pyramid = this.pyramidCache.get(tileSource);
+        }
 
-                        if (result[0] > texel) {
-                            result[0] = texel;
-                        }
-                        if (result[1] < texel) {
-                            result[1] = texel;
-                        }
-                    }
-                }
+        if (pyramid == null || pyramid.getTileWidth() != tileMatrix.tileWidth || pyramid.getTileHeight() != tileMatrix.tileHeight) {
+            pyramid = buildHeightLimitPyramid(tileArray, tileMatrix.tileWidth, tileMatrix.tileHeight); // build outside the lock
+            synchronized (this.coverageLock) {
+                this.pyramidCache.put(tileSource, pyramid, pyramid.getSizeInBytes());
             }
         }
+
+        return pyramid;
+    }
+
+    protected static HeightLimitPyramid buildHeightLimitPyramid(Object tileArray, int tileWidth, int tileHeight) {
+        if (tileArray instanceof short[]) {
+            return new HeightLimitPyramid((short[]) tileArray, tileWidth, tileHeight);
+        } else {
+            return new HeightLimitPyramid((float[]) tileArray, tileWidth, tileHeight);
+        }
     }
 
     @Override
-    public void retrievalSucceeded(Retriever<ImageSource, Void, ShortBuffer> retriever, ImageSource key, Void unused, ShortBuffer value) {
+    public void retrievalSucceeded(Retriever<ImageSource, CoverageTile, Buffer> retriever, ImageSource key, CoverageTile tile, Buffer value) {
         final ImageSource finalKey = key;
-        final short[] finalArray = new short[value.remaining()];
-        value.get(finalArray);
+        final Object finalArray;
+        final int finalSize;
+        final double finalScale; // the 32-bit integer scale applied to the tile's heights, or NaN if none was applied
+        int texelCount = value.remaining();
+        if (value instanceof ShortBuffer) {
+            short[] array = new short[value.remaining()];
+            ((ShortBuffer) value).get(array);
+            finalArray = array;
+            finalSize = array.length * 2;
+            finalScale = Double.NaN;
+        } else if (value instanceof FloatBuffer) {
+            float[] array = new float[value.remaining()];
+            ((FloatBuffer) value).get(array);
+            finalArray = array;
+            finalSize = array.length * 4;
+            finalScale = Double.NaN;
+        } else if (value instanceof IntBuffer) {
+            IntBuffer buffer = (IntBuffer) value;
+            float[] array = new float[buffer.remaining()];
+            double scale = this.getInt32Scale();
+            for (int idx = 0, len = array.length; idx < len; idx++) {
+                array[idx] = (float) (buffer.get() * scale);
+            }
+            finalArray = array;
+            finalSize = array.length * 4;
+            finalScale = scale;
+        } else {
+            this.retrievalFailed(retriever, key, null);
+            return;
+        }
+
+        // Build the tile's height limit pyramid on the retrieval thread, while the tile's heights are in the CPU cache.
+        final HeightLimitPyramid finalPyramid = (tile.tileMatrix.tileWidth * tile.tileMatrix.tileHeight <= texelCount) ?
+            buildHeightLimitPyramid(finalArray, tile.tileMatrix.tileWidth, tile.tileMatrix.tileHeight) : null;
 
+        final Sector finalSector = tile.tileMatrix.tileSector(tile.row, tile.column);
         this.coverageHandler.post(() -> {
-            coverageCache.put(finalKey, finalArray, finalArray.length * 2);
-            updateTimestamp();
+            synchronized (coverageLock) {
+                if (!Double.isNaN(finalScale) && finalScale != int32Scale) {
+                    return; // the scale changed during retrieval; discard the tile, which is retrieved again when needed
+                }
+                coverageCache.put(finalKey, finalArray, finalSize);
+                if (finalPyramid != null) {
+                    pyramidCache.put(finalKey, finalPyramid, finalPyramid.getSizeInBytes());
+                }
+                updateTimestamp(finalSector); // only terrain near the new tile depends on its heights
+            }
             WorldWind.requestRedraw();
         });
 
@@ -447,7 +735,7 @@ public class TiledElevationCoverage extends AbstractElevationCoverage implements
     }
 
     @Override
-    public void retrievalFailed(Retriever<ImageSource, Void, ShortBuffer> retriever, ImageSource key, Throwable ex) {
+    public void retrievalFailed(Retriever<ImageSource, CoverageTile, Buffer> retriever, ImageSource key, Throwable ex) {
         if (ex instanceof SocketTimeoutException) { // log socket timeout exceptions while suppressing the stack trace
             Logger.log(Logger.ERROR, "Socket timeout retrieving coverage '" + key + "'");
         } else if (ex != null) { // log checked exceptions with the entire stack trace
@@ -458,27 +746,47 @@ public class TiledElevationCoverage extends AbstractElevationCoverage implements
     }
 
     @Override
-    public void retrievalRejected(Retriever<ImageSource, Void, ShortBuffer> retriever, ImageSource key) {
+    public void retrievalRejected(Retriever<ImageSource, CoverageTile, Buffer> retriever, ImageSource key) {
         if (Logger.isLoggable(Logger.DEBUG)) {
             Logger.log(Logger.DEBUG, "Coverage retrieval rejected '" + key + "'");
         }
     }
 
+    /**
+     * Identifies a coverage tile requested from the coverage retriever.
+     */
+    protected static class CoverageTile {
+
+        public final TileMatrix tileMatrix;
+
+        public final int row;
+
+        public final int column;
+
+        public CoverageTile(TileMatrix tileMatrix, int row, int column) {
+            this.tileMatrix = tileMatrix;
+            this.row = row;
+            this.column = column;
+        }
+    }
+
     protected static class TileBlock {
 
         public TileMatrix tileMatrix;
 
+        public boolean enableRetrieval;
+
         public final SparseIntArray rows = new SparseIntArray();
 
         public final SparseIntArray cols = new SparseIntArray();
 
-        public final LongSparseArray<short[]> arrays = new LongSparseArray<>();
+        public final LongSparseArray<Object> arrays = new LongSparseArray<>();
 
         private int texelRow = -1;
 
         private int texelCol = -1;
 
-        private short[] texelArray;
+        private Object texelArray;
 
         public void clear() {
             this.rows.clear();
@@ -489,12 +797,16 @@ public class TiledElevationCoverage extends AbstractElevationCoverage implements
             this.texelArray = null;
         }
 
-        public void putTileArray(int row, int column, short[] array) {
+        public void putTileArray(int row, int column, Object array) {
             long key = tileKey(this.tileMatrix, row, column);
             this.arrays.put(key, array);
+
+            if (this.texelRow == row && this.texelCol == column) {
+                this.texelArray = array; // replace the array returned by the last lookup
+            }
         }
 
-        public short[] getTileArray(int row, int column) {
+        public Object getTileArray(int row, int column) {
             if (this.texelRow != row || this.texelCol != column) {
                 long key = tileKey(this.tileMatrix, row, column);
                 this.texelRow = row;
@@ -505,10 +817,10 @@ public class TiledElevationCoverage extends AbstractElevationCoverage implements
             return this.texelArray;
         }
 
-        public short readTexel(int row, int column, int i, int j) {
-            short[] array = this.getTileArray(row, column);
+        public float readTexel(int row, int column, int i, int j) {
+            Object array = this.getTileArray(row, column);
             int pos = i + j * this.tileMatrix.tileWidth;
-            return array[pos];
+            return TiledElevationCoverage.readTexel(array, pos);
         }
     }
 }
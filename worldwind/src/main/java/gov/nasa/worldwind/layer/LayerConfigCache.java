@@ -0,0 +1,313 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.layer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.ogc.WmsLayerConfig;
+import gov.nasa.worldwind.util.DiskCache;
+import gov.nasa.worldwind.util.LevelSetConfig;
+import gov.nasa.worldwind.util.Logger;
+
+/**
+ * Persists the layer configurations LayerFactory resolves from WMS and WMTS capabilities documents, so that layers
+ * created from the same service in a later session display without first retrieving and parsing the capabilities
+ * document. Each entry records the capabilities document's ETag and Last-Modified validators, which LayerFactory uses
+ * to revalidate the entry in the background.
+ * <p>
+ * Entries are stored in a {@link DiskCache} in a compact binary form. By default the entries are kept in a disk cache
+ * of their own, in a directory beside the WorldWind disk cache's directory, so that imagery and elevation tiles never
+ * evict layer configurations. Nothing is cached when the WorldWind disk cache is not configured.
+ */
+public class LayerConfigCache {
+
+    /**
+     * A layer configuration resolved from a capabilities document. WMS entries have a WMS layer configuration; WMTS
+     * entries have a tile URL template and tile matrix identifiers.
+     */
+    public static class Entry {
+
+        /**
+         * The ETag of the capabilities document the configuration was resolved from, or null if the service did not
+         * provide one.
+         */
+        public String etag;
+
+        /**
+         * The Last-Modified time of the capabilities document the configuration was resolved from, in milliseconds
+         * since the epoch, or 0 if the service did not provide one.
+         */
+        public long lastModified;
+
+        public String displayName;
+
+        public WmsLayerConfig wmsLayerConfig;
+
+        public String tileUrlTemplate;
+
+        public List<String> tileMatrixIdentifiers;
+
+        public LevelSetConfig levelSetConfig = new LevelSetConfig();
+
+        public Entry() {
+        }
+
+        /**
+         * Indicates whether this entry's layer configuration is the same as another entry's, ignoring the capabilities
+         * document validators.
+         */
+        public boolean configEquals(Entry that) {
+            try {
+                return Arrays.equals(encodeConfig(this), encodeConfig(that));
+            } catch (IOException ex) {
+                return false; // not expected; the streams write to memory
+            }
+        }
+    }
+
+    protected static final int VERSION = 1;
+
+    protected static final String KEY_PREFIX = "gov.nasa.worldwind.layer.LayerConfigCache ";
+
+    protected static final String DEFAULT_DIRECTORY = "worldwind-layer-config";
+
+    protected static final long DEFAULT_CAPACITY = 1024 * 1024;
+
+    protected DiskCache diskCache;
+
+    /**
+     * Constructs a layer configuration cache stored in a directory beside the WorldWind disk cache's directory.
+     */
+    public LayerConfigCache() {
+    }
+
+    /**
+     * Constructs a layer configuration cache stored in a specified disk cache.
+     *
+     * @param diskCache the disk cache to store entries in, or null to use a directory beside the WorldWind disk cache's
+     *                  directory
+     */
+    public LayerConfigCache(DiskCache diskCache) {
+        this.diskCache = diskCache;
+    }
+
+    public static String wmsKey(String serviceAddress, List<String> layerNames) {
+        StringBuilder sb = new StringBuilder("WMS ").append(serviceAddress);
+        for (String layerName : layerNames) {
+            sb.append(" ").append(layerName);
+        }
+
+        return sb.toString();
+    }
+
+    public static String wmtsKey(String serviceAddress, String layerIdentifier) {
+        return "WMTS " + serviceAddress + " " + layerIdentifier;
+    }
+
+    /**
+     * Returns the entry associated with a specified key.
+     *
+     * @param key the entry's key
+     *
+     * @return the entry, or null if the cache has no entry for the key or the entry cannot be read
+     */
+    public Entry get(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "LayerConfigCache", "get", "missingKey"));
+        }
+
+        DiskCache diskCache = this.diskCache();
+        byte[] data = (diskCache != null) ? diskCache.get(KEY_PREFIX + key) : null;
+        if (data == null) {
+            return null;
+        }
+
+        try {
+            return decode(data);
+        } catch (IOException ex) { // written by an incompatible version, or corrupt
+            Logger.logMessage(Logger.WARN, "LayerConfigCache", "get", "Unable to read layer configuration '" + key + "'", ex);
+            diskCache.remove(KEY_PREFIX + key);
+            return null;
+        }
+    }
+
+    /**
+     * Adds an entry to the cache, replacing any existing entry with the same key.
+     *
+     * @param key   the entry's key
+     * @param entry the entry to add
+     */
+    public void put(String key, Entry entry) {
+        if (key == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "LayerConfigCache", "put", "missingKey"));
+        }
+
+        if (entry == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "LayerConfigCache", "put", "missingEntry"));
+        }
+
+        DiskCache diskCache = this.diskCache();
+        if (diskCache == null) {
+            return;
+        }
+
+        try {
+            byte[] data = encode(entry);
+            diskCache.put(KEY_PREFIX + key, data, 0, data.length);
+        } catch (IOException ex) {
+            Logger.logMessage(Logger.WARN, "LayerConfigCache", "put", "Unable to write layer configuration '" + key + "'", ex);
+        }
+    }
+
+    public boolean remove(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "LayerConfigCache", "remove", "missingKey"));
+        }
+
+        DiskCache diskCache = this.diskCache();
+        return diskCache != null && diskCache.remove(KEY_PREFIX + key);
+    }
+
+    /**
+     * Returns the disk cache holding the entries, creating the default disk cache on first use once the WorldWind disk
+     * cache is configured.
+     */
+    protected synchronized DiskCache diskCache() {
+        if (this.diskCache == null) {
+            DiskCache tileCache = WorldWind.diskCache();
+            if (tileCache != null) {
+                File parent = tileCache.getDirectory().getAbsoluteFile().getParentFile();
+                this.diskCache = new DiskCache(new File(parent, DEFAULT_DIRECTORY), DEFAULT_CAPACITY);
+            }
+        }
+
+        return this.diskCache;
+    }
+
+    protected static byte[] encode(Entry entry) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream stream = new DataOutputStream(bytes);
+        stream.writeInt(VERSION);
+        writeString(stream, entry.etag);
+        stream.writeLong(entry.lastModified);
+        stream.write(encodeConfig(entry));
+        stream.flush();
+
+        return bytes.toByteArray();
+    }
+
+    protected static byte[] encodeConfig(Entry entry) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream stream = new DataOutputStream(bytes);
+        writeString(stream, entry.displayName);
+
+        WmsLayerConfig wmsConfig = entry.wmsLayerConfig;
+        stream.writeBoolean(wmsConfig != null);
+        if (wmsConfig != null) {
+            writeString(stream, wmsConfig.serviceAddress);
+            writeString(stream, wmsConfig.wmsVersion);
+            writeString(stream, wmsConfig.layerNames);
+            writeString(stream, wmsConfig.styleNames);
+            writeString(stream, wmsConfig.coordinateSystem);
+            stream.writeBoolean(wmsConfig.transparent);
+            writeString(stream, wmsConfig.imageFormat);
+            writeString(stream, wmsConfig.timeString);
+        }
+
+        writeString(stream, entry.tileUrlTemplate);
+        List<String> identifiers = entry.tileMatrixIdentifiers;
+        stream.writeInt((identifiers != null) ? identifiers.size() : -1);
+        if (identifiers != null) {
+            for (String identifier : identifiers) {
+                writeString(stream, identifier);
+            }
+        }
+
+        LevelSetConfig levelSetConfig = entry.levelSetConfig;
+        stream.writeDouble(levelSetConfig.sector.minLatitude());
+        stream.writeDouble(levelSetConfig.sector.minLongitude());
+        stream.writeDouble(levelSetConfig.sector.deltaLatitude());
+        stream.writeDouble(levelSetConfig.sector.deltaLongitude());
+        stream.writeDouble(levelSetConfig.tileOrigin.latitude);
+        stream.writeDouble(levelSetConfig.tileOrigin.longitude);
+        stream.writeDouble(levelSetConfig.firstLevelDelta);
+        stream.writeInt(levelSetConfig.numLevels);
+        stream.writeInt(levelSetConfig.tileWidth);
+        stream.writeInt(levelSetConfig.tileHeight);
+        stream.flush();
+
+        return bytes.toByteArray();
+    }
+
+    protected static Entry decode(byte[] data) throws IOException {
+        DataInputStream stream = new DataInputStream(new ByteArrayInputStream(data));
+        int version = stream.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported layer configuration version " + version);
+        }
+
+        Entry entry = new Entry();
+        entry.etag = readString(stream);
+        entry.lastModified = stream.readLong();
+        entry.displayName = readString(stream);
+
+        if (stream.readBoolean()) {
+            WmsLayerConfig wmsConfig = new WmsLayerConfig();
+            wmsConfig.serviceAddress = readString(stream);
+            wmsConfig.wmsVersion = readString(stream);
+            wmsConfig.layerNames = readString(stream);
+            wmsConfig.styleNames = readString(stream);
+            wmsConfig.coordinateSystem = readString(stream);
+            wmsConfig.transparent = stream.readBoolean();
+            wmsConfig.imageFormat = readString(stream);
+            wmsConfig.timeString = readString(stream);
+            entry.wmsLayerConfig = wmsConfig;
+        }
+
+        entry.tileUrlTemplate = readString(stream);
+        int identifierCount = stream.readInt();
+        if (identifierCount >= 0) {
+            entry.tileMatrixIdentifiers = new ArrayList<>(identifierCount);
+            for (int idx = 0; idx < identifierCount; idx++) {
+                entry.tileMatrixIdentifiers.add(readString(stream));
+            }
+        }
+
+        LevelSetConfig levelSetConfig = entry.levelSetConfig;
+        levelSetConfig.sector.set(stream.readDouble(), stream.readDouble(), stream.readDouble(), stream.readDouble());
+        levelSetConfig.tileOrigin.set(stream.readDouble(), stream.readDouble());
+        levelSetConfig.firstLevelDelta = stream.readDouble();
+        levelSetConfig.numLevels = stream.readInt();
+        levelSetConfig.tileWidth = stream.readInt();
+        levelSetConfig.tileHeight = stream.readInt();
+
+        return entry;
+    }
+
+    protected static void writeString(DataOutputStream stream, String string) throws IOException {
+        stream.writeBoolean(string != null);
+        if (string != null) {
+            stream.writeUTF(string);
+        }
+    }
+
+    protected static String readString(DataInputStream stream) throws IOException {
+        return stream.readBoolean() ? stream.readUTF() : null;
+    }
+}
@@ -11,7 +11,9 @@ import android.os.Looper;
 import android.util.SparseArray;
 
 import java.io.BufferedInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLConnection;
 import java.util.ArrayList;
@@ -52,6 +54,7 @@ import gov.nasa.worldwind.shape.TiledSurfaceImage;
 import gov.nasa.worldwind.util.LevelSet;
 import gov.nasa.worldwind.util.LevelSetConfig;
 import gov.nasa.worldwind.util.Logger;
+import gov.nasa.worldwind.util.TaskService;
 import gov.nasa.worldwind.util.TileFactory;
 import gov.nasa.worldwind.util.WWUtil;
 
@@ -75,6 +78,29 @@ public class LayerFactory {
 
     protected static final int DEFAULT_WMS_NUM_LEVELS = 20;
 
+    protected LayerConfigCache configCache = new LayerConfigCache();
+
+    /**
+     * Returns the cache of layer configurations resolved from WMS and WMTS capabilities documents, or null if layer
+     * configurations are not cached.
+     */
+    public LayerConfigCache getConfigCache() {
+        return this.configCache;
+    }
+
+    /**
+     * Sets the cache of layer configurations resolved from WMS and WMTS capabilities documents. When the cache has a
+     * configuration for the requested service and layers, createFromWms and createFromWmts create the layer from the
+     * cached configuration without waiting for the capabilities document, then revalidate the configuration in the
+     * background using the document's ETag and Last-Modified validators. Layers are updated when the configuration
+     * resolved from a changed document differs from the cached configuration.
+     *
+     * @param configCache the layer configuration cache, or null to retrieve capabilities before creating each layer
+     */
+    public void setConfigCache(LayerConfigCache configCache) {
+        this.configCache = configCache;
+    }
+
     public Layer createFromGeoPackage(String pathName, Callback callback) {
         if (pathName == null) {
             throw new IllegalArgumentException(
@@ -95,8 +121,8 @@ public class LayerFactory {
         GeoPackageAsyncTask task = new GeoPackageAsyncTask(this, pathName, layer, callback);
 
         try {
-            WorldWind.taskService().execute(task);
-        } catch (RejectedExecutionException logged) { // singleton task service is full; this should never happen but we check anyway
+            WorldWind.taskService().execute(TaskService.DISK_QUEUE, task);
+        } catch (RejectedExecutionException logged) { // singleton task service queue is full
             callback.creationFailed(this, layer, logged);
         }
 
@@ -137,8 +163,8 @@ public class LayerFactory {
         WmsAsyncTask task = new WmsAsyncTask(this, serviceAddress, layerNames, layer, callback);
 
         try {
-            WorldWind.taskService().execute(task);
-        } catch (RejectedExecutionException logged) { // singleton task service is full; this should never happen but we check anyway
+            WorldWind.taskService().execute(TaskService.NETWORK_QUEUE, task);
+        } catch (RejectedExecutionException logged) { // singleton task service queue is full
             callback.creationFailed(this, layer, logged);
         }
 
@@ -206,8 +232,8 @@ public class LayerFactory {
         WmtsAsyncTask task = new WmtsAsyncTask(this, serviceAddress, layerIdentifier, layer, callback);
 
         try {
-            WorldWind.taskService().execute(task);
-        } catch (RejectedExecutionException logged) { // singleton task service is full; this should never happen but we check anyway
+            WorldWind.taskService().execute(TaskService.NETWORK_QUEUE, task);
+        } catch (RejectedExecutionException logged) { // singleton task service queue is full
             callback.creationFailed(this, layer, logged);
         }
 
@@ -308,8 +334,64 @@ public class LayerFactory {
     }
 
     protected void createFromWmsAsync(String serviceAddress, List<String> layerNames, Layer layer, Callback callback) {
+        String cacheKey = LayerConfigCache.wmsKey(serviceAddress, layerNames);
+        LayerConfigCache.Entry cachedEntry = this.getCachedConfig(cacheKey);
+        TiledSurfaceImage surfaceImage = (cachedEntry != null) ? this.createCachedLayer(cacheKey, cachedEntry, layer, callback) : null;
+
+        if (surfaceImage == null) {
+            LayerConfigCache.Entry entry = this.resolveWmsConfig(serviceAddress, layerNames, new LayerConfigCache.Entry());
+            this.createLayer(entry, layer, callback);
+            this.putCachedConfig(cacheKey, entry);
+        } else {
+            try {
+                // Revalidate the cached configuration, resolving a new configuration only if the capabilities changed.
+                LayerConfigCache.Entry entry = this.resolveWmsConfig(serviceAddress, layerNames, this.copyValidators(cachedEntry));
+                this.updateCachedLayer(cacheKey, cachedEntry, entry, layer, surfaceImage);
+            } catch (Throwable ex) {
+                Logger.logMessage(Logger.WARN, "LayerFactory", "createFromWmsAsync",
+                    "Unable to revalidate cached WMS layer configuration for " + serviceAddress, ex);
+            }
+        }
+    }
+
+    protected void createFromWmtsAsync(String serviceAddress, String layerIdentifier, Layer layer, Callback callback) {
+        String cacheKey = LayerConfigCache.wmtsKey(serviceAddress, layerIdentifier);
+        LayerConfigCache.Entry cachedEntry = this.getCachedConfig(cacheKey);
+        TiledSurfaceImage surfaceImage = (cachedEntry != null) ? this.createCachedLayer(cacheKey, cachedEntry, layer, callback) : null;
+
+        if (surfaceImage == null) {
+            LayerConfigCache.Entry entry = this.resolveWmtsConfig(serviceAddress, layerIdentifier, new LayerConfigCache.Entry());
+            this.createLayer(entry, layer, callback);
+            this.putCachedConfig(cacheKey, entry);
+        } else {
+            try {
+                // Revalidate the cached configuration, resolving a new configuration only if the capabilities changed.
+                LayerConfigCache.Entry entry = this.resolveWmtsConfig(serviceAddress, layerIdentifier, this.copyValidators(cachedEntry));
+                this.updateCachedLayer(cacheKey, cachedEntry, entry, layer, surfaceImage);
+            } catch (Throwable ex) {
+                Logger.logMessage(Logger.WARN, "LayerFactory", "createFromWmtsAsync",
+                    "Unable to revalidate cached WMTS layer configuration for " + serviceAddress, ex);
+            }
+        }
+    }
+
+    /**
+     * Retrieves the WMS capabilities document at a service address and resolves the configuration of the named layers.
+     *
+     * @param serviceAddress the WMS service address
+     * @param layerNames     the names of the layers to configure
+     * @param validators     the capabilities document validators to revalidate, which are replaced with the retrieved
+     *                       document's validators
+     *
+     * @return the layer configuration, or null if the capabilities document has not changed since the validators
+     */
+    protected LayerConfigCache.Entry resolveWmsConfig(String serviceAddress, List<String> layerNames, LayerConfigCache.Entry validators) {
         // Parse and read the WMS Capabilities document at the provided service address
-        WmsCapabilities wmsCapabilities = this.retrieveWmsCapabilities(serviceAddress);
+        WmsCapabilities wmsCapabilities = this.retrieveWmsCapabilities(serviceAddress, validators);
+        if (wmsCapabilities == null) {
+            return null; // the capabilities document has not changed
+        }
+
         List<WmsLayer> layerCapabilities = new ArrayList<>();
         for (String layerName : layerNames) {
             WmsLayer layerCaps = wmsCapabilities.getNamedLayer(layerName);
@@ -323,12 +405,26 @@ public class LayerFactory {
                 Logger.makeMessage("LayerFactory", "createFromWmsAsync", "Provided layers did not match available layers"));
         }
 
-        this.createWmsLayer(layerCapabilities, layer, callback);
+        return this.resolveWmsConfig(layerCapabilities, validators);
     }
 
-    protected void createFromWmtsAsync(String serviceAddress, String layerIdentifier, Layer layer, Callback callback) {
+    /**
+     * Retrieves the WMTS capabilities document at a service address and resolves the configuration of the identified
+     * layer.
+     *
+     * @param serviceAddress  the WMTS service address
+     * @param layerIdentifier the identifier of the layer to configure
+     * @param validators      the capabilities document validators to revalidate, which are replaced with the retrieved
+     *                        document's validators
+     *
+     * @return the layer configuration, or null if the capabilities document has not changed since the validators
+     */
+    protected LayerConfigCache.Entry resolveWmtsConfig(String serviceAddress, String layerIdentifier, LayerConfigCache.Entry validators) {
         // Parse and read the WMTS Capabilities document at the provided service address
-        WmtsCapabilities wmtsCapabilities = this.retrieveWmtsCapabilities(serviceAddress);
+        WmtsCapabilities wmtsCapabilities = this.retrieveWmtsCapabilities(serviceAddress, validators);
+        if (wmtsCapabilities == null) {
+            return null; // the capabilities document has not changed
+        }
 
         WmtsLayer wmtsLayer = wmtsCapabilities.getLayer(layerIdentifier);
         if (wmtsLayer == null) {
@@ -336,102 +432,237 @@ public class LayerFactory {
                 Logger.makeMessage("LayerFactory", "createFromWmtsAsync", "The layer identifier specified was not found"));
         }
 
-        this.createWmtsLayer(wmtsLayer, layer, callback);
+        return this.resolveWmtsConfig(wmtsLayer, validators);
     }
 
     protected void createWmsLayer(List<WmsLayer> layerCapabilities, Layer layer, Callback callback) {
-        final Callback finalCallback = callback;
-        final RenderableLayer finalLayer = (RenderableLayer) layer;
+        try {
+            this.createLayer(this.resolveWmsConfig(layerCapabilities, new LayerConfigCache.Entry()), layer, callback);
+        } catch (final Throwable ex) {
+            this.mainLoopHandler.post(() -> callback.creationFailed(LayerFactory.this, layer, ex));
+        }
+    }
 
+    protected void createWmtsLayer(WmtsLayer wmtsLayer, Layer layer, Callback callback) {
         try {
-            WmsCapabilities wmsCapabilities = layerCapabilities.get(0).getCapability().getCapabilities();
+            this.createLayer(this.resolveWmtsConfig(wmtsLayer, new LayerConfigCache.Entry()), layer, callback);
+        } catch (final Throwable ex) {
+            this.mainLoopHandler.post(() -> callback.creationFailed(LayerFactory.this, layer, ex));
+        }
+    }
 
-            // Check if the server supports multiple layer request
-            Integer layerLimit = wmsCapabilities.getService().getLayerLimit();
-            if (layerLimit != null && layerLimit < layerCapabilities.size()) {
-                throw new RuntimeException(
-                    Logger.makeMessage("LayerFactory", "createFromWmsAsync", "The number of layers specified exceeds the services limit"));
-            }
+    protected LayerConfigCache.Entry resolveWmsConfig(List<WmsLayer> layerCapabilities, LayerConfigCache.Entry result) {
+        WmsCapabilities wmsCapabilities = layerCapabilities.get(0).getCapability().getCapabilities();
 
-            WmsLayerConfig wmsLayerConfig = getLayerConfigFromWmsCapabilities(layerCapabilities);
-            LevelSetConfig levelSetConfig = getLevelSetConfigFromWmsCapabilities(layerCapabilities);
+        // Check if the server supports multiple layer request
+        Integer layerLimit = wmsCapabilities.getService().getLayerLimit();
+        if (layerLimit != null && layerLimit < layerCapabilities.size()) {
+            throw new RuntimeException(
+                Logger.makeMessage("LayerFactory", "createFromWmsAsync", "The number of layers specified exceeds the services limit"));
+        }
 
-            // Collect WMS Layer Titles to set the Layer Display Name
-            StringBuilder sb = null;
-            for (WmsLayer layerCapability : layerCapabilities) {
-                if (sb == null) {
-                    sb = new StringBuilder(layerCapability.getTitle());
-                } else {
-                    sb.append(",").append(layerCapability.getTitle());
-                }
-            }
-            if (sb != null) {
-                layer.setDisplayName(sb.toString());
+        result.wmsLayerConfig = getLayerConfigFromWmsCapabilities(layerCapabilities);
+        result.levelSetConfig = getLevelSetConfigFromWmsCapabilities(layerCapabilities);
+
+        // Collect WMS Layer Titles to set the Layer Display Name
+        StringBuilder sb = null;
+        for (WmsLayer layerCapability : layerCapabilities) {
+            if (sb == null) {
+                sb = new StringBuilder(layerCapability.getTitle());
+            } else {
+                sb.append(",").append(layerCapability.getTitle());
             }
+        }
+        if (sb != null) {
+            result.displayName = sb.toString();
+        }
+
+        return result;
+    }
 
-            final TiledSurfaceImage surfaceImage = new TiledSurfaceImage();
+    protected LayerConfigCache.Entry resolveWmtsConfig(WmtsLayer wmtsLayer, LayerConfigCache.Entry result) {
+        // Determine if there is a TileMatrixSet which matches our Coordinate System compatibility and tiling scheme
+        List<String> compatibleTileMatrixSets = this.determineCoordSysCompatibleTileMatrixSets(wmtsLayer);
+        if (compatibleTileMatrixSets.isEmpty()) {
+            throw new RuntimeException(
+                Logger.makeMessage("LayerFactory", "createWmtsLayer", "Coordinate Systems Not Compatible"));
+        }
 
-            surfaceImage.setTileFactory(new WmsTileFactory(wmsLayerConfig));
-            surfaceImage.setLevelSet(new LevelSet(levelSetConfig));
+        // Search the list of coordinate system compatible tile matrix sets for compatible tiling schemes
+        CompatibleTileMatrixSet compatibleTileMatrixSet = this.determineTileSchemeCompatibleTileMatrixSet(wmtsLayer.getCapabilities(), compatibleTileMatrixSets);
+        if (compatibleTileMatrixSet == null) {
+            throw new RuntimeException(
+                Logger.makeMessage("LayerFactory", "createWmtsLayer", "Tile Schemes Not Compatible"));
+        }
 
-            // Add the tiled surface image to the layer on the main thread and notify the caller. Request a redraw to ensure
-            // that the image displays on all WorldWindows the layer may be attached to.
-            this.mainLoopHandler.post(() -> {
-                finalLayer.addRenderable(surfaceImage);
-                finalCallback.creationSucceeded(LayerFactory.this, finalLayer);
-                WorldWind.requestRedraw();
-            });
-        } catch (final Throwable ex) {
-            this.mainLoopHandler.post(() -> finalCallback.creationFailed(LayerFactory.this, finalLayer, ex));
+        TileFactory tileFactory = this.createWmtsTileFactory(wmtsLayer, compatibleTileMatrixSet);
+        if (!(tileFactory instanceof WmtsTileFactory)) {
+            throw new RuntimeException(
+                Logger.makeMessage("LayerFactory", "createWmtsLayer", "Unable to create TileFactory"));
         }
+
+        result.tileUrlTemplate = ((WmtsTileFactory) tileFactory).getTemplate();
+        result.tileMatrixIdentifiers = new ArrayList<>(((WmtsTileFactory) tileFactory).getTileMatrixIdentifiers());
+
+        LevelSet levelSet = this.createWmtsLevelSet(wmtsLayer, compatibleTileMatrixSet);
+        result.levelSetConfig = new LevelSetConfig(levelSet.sector, levelSet.firstLevelDelta, levelSet.numLevels(), levelSet.tileWidth, levelSet.tileHeight);
+        result.levelSetConfig.tileOrigin.set(levelSet.tileOrigin);
+
+        return result;
     }
 
-    protected void createWmtsLayer(WmtsLayer wmtsLayer, Layer layer, Callback callback) {
+    protected TiledSurfaceImage createSurfaceImage(LayerConfigCache.Entry config) {
+        TiledSurfaceImage surfaceImage = new TiledSurfaceImage();
+
+        if (config.wmsLayerConfig != null) {
+            surfaceImage.setTileFactory(new WmsTileFactory(config.wmsLayerConfig));
+        } else {
+            surfaceImage.setTileFactory(new WmtsTileFactory(config.tileUrlTemplate, config.tileMatrixIdentifiers));
+        }
+
+        surfaceImage.setLevelSet(new LevelSet(config.levelSetConfig));
 
+        return surfaceImage;
+    }
+
+    protected TiledSurfaceImage createLayer(LayerConfigCache.Entry config, Layer layer, Callback callback) {
         final Callback finalCallback = callback;
         final RenderableLayer finalLayer = (RenderableLayer) layer;
+        final TiledSurfaceImage surfaceImage = this.createSurfaceImage(config);
+
+        if (config.displayName != null) {
+            layer.setDisplayName(config.displayName);
+        }
+
+        // Add the tiled surface image to the layer on the main thread and notify the caller. Request a redraw to ensure
+        // that the image displays on all WorldWindows the layer may be attached to.
+        this.mainLoopHandler.post(() -> {
+            finalLayer.addRenderable(surfaceImage);
+            finalCallback.creationSucceeded(LayerFactory.this, finalLayer);
+            WorldWind.requestRedraw();
+        });
+
+        return surfaceImage;
+    }
 
+    /**
+     * Creates a layer from a configuration resolved in a previous session.
+     *
+     * @return the layer's surface image, or null if the cached configuration is invalid
+     */
+    protected TiledSurfaceImage createCachedLayer(String cacheKey, LayerConfigCache.Entry cachedEntry, Layer layer, Callback callback) {
         try {
-            // Determine if there is a TileMatrixSet which matches our Coordinate System compatibility and tiling scheme
-            List<String> compatibleTileMatrixSets = this.determineCoordSysCompatibleTileMatrixSets(wmtsLayer);
-            if (compatibleTileMatrixSets.isEmpty()) {
-                throw new RuntimeException(
-                    Logger.makeMessage("LayerFactory", "createWmtsLayer", "Coordinate Systems Not Compatible"));
-            }
+            return this.createLayer(cachedEntry, layer, callback);
+        } catch (Exception ex) {
+            Logger.logMessage(Logger.WARN, "LayerFactory", "createCachedLayer", "Invalid cached layer configuration", ex);
+            this.removeCachedConfig(cacheKey);
+            return null;
+        }
+    }
 
-            // Search the list of coordinate system compatible tile matrix sets for compatible tiling schemes
-            CompatibleTileMatrixSet compatibleTileMatrixSet = this.determineTileSchemeCompatibleTileMatrixSet(wmtsLayer.getCapabilities(), compatibleTileMatrixSets);
-            if (compatibleTileMatrixSet == null) {
-                throw new RuntimeException(
-                    Logger.makeMessage("LayerFactory", "createWmtsLayer", "Tile Schemes Not Compatible"));
-            }
+    /**
+     * Updates a layer created from a cached configuration after revalidating the configuration.
+     *
+     * @param entry the revalidated configuration, or null if the capabilities document has not changed
+     */
+    protected void updateCachedLayer(String cacheKey, LayerConfigCache.Entry cachedEntry, LayerConfigCache.Entry entry,
+                                     Layer layer, TiledSurfaceImage surfaceImage) {
+        if (entry == null) {
+            return; // the cached configuration is current
+        }
 
-            TileFactory tileFactory = this.createWmtsTileFactory(wmtsLayer, compatibleTileMatrixSet);
-            if (tileFactory == null) {
-                throw new RuntimeException(
-                    Logger.makeMessage("LayerFactory", "createWmtsLayer", "Unable to create TileFactory"));
+        this.putCachedConfig(cacheKey, entry);
+        if (entry.configEquals(cachedEntry)) {
+            return; // the capabilities document changed, but not the layer's configuration
+        }
+
+        final TiledSurfaceImage newSurfaceImage = this.createSurfaceImage(entry);
+        final String displayName = entry.displayName;
+
+        // Replace the layer's configuration on the main thread and request a redraw to display the updated layer.
+        this.mainLoopHandler.post(() -> {
+            surfaceImage.setTileFactory(newSurfaceImage.getTileFactory());
+            surfaceImage.setLevelSet(newSurfaceImage.getLevelSet());
+            if (displayName != null) {
+                layer.setDisplayName(displayName);
             }
+            WorldWind.requestRedraw();
+        });
+    }
+
+    protected LayerConfigCache.Entry getCachedConfig(String cacheKey) {
+        LayerConfigCache configCache = this.configCache;
+        return (configCache != null) ? configCache.get(cacheKey) : null;
+    }
+
+    protected void putCachedConfig(String cacheKey, LayerConfigCache.Entry entry) {
+        LayerConfigCache configCache = this.configCache;
+        if (configCache != null) {
+            configCache.put(cacheKey, entry);
+        }
+    }
 
-            LevelSet levelSet = this.createWmtsLevelSet(wmtsLayer, compatibleTileMatrixSet);
+    protected void removeCachedConfig(String cacheKey) {
+        LayerConfigCache configCache = this.configCache;
+        if (configCache != null) {
+            configCache.remove(cacheKey);
+        }
+    }
 
-            final TiledSurfaceImage surfaceImage = new TiledSurfaceImage();
+    protected LayerConfigCache.Entry copyValidators(LayerConfigCache.Entry entry) {
+        LayerConfigCache.Entry result = new LayerConfigCache.Entry();
+        result.etag = entry.etag;
+        result.lastModified = entry.lastModified;
+        return result;
+    }
 
-            surfaceImage.setTileFactory(tileFactory);
-            surfaceImage.setLevelSet(levelSet);
+    /**
+     * Opens a connection to a capabilities document. The request is conditional when the validators have an ETag or a
+     * Last-Modified time, and the validators are replaced with the response's.
+     *
+     * @return the connection, or null if the service responds that the document has not changed
+     */
+    protected URLConnection openCapabilitiesConnection(String url, LayerConfigCache.Entry validators) throws IOException {
+        URLConnection conn = new URL(url).openConnection();
+        conn.setConnectTimeout(3000);
+        conn.setReadTimeout(30000);
+
+        if (validators != null) {
+            if (validators.etag != null) {
+                conn.setRequestProperty("If-None-Match", validators.etag);
+            }
 
-            // Add the tiled surface image to the layer on the main thread and notify the caller. Request a redraw to ensure
-            // that the image displays on all WorldWindows the layer may be attached to.
-            this.mainLoopHandler.post(() -> {
-                finalLayer.addRenderable(surfaceImage);
-                finalCallback.creationSucceeded(LayerFactory.this, finalLayer);
-                WorldWind.requestRedraw();
-            });
-        } catch (final Throwable ex) {
-            this.mainLoopHandler.post(() -> finalCallback.creationFailed(LayerFactory.this, finalLayer, ex));
+            if (validators.lastModified != 0) {
+                conn.setIfModifiedSince(validators.lastModified);
+            }
+
+            if (conn instanceof HttpURLConnection
+                && ((HttpURLConnection) conn).getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                ((HttpURLConnection) conn).disconnect();
+                return null;
+            }
+
+            validators.etag = conn.getHeaderField("ETag");
+            validators.lastModified = conn.getLastModified();
         }
+
+        return conn;
     }
 
     protected WmsCapabilities retrieveWmsCapabilities(String serviceAddress) {
+        return this.retrieveWmsCapabilities(serviceAddress, null);
+    }
+
+    /**
+     * Retrieves the WMS capabilities document at a service address.
+     *
+     * @param serviceAddress the WMS service address
+     * @param validators     the document validators to revalidate, which are replaced with the retrieved document's
+     *                       validators, or null to retrieve the document unconditionally
+     *
+     * @return the capabilities, or null if the document has not changed since the validators
+     */
+    protected WmsCapabilities retrieveWmsCapabilities(String serviceAddress, LayerConfigCache.Entry validators) {
         InputStream inputStream = null;
         WmsCapabilities wmsCapabilities;
         try {
@@ -443,9 +674,10 @@ public class LayerFactory {
                 .build();
 
             // Open the connection as an input stream
-            URLConnection conn = new URL(serviceUri.toString()).openConnection();
-            conn.setConnectTimeout(3000);
-            conn.setReadTimeout(30000);
+            URLConnection conn = this.openCapabilitiesConnection(serviceUri.toString(), validators);
+            if (conn == null) {
+                return null; // the document has not changed
+            }
             inputStream = new BufferedInputStream(conn.getInputStream());
 
             // Parse and read the input stream
@@ -461,6 +693,19 @@ public class LayerFactory {
     }
 
     protected WmtsCapabilities retrieveWmtsCapabilities(String serviceAddress) {
+        return this.retrieveWmtsCapabilities(serviceAddress, null);
+    }
+
+    /**
+     * Retrieves the WMTS capabilities document at a service address.
+     *
+     * @param serviceAddress the WMTS service address
+     * @param validators     the document validators to revalidate, which are replaced with the retrieved document's
+     *                       validators, or null to retrieve the document unconditionally
+     *
+     * @return the capabilities, or null if the document has not changed since the validators
+     */
+    protected WmtsCapabilities retrieveWmtsCapabilities(String serviceAddress, LayerConfigCache.Entry validators) {
         InputStream inputStream = null;
         WmtsCapabilities wmtsCapabilities;
         try {
@@ -472,9 +717,10 @@ public class LayerFactory {
                 .build();
 
             // Open the connection as an input stream
-            URLConnection conn = new URL(serviceUri.toString()).openConnection();
-            conn.setConnectTimeout(3000);
-            conn.setReadTimeout(30000);
+            URLConnection conn = this.openCapabilitiesConnection(serviceUri.toString(), validators);
+            if (conn == null) {
+                return null; // the document has not changed
+            }
             inputStream = new BufferedInputStream(conn.getInputStream());
 
             // Parse and read the input stream
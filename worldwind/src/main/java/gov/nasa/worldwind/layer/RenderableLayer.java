@@ -8,17 +8,97 @@ package gov.nasa.worldwind.layer;
 import androidx.annotation.NonNull;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
 
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.globe.Globe;
 import gov.nasa.worldwind.render.RenderContext;
 import gov.nasa.worldwind.render.Renderable;
+import gov.nasa.worldwind.shape.AbstractShape;
+import gov.nasa.worldwind.shape.Ellipse;
+import gov.nasa.worldwind.shape.Label;
+import gov.nasa.worldwind.shape.Movable;
+import gov.nasa.worldwind.shape.Path;
+import gov.nasa.worldwind.shape.Placemark;
+import gov.nasa.worldwind.shape.Polygon;
 import gov.nasa.worldwind.util.Logger;
-
+import gov.nasa.worldwind.util.SectorQuadtree;
+
+/**
+ * Layer that displays a list of renderables, rendering them in list order.
+ * <p>
+ * RenderableLayer optionally maintains a geographic index of its renderables, enabled by calling {@link
+ * #setSpatialIndexEnabled(boolean)}. When the index is enabled, each frame visits only the renderables whose geographic
+ * extent may be visible: those intersecting the sector of the frame's terrain, which the terrain tessellator has culled
+ * to the view frustum, expanded by the distance to the horizon of each renderable's highest altitude. Renderables that
+ * the index cannot bound, such as custom renderables or shapes without positions, are visited every frame. The index
+ * bounds placemarks, labels, paths, polygons and ellipses.
+ * <p>
+ * The index tracks changes to the layer's list incrementally. Changes to a renderable's geometry are not observed by the
+ * layer, however. Applications move indexed renderables with {@link #moveRenderable(Renderable, Globe, Position)}, or
+ * call {@link #invalidateRenderable(Renderable)} after changing a renderable's geometry by other means.
+ */
 public class RenderableLayer extends AbstractLayer implements Iterable<Renderable> {
 
+    /**
+     * The smallest extent of an indexed renderable, in degrees.
+     */
+    protected static final double MIN_INDEX_EXTENT = 1.0e-9;
+
     protected final ArrayList<Renderable> renderables = new ArrayList<>();
 
+    protected boolean spatialIndexEnabled;
+
+    /**
+     * Indicates whether the spatial index must be rebuilt before its next use, after changes that the index does not
+     * track incrementally.
+     */
+    protected boolean indexInvalid = true;
+
+    protected final SectorQuadtree<IndexEntry> spatialIndex = new SectorQuadtree<>();
+
+    /**
+     * Index entries for each renderable in this layer. Renderables appearing in the list more than once are associated
+     * with a chain of entries ordered by their list position.
+     */
+    protected final IdentityHashMap<Renderable, IndexEntry> indexEntries = new IdentityHashMap<>();
+
+    /**
+     * Entries whose extent has not been computed since they were added or invalidated.
+     */
+    protected final ArrayList<IndexEntry> pendingEntries = new ArrayList<>();
+
+    /**
+     * Entries for renderables without a geographic extent, which are rendered every frame.
+     */
+    protected final ArrayList<IndexEntry> unindexedEntries = new ArrayList<>();
+
+    protected final ArrayList<IndexEntry> visibleEntries = new ArrayList<>();
+
+    protected long indexSequence;
+
+    protected Globe indexGlobe;
+
+    protected double indexVerticalExaggeration;
+
+    private final Sector scratchSector = new Sector();
+
+    private final RenderableExtent scratchExtent = new RenderableExtent();
+
+    private static final Comparator<IndexEntry> sequenceComparator = new Comparator<IndexEntry>() {
+        @Override
+        public int compare(IndexEntry lhs, IndexEntry rhs) {
+            return (lhs.sequence < rhs.sequence) ? -1 : ((lhs.sequence == rhs.sequence) ? 0 : 1);
+        }
+    };
+
     public RenderableLayer() {
     }
 
@@ -69,6 +149,7 @@ public class RenderableLayer extends AbstractLayer implements Iterable<Renderabl
                 Logger.logMessage(Logger.ERROR, "RenderableLayer", "setRenderable", "missingRenderable"));
         }
 
+        this.invalidateIndex();
         return this.renderables.set(index, renderable);
     }
 
@@ -115,6 +196,7 @@ public class RenderableLayer extends AbstractLayer implements Iterable<Renderabl
         }
 
         this.renderables.add(renderable);
+        this.indexAppended(renderable);
     }
 
     public void addRenderable(int index, Renderable renderable) {
@@ -129,6 +211,7 @@ public class RenderableLayer extends AbstractLayer implements Iterable<Renderabl
         }
 
         this.renderables.add(index, renderable);
+        this.invalidateIndex();
     }
 
     public void addAllRenderables(RenderableLayer layer) {
@@ -142,7 +225,9 @@ public class RenderableLayer extends AbstractLayer implements Iterable<Renderabl
         thisList.ensureCapacity(thatList.size());
 
         for (int idx = 0, len = thatList.size(); idx < len; idx++) {
-            thisList.add(thatList.get(idx)); // we know the contents of layer.renderables is valid
+            Renderable renderable = thatList.get(idx);
+            thisList.add(renderable); // we know the contents of layer.renderables is valid
+            this.indexAppended(renderable);
         }
     }
 
@@ -159,6 +244,7 @@ public class RenderableLayer extends AbstractLayer implements Iterable<Renderabl
             }
 
             this.renderables.add(renderable);
+            this.indexAppended(renderable);
         }
     }
 
@@ -168,7 +254,12 @@ public class RenderableLayer extends AbstractLayer implements Iterable<Renderabl
                 Logger.logMessage(Logger.ERROR, "RenderableLayer", "removeRenderable", "missingRenderable"));
         }
 
-        return this.renderables.remove(renderable);
+        if (this.renderables.remove(renderable)) {
+            this.indexRemoved(renderable, true /*firstOccurrence*/);
+            return true;
+        }
+
+        return false;
     }
 
     public Renderable removeRenderable(int index) {
@@ -177,7 +268,9 @@ public class RenderableLayer extends AbstractLayer implements Iterable<Renderabl
                 Logger.logMessage(Logger.ERROR, "RenderableLayer", "removeRenderable", "invalidIndex"));
         }
 
-        return this.renderables.remove(index);
+        Renderable renderable = this.renderables.remove(index);
+        this.indexRemoved(renderable, false /*firstOccurrence*/);
+        return renderable;
     }
 
     public boolean removeAllRenderables(Iterable<? extends Renderable> renderables) {
@@ -194,7 +287,10 @@ public class RenderableLayer extends AbstractLayer implements Iterable<Renderabl
                     Logger.logMessage(Logger.ERROR, "RenderableLayer", "removeAllRenderables", "missingRenderable"));
             }
 
-            removed |= this.renderables.remove(renderable);
+            if (this.renderables.remove(renderable)) {
+                this.indexRemoved(renderable, true /*firstOccurrence*/);
+                removed = true;
+            }
         }
 
         return removed;
@@ -202,25 +298,429 @@ public class RenderableLayer extends AbstractLayer implements Iterable<Renderabl
 
     public void clearRenderables() {
         this.renderables.clear();
+        this.clearIndex();
+        this.indexInvalid = false; // the empty index is consistent with the empty list
+    }
+
+    /**
+     * Indicates whether this layer maintains a geographic index of its renderables in order to visit only those
+     * renderables that may be visible each frame.
+     *
+     * @return true if the spatial index is enabled, otherwise false
+     */
+    public boolean isSpatialIndexEnabled() {
+        return this.spatialIndexEnabled;
+    }
+
+    /**
+     * Sets whether this layer maintains a geographic index of its renderables in order to visit only those renderables
+     * that may be visible each frame. The index is disabled by default. Enabling the index benefits layers with many
+     * renderables, only a fraction of which are visible at once.
+     *
+     * @param enabled true to enable the spatial index, false to visit every renderable each frame
+     */
+    public void setSpatialIndexEnabled(boolean enabled) {
+        this.spatialIndexEnabled = enabled;
+        this.clearIndex();
+        this.indexInvalid = true;
+    }
+
+    /**
+     * Moves a renderable in this layer to a new position and updates the renderable's entry in the spatial index.
+     *
+     * @param renderable the renderable to move
+     * @param globe      the globe on which to move the renderable
+     * @param position   the new position of the renderable's reference position
+     * @param <T>        a movable renderable type
+     *
+     * @throws IllegalArgumentException if any argument is null
+     */
+    public <T extends Renderable & Movable> void moveRenderable(T renderable, Globe globe, Position position) {
+        if (renderable == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "RenderableLayer", "moveRenderable", "missingRenderable"));
+        }
+
+        if (globe == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "RenderableLayer", "moveRenderable", "missingGlobe"));
+        }
+
+        if (position == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "RenderableLayer", "moveRenderable", "missingPosition"));
+        }
+
+        renderable.moveTo(globe, position);
+        this.invalidateRenderable(renderable);
+    }
+
+    /**
+     * Indicates that a renderable's geometry has changed, causing its entry in the spatial index to be updated before
+     * the next frame. Applications must call this after changing the positions of a renderable in this layer while the
+     * spatial index is enabled. This has no effect if the renderable is not in this layer.
+     *
+     * @param renderable the renderable whose geometry has changed
+     *
+     * @throws IllegalArgumentException if the renderable is null
+     */
+    public void invalidateRenderable(Renderable renderable) {
+        if (renderable == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "RenderableLayer", "invalidateRenderable", "missingRenderable"));
+        }
+
+        if (!this.spatialIndexEnabled || this.indexInvalid) {
+            return; // the index is rebuilt before its next use
+        }
+
+        for (IndexEntry entry = this.indexEntries.get(renderable); entry != null; entry = entry.next) {
+            if (!entry.pending) {
+                entry.pending = true;
+                this.pendingEntries.add(entry);
+            }
+        }
     }
 
     @NonNull
     @Override
     public Iterator<Renderable> iterator() {
-        return this.renderables.iterator();
+        final Iterator<Renderable> iterator = this.renderables.iterator();
+
+        // Invalidate the spatial index when renderables are removed via the iterator.
+        return new Iterator<Renderable>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Renderable next() {
+                return iterator.next();
+            }
+
+            @Override
+            public void remove() {
+                iterator.remove();
+                RenderableLayer.this.invalidateIndex();
+            }
+        };
     }
 
     @Override
     protected void doRender(RenderContext rc) {
+        if (this.spatialIndexEnabled) {
+            this.renderIndexed(rc);
+            return;
+        }
+
         for (int idx = 0, len = this.renderables.size(); idx < len; idx++) {
-            Renderable renderable = this.renderables.get(idx);
-            try {
-                renderable.render(rc);
-            } catch (Exception e) {
-                Logger.logMessage(Logger.ERROR, "RenderableLayer", "doRender",
-                        "Exception while rendering shape '" + renderable.getDisplayName() + "'", e);
-                // Keep going. Draw the remaining renderables.
+            this.renderRenderable(rc, this.renderables.get(idx));
+        }
+    }
+
+    protected void renderIndexed(RenderContext rc) {
+        if (this.indexInvalid || this.indexGlobe != rc.globe || this.indexVerticalExaggeration != rc.verticalExaggeration) {
+            this.rebuildIndex(rc);
+        } else {
+            this.updatePendingEntries(rc);
+        }
+
+        // Find the renderables intersecting the visible terrain, and the renderables that cannot be indexed.
+        ArrayList<IndexEntry> visibleEntries = this.visibleEntries;
+        visibleEntries.addAll(this.unindexedEntries);
+        if (rc.terrain != null) {
+            this.spatialIndex.query(rc.terrain.getSector(), visibleEntries);
+        }
+
+        // Render the renderables in list order.
+        Collections.sort(visibleEntries, sequenceComparator);
+        try {
+            for (int idx = 0, len = visibleEntries.size(); idx < len; idx++) {
+                this.renderRenderable(rc, visibleEntries.get(idx).renderable);
             }
+        } finally {
+            visibleEntries.clear();
+        }
+    }
+
+    protected void renderRenderable(RenderContext rc, Renderable renderable) {
+        try {
+            renderable.render(rc);
+        } catch (Exception e) {
+            Logger.logMessage(Logger.ERROR, "RenderableLayer", "doRender",
+                    "Exception while rendering shape '" + renderable.getDisplayName() + "'", e);
+            // Keep going. Draw the remaining renderables.
+        }
+    }
+
+    protected void invalidateIndex() {
+        if (this.spatialIndexEnabled && !this.indexInvalid) {
+            this.clearIndex();
+            this.indexInvalid = true;
+        }
+    }
+
+    protected void clearIndex() {
+        this.spatialIndex.clear();
+        this.indexEntries.clear();
+        this.pendingEntries.clear();
+        this.unindexedEntries.clear();
+        this.indexSequence = 0;
+    }
+
+    protected void rebuildIndex(RenderContext rc) {
+        this.clearIndex();
+
+        for (int idx = 0, len = this.renderables.size(); idx < len; idx++) {
+            this.updateEntry(rc, this.addEntry(this.renderables.get(idx)));
+        }
+
+        this.indexGlobe = rc.globe;
+        this.indexVerticalExaggeration = rc.verticalExaggeration;
+        this.indexInvalid = false;
+    }
+
+    protected void updatePendingEntries(RenderContext rc) {
+        ArrayList<IndexEntry> pendingEntries = this.pendingEntries;
+        for (int idx = 0, len = pendingEntries.size(); idx < len; idx++) {
+            IndexEntry entry = pendingEntries.get(idx);
+            entry.pending = false;
+            this.updateEntry(rc, entry);
+        }
+
+        pendingEntries.clear();
+    }
+
+    protected void indexAppended(Renderable renderable) {
+        if (this.spatialIndexEnabled && !this.indexInvalid) {
+            IndexEntry entry = this.addEntry(renderable);
+            entry.pending = true;
+            this.pendingEntries.add(entry);
+        }
+    }
+
+    protected void indexRemoved(Renderable renderable, boolean firstOccurrence) {
+        if (!this.spatialIndexEnabled || this.indexInvalid) {
+            return; // the index is rebuilt before its next use
+        }
+
+        IndexEntry entry = this.indexEntries.get(renderable);
+        if (entry == null) {
+            return;
+        }
+
+        if (entry.next != null && !firstOccurrence) {
+            this.invalidateIndex(); // the removed occurrence of a repeated renderable is unknown
+            return;
+        }
+
+        // The first entry in the chain corresponds to the first occurrence of the renderable in the list.
+        if (entry.next != null) {
+            this.indexEntries.put(renderable, entry.next);
+        } else {
+            this.indexEntries.remove(renderable);
+        }
+
+        if (entry.pending) {
+            this.pendingEntries.remove(entry);
+        }
+
+        if (entry.treeEntry != null) {
+            this.spatialIndex.remove(entry.treeEntry);
+        } else if (entry.unindexed) {
+            this.unindexedEntries.remove(entry);
+        }
+    }
+
+    protected IndexEntry addEntry(Renderable renderable) {
+        IndexEntry entry = new IndexEntry(renderable, this.indexSequence++);
+
+        IndexEntry first = this.indexEntries.get(renderable);
+        if (first == null) {
+            this.indexEntries.put(renderable, entry);
+        } else {
+            IndexEntry last = first;
+            while (last.next != null) {
+                last = last.next;
+            }
+            last.next = entry;
+        }
+
+        return entry;
+    }
+
+    protected void updateEntry(RenderContext rc, IndexEntry entry) {
+        if (this.computeRenderableSector(rc, entry.renderable, this.scratchSector)) {
+            if (entry.treeEntry == null) {
+                entry.treeEntry = this.spatialIndex.insert(this.scratchSector, entry);
+            } else {
+                this.spatialIndex.update(entry.treeEntry, this.scratchSector);
+            }
+
+            if (entry.unindexed) {
+                entry.unindexed = false;
+                this.unindexedEntries.remove(entry);
+            }
+        } else {
+            if (entry.treeEntry != null) {
+                this.spatialIndex.remove(entry.treeEntry);
+                entry.treeEntry = null;
+            }
+
+            if (!entry.unindexed) {
+                entry.unindexed = true;
+                this.unindexedEntries.add(entry);
+            }
+        }
+    }
+
+    /**
+     * Computes the geographic extent in which a renderable may be visible: the sector bounding the renderable's
+     * positions, expanded by the distance to the horizon from the renderable's highest altitude. Subclasses may
+     * override this method to bound additional renderable types.
+     *
+     * @param rc         the current render context
+     * @param renderable the renderable to bound
+     * @param result     a pre-allocated sector in which to store the computed extent
+     *
+     * @return true if the renderable's extent is known, or false if the renderable must be rendered every frame
+     */
+    protected boolean computeRenderableSector(RenderContext rc, Renderable renderable, Sector result) {
+        RenderableExtent extent = this.scratchExtent.reset();
+
+        if (renderable instanceof Placemark) {
+            Placemark placemark = (Placemark) renderable;
+            extent.addPosition(placemark.getPosition(), placemark.getAltitudeMode());
+        } else if (renderable instanceof Label) {
+            Label label = (Label) renderable;
+            extent.addPosition(label.getPosition(), label.getAltitudeMode());
+        } else if (renderable instanceof Path) {
+            Path path = (Path) renderable;
+            extent.addPositions(rc.globe, path.getPositions(), path);
+        } else if (renderable instanceof Polygon) {
+            Polygon polygon = (Polygon) renderable;
+            for (int idx = 0, len = polygon.getBoundaryCount(); idx < len; idx++) {
+                extent.addPositions(rc.globe, polygon.getBoundary(idx), polygon);
+            }
+        } else if (renderable instanceof Ellipse) {
+            Ellipse ellipse = (Ellipse) renderable;
+            extent.addPosition(ellipse.getCenter(), ellipse.getAltitudeMode());
+            double radius = Math.max(ellipse.getMajorRadius(), ellipse.getMinorRadius());
+            extent.margin = Math.max(extent.margin, Math.toDegrees(radius / rc.globe.getEquatorialRadius()));
+        }
+
+        return extent.computeSector(rc, result);
+    }
+
+    protected static class IndexEntry {
+
+        public final Renderable renderable;
+
+        public final long sequence;
+
+        public SectorQuadtree.Entry<IndexEntry> treeEntry;
+
+        public IndexEntry next;
+
+        public boolean pending;
+
+        public boolean unindexed;
+
+        public IndexEntry(Renderable renderable, long sequence) {
+            this.renderable = renderable;
+            this.sequence = sequence;
+        }
+    }
+
+    protected static class RenderableExtent {
+
+        public double minLatitude = Double.POSITIVE_INFINITY;
+
+        public double maxLatitude = Double.NEGATIVE_INFINITY;
+
+        public double minLongitude = Double.POSITIVE_INFINITY;
+
+        public double maxLongitude = Double.NEGATIVE_INFINITY;
+
+        public double maxAltitude;
+
+        /**
+         * Distance in degrees by which to expand the positions' sector.
+         */
+        public double margin;
+
+        public RenderableExtent reset() {
+            this.minLatitude = Double.POSITIVE_INFINITY;
+            this.maxLatitude = Double.NEGATIVE_INFINITY;
+            this.minLongitude = Double.POSITIVE_INFINITY;
+            this.maxLongitude = Double.NEGATIVE_INFINITY;
+            this.maxAltitude = 0;
+            this.margin = 0;
+            return this;
+        }
+
+        public void addPosition(Position position, @WorldWind.AltitudeMode int altitudeMode) {
+            if (position == null) {
+                return;
+            }
+
+            this.minLatitude = Math.min(this.minLatitude, position.latitude);
+            this.maxLatitude = Math.max(this.maxLatitude, position.latitude);
+            this.minLongitude = Math.min(this.minLongitude, position.longitude);
+            this.maxLongitude = Math.max(this.maxLongitude, position.longitude);
+
+            if (altitudeMode != WorldWind.CLAMP_TO_GROUND) {
+                this.maxAltitude = Math.max(this.maxAltitude, position.altitude);
+            }
+        }
+
+        public void addPositions(Globe globe, List<Position> positions, AbstractShape shape) {
+            Position prev = null;
+            for (int idx = 0, len = positions.size(); idx < len; idx++) {
+                Position position = positions.get(idx);
+                this.addPosition(position, shape.getAltitudeMode());
+
+                // Great circle segments may bulge poleward of their end points. No point on a segment is farther from
+                // its nearest end point than half the segment's length.
+                if (prev != null && shape.getPathType() == WorldWind.GREAT_CIRCLE) {
+                    double halfLength = Math.toDegrees(prev.greatCircleDistance(position)) * 0.5;
+                    this.margin = Math.max(this.margin, halfLength);
+                }
+
+                prev = position;
+            }
+        }
+
+        public boolean computeSector(RenderContext rc, Sector result) {
+            if (!(this.minLatitude <= this.maxLatitude) || !(this.minLongitude <= this.maxLongitude)) {
+                return false; // no positions
+            }
+
+            // Expand the sector by the distance to the horizon from the highest altitude, in which the renderable is
+            // visible beyond the terrain visible from the camera.
+            double margin = this.margin;
+            if (this.maxAltitude > 0) {
+                double radius = rc.globe.getEquatorialRadius();
+                double height = this.maxAltitude * rc.verticalExaggeration;
+                margin += Math.toDegrees(Math.acos(radius / (radius + height)));
+            }
+
+            double minLat = Math.max(-90, this.minLatitude - margin);
+            double maxLat = Math.min(90, this.maxLatitude + margin);
+            double cosLat = Math.cos(Math.toRadians(Math.max(Math.abs(minLat), Math.abs(maxLat))));
+            double lonMargin = (cosLat > 0) ? (margin / cosLat) : Double.POSITIVE_INFINITY;
+            double minLon = this.minLongitude - lonMargin;
+            double maxLon = this.maxLongitude + lonMargin;
+
+            // Use the full range of longitude when the expanded sector crosses the anti-meridian.
+            if (minLon < -180 || maxLon > 180) {
+                minLon = -180;
+                maxLon = 180;
+            }
+
+            result.set(minLat, minLon, Math.max(maxLat - minLat, MIN_INDEX_EXTENT), Math.max(maxLon - minLon, MIN_INDEX_EXTENT));
+            return true;
         }
     }
 }
@@ -74,12 +74,16 @@ public class DrawableGroundAtmosphere implements Drawable {
         // Use this layer's light direction.
         this.program.loadLightDirection(this.lightDirection);
 
-        // Set up to use the shared tile tex coord attributes.
-        GLES20.glEnableVertexAttribArray(1);
-
-        // Attempt to bind the night side texture to multi-texture unit 0.
+        // Attempt to bind the night side texture to multi-texture unit 0. Skip the atmosphere while the texture's upload
+        // is deferred to a subsequent frame, rather than drawing the night side without its texture.
         dc.activeTextureUnit(GLES20.GL_TEXTURE0);
         boolean textureBound = this.nightTexture != null && this.nightTexture.bindTexture(dc);
+        if (this.nightTexture != null && !textureBound && !this.nightTexture.isReady()) {
+            return;
+        }
+
+        // Set up to use the shared tile tex coord attributes.
+        GLES20.glEnableVertexAttribArray(1);
 
         for (int idx = 0, len = dc.getDrawableTerrainCount(); idx < len; idx++) {
             // Get the drawable terrain associated with the draw context.
@@ -7,6 +7,7 @@ import java.util.List;
 import gov.nasa.worldwind.geom.BoundingBox;
 import gov.nasa.worldwind.geom.Sector;
 import gov.nasa.worldwind.geom.Vec3;
+import gov.nasa.worldwind.globe.ElevationModel;
 import gov.nasa.worldwind.render.RenderContext;
 
 abstract class AbstractGraticuleTile {
@@ -90,8 +91,13 @@ abstract class AbstractGraticuleTile {
             this.extent = new BoundingBox();
         }
 
-        long elevationTimestamp = rc.globe.getElevationModel().getTimestamp();
-        if (elevationTimestamp != this.heightLimitsTimestamp) {
+        // Scan the height limits when the elevation model has changed within this tile's sector. Changes elsewhere only
+        // advance the tile's timestamp.
+        ElevationModel elevationModel = rc.globe.getElevationModel();
+        long elevationTimestamp = elevationModel.getTimestamp();
+        boolean heightsChanged = elevationTimestamp != this.heightLimitsTimestamp &&
+            elevationModel.hasChangedSince(this.heightLimitsTimestamp, this.sector);
+        if (heightsChanged) {
             // initialize the heights for elevation model scan
             this.heightLimits[0] = Float.MAX_VALUE;
             this.heightLimits[1] = -Float.MAX_VALUE;
@@ -103,8 +109,7 @@ abstract class AbstractGraticuleTile {
         }
 
         double verticalExaggeration = rc.verticalExaggeration;
-        if (verticalExaggeration != this.extentExaggeration ||
-                elevationTimestamp != this.heightLimitsTimestamp) {
+        if (verticalExaggeration != this.extentExaggeration || heightsChanged) {
             float minHeight = (float) (this.heightLimits[0] * verticalExaggeration);
             float maxHeight = (float) (this.heightLimits[1] * verticalExaggeration);
             this.extent.setToSector(this.sector, rc.globe, minHeight, maxHeight);
@@ -16,32 +16,32 @@ public class GmlParser extends XmlModelParser {
     }
 
     protected void registerGmlModels(String namespace) {
-        registerXmlModel(namespace, "AbstractFeature", GmlAbstractFeature.class);
-        registerXmlModel(namespace, "AbstractGeometry", GmlAbstractGeometry.class);
-        registerXmlModel(namespace, "AbstractGML", GmlAbstractGml.class);
+        registerXmlModel(namespace, "AbstractFeature", GmlAbstractFeature::new);
+        registerXmlModel(namespace, "AbstractGeometry", GmlAbstractGeometry::new);
+        registerXmlModel(namespace, "AbstractGML", GmlAbstractGml::new);
         registerTxtModel(namespace, "axisLabels");
         registerTxtModel(namespace, "axisName");
-        registerXmlModel(namespace, "boundedBy", GmlBoundingShape.class);
+        registerXmlModel(namespace, "boundedBy", GmlBoundingShape::new);
         registerTxtModel(namespace, "dimension");
-        registerXmlModel(namespace, "domainSet", GmlDomainSet.class);
-        registerXmlModel(namespace, "Envelope", GmlEnvelope.class);
-        registerXmlModel(namespace, "_GeometricPrimitive", GmlAbstractGeometricPrimitive.class);
+        registerXmlModel(namespace, "domainSet", GmlDomainSet::new);
+        registerXmlModel(namespace, "Envelope", GmlEnvelope::new);
+        registerXmlModel(namespace, "_GeometricPrimitive", GmlAbstractGeometricPrimitive::new);
         registerTxtModel(namespace, "gid");
-        registerXmlModel(namespace, "Grid", GmlGrid.class);
-        registerXmlModel(namespace, "GridEnvelope", GmlGridEnvelope.class);
-        registerXmlModel(namespace, "high", GmlIntegerList.class);
-        registerXmlModel(namespace, "limits", GmlGridLimits.class);
-        registerXmlModel(namespace, "low", GmlIntegerList.class);
-        registerXmlModel(namespace, "lowerCorner", GmlDirectPosition.class);
+        registerXmlModel(namespace, "Grid", GmlGrid::new);
+        registerXmlModel(namespace, "GridEnvelope", GmlGridEnvelope::new);
+        registerXmlModel(namespace, "high", GmlIntegerList::new);
+        registerXmlModel(namespace, "limits", GmlGridLimits::new);
+        registerXmlModel(namespace, "low", GmlIntegerList::new);
+        registerXmlModel(namespace, "lowerCorner", GmlDirectPosition::new);
         registerTxtModel(namespace, "nilReason");
-        registerXmlModel(namespace, "offsetVector", GmlVector.class);
-        registerXmlModel(namespace, "origin", GmlPointProperty.class);
-        registerXmlModel(namespace, "Point", GmlPoint.class);
-        registerXmlModel(namespace, "pos", GmlDirectPosition.class);
-        registerXmlModel(namespace, "RectifiedGrid", GmlRectifiedGrid.class);
+        registerXmlModel(namespace, "offsetVector", GmlVector::new);
+        registerXmlModel(namespace, "origin", GmlPointProperty::new);
+        registerXmlModel(namespace, "Point", GmlPoint::new);
+        registerXmlModel(namespace, "pos", GmlDirectPosition::new);
+        registerXmlModel(namespace, "RectifiedGrid", GmlRectifiedGrid::new);
         registerTxtModel(namespace, "srsName");
         registerTxtModel(namespace, "srsDimension");
         registerTxtModel(namespace, "uomLabels");
-        registerXmlModel(namespace, "upperCorner", GmlDirectPosition.class);
+        registerXmlModel(namespace, "upperCorner", GmlDirectPosition::new);
     }
 }
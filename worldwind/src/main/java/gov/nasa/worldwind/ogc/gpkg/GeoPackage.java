@@ -41,6 +41,28 @@ public class GeoPackage {
 
     protected final Map<String, GpkgTileUserMetrics> tileUserMetricsIndex = new HashMap<>();
 
+    /**
+     * Tile queries for each tile table, indexed by the number of tiles they select. Reusing the same query strings lets
+     * each reader's statement cache reuse the compiled statements.
+     */
+    protected final Map<String, String[]> tileQueries = new HashMap<>();
+
+    protected final ArrayList<TileRead> pendingTileReads = new ArrayList<>();
+
+    protected int activeTileReads;
+
+    protected final Object tileReadLock = new Object();
+
+    /**
+     * The maximum number of tiles selected by one query.
+     */
+    protected static final int MAX_TILE_BATCH = 16;
+
+    /**
+     * The number of read-only connections used to read tiles concurrently.
+     */
+    protected static final int TILE_READERS = 4;
+
     public GeoPackage(String pathName) {
         if (pathName == null) {
             throw new IllegalArgumentException(
@@ -48,9 +70,9 @@ public class GeoPackage {
         }
 
         // TODO verify its a GeoPackage container
-        // TODO select specific columns
+        // TODO select specific columns in the metadata table queries
         // TODO parameterize table names and column names as constants
-        this.connection = new SQLiteConnection(pathName, SQLiteDatabase.OPEN_READONLY, 60, TimeUnit.SECONDS);
+        this.connection = new SQLiteConnection(pathName, SQLiteDatabase.OPEN_READONLY, 60, TimeUnit.SECONDS, TILE_READERS);
         this.readSpatialReferenceSystem();
         this.readContent();
         this.readTileMatrixSet();
@@ -96,10 +118,68 @@ public class GeoPackage {
         return this.tileUserMetricsIndex.get(tableName);
     }
 
+    /**
+     * Reads the tile user data for one tile. Reads requested by other threads while all of this GeoPackage's tile
+     * readers are busy are combined into a single query, so that the tiles requested during one frame are typically
+     * read in a few queries rather than one query per tile.
+     *
+     * @param tiles      the tiles content
+     * @param zoomLevel  the tile's zoom level
+     * @param tileColumn the tile's column
+     * @param tileRow    the tile's row
+     *
+     * @return the tile user data, or null if the tile does not exist
+     */
     public GpkgTileUserData readTileUserData(GpkgContent tiles, int zoomLevel, int tileColumn, int tileRow) {
         return (tiles == null) ? null : this.readTileUserData(tiles.getTableName(), zoomLevel, tileColumn, tileRow);
     }
 
+    /**
+     * Reads the tile user data for a list of tiles on the same zoom level, using one query for each group of up to 16
+     * tiles.
+     *
+     * @param tiles       the tiles content
+     * @param zoomLevel   the tiles' zoom level
+     * @param tileColumns the column of each tile
+     * @param tileRows    the row of each tile
+     * @param count       the number of tiles to read
+     * @param result      a pre-allocated array in which to return each tile's user data, or null for tiles that do
+     *                    not exist
+     *
+     * @throws IllegalArgumentException if any array is null or shorter than the count, or if the count is negative
+     */
+    public void readTileUserData(GpkgContent tiles, int zoomLevel, int[] tileColumns, int[] tileRows, int count, GpkgTileUserData[] result) {
+        if (tiles == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "GeoPackage", "readTileUserData", "missingTiles"));
+        }
+
+        if (count < 0) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "GeoPackage", "readTileUserData", "invalidCount"));
+        }
+
+        if (tileColumns == null || tileColumns.length < count || tileRows == null || tileRows.length < count) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "GeoPackage", "readTileUserData", "missingArray"));
+        }
+
+        if (result == null || result.length < count) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "GeoPackage", "readTileUserData", "missingResult"));
+        }
+
+        SQLiteDatabase database = this.connection.acquireReader();
+        try {
+            for (int idx = 0; idx < count; idx += MAX_TILE_BATCH) {
+                int batchCount = Math.min(count - idx, MAX_TILE_BATCH);
+                this.readTileUserData(database, tiles.getTableName(), zoomLevel, tileColumns, tileRows, idx, batchCount, result);
+            }
+        } finally {
+            this.connection.releaseReader(database);
+        }
+    }
+
     protected void readSpatialReferenceSystem() {
         SQLiteDatabase database = null;
         Cursor cursor = null;
@@ -283,35 +363,198 @@ public class GeoPackage {
     }
 
     protected GpkgTileUserData readTileUserData(String tableName, int zoomLevel, int tileColumn, int tileRow) {
-        // TODO SQLiteDatabase is ambiguous on whether the call to rawQuery and Cursor usage are thread safe
+        TileRead read = new TileRead(tableName, zoomLevel, tileColumn, tileRow);
+        ArrayList<TileRead> batch = null;
+        boolean interrupted = false;
+
+        // Read the tile in a new query when a reader is available. Otherwise wait for either a reader or another
+        // thread's query to read the tile along with other pending tiles.
+        synchronized (this.tileReadLock) {
+            this.pendingTileReads.add(read);
+
+            while (!read.taken && this.activeTileReads >= TILE_READERS) {
+                try {
+                    this.tileReadLock.wait();
+                } catch (InterruptedException ex) {
+                    interrupted = true;
+                }
+            }
+
+            if (!read.taken) {
+                this.activeTileReads++;
+                batch = this.takeTileReads(read);
+            } else {
+                while (!read.done) {
+                    try {
+                        this.tileReadLock.wait();
+                    } catch (InterruptedException ex) {
+                        interrupted = true;
+                    }
+                }
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt(); // restore the interrupt for the caller to handle
+        }
+
+        if (batch != null) {
+            this.readTileBatch(batch);
+        }
+
+        if (read.error != null) {
+            throw read.error;
+        }
+
+        return read.result;
+    }
+
+    /**
+     * Removes a pending tile read from the queue along with up to 15 other pending reads from the same table and zoom
+     * level. Must be called while holding the tile read lock.
+     */
+    protected ArrayList<TileRead> takeTileReads(TileRead read) {
+        ArrayList<TileRead> batch = new ArrayList<>();
+        batch.add(read);
+        read.taken = true;
+        this.pendingTileReads.remove(read);
+
+        for (int idx = this.pendingTileReads.size() - 1; idx >= 0 && batch.size() < MAX_TILE_BATCH; idx--) {
+            TileRead pending = this.pendingTileReads.get(idx);
+            if (pending.zoomLevel == read.zoomLevel && pending.tableName.equals(read.tableName)) {
+                batch.add(pending);
+                pending.taken = true;
+                this.pendingTileReads.remove(idx);
+            }
+        }
+
+        return batch;
+    }
+
+    protected void readTileBatch(ArrayList<TileRead> batch) {
+        int count = batch.size();
+        int[] tileColumns = new int[count];
+        int[] tileRows = new int[count];
+        GpkgTileUserData[] result = new GpkgTileUserData[count];
+        for (int idx = 0; idx < count; idx++) {
+            tileColumns[idx] = batch.get(idx).tileColumn;
+            tileRows[idx] = batch.get(idx).tileRow;
+        }
+
+        RuntimeException error = null;
         SQLiteDatabase database = null;
+        try {
+            TileRead first = batch.get(0);
+            database = this.connection.acquireReader();
+            this.readTileUserData(database, first.tableName, first.zoomLevel, tileColumns, tileRows, 0, count, result);
+        } catch (RuntimeException ex) {
+            error = ex; // report the exception to each thread waiting on the batch
+        } finally {
+            this.connection.releaseReader(database);
+
+            synchronized (this.tileReadLock) {
+                for (int idx = 0; idx < count; idx++) {
+                    TileRead read = batch.get(idx);
+                    read.result = result[idx];
+                    read.error = error;
+                    read.done = true;
+                }
+
+                this.activeTileReads--;
+                this.tileReadLock.notifyAll();
+            }
+        }
+    }
+
+    protected void readTileUserData(SQLiteDatabase database, String tableName, int zoomLevel, int[] tileColumns, int[] tileRows,
+                                    int offset, int count, GpkgTileUserData[] result) {
+        String[] selectionArgs = new String[1 + count * 2];
+        selectionArgs[0] = Integer.toString(zoomLevel);
+        for (int idx = 0; idx < count; idx++) {
+            selectionArgs[1 + idx * 2] = Integer.toString(tileColumns[offset + idx]);
+            selectionArgs[2 + idx * 2] = Integer.toString(tileRows[offset + idx]);
+            result[offset + idx] = null;
+        }
+
         Cursor cursor = null;
         try {
-            String[] selectionArgs = new String[]{Integer.toString(zoomLevel), Integer.toString(tileColumn), Integer.toString(tileRow)};
-            database = this.connection.openDatabase();
-            cursor = database.rawQuery("SELECT * FROM '" + tableName + "' WHERE zoom_level=? AND tile_column=? AND tile_row=? LIMIT 1", selectionArgs);
+            cursor = database.rawQuery(this.tileQuery(tableName, count), selectionArgs);
 
             int id = cursor.getColumnIndex("id");
-            int zoom_level = cursor.getColumnIndex("zoom_level");
             int tile_column = cursor.getColumnIndex("tile_column");
             int tile_row = cursor.getColumnIndex("tile_row");
             int tile_data = cursor.getColumnIndex("tile_data");
 
-            if (cursor.moveToNext()) {
+            while (cursor.moveToNext()) {
+                int column = cursor.getInt(tile_column);
+                int row = cursor.getInt(tile_row);
                 GpkgTileUserData userData = new GpkgTileUserData();
                 userData.setContainer(this);
                 userData.setId(cursor.getInt(id));
-                userData.setZoomLevel(cursor.getInt(zoom_level));
-                userData.setTileColumn(cursor.getInt(tile_column));
-                userData.setTileRow(cursor.getInt(tile_row));
+                userData.setZoomLevel(zoomLevel);
+                userData.setTileColumn(column);
+                userData.setTileRow(row);
                 userData.setTileData(cursor.getBlob(tile_data));
-                return userData;
-            } else {
-                return null;
+
+                for (int idx = offset, end = offset + count; idx < end; idx++) {
+                    if (tileColumns[idx] == column && tileRows[idx] == row) {
+                        result[idx] = userData;
+                    }
+                }
             }
         } finally {
             WWUtil.closeSilently(cursor);
-            WWUtil.closeSilently(database);
+        }
+    }
+
+    /**
+     * Returns the query selecting a specified number of tiles from a tile table. Each tile is selected by its own term,
+     * which SQLite evaluates as a lookup in the table's unique zoom level, column and row index.
+     */
+    protected String tileQuery(String tableName, int count) {
+        synchronized (this.tileQueries) {
+            String[] queries = this.tileQueries.get(tableName);
+            if (queries == null) {
+                queries = new String[MAX_TILE_BATCH + 1];
+                this.tileQueries.put(tableName, queries);
+            }
+
+            if (queries[count] == null) {
+                StringBuilder sb = new StringBuilder("SELECT id, tile_column, tile_row, tile_data FROM '")
+                    .append(tableName).append("' WHERE zoom_level=? AND (");
+                for (int idx = 0; idx < count; idx++) {
+                    sb.append((idx == 0) ? "" : " OR ").append("(tile_column=? AND tile_row=?)");
+                }
+                queries[count] = sb.append(")").toString();
+            }
+
+            return queries[count];
+        }
+    }
+
+    protected static class TileRead {
+
+        public final String tableName;
+
+        public final int zoomLevel;
+
+        public final int tileColumn;
+
+        public final int tileRow;
+
+        public boolean taken;
+
+        public boolean done;
+
+        public GpkgTileUserData result;
+
+        public RuntimeException error;
+
+        public TileRead(String tableName, int zoomLevel, int tileColumn, int tileRow) {
+            this.tableName = tableName;
+            this.zoomLevel = zoomLevel;
+            this.tileColumn = tileColumn;
+            this.tileRow = tileRow;
         }
     }
 }
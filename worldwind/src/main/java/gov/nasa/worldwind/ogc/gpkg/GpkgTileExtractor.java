@@ -0,0 +1,593 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.ogc.gpkg;
+
+import android.graphics.Bitmap;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.render.ImageSource;
+import gov.nasa.worldwind.render.ImageTile;
+import gov.nasa.worldwind.util.DiskCache;
+import gov.nasa.worldwind.util.Level;
+import gov.nasa.worldwind.util.LevelSet;
+import gov.nasa.worldwind.util.Logger;
+import gov.nasa.worldwind.util.TaskService;
+import gov.nasa.worldwind.util.Tile;
+import gov.nasa.worldwind.util.TileFactory;
+import gov.nasa.worldwind.util.WWUtil;
+
+/**
+ * Extracts the tiles of a level set within a sector and range of levels into a GeoPackage tile pyramid, for example to
+ * pre-seed a GeoPackage from a WMS or WMTS layer's tile factory for offline use. Tiles are fetched concurrently on the
+ * WorldWind {@link TaskService}'s network queue, at most a configurable number at a time, and fetched tiles are written
+ * in batches, one transaction per batch. Fetches run behind the queue's other tasks, and by default occupy at most half
+ * of its threads, so that an extraction does not hold up the application's other network requests. Tiles are written
+ * with their encoded data as fetched, and must be PNG or JPEG images.
+ * <p>
+ * Each written batch is a checkpoint. An extraction that is cancelled, fails, or is interrupted by the application
+ * exiting may be resumed by running a new extractor for the same table, which skips the tiles already written. Tiles
+ * that cannot be fetched after a number of retries are counted as failed and skipped, and are fetched again when the
+ * extraction is resumed.
+ * <p>
+ * The extraction runs on the thread calling {@link #run()}, which blocks until the extraction ends, and the callback is
+ * notified on that thread. Applications should run extractors on a thread of their own rather than on the task
+ * service, since an extraction may run for a long time.
+ */
+public class GpkgTileExtractor implements Runnable {
+
+    public interface Callback {
+
+        /**
+         * Called after each batch of tiles is written.
+         */
+        void extractionProgress(GpkgTileExtractor extractor);
+
+        void extractionSucceeded(GpkgTileExtractor extractor);
+
+        void extractionFailed(GpkgTileExtractor extractor, Throwable ex);
+
+        void extractionCancelled(GpkgTileExtractor extractor);
+    }
+
+    protected GpkgTileWriter writer;
+
+    protected String tableName;
+
+    protected String identifier;
+
+    protected LevelSet levelSet;
+
+    protected TileFactory tileFactory;
+
+    protected Sector sector = new Sector();
+
+    protected int firstLevel;
+
+    protected int lastLevel;
+
+    protected Callback callback;
+
+    protected int maxConcurrentFetches = 2;
+
+    protected int batchSize = 64;
+
+    protected int maxRetries = 2;
+
+    protected volatile boolean cancelled;
+
+    protected volatile long tileCount;
+
+    protected volatile long writtenCount;
+
+    protected volatile long skippedCount;
+
+    protected volatile long failedCount;
+
+    protected final LinkedBlockingQueue<Fetch> fetchResults = new LinkedBlockingQueue<>();
+
+    protected final ArrayDeque<Fetch> fetchRetries = new ArrayDeque<>();
+
+    protected final ArrayList<GpkgTileUserData> batch = new ArrayList<>();
+
+    protected int activeFetches;
+
+    protected static final int PAGE_SIZE = 1024 * 16;
+
+    /**
+     * The task service priority of tile fetches, which start after any other waiting network task.
+     */
+    protected static final double FETCH_PRIORITY = Double.MAX_VALUE;
+
+    /**
+     * Constructs an extractor for the tiles of a level set within a sector and range of levels.
+     *
+     * @param writer      the GeoPackage to write tiles to
+     * @param tableName   the name of the tile pyramid table to write
+     * @param levelSet    the level set whose tiles to extract; its tile origin must be its sector's southwest corner
+     * @param tileFactory the tile factory creating the level set's tiles, each an {@link ImageTile}
+     * @param sector      the area to extract
+     * @param firstLevel  the number of the first level to extract
+     * @param lastLevel   the number of the last level to extract
+     *
+     * @throws IllegalArgumentException if any argument is null, or if the level range is invalid
+     */
+    public GpkgTileExtractor(GpkgTileWriter writer, String tableName, LevelSet levelSet, TileFactory tileFactory,
+                             Sector sector, int firstLevel, int lastLevel) {
+        if (writer == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "GpkgTileExtractor", "constructor", "missingWriter"));
+        }
+
+        if (tableName == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "GpkgTileExtractor", "constructor", "missingTableName"));
+        }
+
+        if (levelSet == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "GpkgTileExtractor", "constructor", "missingLevelSet"));
+        }
+
+        if (tileFactory == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "GpkgTileExtractor", "constructor", "missingTileFactory"));
+        }
+
+        if (sector == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "GpkgTileExtractor", "constructor", "missingSector"));
+        }
+
+        if (firstLevel < 0 || lastLevel < firstLevel || lastLevel >= levelSet.numLevels()) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "GpkgTileExtractor", "constructor", "invalidRange"));
+        }
+
+        this.writer = writer;
+        this.tableName = tableName;
+        this.levelSet = levelSet;
+        this.tileFactory = tileFactory;
+        this.sector.set(sector);
+        this.firstLevel = firstLevel;
+        this.lastLevel = lastLevel;
+        this.tileCount = this.countTiles();
+    }
+
+    public String getTableName() {
+        return this.tableName;
+    }
+
+    public String getIdentifier() {
+        return this.identifier;
+    }
+
+    /**
+     * Sets the human readable identifier recorded in the tile pyramid's contents entry. The default is null, which
+     * records the table name.
+     */
+    public void setIdentifier(String identifier) {
+        this.identifier = identifier;
+    }
+
+    public Callback getCallback() {
+        return this.callback;
+    }
+
+    public void setCallback(Callback callback) {
+        this.callback = callback;
+    }
+
+    public int getMaxConcurrentFetches() {
+        return this.maxConcurrentFetches;
+    }
+
+    /**
+     * Sets the maximum number of tiles fetched at once. The extraction waits for a fetch to complete before starting
+     * another when this many are in progress. The default is 2.
+     */
+    public void setMaxConcurrentFetches(int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "GpkgTileExtractor", "setMaxConcurrentFetches", "invalidCount"));
+        }
+
+        this.maxConcurrentFetches = count;
+    }
+
+    public int getBatchSize() {
+        return this.batchSize;
+    }
+
+    /**
+     * Sets the number of tiles written in each transaction. The default is 64.
+     */
+    public void setBatchSize(int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "GpkgTileExtractor", "setBatchSize", "invalidCount"));
+        }
+
+        this.batchSize = count;
+    }
+
+    public int getMaxRetries() {
+        return this.maxRetries;
+    }
+
+    /**
+     * Sets the number of times a tile is fetched again after a failed fetch. The default is 2.
+     */
+    public void setMaxRetries(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "GpkgTileExtractor", "setMaxRetries", "invalidCount"));
+        }
+
+        this.maxRetries = count;
+    }
+
+    /**
+     * Indicates the number of tiles in the extraction's sector and levels.
+     */
+    public long getTileCount() {
+        return this.tileCount;
+    }
+
+    /**
+     * Indicates the number of tiles this extractor has written.
+     */
+    public long getWrittenCount() {
+        return this.writtenCount;
+    }
+
+    /**
+     * Indicates the number of tiles skipped because a previous extraction wrote them.
+     */
+    public long getSkippedCount() {
+        return this.skippedCount;
+    }
+
+    /**
+     * Indicates the number of tiles that could not be fetched.
+     */
+    public long getFailedCount() {
+        return this.failedCount;
+    }
+
+    /**
+     * Indicates the fraction of the extraction's tiles that have been written, skipped or have failed, from 0 to 1.
+     */
+    public double getProgress() {
+        long count = this.tileCount;
+        return (count > 0) ? (double) (this.writtenCount + this.skippedCount + this.failedCount) / count : 1;
+    }
+
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    /**
+     * Requests that the extraction stop. Tiles already being fetched are written before the extraction ends.
+     */
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    @Override
+    public void run() {
+        try {
+            this.writer.createTileTable(this.tableName, this.identifier, this.levelSet, this.sector,
+                this.firstLevel, this.lastLevel);
+
+            for (int levelNumber = this.firstLevel; levelNumber <= this.lastLevel && !this.cancelled; levelNumber++) {
+                this.extractLevel(this.levelSet.level(levelNumber));
+            }
+
+            // Wait for the tiles being fetched, then write the last batch.
+            while (this.activeFetches > 0 || !this.fetchRetries.isEmpty()) {
+                this.submitRetries();
+                if (this.activeFetches > 0) {
+                    this.awaitFetch();
+                }
+            }
+
+            this.writeBatch();
+        } catch (Throwable ex) {
+            this.cancelled = true; // abandon the tiles being fetched
+            Logger.logMessage(Logger.ERROR, "GpkgTileExtractor", "run", "Tile extraction failed " + this.tableName, ex);
+            if (this.callback != null) {
+                this.callback.extractionFailed(this, ex);
+            }
+            return;
+        }
+
+        if (this.callback != null) {
+            if (this.cancelled) {
+                this.callback.extractionCancelled(this);
+            } else {
+                this.callback.extractionSucceeded(this);
+            }
+        }
+    }
+
+    protected void extractLevel(Level level) throws InterruptedException {
+        int zoomLevel = level.levelNumber;
+        int matrixHeight = level.levelHeight / level.tileHeight;
+        long[] writtenKeys = this.writer.readTileKeys(this.tableName, zoomLevel);
+
+        int[] range = this.tileRange(level);
+        double tileDelta = level.tileDelta;
+        for (int row = range[0]; row <= range[1]; row++) {
+            for (int col = range[2]; col <= range[3]; col++) {
+                if (this.cancelled) {
+                    return;
+                }
+
+                // Convert the WorldWind tile row to the equivalent GeoPackage tile row, which counts down from the top.
+                int gpkgRow = matrixHeight - row - 1;
+                if (Arrays.binarySearch(writtenKeys, GpkgTileWriter.tileKey(col, gpkgRow)) >= 0) {
+                    this.skippedCount++;
+                    continue;
+                }
+
+                double lat = this.levelSet.tileOrigin.latitude + row * tileDelta;
+                double lon = this.levelSet.tileOrigin.longitude + col * tileDelta;
+                Tile tile = this.tileFactory.createTile(new Sector(lat, lon, tileDelta, tileDelta), level, row, col);
+                this.submitRetries();
+                this.submitFetch(new Fetch(this, tile, zoomLevel, col, gpkgRow));
+            }
+        }
+    }
+
+    /**
+     * Returns the first and last row and the first and last column of a level's tiles within the extraction sector,
+     * clamped to the level set's tile matrix.
+     */
+    protected int[] tileRange(Level level) {
+        Sector sector = new Sector(this.sector);
+        if (!sector.intersect(this.levelSet.sector)) {
+            return new int[]{0, -1, 0, -1}; // no tiles
+        }
+
+        double tileDelta = level.tileDelta;
+        double originLat = this.levelSet.tileOrigin.latitude;
+        double originLon = this.levelSet.tileOrigin.longitude;
+        int maxRow = level.levelHeight / level.tileHeight - 1;
+        int maxCol = level.levelWidth / level.tileWidth - 1;
+
+        return new int[]{
+            Math.max(0, Tile.computeRow(tileDelta, sector.minLatitude(), originLat)),
+            Math.min(maxRow, Tile.computeLastRow(tileDelta, sector.maxLatitude(), originLat)),
+            Math.max(0, Tile.computeColumn(tileDelta, sector.minLongitude(), originLon)),
+            Math.min(maxCol, Tile.computeLastColumn(tileDelta, sector.maxLongitude(), originLon))};
+    }
+
+    protected long countTiles() {
+        long count = 0;
+        for (int levelNumber = this.firstLevel; levelNumber <= this.lastLevel; levelNumber++) {
+            int[] range = this.tileRange(this.levelSet.level(levelNumber));
+            count += (long) Math.max(0, range[1] - range[0] + 1) * Math.max(0, range[3] - range[2] + 1);
+        }
+
+        return count;
+    }
+
+    protected void submitFetch(Fetch fetch) throws InterruptedException {
+        while (true) {
+            // Apply back pressure: wait for a fetch to complete when the maximum number of fetches are in progress.
+            if (this.activeFetches >= this.maxConcurrentFetches) {
+                this.awaitFetch();
+                continue;
+            }
+
+            try {
+                this.executeFetch(fetch);
+                this.activeFetches++;
+                return;
+            } catch (RejectedExecutionException ignored) { // the task service's network queue is full
+                if (this.activeFetches > 0) {
+                    this.awaitFetch();
+                } else {
+                    Thread.sleep(100);
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts a tile fetch on the WorldWind task service's network queue.
+     *
+     * @throws RejectedExecutionException if the network queue is full
+     */
+    protected void executeFetch(Fetch fetch) {
+        WorldWind.taskService().execute(TaskService.NETWORK_QUEUE, FETCH_PRIORITY, fetch);
+    }
+
+    protected void submitRetries() throws InterruptedException {
+        Fetch fetch;
+        while ((fetch = this.fetchRetries.poll()) != null) {
+            if (this.cancelled) {
+                this.failedCount++; // abandon the retry; the tile is fetched again when the extraction is resumed
+            } else {
+                this.submitFetch(fetch);
+            }
+        }
+    }
+
+    protected void awaitFetch() throws InterruptedException {
+        Fetch fetch = this.fetchResults.take();
+        this.activeFetches--;
+
+        if (fetch.tileData != null) {
+            GpkgTileUserData tile = new GpkgTileUserData();
+            tile.setZoomLevel(fetch.zoomLevel);
+            tile.setTileColumn(fetch.tileColumn);
+            tile.setTileRow(fetch.tileRow);
+            tile.setTileData(fetch.tileData);
+            this.batch.add(tile);
+
+            if (this.batch.size() >= this.batchSize) {
+                this.writeBatch();
+            }
+        } else if (fetch.attempts <= this.maxRetries && !this.cancelled) {
+            this.fetchRetries.add(fetch);
+        } else {
+            this.failedCount++;
+            Logger.logMessage(Logger.WARN, "GpkgTileExtractor", "awaitFetch",
+                "Tile extraction failed (zoomLevel=" + fetch.zoomLevel + ", tileColumn=" + fetch.tileColumn +
+                    ", tileRow=" + fetch.tileRow + ")", fetch.error);
+        }
+    }
+
+    protected void writeBatch() {
+        if (this.batch.isEmpty()) {
+            return;
+        }
+
+        this.writer.writeTiles(this.tableName, this.batch);
+        this.writtenCount += this.batch.size();
+        this.batch.clear();
+
+        if (this.callback != null) {
+            this.callback.extractionProgress(this);
+        }
+    }
+
+    /**
+     * Returns the encoded data for a tile, fetching URL image sources from the WorldWind disk cache or the network, and
+     * encoding other image sources as PNG. Called on a task service thread.
+     *
+     * @param tile the tile to fetch
+     *
+     * @return the tile's PNG or JPEG data
+     *
+     * @throws IOException if the tile cannot be fetched or is not a PNG or JPEG image
+     */
+    protected byte[] fetchTileData(Tile tile) throws IOException {
+        ImageSource imageSource = (tile instanceof ImageTile) ? ((ImageTile) tile).getImageSource() : null;
+        if (imageSource == null) {
+            throw new IOException("Tile has no image source " + tile.tileKey);
+        }
+
+        byte[] data;
+        if (imageSource.isUrl()) {
+            data = this.fetchUrl(imageSource.asUrl());
+        } else if (imageSource.isBitmap() || imageSource.isBitmapFactory()) {
+            Bitmap bitmap = imageSource.isBitmap() ?
+                imageSource.asBitmap() : imageSource.asBitmapFactory().createBitmap();
+            if (bitmap == null) {
+                throw new IOException("Tile image source returned no bitmap " + imageSource);
+            }
+            ByteArrayOutputStream stream = new ByteArrayOutputStream(PAGE_SIZE);
+            bitmap.compress(Bitmap.CompressFormat.PNG, 100, stream);
+            data = stream.toByteArray();
+        } else {
+            throw new IOException("Unsupported tile image source " + imageSource);
+        }
+
+        if (!isPng(data) && !isJpeg(data)) {
+            throw new IOException("Tile data is not a PNG or JPEG image " + imageSource);
+        }
+
+        return data;
+    }
+
+    protected byte[] fetchUrl(String urlString) throws IOException {
+        // Consult the disk cache before the network. Tiles displayed before the extraction are already cached.
+        DiskCache diskCache = WorldWind.diskCache();
+        byte[] data = (diskCache != null) ? diskCache.get(urlString) : null;
+        if (data != null) {
+            return data;
+        }
+
+        InputStream stream = null;
+        try {
+            URLConnection conn = new URL(urlString).openConnection();
+            conn.setConnectTimeout(3000);
+            conn.setReadTimeout(30000);
+
+            stream = new BufferedInputStream(conn.getInputStream());
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(conn.getContentLength(), PAGE_SIZE));
+            byte[] page = new byte[PAGE_SIZE];
+            int readCount;
+            while ((readCount = stream.read(page, 0, page.length)) != -1) {
+                buffer.write(page, 0, readCount);
+            }
+
+            return buffer.toByteArray();
+        } finally {
+            WWUtil.closeSilently(stream);
+        }
+    }
+
+    protected static boolean isPng(byte[] data) {
+        return data.length >= 8 && (data[0] & 0xFF) == 0x89 && data[1] == 'P' && data[2] == 'N' && data[3] == 'G';
+    }
+
+    protected static boolean isJpeg(byte[] data) {
+        return data.length >= 3 && (data[0] & 0xFF) == 0xFF && (data[1] & 0xFF) == 0xD8 && (data[2] & 0xFF) == 0xFF;
+    }
+
+    /**
+     * Fetches one tile on a task service thread, and queues itself for the extraction thread to write.
+     */
+    protected static class Fetch implements Runnable {
+
+        public final GpkgTileExtractor extractor;
+
+        public final Tile tile;
+
+        public final int zoomLevel;
+
+        public final int tileColumn;
+
+        public final int tileRow;
+
+        public int attempts;
+
+        public byte[] tileData;
+
+        public Throwable error;
+
+        public Fetch(GpkgTileExtractor extractor, Tile tile, int zoomLevel, int tileColumn, int tileRow) {
+            this.extractor = extractor;
+            this.tile = tile;
+            this.zoomLevel = zoomLevel;
+            this.tileColumn = tileColumn;
+            this.tileRow = tileRow;
+        }
+
+        @Override
+        public void run() {
+            this.attempts++;
+            this.tileData = null;
+            this.error = null;
+
+            try {
+                if (!this.extractor.cancelled) {
+                    this.tileData = this.extractor.fetchTileData(this.tile);
+                }
+            } catch (Throwable ex) {
+                this.error = ex;
+            } finally {
+                this.extractor.fetchResults.add(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,346 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.ogc.gpkg;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.util.Level;
+import gov.nasa.worldwind.util.LevelSet;
+import gov.nasa.worldwind.util.Logger;
+import gov.nasa.worldwind.util.WWUtil;
+
+/**
+ * Writes tile pyramids to a GeoPackage file, creating the file and the GeoPackage core tables when necessary. Tile
+ * pyramids use the EPSG:4326 spatial reference system, and are described by a tile matrix set spanning a {@link
+ * LevelSet}'s sector and one tile matrix per level, so that the written tiles can be displayed by a layer created by
+ * {@link gov.nasa.worldwind.layer.LayerFactory#createFromGeoPackage}.
+ * <p>
+ * The database uses write-ahead logging, so that a GeoPackage may read tiles while they are written. GpkgTileWriter is
+ * not thread safe; tiles should be written from one thread.
+ */
+public class GpkgTileWriter implements Closeable {
+
+    protected static final int GPKG_APPLICATION_ID = 0x47504B47; // "GPKG"
+
+    protected static final int GPKG_USER_VERSION = 10200; // GeoPackage 1.2
+
+    protected static final String WGS84_DEFINITION = "GEOGCS[\"WGS 84\",DATUM[\"WGS_1984\"," +
+        "SPHEROID[\"WGS 84\",6378137,298.257223563,AUTHORITY[\"EPSG\",\"7030\"]],AUTHORITY[\"EPSG\",\"6326\"]]," +
+        "PRIMEM[\"Greenwich\",0,AUTHORITY[\"EPSG\",\"8901\"]]," +
+        "UNIT[\"degree\",0.0174532925199433,AUTHORITY[\"EPSG\",\"9122\"]],AUTHORITY[\"EPSG\",\"4326\"]]";
+
+    protected String pathName;
+
+    protected SQLiteDatabase database;
+
+    protected final Map<String, SQLiteStatement> insertStatements = new HashMap<>();
+
+    public GpkgTileWriter(String pathName) {
+        if (pathName == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "GpkgTileWriter", "constructor", "missingPathName"));
+        }
+
+        this.pathName = pathName;
+        this.database = SQLiteDatabase.openDatabase(pathName, null,
+            SQLiteDatabase.OPEN_READWRITE | SQLiteDatabase.CREATE_IF_NECESSARY);
+        this.database.enableWriteAheadLogging();
+        this.createCoreTables();
+    }
+
+    public String getPathName() {
+        return this.pathName;
+    }
+
+    /**
+     * Creates a tile pyramid table for the levels of a level set, along with its contents, tile matrix set and tile
+     * matrix entries. Tile pyramids that already exist are extended to include the specified levels and sector, and
+     * their tiles are retained, so that an interrupted extraction may resume. Each level is written as the GeoPackage
+     * zoom level with the same number.
+     *
+     * @param tableName  the name of the tile pyramid table
+     * @param identifier a human readable identifier for the tile pyramid, may be null
+     * @param levelSet   the level set whose tiles the table holds; its tile origin must be its sector's southwest
+     *                   corner
+     * @param sector     the sector to record in the tile pyramid's contents entry
+     * @param firstLevel the number of the first level to write
+     * @param lastLevel  the number of the last level to write
+     *
+     * @throws IllegalArgumentException if any argument is null, if the level set's tile origin is not its sector's
+     *                                  southwest corner, or if the level range is invalid
+     */
+    public void createTileTable(String tableName, String identifier, LevelSet levelSet, Sector sector, int firstLevel, int lastLevel) {
+        if (tableName == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "GpkgTileWriter", "createTileTable", "missingTableName"));
+        }
+
+        if (levelSet == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "GpkgTileWriter", "createTileTable", "missingLevelSet"));
+        }
+
+        if (sector == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "GpkgTileWriter", "createTileTable", "missingSector"));
+        }
+
+        if (levelSet.tileOrigin.latitude != levelSet.sector.minLatitude() ||
+            levelSet.tileOrigin.longitude != levelSet.sector.minLongitude()) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "GpkgTileWriter", "createTileTable", "invalidTileOrigin"));
+        }
+
+        if (firstLevel < 0 || lastLevel < firstLevel || lastLevel >= levelSet.numLevels()) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "GpkgTileWriter", "createTileTable", "invalidRange"));
+        }
+
+        String quotedName = "'" + tableName + "'";
+        Sector contentSector = new Sector(sector);
+        this.unionContentSector(tableName, contentSector);
+
+        // GeoPackage readers expect consecutive zoom levels. Fill any gap between the existing tile matrices and the
+        // specified levels.
+        int[] levelRange = {firstLevel, lastLevel};
+        this.unionLevelRange(tableName, levelRange);
+
+        this.database.beginTransaction();
+        try {
+            this.database.execSQL("CREATE TABLE IF NOT EXISTS " + quotedName + " (" +
+                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                "zoom_level INTEGER NOT NULL, " +
+                "tile_column INTEGER NOT NULL, " +
+                "tile_row INTEGER NOT NULL, " +
+                "tile_data BLOB NOT NULL, " +
+                "UNIQUE (zoom_level, tile_column, tile_row))");
+
+            this.database.execSQL("INSERT OR REPLACE INTO gpkg_contents " +
+                "(table_name, data_type, identifier, description, min_x, min_y, max_x, max_y, srs_id) " +
+                "VALUES (?, 'tiles', ?, '', ?, ?, ?, ?, 4326)", new Object[]{tableName,
+                (identifier != null) ? identifier : tableName,
+                contentSector.minLongitude(), contentSector.minLatitude(),
+                contentSector.maxLongitude(), contentSector.maxLatitude()});
+
+            Sector matrixSector = levelSet.sector;
+            this.database.execSQL("INSERT OR REPLACE INTO gpkg_tile_matrix_set " +
+                "(table_name, srs_id, min_x, min_y, max_x, max_y) VALUES (?, 4326, ?, ?, ?, ?)", new Object[]{tableName,
+                matrixSector.minLongitude(), matrixSector.minLatitude(),
+                matrixSector.maxLongitude(), matrixSector.maxLatitude()});
+
+            for (int levelNumber = levelRange[0]; levelNumber <= levelRange[1]; levelNumber++) {
+                Level level = levelSet.level(levelNumber);
+                this.database.execSQL("INSERT OR REPLACE INTO gpkg_tile_matrix " +
+                    "(table_name, zoom_level, matrix_width, matrix_height, tile_width, tile_height, pixel_x_size, pixel_y_size) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", new Object[]{tableName, levelNumber,
+                    level.levelWidth / level.tileWidth, level.levelHeight / level.tileHeight,
+                    level.tileWidth, level.tileHeight,
+                    level.tileDelta / level.tileWidth, level.tileDelta / level.tileHeight});
+            }
+
+            this.database.setTransactionSuccessful();
+        } finally {
+            this.database.endTransaction();
+        }
+    }
+
+    /**
+     * Returns the column and row of each tile in a zoom level of a tile pyramid table. Each tile is identified by a key
+     * computed by {@link #tileKey(int, int)}, and the returned keys are sorted in ascending order so that they may be
+     * searched with {@link Arrays#binarySearch(long[], long)}.
+     *
+     * @param tableName the name of the tile pyramid table
+     * @param zoomLevel the zoom level
+     *
+     * @return a sorted array of keys, one for each tile in the zoom level
+     */
+    public long[] readTileKeys(String tableName, int zoomLevel) {
+        if (tableName == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "GpkgTileWriter", "readTileKeys", "missingTableName"));
+        }
+
+        Cursor cursor = null;
+        try {
+            cursor = this.database.rawQuery("SELECT tile_column, tile_row FROM '" + tableName + "' WHERE zoom_level=?",
+                new String[]{Integer.toString(zoomLevel)});
+
+            long[] keys = new long[cursor.getCount()];
+            int count = 0;
+            while (cursor.moveToNext() && count < keys.length) {
+                keys[count++] = tileKey(cursor.getInt(0), cursor.getInt(1));
+            }
+
+            Arrays.sort(keys, 0, count);
+            return (count == keys.length) ? keys : Arrays.copyOf(keys, count);
+        } finally {
+            WWUtil.closeSilently(cursor);
+        }
+    }
+
+    /**
+     * Writes a list of tiles to a tile pyramid table in a single transaction, replacing any existing tiles with the
+     * same zoom level, column and row. Either all of the tiles are written or, if this throws an exception, none are.
+     *
+     * @param tableName the name of the tile pyramid table
+     * @param tiles     the tiles to write, each with PNG or JPEG tile data
+     */
+    public void writeTiles(String tableName, List<GpkgTileUserData> tiles) {
+        if (tableName == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "GpkgTileWriter", "writeTiles", "missingTableName"));
+        }
+
+        if (tiles == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "GpkgTileWriter", "writeTiles", "missingList"));
+        }
+
+        SQLiteStatement statement = this.insertStatements.get(tableName);
+        if (statement == null) {
+            statement = this.database.compileStatement("INSERT OR REPLACE INTO '" + tableName + "' " +
+                "(zoom_level, tile_column, tile_row, tile_data) VALUES (?, ?, ?, ?)");
+            this.insertStatements.put(tableName, statement);
+        }
+
+        this.database.beginTransaction();
+        try {
+            for (int idx = 0, len = tiles.size(); idx < len; idx++) {
+                GpkgTileUserData tile = tiles.get(idx);
+                statement.bindLong(1, tile.getZoomLevel());
+                statement.bindLong(2, tile.getTileColumn());
+                statement.bindLong(3, tile.getTileRow());
+                statement.bindBlob(4, tile.getTileData());
+                statement.executeInsert();
+            }
+
+            this.database.setTransactionSuccessful();
+        } finally {
+            statement.clearBindings(); // release the last tile's data
+            this.database.endTransaction();
+        }
+    }
+
+    @Override
+    public void close() {
+        for (SQLiteStatement statement : this.insertStatements.values()) {
+            WWUtil.closeSilently(statement);
+        }
+
+        this.insertStatements.clear();
+        WWUtil.closeSilently(this.database);
+    }
+
+    /**
+     * Computes the key identifying a tile in the arrays returned by {@link #readTileKeys(String, int)}.
+     *
+     * @param tileColumn the tile's GeoPackage column
+     * @param tileRow    the tile's GeoPackage row
+     *
+     * @return the tile's key
+     */
+    public static long tileKey(int tileColumn, int tileRow) {
+        return ((long) tileColumn << 32) | (tileRow & 0xFFFFFFFFL);
+    }
+
+    protected void createCoreTables() {
+        this.database.beginTransaction();
+        try {
+            this.database.execSQL("PRAGMA application_id = " + GPKG_APPLICATION_ID);
+            this.database.execSQL("PRAGMA user_version = " + GPKG_USER_VERSION);
+
+            this.database.execSQL("CREATE TABLE IF NOT EXISTS gpkg_spatial_ref_sys (" +
+                "srs_name TEXT NOT NULL, " +
+                "srs_id INTEGER NOT NULL PRIMARY KEY, " +
+                "organization TEXT NOT NULL, " +
+                "organization_coordsys_id INTEGER NOT NULL, " +
+                "definition TEXT NOT NULL, " +
+                "description TEXT)");
+
+            this.database.execSQL("CREATE TABLE IF NOT EXISTS gpkg_contents (" +
+                "table_name TEXT NOT NULL PRIMARY KEY, " +
+                "data_type TEXT NOT NULL, " +
+                "identifier TEXT UNIQUE, " +
+                "description TEXT DEFAULT '', " +
+                "last_change DATETIME NOT NULL DEFAULT (strftime('%Y-%m-%dT%H:%M:%fZ','now')), " +
+                "min_x DOUBLE, min_y DOUBLE, max_x DOUBLE, max_y DOUBLE, " +
+                "srs_id INTEGER, " +
+                "CONSTRAINT fk_gc_r_srs_id FOREIGN KEY (srs_id) REFERENCES gpkg_spatial_ref_sys(srs_id))");
+
+            this.database.execSQL("CREATE TABLE IF NOT EXISTS gpkg_tile_matrix_set (" +
+                "table_name TEXT NOT NULL PRIMARY KEY, " +
+                "srs_id INTEGER NOT NULL, " +
+                "min_x DOUBLE NOT NULL, min_y DOUBLE NOT NULL, max_x DOUBLE NOT NULL, max_y DOUBLE NOT NULL, " +
+                "CONSTRAINT fk_gtms_table_name FOREIGN KEY (table_name) REFERENCES gpkg_contents(table_name), " +
+                "CONSTRAINT fk_gtms_srs FOREIGN KEY (srs_id) REFERENCES gpkg_spatial_ref_sys (srs_id))");
+
+            this.database.execSQL("CREATE TABLE IF NOT EXISTS gpkg_tile_matrix (" +
+                "table_name TEXT NOT NULL, " +
+                "zoom_level INTEGER NOT NULL, " +
+                "matrix_width INTEGER NOT NULL, matrix_height INTEGER NOT NULL, " +
+                "tile_width INTEGER NOT NULL, tile_height INTEGER NOT NULL, " +
+                "pixel_x_size DOUBLE NOT NULL, pixel_y_size DOUBLE NOT NULL, " +
+                "CONSTRAINT pk_ttm PRIMARY KEY (table_name, zoom_level), " +
+                "CONSTRAINT fk_tmm_table_name FOREIGN KEY (table_name) REFERENCES gpkg_contents(table_name))");
+
+            // The spatial reference systems required by the GeoPackage specification, and WGS 84 for tile pyramids.
+            this.database.execSQL("INSERT OR IGNORE INTO gpkg_spatial_ref_sys " +
+                "(srs_name, srs_id, organization, organization_coordsys_id, definition, description) VALUES " +
+                "('Undefined cartesian SRS', -1, 'NONE', -1, 'undefined', 'undefined cartesian coordinate reference system'), " +
+                "('Undefined geographic SRS', 0, 'NONE', 0, 'undefined', 'undefined geographic coordinate reference system')");
+            this.database.execSQL("INSERT OR IGNORE INTO gpkg_spatial_ref_sys " +
+                "(srs_name, srs_id, organization, organization_coordsys_id, definition, description) VALUES " +
+                "('WGS 84 geodetic', 4326, 'EPSG', 4326, ?, 'longitude/latitude coordinates in decimal degrees on the WGS 84 spheroid')",
+                new Object[]{WGS84_DEFINITION});
+
+            this.database.setTransactionSuccessful();
+        } finally {
+            this.database.endTransaction();
+        }
+    }
+
+    protected void unionLevelRange(String tableName, int[] range) {
+        Cursor cursor = null;
+        try {
+            cursor = this.database.rawQuery("SELECT MIN(zoom_level), MAX(zoom_level) FROM gpkg_tile_matrix WHERE table_name=?",
+                new String[]{tableName});
+
+            if (cursor.moveToNext() && !cursor.isNull(0)) {
+                range[0] = Math.min(range[0], cursor.getInt(0));
+                range[1] = Math.max(range[1], cursor.getInt(1));
+            }
+        } finally {
+            WWUtil.closeSilently(cursor);
+        }
+    }
+
+    protected void unionContentSector(String tableName, Sector sector) {
+        Cursor cursor = null;
+        try {
+            cursor = this.database.rawQuery("SELECT min_x, min_y, max_x, max_y FROM gpkg_contents WHERE table_name=?",
+                new String[]{tableName});
+
+            if (cursor.moveToNext() && !cursor.isNull(0)) {
+                double minX = cursor.getDouble(0);
+                double minY = cursor.getDouble(1);
+                double maxX = cursor.getDouble(2);
+                double maxY = cursor.getDouble(3);
+                sector.union(minY, minX, maxY - minY, maxX - minX);
+            }
+        } finally {
+            WWUtil.closeSilently(cursor);
+        }
+    }
+}
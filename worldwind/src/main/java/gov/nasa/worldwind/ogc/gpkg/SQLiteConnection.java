@@ -10,11 +10,18 @@ import android.os.Handler;
 import android.os.Looper;
 import android.os.Message;
 
+import java.util.ArrayList;
 import java.util.concurrent.TimeUnit;
 
 import gov.nasa.worldwind.util.Logger;
 import gov.nasa.worldwind.util.WWUtil;
 
+/**
+ * Manages the SQLite databases used to access a file. A single shared database is available via {@link
+ * #openDatabase()}. A pool of up to a maximum number of additional read-only databases is available via {@link
+ * #acquireReader()}, each of which is used by one thread at a time, so that concurrent reads are not serialized on the
+ * shared database's connection. Databases are closed after the keep alive time elapses without use.
+ */
 public class SQLiteConnection {
 
     protected String pathName;
@@ -27,19 +34,35 @@ public class SQLiteConnection {
 
     protected SQLiteDatabase database;
 
+    protected int maxReaders;
+
+    protected int openReaders;
+
+    protected final ArrayList<SQLiteDatabase> idleReaders = new ArrayList<>();
+
     protected final Object lock = new Object();
 
     protected static final int CONNECTION_TIMEOUT = 1;
 
     public SQLiteConnection(String pathName, int flags, long keepAliveTime, TimeUnit unit) {
+        this(pathName, flags, keepAliveTime, unit, 1);
+    }
+
+    public SQLiteConnection(String pathName, int flags, long keepAliveTime, TimeUnit unit, int maxReaders) {
         if (pathName == null) {
             throw new IllegalArgumentException(
                 Logger.logMessage(Logger.ERROR, "SQLiteConnection", "constructor", "missingPathName"));
         }
 
+        if (maxReaders < 1) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "SQLiteConnection", "constructor", "invalidCount"));
+        }
+
         this.pathName = pathName;
         this.flags = flags;
         this.keepAliveTime = unit.toMillis(keepAliveTime);
+        this.maxReaders = maxReaders;
         this.handler = new Handler(Looper.getMainLooper(), SQLiteConnection.this::handleMessage);
     }
 
@@ -55,6 +78,10 @@ public class SQLiteConnection {
         return this.keepAliveTime;
     }
 
+    public int getMaxReaders() {
+        return this.maxReaders;
+    }
+
     public void setKeepAliveTime(long time, TimeUnit unit) {
         this.keepAliveTime = unit.toMillis(time);
         this.handler.removeMessages(CONNECTION_TIMEOUT);
@@ -78,19 +105,86 @@ public class SQLiteConnection {
         }
     }
 
+    /**
+     * Returns a read-only database from this connection's pool of readers, opening a new one if all open readers are in
+     * use and the pool is below its maximum size. Otherwise this blocks until another thread releases a reader. The
+     * returned database must be returned to the pool by calling {@link #releaseReader(SQLiteDatabase)}, and must not
+     * be closed.
+     *
+     * @return a read-only database used exclusively by the calling thread until it is released
+     */
+    public SQLiteDatabase acquireReader() {
+        synchronized (this.lock) {
+            boolean interrupted = false;
+            while (this.idleReaders.isEmpty() && this.openReaders >= this.maxReaders) {
+                try {
+                    this.lock.wait();
+                } catch (InterruptedException ex) {
+                    interrupted = true; // wait for the reader, then restore the interrupt for the caller to handle
+                }
+            }
+
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+
+            SQLiteDatabase reader;
+            int last = this.idleReaders.size() - 1;
+            if (last >= 0) {
+                reader = this.idleReaders.remove(last);
+            } else {
+                // SQLite databases cache 25 compiled statements by default. Readers repeat a larger set of queries for
+                // each tile table, so retain more of them.
+                reader = SQLiteDatabase.openDatabase(this.pathName, null, this.flags | SQLiteDatabase.OPEN_READONLY);
+                reader.setMaxSqlCacheSize(SQLiteDatabase.MAX_SQL_CACHE_SIZE);
+                this.openReaders++;
+            }
+
+            this.handler.removeMessages(CONNECTION_TIMEOUT);
+            return reader;
+        }
+    }
+
+    /**
+     * Returns a database acquired by {@link #acquireReader()} to this connection's pool of readers.
+     *
+     * @param reader the database to return to the pool
+     */
+    public void releaseReader(SQLiteDatabase reader) {
+        if (reader == null) {
+            return;
+        }
+
+        synchronized (this.lock) {
+            this.idleReaders.add(reader);
+            this.lock.notify();
+            this.handler.removeMessages(CONNECTION_TIMEOUT);
+            this.handler.sendEmptyMessageDelayed(CONNECTION_TIMEOUT, this.keepAliveTime);
+        }
+    }
+
     protected void onConnectionTimeout() {
         synchronized (this.lock) {
-            WWUtil.closeSilently(this.database);
+            if (this.database != null) {
+                WWUtil.closeSilently(this.database);
 
-            Logger.logMessage(Logger.INFO, "SQLiteConnection", "onConnectionTimeout",
-                "SQLite connection keep alive timeout " + this.pathName);
+                Logger.logMessage(Logger.INFO, "SQLiteConnection", "onConnectionTimeout",
+                    "SQLite connection keep alive timeout " + this.pathName);
 
-            if (this.database.isOpen()) {
-                Logger.logMessage(Logger.WARN, "SQLiteConnection", "onConnectionTimeout",
-                    "SQLite connection open after timeout " + this.pathName);
+                if (this.database.isOpen()) {
+                    Logger.logMessage(Logger.WARN, "SQLiteConnection", "onConnectionTimeout",
+                        "SQLite connection open after timeout " + this.pathName);
+                }
+
+                this.database = null;
             }
 
-            this.database = null;
+            // Close the idle readers. Readers in use are closed by the timeout following their release.
+            for (int idx = 0, len = this.idleReaders.size(); idx < len; idx++) {
+                WWUtil.closeSilently(this.idleReaders.get(idx));
+            }
+            this.openReaders -= this.idleReaders.size();
+            this.idleReaders.clear();
         }
     }
 
@@ -63,9 +63,9 @@ public class OwsXmlParser extends XmlModelParser {
     }
 
     protected void registerOws20Models(String namespace) {
-        registerXmlModel(namespace, "Exception", OwsException.class);
+        registerXmlModel(namespace, "Exception", OwsException::new);
         registerTxtModel(namespace, "exceptionCode");
-        registerXmlModel(namespace, "ExceptionReport", OwsExceptionReport.class);
+        registerXmlModel(namespace, "ExceptionReport", OwsExceptionReport::new);
         registerTxtModel(namespace, "ExceptionText");
         registerTxtModel(namespace, "locator");
         registerTxtModel(namespace, "version");
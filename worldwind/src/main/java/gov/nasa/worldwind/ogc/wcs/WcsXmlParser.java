@@ -46,8 +46,8 @@ public class WcsXmlParser extends XmlModelParser {
     }
 
     protected void registerWcs20Models(String namespace) {
-        registerXmlModel(namespace, "CoverageDescriptions", Wcs201CoverageDescriptions.class);
-        registerXmlModel(namespace, "CoverageDescription", Wcs201CoverageDescription.class);
+        registerXmlModel(namespace, "CoverageDescriptions", Wcs201CoverageDescriptions::new);
+        registerXmlModel(namespace, "CoverageDescription", Wcs201CoverageDescription::new);
         registerTxtModel(namespace, "CoverageId");
     }
 }
@@ -19,86 +19,86 @@ public class WmsXmlParser extends XmlModelParser {
         this.registerTxtModel(namespace, "AccessConstraints");
         this.registerTxtModel(namespace, "Address");
         this.registerTxtModel(namespace, "AddressType");
-        this.registerXmlModel(namespace, "Attribution", WmsAttribution.class);
-        this.registerXmlModel(namespace, "AuthorityURL", WmsAuthorityUrl.class);
+        this.registerXmlModel(namespace, "Attribution", WmsAttribution::new);
+        this.registerXmlModel(namespace, "AuthorityURL", WmsAuthorityUrl::new);
 
-        this.registerXmlModel(namespace, "BoundingBox", WmsBoundingBox.class);
+        this.registerXmlModel(namespace, "BoundingBox", WmsBoundingBox::new);
 
-        this.registerXmlModel(namespace, "Capability", WmsCapability.class);
+        this.registerXmlModel(namespace, "Capability", WmsCapability::new);
         this.registerTxtModel(namespace, "City");
-        this.registerXmlModel(namespace, "ContactAddress", WmsAddress.class);
+        this.registerXmlModel(namespace, "ContactAddress", WmsAddress::new);
         this.registerTxtModel(namespace, "ContactElectronicMailAddress");
-        this.registerXmlModel(namespace, "ContactInformation", WmsContactInformation.class);
+        this.registerXmlModel(namespace, "ContactInformation", WmsContactInformation::new);
         this.registerTxtModel(namespace, "ContactOrganization");
         this.registerTxtModel(namespace, "ContactPerson");
-        this.registerXmlModel(namespace, "ContactPersonPrimary", WmsContactPersonPrimary.class);
+        this.registerXmlModel(namespace, "ContactPersonPrimary", WmsContactPersonPrimary::new);
         this.registerTxtModel(namespace, "ContactPosition");
         this.registerTxtModel(namespace, "ContactVoiceTelephone");
         this.registerTxtModel(namespace, "Country");
         this.registerTxtModel(namespace, "CRS");
 
-        this.registerXmlModel(namespace, "DataURL", WmsInfoUrl.class);
-        this.registerXmlModel(namespace, "DCPType", WmsDcpType.class);
-        this.registerXmlModel(namespace, "Dimension", WmsDimension.class);
+        this.registerXmlModel(namespace, "DataURL", WmsInfoUrl::new);
+        this.registerXmlModel(namespace, "DCPType", WmsDcpType::new);
+        this.registerXmlModel(namespace, "Dimension", WmsDimension::new);
 
-        this.registerXmlModel(namespace, "Extent", WmsDimension.class);
-        this.registerXmlModel(namespace, "EX_GeographicBoundingBox", WmsGeographicBoundingBox.class);
+        this.registerXmlModel(namespace, "Extent", WmsDimension::new);
+        this.registerXmlModel(namespace, "EX_GeographicBoundingBox", WmsGeographicBoundingBox::new);
         this.registerTxtModel(namespace, "westBoundLongitude");
         this.registerTxtModel(namespace, "eastBoundLongitude");
         this.registerTxtModel(namespace, "northBoundLatitude");
         this.registerTxtModel(namespace, "southBoundLatitude");
 
-        this.registerXmlModel(namespace, "Exception", WmsException.class);
+        this.registerXmlModel(namespace, "Exception", WmsException::new);
 
-        this.registerXmlModel(namespace, "FeatureListURL", WmsInfoUrl.class);
+        this.registerXmlModel(namespace, "FeatureListURL", WmsInfoUrl::new);
         this.registerTxtModel(namespace, "Fees");
         this.registerTxtModel(namespace, "Format");
 
-        this.registerXmlModel(namespace, "Get", WmsDcpType.WmsDcpHttpProtocol.class);
-        this.registerXmlModel(namespace, "GetCapabilities", WmsRequestOperation.class);
-        this.registerXmlModel(namespace, "GetMap", WmsRequestOperation.class);
-        this.registerXmlModel(namespace, "GetFeatureInfo", WmsRequestOperation.class);
+        this.registerXmlModel(namespace, "Get", WmsDcpType.WmsDcpHttpProtocol::new);
+        this.registerXmlModel(namespace, "GetCapabilities", WmsRequestOperation::new);
+        this.registerXmlModel(namespace, "GetMap", WmsRequestOperation::new);
+        this.registerXmlModel(namespace, "GetFeatureInfo", WmsRequestOperation::new);
 
-        this.registerXmlModel(namespace, "HTTP", WmsDcpType.WmsDcpHttp.class);
+        this.registerXmlModel(namespace, "HTTP", WmsDcpType.WmsDcpHttp::new);
 
-        this.registerXmlModel(namespace, "Identifier", WmsIdentifier.class);
+        this.registerXmlModel(namespace, "Identifier", WmsIdentifier::new);
 
         this.registerTxtModel(namespace, "Keyword");
-        this.registerXmlModel(namespace, "KeywordList", WmsKeywords.class);
+        this.registerXmlModel(namespace, "KeywordList", WmsKeywords::new);
 
-        this.registerXmlModel(namespace, "LatLonBoundingBox", WmsGeographicBoundingBox.class);
-        this.registerXmlModel(namespace, "Layer", WmsLayer.class);
-        this.registerXmlModel(namespace, "LayerInfo", WmsInfoUrl.class);
+        this.registerXmlModel(namespace, "LatLonBoundingBox", WmsGeographicBoundingBox::new);
+        this.registerXmlModel(namespace, "Layer", WmsLayer::new);
+        this.registerXmlModel(namespace, "LayerInfo", WmsInfoUrl::new);
         this.registerTxtModel(namespace, "LayerLimit");
-        this.registerXmlModel(namespace, "LegendURL", WmsLogoUrl.class);
-        this.registerXmlModel(namespace, "LogoURL", WmsLogoUrl.class);
+        this.registerXmlModel(namespace, "LegendURL", WmsLogoUrl::new);
+        this.registerXmlModel(namespace, "LogoURL", WmsLogoUrl::new);
 
         this.registerTxtModel(namespace, "MaxHeight");
         this.registerTxtModel(namespace, "MaxScaleDenominator");
         this.registerTxtModel(namespace, "MaxWidth");
-        this.registerXmlModel(namespace, "MetadataURL", WmsInfoUrl.class);
+        this.registerXmlModel(namespace, "MetadataURL", WmsInfoUrl::new);
         this.registerTxtModel(namespace, "MinScaleDenominator");
 
         this.registerTxtModel(namespace, "Name");
 
-        this.registerXmlModel(namespace, "OnlineResource", WmsOnlineResource.class);
+        this.registerXmlModel(namespace, "OnlineResource", WmsOnlineResource::new);
 
-        this.registerXmlModel(namespace, "Post", WmsDcpType.WmsDcpHttpProtocol.class);
+        this.registerXmlModel(namespace, "Post", WmsDcpType.WmsDcpHttpProtocol::new);
         this.registerTxtModel(namespace, "PostCode");
 
-        this.registerXmlModel(namespace, "Request", WmsRequest.class);
+        this.registerXmlModel(namespace, "Request", WmsRequest::new);
 
-        this.registerXmlModel(namespace, "ScaleHint", WmsScaleHint.class);
-        this.registerXmlModel(namespace, "Service", WmsService.class);
+        this.registerXmlModel(namespace, "ScaleHint", WmsScaleHint::new);
+        this.registerXmlModel(namespace, "Service", WmsService::new);
         this.registerTxtModel(namespace, "SRS");
         this.registerTxtModel(namespace, "StateOrProvince");
-        this.registerXmlModel(namespace, "Style", WmsStyle.class);
-        this.registerXmlModel(namespace, "StyleSheetURL", WmsInfoUrl.class);
-        this.registerXmlModel(namespace, "StyleURL", WmsInfoUrl.class);
+        this.registerXmlModel(namespace, "Style", WmsStyle::new);
+        this.registerXmlModel(namespace, "StyleSheetURL", WmsInfoUrl::new);
+        this.registerXmlModel(namespace, "StyleURL", WmsInfoUrl::new);
 
         this.registerTxtModel(namespace, "Title");
 
-        this.registerXmlModel(namespace, "WMS_Capabilities", WmsCapabilities.class);
-        this.registerXmlModel(namespace, "WMT_MS_Capabilities", WmsCapabilities.class);
+        this.registerXmlModel(namespace, "WMS_Capabilities", WmsCapabilities::new);
+        this.registerXmlModel(namespace, "WMT_MS_Capabilities", WmsCapabilities::new);
     }
 }
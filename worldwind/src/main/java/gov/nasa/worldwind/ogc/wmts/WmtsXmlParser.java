@@ -24,57 +24,57 @@ public class WmtsXmlParser extends XmlModelParser {
 
     protected void registerWmtsXmlModels() {
 
-        this.registerXmlModel(owsNamespace, "Abstract", OwsLanguageString.class);
-        this.registerXmlModel(owsNamespace, "Address", OwsAddress.class);
-        this.registerXmlModel(owsNamespace, "AllowedValues", OwsAllowedValues.class);
+        this.registerXmlModel(owsNamespace, "Abstract", OwsLanguageString::new);
+        this.registerXmlModel(owsNamespace, "Address", OwsAddress::new);
+        this.registerXmlModel(owsNamespace, "AllowedValues", OwsAllowedValues::new);
 
-        this.registerXmlModel(owsNamespace, "BoundingBox", OwsBoundingBox.class);
+        this.registerXmlModel(owsNamespace, "BoundingBox", OwsBoundingBox::new);
 
-        this.registerXmlModel(wmtsNamespace, "Capabilities", WmtsCapabilities.class);
-        this.registerXmlModel(owsNamespace, "Constraint", OwsConstraint.class);
-        this.registerXmlModel(owsNamespace, "ContactInfo", OwsContactInfo.class);
-        this.registerXmlModel(wmtsNamespace, "Contents", WmtsContents.class);
+        this.registerXmlModel(wmtsNamespace, "Capabilities", WmtsCapabilities::new);
+        this.registerXmlModel(owsNamespace, "Constraint", OwsConstraint::new);
+        this.registerXmlModel(owsNamespace, "ContactInfo", OwsContactInfo::new);
+        this.registerXmlModel(wmtsNamespace, "Contents", WmtsContents::new);
 
-        this.registerXmlModel(owsNamespace, "DCP", OwsDcp.class);
-        this.registerXmlModel(wmtsNamespace, "Dimension", WmtsDimension.class);
+        this.registerXmlModel(owsNamespace, "DCP", OwsDcp::new);
+        this.registerXmlModel(wmtsNamespace, "Dimension", WmtsDimension::new);
 
-        this.registerXmlModel(owsNamespace, "Get", OwsHttpMethod.class);
+        this.registerXmlModel(owsNamespace, "Get", OwsHttpMethod::new);
 
-        this.registerXmlModel(owsNamespace, "HTTP", OwsHttp.class);
+        this.registerXmlModel(owsNamespace, "HTTP", OwsHttp::new);
 
-        this.registerXmlModel(owsNamespace, "Keyword", OwsLanguageString.class);
-        this.registerXmlModel(owsNamespace, "Keywords", OwsKeywords.class);
+        this.registerXmlModel(owsNamespace, "Keyword", OwsLanguageString::new);
+        this.registerXmlModel(owsNamespace, "Keywords", OwsKeywords::new);
 
-        this.registerXmlModel(wmtsNamespace, "Layer", WmtsLayer.class);
-        this.registerXmlModel(wmtsNamespace, "LegendURL", WmtsElementLink.class);
+        this.registerXmlModel(wmtsNamespace, "Layer", WmtsLayer::new);
+        this.registerXmlModel(wmtsNamespace, "LegendURL", WmtsElementLink::new);
 
-        this.registerXmlModel(owsNamespace, "Metadata", WmtsElementLink.class);
+        this.registerXmlModel(owsNamespace, "Metadata", WmtsElementLink::new);
 
-        this.registerXmlModel(owsNamespace, "Operation", OwsOperation.class);
-        this.registerXmlModel(owsNamespace, "OperationsMetadata", OwsOperationsMetadata.class);
+        this.registerXmlModel(owsNamespace, "Operation", OwsOperation::new);
+        this.registerXmlModel(owsNamespace, "OperationsMetadata", OwsOperationsMetadata::new);
 
-        this.registerXmlModel(owsNamespace, "Phone", OwsPhone.class);
-        this.registerXmlModel(owsNamespace, "Post", OwsHttpMethod.class);
-        this.registerXmlModel(owsNamespace, "ProviderSite", WmtsElementLink.class);
+        this.registerXmlModel(owsNamespace, "Phone", OwsPhone::new);
+        this.registerXmlModel(owsNamespace, "Post", OwsHttpMethod::new);
+        this.registerXmlModel(owsNamespace, "ProviderSite", WmtsElementLink::new);
 
-        this.registerXmlModel(wmtsNamespace, "ResourceURL", WmtsResourceUrl.class);
+        this.registerXmlModel(wmtsNamespace, "ResourceURL", WmtsResourceUrl::new);
 
-        this.registerXmlModel(owsNamespace, "ServiceContact", OwsServiceContact.class);
-        this.registerXmlModel(owsNamespace, "ServiceIdentification", OwsServiceIdentification.class);
-        this.registerXmlModel(wmtsNamespace, "ServiceMetadataURL", WmtsElementLink.class);
-        this.registerXmlModel(owsNamespace, "ServiceProvider", OwsServiceProvider.class);
-        this.registerXmlModel(wmtsNamespace, "Style", WmtsStyle.class);
+        this.registerXmlModel(owsNamespace, "ServiceContact", OwsServiceContact::new);
+        this.registerXmlModel(owsNamespace, "ServiceIdentification", OwsServiceIdentification::new);
+        this.registerXmlModel(wmtsNamespace, "ServiceMetadataURL", WmtsElementLink::new);
+        this.registerXmlModel(owsNamespace, "ServiceProvider", OwsServiceProvider::new);
+        this.registerXmlModel(wmtsNamespace, "Style", WmtsStyle::new);
 
-        this.registerXmlModel(wmtsNamespace, "Theme", WmtsTheme.class);
-        this.registerXmlModel(wmtsNamespace, "Themes", WmtsThemes.class);
-        this.registerXmlModel(wmtsNamespace, "TileMatrix", WmtsTileMatrix.class);
-        this.registerXmlModel(wmtsNamespace, "TileMatrixLimits", WmtsTileMatrixLimits.class);
-        this.registerXmlModel(wmtsNamespace, "TileMatrixSet", WmtsTileMatrixSet.class);
-        this.registerXmlModel(wmtsNamespace, "TileMatrixSetLimits", WmtsTileMatrixSetLimits.class);
-        this.registerXmlModel(wmtsNamespace, "TileMatrixSetLink", WmtsTileMatrixSetLink.class);
-        this.registerXmlModel(owsNamespace, "Title", OwsLanguageString.class);
+        this.registerXmlModel(wmtsNamespace, "Theme", WmtsTheme::new);
+        this.registerXmlModel(wmtsNamespace, "Themes", WmtsThemes::new);
+        this.registerXmlModel(wmtsNamespace, "TileMatrix", WmtsTileMatrix::new);
+        this.registerXmlModel(wmtsNamespace, "TileMatrixLimits", WmtsTileMatrixLimits::new);
+        this.registerXmlModel(wmtsNamespace, "TileMatrixSet", WmtsTileMatrixSet::new);
+        this.registerXmlModel(wmtsNamespace, "TileMatrixSetLimits", WmtsTileMatrixSetLimits::new);
+        this.registerXmlModel(wmtsNamespace, "TileMatrixSetLink", WmtsTileMatrixSetLink::new);
+        this.registerXmlModel(owsNamespace, "Title", OwsLanguageString::new);
 
-        this.registerXmlModel(owsNamespace, "WGS84BoundingBox", OwsWgs84BoundingBox.class);
+        this.registerXmlModel(owsNamespace, "WGS84BoundingBox", OwsWgs84BoundingBox::new);
     }
 
     protected void registerWmtsTextModels() {
@@ -13,6 +13,7 @@ import java.nio.Buffer;
 import gov.nasa.worldwind.draw.DrawContext;
 import gov.nasa.worldwind.geom.Range;
 import gov.nasa.worldwind.util.Logger;
+import gov.nasa.worldwind.util.Pool;
 
 public class BufferObject implements RenderResource {
 
@@ -26,6 +27,12 @@ public class BufferObject implements RenderResource {
 
     protected Buffer buffer;
 
+    protected Pool<Buffer> bufferPool;
+
+    protected boolean recyclable;
+
+    protected int bufferObjectByteCount;
+
     public final SparseArray<Range> ranges = new SparseArray<>();
 
     public BufferObject(int target, int size, Buffer buffer) {
@@ -47,16 +54,91 @@ public class BufferObject implements RenderResource {
         return this.bufferByteCount;
     }
 
+    /**
+     * Returns the pool that receives this buffer object's NIO buffers after their contents are loaded into OpenGL.
+     *
+     * @return the NIO buffer pool, or null if NIO buffers are not recycled
+     */
+    public Pool<Buffer> getBufferPool() {
+        return this.bufferPool;
+    }
+
+    /**
+     * Sets the pool that receives this buffer object's NIO buffers after their contents are loaded into OpenGL, or
+     * after they are replaced by a call to {@link #setBuffer(Buffer)} before being loaded. Buffer objects are bound on
+     * the OpenGL thread, so the pool must be thread safe when buffers are acquired from it on another thread.
+     *
+     * @param pool the NIO buffer pool, or null to discard NIO buffers after their contents are loaded
+     */
+    public void setBufferPool(Pool<Buffer> pool) {
+        this.bufferPool = pool;
+    }
+
+    /**
+     * Indicates whether this buffer object's OpenGL buffer is recycled via the draw context when this buffer object is
+     * released, rather than deleted.
+     *
+     * @return true if the OpenGL buffer is recycled, otherwise false
+     */
+    public boolean isRecyclable() {
+        return this.recyclable;
+    }
+
+    /**
+     * Sets whether this buffer object's OpenGL buffer is recycled via the draw context when this buffer object is
+     * released, rather than deleted. Recycled OpenGL buffers are reused by subsequent recyclable buffer objects of the
+     * same size, avoiding the cost of allocating new OpenGL storage. See {@link DrawContext#obtainBufferObject(int)}.
+     *
+     * @param recyclable true to recycle the OpenGL buffer, false to delete it
+     */
+    public void setRecyclable(boolean recyclable) {
+        this.recyclable = recyclable;
+    }
+
+    /**
+     * Replaces this buffer object's data with the contents of the specified NIO buffer. The new data is loaded the next
+     * time this buffer object is bound, reusing the existing OpenGL buffer's storage when it has already been created.
+     * The buffer must contain the same number of bytes this buffer object was created with.
+     * <p>
+     * This may be called on a thread other than the OpenGL thread. The caller must not modify the buffer after passing
+     * it to this method. NIO buffers that are superseded before they're loaded are released to the buffer pool.
+     *
+     * @param buffer the buffer object's new data
+     *
+     * @throws IllegalArgumentException If the buffer is null
+     */
+    public void setBuffer(Buffer buffer) {
+        if (buffer == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "BufferObject", "setBuffer", "missingBuffer"));
+        }
+
+        Buffer oldBuffer;
+        synchronized (this) {
+            oldBuffer = this.buffer;
+            this.buffer = buffer;
+        }
+
+        this.recycleBuffer(oldBuffer);
+    }
+
     @Override
     public void release(DrawContext dc) {
-        this.deleteBufferObject(dc);
-        this.buffer = null; // buffer can be non-null if the object has not been bound
+        if (this.recyclable && this.bufferObjectByteCount == this.bufferByteCount) {
+            this.recycleBufferObject(dc);
+        } else {
+            this.deleteBufferObject(dc);
+        }
+
+        this.recycleBuffer(this.takeBuffer()); // buffer can be non-null if the object has not been bound
     }
 
     public boolean bindBuffer(DrawContext dc) {
-        if (this.buffer != null) {
-            this.loadBuffer(dc);
-            this.buffer = null;
+        Buffer buffer = this.takeBuffer();
+        if (buffer != null) {
+            this.loadBuffer(dc, buffer);
+            this.recycleBuffer(buffer);
+            dc.chargeUpload(this.bufferByteCount); // vertex data is never deferred, and doesn't count against texture uploads
         }
 
         if (this.bufferId[0] != 0) {
@@ -66,7 +148,19 @@ public class BufferObject implements RenderResource {
         return this.bufferId[0] != 0;
     }
 
-    protected void loadBuffer(DrawContext dc) {
+    protected synchronized Buffer takeBuffer() {
+        Buffer buffer = this.buffer;
+        this.buffer = null;
+        return buffer;
+    }
+
+    protected void recycleBuffer(Buffer buffer) {
+        if (buffer != null && this.bufferPool != null) {
+            this.bufferPool.release(buffer);
+        }
+    }
+
+    protected void loadBuffer(DrawContext dc, Buffer buffer) {
         int currentBuffer = dc.currentBuffer(this.bufferTarget);
 
         try {
@@ -79,7 +173,7 @@ public class BufferObject implements RenderResource {
             // Make the OpenGL buffer object bound to the specified target.
             dc.bindBuffer(this.bufferTarget, this.bufferId[0]);
             // Load the current NIO buffer as the OpenGL buffer object's data.
-            this.loadBufferObjectData(dc);
+            this.loadBufferObjectData(dc, buffer);
 
         } catch (Exception e) {
 
@@ -96,6 +190,14 @@ public class BufferObject implements RenderResource {
     }
 
     protected void createBufferObject(DrawContext dc) {
+        if (this.recyclable) {
+            this.bufferId[0] = dc.obtainBufferObject(this.bufferByteCount);
+            if (this.bufferId[0] != 0) {
+                this.bufferObjectByteCount = this.bufferByteCount;
+                return;
+            }
+        }
+
         GLES20.glGenBuffers(1, this.bufferId, 0);
     }
 
@@ -103,10 +205,25 @@ public class BufferObject implements RenderResource {
         if (this.bufferId[0] != 0) {
             GLES20.glDeleteBuffers(1, this.bufferId, 0);
             this.bufferId[0] = 0;
+            this.bufferObjectByteCount = 0;
+        }
+    }
+
+    protected void recycleBufferObject(DrawContext dc) {
+        if (this.bufferId[0] != 0) {
+            dc.recycleBufferObject(this.bufferObjectByteCount, this.bufferId[0]);
+            this.bufferId[0] = 0;
+            this.bufferObjectByteCount = 0;
         }
     }
 
-    protected void loadBufferObjectData(DrawContext dc) {
-        GLES20.glBufferData(this.bufferTarget, this.bufferByteCount, this.buffer, GLES20.GL_STATIC_DRAW);
+    protected void loadBufferObjectData(DrawContext dc, Buffer buffer) {
+        if (this.bufferObjectByteCount == this.bufferByteCount) {
+            // Replace the contents of the existing data store, avoiding the cost of allocating new OpenGL storage.
+            GLES20.glBufferSubData(this.bufferTarget, 0, this.bufferByteCount, buffer);
+        } else {
+            GLES20.glBufferData(this.bufferTarget, this.bufferByteCount, buffer, GLES20.GL_STATIC_DRAW);
+            this.bufferObjectByteCount = this.bufferByteCount;
+        }
     }
 }
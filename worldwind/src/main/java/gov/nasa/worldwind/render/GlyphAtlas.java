@@ -0,0 +1,651 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.render;
+
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+import android.opengl.GLES20;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import gov.nasa.worldwind.draw.DrawContext;
+
+/**
+ * Caches rendered glyphs in a few large textures shared by all text, so that text is drawn as quads over shared glyphs
+ * rather than as one texture per string. Changing a string then means computing a new set of quads instead of rendering
+ * and uploading a new bitmap. Glyphs are rendered on the render thread by a {@link TextRenderer} the first time they
+ * are needed, and are uploaded to their page's texture the next time the OpenGL thread binds that texture.
+ * <p>
+ * Glyphs are rendered in white and drawn with the text color as the vertex color, so a glyph is shared by text of any
+ * color. Text is laid out one glyph after another using the advances computed by the text renderer. Characters that
+ * require contextual shaping or combine with neighbouring characters cannot be drawn glyph by glyph; callers test for
+ * this with {@link #canLayoutText(String)} and render such text as a single texture instead.
+ * <p>
+ * Page textures are kept in the render resource cache. When any page is evicted from the cache or the OpenGL context is
+ * lost, the atlas discards its contents and increments its generation, invalidating every {@link TextLayout} computed
+ * before that point. The atlas does the same when its pages are full. GlyphAtlas is used exclusively on the render
+ * thread, and is owned by the {@link RenderContext}.
+ */
+public class GlyphAtlas {
+
+    protected static final int DEFAULT_PAGE_SIZE = 1024;
+
+    protected static final int DEFAULT_MAX_PAGES = 4;
+
+    /**
+     * Number of texels separating adjacent glyphs in a page.
+     */
+    protected static final int GLYPH_SPACING = 1;
+
+    protected final int pageSize;
+
+    protected final int maxPages;
+
+    protected final ArrayList<Page> pages = new ArrayList<>();
+
+    protected final HashMap<GlyphKey, Glyph> glyphs = new HashMap<>();
+
+    protected int generation;
+
+    private final GlyphKey scratchKey = new GlyphKey();
+
+    private final Rect scratchBounds = new Rect();
+
+    private float[] scratchWidths = new float[32];
+
+    private int[] scratchPixels = new int[1024];
+
+    public GlyphAtlas() {
+        this(DEFAULT_PAGE_SIZE, DEFAULT_MAX_PAGES);
+    }
+
+    public GlyphAtlas(int pageSize, int maxPages) {
+        this.pageSize = pageSize;
+        this.maxPages = maxPages;
+    }
+
+    /**
+     * Indicates whether the specified text can be drawn glyph by glyph. This is the case when every character in the
+     * text belongs to a script whose glyphs are positioned independently of one another, such as Latin, Greek and
+     * Cyrillic, or is a common punctuation mark or symbol.
+     *
+     * @param text the text to test
+     *
+     * @return true if the text can be laid out by the glyph atlas, otherwise false
+     */
+    public static boolean canLayoutText(String text) {
+        if (text == null || text.length() == 0) {
+            return false;
+        }
+
+        for (int idx = 0, len = text.length(); idx < len; idx++) {
+            char c = text.charAt(idx);
+            if (c < 0x0020 || (c >= 0x0300 && c < 0x0370) || (c >= 0x0483 && c < 0x048A)) {
+                return false; // control characters, combining diacritical marks and Cyrillic combining marks
+            } else if (c < 0x0590) {
+                continue; // Latin, Greek, Cyrillic and Armenian
+            } else if (c >= 0x2000 && c < 0x2070) {
+                return false; // general punctuation, which includes spaces, joiners and bidirectional controls
+            } else if (c >= 0x20D0 && c < 0x2100) {
+                return false; // combining marks for symbols
+            } else if (c >= 0x1E00 && c < 0x2C00) {
+                continue; // extended Latin and Greek, currency symbols, letterlike symbols and arrows
+            } else {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the number of times this atlas has discarded its contents. Layouts whose generation differs from this
+     * number refer to glyphs that are no longer in the atlas.
+     *
+     * @return the atlas generation
+     */
+    public int getGeneration() {
+        return this.generation;
+    }
+
+    /**
+     * Confirms that the atlas page textures are still in the render resource cache, discarding the atlas contents when
+     * any page has been evicted or released. This must be called once per frame before any text is laid out.
+     *
+     * @param rc the current render context
+     */
+    public void validate(RenderContext rc) {
+        for (int idx = 0, len = this.pages.size(); idx < len; idx++) {
+            Page page = this.pages.get(idx);
+            if (rc.renderResourceCache.get(page.texture) == null) {
+                this.pages.clear(); // the page's texture is gone; start over with new pages
+                this.clear();
+                break;
+            }
+        }
+    }
+
+    /**
+     * Discards the contents of this atlas, keeping its pages for reuse.
+     */
+    public void clear() {
+        this.glyphs.clear();
+        this.generation++;
+
+        for (int idx = 0, len = this.pages.size(); idx < len; idx++) {
+            Page page = this.pages.get(idx);
+            page.shelfX = 0;
+            page.shelfY = 0;
+            page.shelfHeight = 0;
+        }
+    }
+
+    /**
+     * Computes the glyph quads for a string, rendering and adding missing glyphs to the atlas. The text renderer must
+     * be configured with the text's size, typeface and outline width. When outline is enabled the layout contains an
+     * outline quad for each visible glyph followed by a fill quad for each visible glyph; outline quads are drawn first
+     * so that outlines never cover neighbouring glyphs.
+     *
+     * @param rc       the current render context
+     * @param renderer the text renderer used to measure text and to render missing glyphs
+     * @param text     the text to lay out, which must satisfy {@link #canLayoutText(String)}
+     * @param outline  true to include outline quads, otherwise false
+     * @param result   the layout in which to return the glyph quads
+     *
+     * @return the result layout
+     */
+    public TextLayout layoutText(RenderContext rc, TextRenderer renderer, String text, boolean outline, TextLayout result) {
+        if (!this.layoutGlyphs(rc, renderer, text, outline, result)) {
+            this.layoutGlyphs(rc, renderer, text, outline, result); // the atlas discarded its contents; start over
+        }
+
+        return result;
+    }
+
+    protected boolean layoutGlyphs(RenderContext rc, TextRenderer renderer, String text, boolean outline, TextLayout result) {
+        int len = text.length();
+        if (this.scratchWidths.length < len) {
+            this.scratchWidths = new float[len];
+        }
+
+        float[] widths = renderer.getTextWidths(text, this.scratchWidths);
+        Typeface typeface = renderer.getTypeface();
+        float textSize = renderer.getTextSize();
+        float outlineWidth = outline ? renderer.getOutlineWidth() : 0;
+
+        // Ensure every glyph the layout refers to is in the atlas. Stop when the atlas discards its contents part way
+        // through, as the glyphs already laid out refer to discarded regions.
+        int generation = this.generation;
+        result.reset(text);
+        result.textSize = textSize;
+        result.typeface = typeface;
+        result.outline = outline;
+        result.outlineWidth = outlineWidth;
+        for (int pass = (outline ? 0 : 1); pass < 2; pass++) {
+            float penX = 0;
+            for (int idx = 0; idx < len; idx++) {
+                char c = text.charAt(idx);
+                Glyph glyph = this.getGlyph(rc, renderer, c, typeface, textSize, pass == 0 ? outlineWidth : 0);
+                if (this.generation != generation) {
+                    return false;
+                }
+
+                if (glyph != null) {
+                    result.addQuad(glyph, penX);
+                }
+
+                penX += widths[idx];
+            }
+
+            if (pass == 0) {
+                result.outlineQuadCount = result.quadCount;
+            }
+        }
+
+        result.finish(generation);
+        return true;
+    }
+
+    protected Glyph getGlyph(RenderContext rc, TextRenderer renderer, char c, Typeface typeface, float textSize,
+                             float outlineWidth) {
+        Glyph glyph = this.glyphs.get(this.scratchKey.set(c, typeface, textSize, outlineWidth));
+        if (glyph != null || this.glyphs.containsKey(this.scratchKey)) {
+            return glyph; // glyph found; whitespace glyphs map to null
+        }
+
+        GlyphKey key = new GlyphKey().set(c, typeface, textSize, outlineWidth);
+        Bitmap bitmap = renderer.renderGlyph(String.valueOf(c), outlineWidth != 0, this.scratchBounds);
+        if (bitmap != null) {
+            glyph = this.addGlyph(rc, bitmap, this.scratchBounds);
+        }
+
+        this.glyphs.put(key, glyph);
+        return glyph;
+    }
+
+    protected Glyph addGlyph(RenderContext rc, Bitmap bitmap, Rect bounds) {
+        int width = bounds.width();
+        int height = bounds.height();
+        if (width > this.pageSize || height > this.pageSize) {
+            return null; // the glyph is too large for the atlas
+        }
+
+        // Find space for the glyph, discarding the atlas contents when every page is full.
+        Page page = this.allocateRegion(rc, width, height);
+        if (page == null) {
+            this.clear();
+            if ((page = this.allocateRegion(rc, width, height)) == null) {
+                return null;
+            }
+        }
+
+        // Copy the glyph out of the text renderer's reused bitmap. The glyph is white, so each texel's premultiplied
+        // color components equal its alpha.
+        int texelCount = width * height;
+        if (this.scratchPixels.length < texelCount) {
+            this.scratchPixels = new int[texelCount];
+        }
+        bitmap.getPixels(this.scratchPixels, 0, width, 0, 0, width, height);
+
+        int x = page.shelfX - width - GLYPH_SPACING;
+        int y = page.shelfY;
+        page.texture.addSubImage(this.scratchPixels, x, y, width, height);
+
+        // Express the glyph's extent with y increasing upward from the baseline. The bitmap's top row is at the
+        // region's minimum T coordinate.
+        Glyph glyph = new Glyph(page.texture);
+        glyph.left = bounds.left;
+        glyph.bottom = -bounds.bottom;
+        glyph.width = width;
+        glyph.height = height;
+        glyph.minS = (float) x / this.pageSize;
+        glyph.maxS = (float) (x + width) / this.pageSize;
+        glyph.topT = (float) y / this.pageSize;
+        glyph.bottomT = (float) (y + height) / this.pageSize;
+
+        return glyph;
+    }
+
+    protected Page allocateRegion(RenderContext rc, int width, int height) {
+        int paddedWidth = width + GLYPH_SPACING;
+        int paddedHeight = height + GLYPH_SPACING;
+
+        for (int idx = 0, len = this.pages.size(); idx < len; idx++) {
+            Page page = this.pages.get(idx);
+            if (page.allocate(paddedWidth, paddedHeight, this.pageSize)) {
+                return page;
+            }
+        }
+
+        if (this.pages.size() < this.maxPages) {
+            PageTexture texture = new PageTexture(this.pageSize);
+            texture.setTexParameter(GLES20.GL_TEXTURE_MIN_FILTER, GLES20.GL_LINEAR);
+            rc.renderResourceCache.put(texture, texture, texture.getByteCount());
+            Page page = new Page(texture);
+            this.pages.add(page);
+
+            if (page.allocate(paddedWidth, paddedHeight, this.pageSize)) {
+                return page;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * A glyph's region in an atlas page and the glyph's extent relative to its origin on the baseline.
+     */
+    public static class Glyph {
+
+        public final Texture page;
+
+        public float left;
+
+        public float bottom;
+
+        public float width;
+
+        public float height;
+
+        public float minS;
+
+        public float maxS;
+
+        public float topT;
+
+        public float bottomT;
+
+        public Glyph(Texture page) {
+            this.page = page;
+        }
+    }
+
+    /**
+     * The glyph quads of a string, expressed in a coordinate system whose origin is at the bottom-left corner of the
+     * string's bounding rectangle, with y increasing upward. Each quad is stored as its minimum and maximum x and y
+     * followed by its minimum S, maximum S, top T and bottom T coordinates.
+     */
+    public static class TextLayout {
+
+        public static final int QUAD_STRIDE = 8;
+
+        public String text;
+
+        public float textSize;
+
+        public Typeface typeface;
+
+        public boolean outline;
+
+        public float outlineWidth;
+
+        public float[] quads = new float[QUAD_STRIDE * 16];
+
+        public Texture[] pages = new Texture[16];
+
+        public int quadCount;
+
+        public int outlineQuadCount;
+
+        public float width;
+
+        public float height;
+
+        public int generation = -1;
+
+        /**
+         * Indicates whether this layout was computed for the specified text and font, and refers to glyphs that are
+         * still in an atlas with the specified generation.
+         *
+         * @param text         the text to compare
+         * @param textSize     the text size to compare
+         * @param typeface     the typeface to compare
+         * @param outline      true if the layout must include outline quads, otherwise false
+         * @param outlineWidth the outline width to compare when outline is true
+         * @param generation   the current atlas generation
+         *
+         * @return true if this layout can be used to draw the text, otherwise false
+         */
+        public boolean matches(String text, float textSize, Typeface typeface, boolean outline, float outlineWidth,
+                               int generation) {
+            return this.generation == generation
+                && this.textSize == textSize
+                && this.outline == outline
+                && (!outline || this.outlineWidth == outlineWidth)
+                && (this.typeface == null ? typeface == null : this.typeface.equals(typeface))
+                && (this.text != null && this.text.equals(text));
+        }
+
+        public void reset(String text) {
+            this.text = text;
+            this.quadCount = 0;
+            this.outlineQuadCount = 0;
+            this.width = 0;
+            this.height = 0;
+            this.generation = -1;
+        }
+
+        protected void addQuad(Glyph glyph, float penX) {
+            if (this.pages.length <= this.quadCount) {
+                int capacity = this.pages.length * 2;
+                float[] newQuads = new float[QUAD_STRIDE * capacity];
+                System.arraycopy(this.quads, 0, newQuads, 0, this.quads.length);
+                Texture[] newPages = new Texture[capacity];
+                System.arraycopy(this.pages, 0, newPages, 0, this.pages.length);
+                this.quads = newQuads;
+                this.pages = newPages;
+            }
+
+            int offset = this.quadCount * QUAD_STRIDE;
+            this.quads[offset] = penX + glyph.left;
+            this.quads[offset + 1] = glyph.bottom;
+            this.quads[offset + 2] = penX + glyph.left + glyph.width;
+            this.quads[offset + 3] = glyph.bottom + glyph.height;
+            this.quads[offset + 4] = glyph.minS;
+            this.quads[offset + 5] = glyph.maxS;
+            this.quads[offset + 6] = glyph.topT;
+            this.quads[offset + 7] = glyph.bottomT;
+            this.pages[this.quadCount++] = glyph.page;
+        }
+
+        protected void finish(int generation) {
+            this.generation = generation;
+            if (this.quadCount == 0) {
+                return;
+            }
+
+            // Compute the bounding rectangle of the quads, then translate the quads so its origin is at the bottom-left
+            // corner of that rectangle.
+            float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+            float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+            for (int idx = 0, len = this.quadCount * QUAD_STRIDE; idx < len; idx += QUAD_STRIDE) {
+                minX = Math.min(minX, this.quads[idx]);
+                minY = Math.min(minY, this.quads[idx + 1]);
+                maxX = Math.max(maxX, this.quads[idx + 2]);
+                maxY = Math.max(maxY, this.quads[idx + 3]);
+            }
+
+            for (int idx = 0, len = this.quadCount * QUAD_STRIDE; idx < len; idx += QUAD_STRIDE) {
+                this.quads[idx] -= minX;
+                this.quads[idx + 1] -= minY;
+                this.quads[idx + 2] -= minX;
+                this.quads[idx + 3] -= minY;
+            }
+
+            this.width = maxX - minX;
+            this.height = maxY - minY;
+        }
+    }
+
+    /**
+     * An atlas page texture that accepts glyph pixels on the render thread and uploads them on the OpenGL thread the
+     * next time the texture is bound. Pending glyphs share a single RGBA pixel buffer that is reused once uploaded.
+     */
+    protected static class PageTexture extends Texture {
+
+        protected static final int INITIAL_PENDING_BYTES = 1024 * 64;
+
+        protected final ArrayList<SubImage> pendingImages = new ArrayList<>();
+
+        protected ByteBuffer pendingPixels;
+
+        public PageTexture(int size) {
+            super(size, size, GLES20.GL_RGBA, GLES20.GL_UNSIGNED_BYTE);
+        }
+
+        /**
+         * Adds a white glyph's pixels to the page. Only the alpha of each ARGB pixel is used.
+         */
+        public void addSubImage(int[] pixels, int x, int y, int width, int height) {
+            synchronized (this.pendingImages) {
+                int texelCount = width * height;
+                this.ensurePendingCapacity(texelCount * 4);
+                this.pendingImages.add(new SubImage(this.pendingPixels.position(), x, y, width, height));
+
+                for (int idx = 0; idx < texelCount; idx++) {
+                    byte alpha = (byte) (pixels[idx] >>> 24);
+                    this.pendingPixels.put(alpha).put(alpha).put(alpha).put(alpha); // premultiplied white
+                }
+            }
+        }
+
+        protected void ensurePendingCapacity(int byteCount) {
+            if (this.pendingPixels == null) {
+                this.pendingPixels = ByteBuffer.allocateDirect(Math.max(byteCount, INITIAL_PENDING_BYTES)).order(ByteOrder.nativeOrder());
+            } else if (this.pendingPixels.remaining() < byteCount) {
+                int capacity = Math.max(this.pendingPixels.capacity() * 2, this.pendingPixels.position() + byteCount);
+                ByteBuffer newPixels = ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+                this.pendingPixels.flip();
+                newPixels.put(this.pendingPixels);
+                this.pendingPixels = newPixels;
+            }
+        }
+
+        @Override
+        public boolean bindTexture(DrawContext dc) {
+            if (!super.bindTexture(dc)) {
+                return false;
+            }
+
+            synchronized (this.pendingImages) {
+                for (int idx = 0, len = this.pendingImages.size(); idx < len; idx++) {
+                    SubImage image = this.pendingImages.get(idx);
+                    this.pendingPixels.position(image.offset);
+                    GLES20.glTexSubImage2D(GLES20.GL_TEXTURE_2D, 0 /*level*/, image.x, image.y, image.width, image.height,
+                        GLES20.GL_RGBA, GLES20.GL_UNSIGNED_BYTE, this.pendingPixels);
+                }
+                this.clearPendingImages();
+            }
+
+            return true;
+        }
+
+        protected void clearPendingImages() {
+            this.pendingImages.clear();
+            if (this.pendingPixels != null) {
+                this.pendingPixels.clear(); // reuse the pixel buffer for subsequent glyphs
+            }
+        }
+
+        @Override
+        protected void allocTexImage(DrawContext dc) {
+            // Allocate the page's texture memory, then clear it so that texels between glyphs are transparent. The
+            // contents of newly allocated texture memory are undefined on some devices.
+            super.allocTexImage(dc);
+
+            Framebuffer framebuffer = dc.textureFramebuffer();
+            if (framebuffer.attachTexture(dc, this, GLES20.GL_COLOR_ATTACHMENT0)) {
+                try {
+                    if (framebuffer.bindFramebuffer(dc)) {
+                        GLES20.glClear(GLES20.GL_COLOR_BUFFER_BIT);
+                    }
+                } finally {
+                    // Restore the default framebuffer, and the binding createTexture expects while it configures this
+                    // texture's parameters.
+                    dc.bindFramebuffer(0);
+                    GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, this.textureName[0]);
+                }
+            }
+        }
+
+        @Override
+        public void release(DrawContext dc) {
+            super.release(dc);
+
+            synchronized (this.pendingImages) {
+                this.clearPendingImages();
+            }
+        }
+    }
+
+    /**
+     * A glyph's pending pixels, stored at an offset in its page's pending pixel buffer.
+     */
+    protected static class SubImage {
+
+        public final int offset;
+
+        public final int x;
+
+        public final int y;
+
+        public final int width;
+
+        public final int height;
+
+        public SubImage(int offset, int x, int y, int width, int height) {
+            this.offset = offset;
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    protected static class Page {
+
+        public final PageTexture texture;
+
+        public int shelfX;
+
+        public int shelfY;
+
+        public int shelfHeight;
+
+        public Page(PageTexture texture) {
+            this.texture = texture;
+        }
+
+        /**
+         * Reserves a padded rectangle on the current shelf, or on a new shelf below it. On success the rectangle ends
+         * at shelfX on the shelf starting at shelfY.
+         */
+        public boolean allocate(int width, int height, int pageSize) {
+            if (this.shelfX + width <= pageSize && this.shelfY + height <= pageSize) {
+                this.shelfX += width; // the rectangle fits on the current shelf
+                this.shelfHeight = Math.max(this.shelfHeight, height);
+                return true;
+            }
+
+            int nextShelfY = this.shelfY + this.shelfHeight;
+            if (width <= pageSize && nextShelfY + height <= pageSize) {
+                this.shelfX = width; // start a new shelf below the current shelf
+                this.shelfY = nextShelfY;
+                this.shelfHeight = height;
+                return true;
+            }
+
+            return false; // no space left on this page
+        }
+    }
+
+    protected static class GlyphKey {
+
+        public char character;
+
+        public Typeface typeface;
+
+        public float textSize;
+
+        public float outlineWidth;
+
+        public GlyphKey set(char character, Typeface typeface, float textSize, float outlineWidth) {
+            this.character = character;
+            this.typeface = typeface;
+            this.textSize = textSize;
+            this.outlineWidth = outlineWidth;
+            return this;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            } else if (o == null || this.getClass() != o.getClass()) {
+                return false;
+            }
+
+            GlyphKey that = (GlyphKey) o;
+            return this.character == that.character
+                && (this.typeface == null ? that.typeface == null : this.typeface.equals(that.typeface))
+                && this.textSize == that.textSize
+                && this.outlineWidth == that.outlineWidth;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = this.character;
+            result = 31 * result + (this.typeface != null ? this.typeface.hashCode() : 0);
+            result = 31 * result + Float.floatToIntBits(this.textSize);
+            result = 31 * result + Float.floatToIntBits(this.outlineWidth);
+            return result;
+        }
+    }
+}
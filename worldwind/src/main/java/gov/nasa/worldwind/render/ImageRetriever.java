@@ -10,12 +10,14 @@ import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
 
 import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.net.URLConnection;
 
 import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.util.DiskCache;
 import gov.nasa.worldwind.util.Logger;
 import gov.nasa.worldwind.util.Retriever;
 import gov.nasa.worldwind.util.WWUtil;
@@ -24,6 +26,8 @@ public class ImageRetriever extends Retriever<ImageSource, ImageOptions, Bitmap>
 
     protected Resources resources;
 
+    protected static final int PAGE_SIZE = 1024 * 16;
+
     public ImageRetriever(int maxSimultaneousRetrievals) {
         super(maxSimultaneousRetrievals);
     }
@@ -89,30 +93,56 @@ public class ImageRetriever extends Retriever<ImageSource, ImageOptions, Bitmap>
     }
 
     protected Bitmap decodeUrl(String urlString, ImageOptions imageOptions, ImageSource.Transformer transformer) throws IOException {
-        // TODO establish a file caching service for remote resources
         // TODO retry absent resources, they are currently handled but suppressed entirely after the first failure
         // TODO configurable connect and read timeouts
 
-        InputStream stream = null;
-        try {
-            URLConnection conn = new URL(urlString).openConnection();
-            conn.setConnectTimeout(3000);
-            conn.setReadTimeout(30000);
+        // Consult the disk cache before the network. Resources are cached in their encoded form, and only after they've
+        // been successfully decoded, so that error responses are never cached. Cached entries that fail to decode are
+        // removed and retrieved again.
+        DiskCache diskCache = WorldWind.diskCache();
+        byte[] data = (diskCache != null) ? diskCache.get(urlString) : null;
+        BitmapFactory.Options factoryOptions = this.bitmapFactoryOptions(imageOptions);
+        Bitmap bitmap = null;
 
-            stream = new BufferedInputStream(conn.getInputStream());
+        if (data != null) {
+            bitmap = BitmapFactory.decodeByteArray(data, 0, data.length, factoryOptions);
+            if (bitmap == null) {
+                diskCache.remove(urlString);
+            }
+        }
 
-            BitmapFactory.Options factoryOptions = this.bitmapFactoryOptions(imageOptions);
-            Bitmap bitmap = BitmapFactory.decodeStream(stream, null, factoryOptions);
+        if (bitmap == null) {
+            InputStream stream = null;
+            try {
+                URLConnection conn = new URL(urlString).openConnection();
+                conn.setConnectTimeout(3000);
+                conn.setReadTimeout(30000);
+
+                stream = new BufferedInputStream(conn.getInputStream());
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(conn.getContentLength(), PAGE_SIZE));
+                byte[] page = new byte[PAGE_SIZE];
+                int readCount;
+                while ((readCount = stream.read(page, 0, page.length)) != -1) {
+                    buffer.write(page, 0, readCount);
+                }
+
+                data = buffer.toByteArray();
+            } finally {
+                WWUtil.closeSilently(stream);
+            }
 
-            // Apply bitmap transformation if required
-            if (transformer != null && bitmap != null) {
-                bitmap = transformer.transform(bitmap);
+            bitmap = BitmapFactory.decodeByteArray(data, 0, data.length, factoryOptions);
+            if (bitmap != null && diskCache != null) {
+                diskCache.put(urlString, data, 0, data.length);
             }
+        }
 
-            return bitmap;
-        } finally {
-            WWUtil.closeSilently(stream);
+        // Apply bitmap transformation if required
+        if (transformer != null && bitmap != null) {
+            bitmap = transformer.transform(bitmap);
         }
+
+        return bitmap;
     }
 
     protected Bitmap decodeUnrecognized(ImageSource imageSource) {
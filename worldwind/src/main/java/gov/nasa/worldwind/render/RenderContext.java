@@ -12,8 +12,10 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 
+import gov.nasa.worldwind.PickBuffer;
 import gov.nasa.worldwind.PickedObject;
 import gov.nasa.worldwind.PickedObjectList;
+import gov.nasa.worldwind.ScreenPickIndex;
 import gov.nasa.worldwind.WorldWind;
 import gov.nasa.worldwind.draw.Drawable;
 import gov.nasa.worldwind.draw.DrawableQueue;
@@ -85,6 +87,10 @@ public class RenderContext {
 
     public Line pickRay;
 
+    public PickBuffer pickBuffer;
+
+    public ScreenPickIndex screenPickIndex;
+
     public boolean pickMode;
 
     private int pickedObjectId;
@@ -99,6 +105,10 @@ public class RenderContext {
 
     private final TextCacheKey scratchTextCacheKey = new TextCacheKey();
 
+    private final GlyphAtlas glyphAtlas = new GlyphAtlas();
+
+    private boolean glyphAtlasValidated;
+
     private final Map<Object, Pool<?>> drawablePools = new HashMap<>();
 
     private final Map<Object, Object> userProperties = new HashMap<>();
@@ -131,10 +141,13 @@ public class RenderContext {
         this.pickViewport = null;
         this.pickPoint = null;
         this.pickRay = null;
+        this.pickBuffer = null;
+        this.screenPickIndex = null;
         this.pickMode = false;
         this.pickedObjectId = 0;
         this.redrawRequested = false;
         this.pixelSizeFactor = 0;
+        this.glyphAtlasValidated = false;
         this.userProperties.clear();
     }
 
@@ -415,6 +428,10 @@ public class RenderContext {
         return this.renderResourceCache.retrieveTexture(imageSource, imageOptions);
     }
 
+    public Texture retrieveTexture(ImageSource imageSource, ImageOptions imageOptions, double priority) {
+        return this.renderResourceCache.retrieveTexture(imageSource, imageOptions, priority);
+    }
+
     public BufferObject getBufferObject(Object key) {
         return (BufferObject) this.renderResourceCache.get(key);
     }
@@ -447,6 +464,39 @@ public class RenderContext {
         return texture;
     }
 
+    /**
+     * Returns the glyph atlas shared by text drawn glyph by glyph. The atlas persists across frames, and is confirmed
+     * to be consistent with the render resource cache the first time it is requested in each frame.
+     *
+     * @return the glyph atlas
+     */
+    public GlyphAtlas getGlyphAtlas() {
+        if (!this.glyphAtlasValidated) {
+            this.glyphAtlas.validate(this);
+            this.glyphAtlasValidated = true;
+        }
+
+        return this.glyphAtlas;
+    }
+
+    /**
+     * Computes the glyph quads for a string displayed with the specified attributes, adding missing glyphs to the glyph
+     * atlas. The text must satisfy {@link GlyphAtlas#canLayoutText(String)}. The layout refers to glyphs in the atlas,
+     * and remains valid as long as the atlas generation matches the layout's generation.
+     *
+     * @param text       the text to lay out
+     * @param attributes the attributes specifying the text's size, typeface and outline
+     * @param result     the layout in which to return the glyph quads
+     *
+     * @return the result layout
+     */
+    public GlyphAtlas.TextLayout layoutText(String text, TextAttributes attributes, GlyphAtlas.TextLayout result) {
+        this.textRenderer.setTextSize(attributes.getTextSize());
+        this.textRenderer.setTypeface(attributes.getTypeface());
+        this.textRenderer.setOutlineWidth(attributes.getOutlineWidth());
+        return this.getGlyphAtlas().layoutText(this, this.textRenderer, text, attributes.isEnableOutline(), result);
+    }
+
     public void offerDrawable(Drawable drawable, int groupId, double order) {
         if (this.drawableQueue != null) {
             this.drawableQueue.offerDrawable(drawable, groupId, order);
@@ -503,6 +553,21 @@ public class RenderContext {
         }
     }
 
+    /**
+     * Records the screen rectangle of a screen-space shape displayed in the current frame, such as a placemark icon,
+     * enabling the WorldWindow to pick the shape without drawing a pick frame. This has no effect in pick mode, when
+     * the frame is not indexed, or when the current layer is not pickable.
+     *
+     * @param renderable     the shape displayed in the rectangle
+     * @param screenBounds   the shape's screen bounding rectangle in OpenGL screen coordinates
+     * @param cameraDistance the distance from the camera to the shape
+     */
+    public void offerScreenPickRect(Renderable renderable, Viewport screenBounds, double cameraDistance) {
+        if (this.screenPickIndex != null && !this.pickMode && this.currentLayer != null && this.currentLayer.isPickEnabled()) {
+            this.screenPickIndex.offerRect(renderable, this.currentLayer, screenBounds, cameraDistance);
+        }
+    }
+
     public int nextPickedObjectId() {
         this.pickedObjectId++;
 
@@ -24,7 +24,13 @@ import gov.nasa.worldwind.util.LruMemoryCache;
 import gov.nasa.worldwind.util.Retriever;
 import gov.nasa.worldwind.util.SynchronizedMemoryCache;
 
-public class RenderResourceCache extends LruMemoryCache<Object, RenderResource>
+/**
+ * Cache of OpenGL render resources. Resources are typically created and put in the cache on the render thread, but may
+ * also be created and put in the cache by drawables on the OpenGL thread, for example to hold textures rendered during
+ * a frame for reuse in subsequent frames. RenderResourceCache is therefore thread safe. Evicted resources are released
+ * on the OpenGL thread by {@link #releaseEvictedResources(DrawContext)}.
+ */
+public class RenderResourceCache extends SynchronizedMemoryCache<Object, RenderResource>
     implements Retriever.Callback<ImageSource, ImageOptions, Bitmap>, Handler.Callback {
 
     protected Resources resources;
@@ -81,10 +87,11 @@ public class RenderResourceCache extends LruMemoryCache<Object, RenderResource>
 
     public void clear() { // TODO rename as contextLost to clarify this method's purpose for RenderResourceCache
         this.handler.removeMessages(TRIM_STALE_RETRIEVALS);
-        this.entries.clear(); // the cache entries are invalid; clear but don't call entryRemoved
+        synchronized (this.lock) {
+            this.clearEntries(); // the cache entries are invalid; clear but don't call entryRemoved
+        }
         this.evictionQueue.clear(); // the eviction queue no longer needs to be processed
         this.imageRetrieverCache.clear(); // the retrieval queue should be cleared to make room
-        this.usedCapacity = 0;
     }
 
     public void releaseEvictedResources(DrawContext dc) {
@@ -109,6 +116,21 @@ public class RenderResourceCache extends LruMemoryCache<Object, RenderResource>
     }
 
     public Texture retrieveTexture(ImageSource imageSource, ImageOptions options) {
+        return this.retrieveTexture(imageSource, options, Retriever.DEFAULT_PRIORITY);
+    }
+
+    /**
+     * Returns the texture for a specified image source, or starts its asynchronous retrieval and returns null. Pending
+     * retrievals are started in priority order, and are cancelled when they go unrequested for several frames; callers
+     * waiting on a texture should therefore request it every frame.
+     *
+     * @param imageSource the image source to retrieve, may be null
+     * @param options     the image options, may be null
+     * @param priority    the retrieval priority; lower values are retrieved sooner
+     *
+     * @return the texture, or null if it is not yet available
+     */
+    public Texture retrieveTexture(ImageSource imageSource, ImageOptions options, double priority) {
         if (imageSource == null) {
             return null; // a null image source corresponds to a null texture
         }
@@ -136,9 +158,9 @@ public class RenderResourceCache extends LruMemoryCache<Object, RenderResource>
         // then expected that a subsequent render frame will result in another call to retrieveTexture, in which case
         // the image will be found in the image retrieval cache.
         if (imageSource.isUrl()) {
-            this.urlImageRetriever.retrieve(imageSource, options, this);
+            this.urlImageRetriever.retrieve(imageSource, options, this, priority);
         } else {
-            this.imageRetriever.retrieve(imageSource, options, this);
+            this.imageRetriever.retrieve(imageSource, options, this, priority);
         }
         return null;
     }
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.render;
+
+import android.content.res.Resources;
+import android.opengl.GLES20;
+
+import gov.nasa.worldwind.R;
+import gov.nasa.worldwind.draw.DrawContext;
+import gov.nasa.worldwind.geom.Matrix4;
+import gov.nasa.worldwind.util.Logger;
+import gov.nasa.worldwind.util.WWUtil;
+
+/**
+ * GLSL program that draws batches of screen-space quads, such as placemark icons, in a single draw call. Unlike {@link
+ * BasicShaderProgram}, colors and texture coordinates are specified per vertex, so quads with different colors and
+ * different regions of a shared texture are drawn together. Vertex colors are premultiplied by their alpha.
+ */
+public class ScreenBatchProgram extends ShaderProgram {
+
+    public static final Object KEY = ScreenBatchProgram.class;
+
+    protected boolean enablePickMode;
+
+    protected boolean enableTexture;
+
+    protected final Matrix4 mvpMatrix = new Matrix4();
+
+    protected int enablePickModeId;
+
+    protected int enableTextureId;
+
+    protected int mvpMatrixId;
+
+    protected int texSamplerId;
+
+    private final float[] array = new float[16];
+
+    public ScreenBatchProgram(Resources resources) {
+        try {
+            String vs = WWUtil.readResourceAsText(resources, R.raw.gov_nasa_worldwind_screenbatchprogram_vert);
+            String fs = WWUtil.readResourceAsText(resources, R.raw.gov_nasa_worldwind_screenbatchprogram_frag);
+            this.setProgramSources(vs, fs);
+            this.setAttribBindings("vertexPoint", "vertexTexCoord", "vertexColor");
+        } catch (Exception logged) {
+            Logger.logMessage(Logger.ERROR, "ScreenBatchProgram", "constructor", "errorReadingProgramSource", logged);
+        }
+    }
+
+    protected void initProgram(DrawContext dc) {
+        this.enablePickModeId = GLES20.glGetUniformLocation(this.programId, "enablePickMode");
+        GLES20.glUniform1i(this.enablePickModeId, this.enablePickMode ? 1 : 0);
+
+        this.enableTextureId = GLES20.glGetUniformLocation(this.programId, "enableTexture");
+        GLES20.glUniform1i(this.enableTextureId, this.enableTexture ? 1 : 0);
+
+        this.mvpMatrixId = GLES20.glGetUniformLocation(this.programId, "mvpMatrix");
+        this.mvpMatrix.transposeToArray(this.array, 0); // 4 x 4 identity matrix
+        GLES20.glUniformMatrix4fv(this.mvpMatrixId, 1, false, this.array, 0);
+
+        this.texSamplerId = GLES20.glGetUniformLocation(this.programId, "texSampler");
+        GLES20.glUniform1i(this.texSamplerId, 0); // GL_TEXTURE0
+    }
+
+    public void enablePickMode(boolean enable) {
+        if (this.enablePickMode != enable) {
+            this.enablePickMode = enable;
+            GLES20.glUniform1i(this.enablePickModeId, enable ? 1 : 0);
+        }
+    }
+
+    public void enableTexture(boolean enable) {
+        if (this.enableTexture != enable) {
+            this.enableTexture = enable;
+            GLES20.glUniform1i(this.enableTextureId, enable ? 1 : 0);
+        }
+    }
+
+    public void loadModelviewProjection(Matrix4 matrix) {
+        if (!this.mvpMatrix.equals(matrix)) {
+            this.mvpMatrix.set(matrix);
+            matrix.transposeToArray(this.array, 0);
+            GLES20.glUniformMatrix4fv(this.mvpMatrixId, 1, false, this.array, 0);
+        }
+    }
+}
@@ -32,6 +32,11 @@ public class TextRenderer {
 
     protected final Rect scratchBounds = new Rect();
 
+    /**
+     * Bitmap reused by {@link #renderGlyph(String, boolean, Rect)}, grown to fit the largest glyph rendered so far.
+     */
+    protected Bitmap glyphBitmap;
+
     public TextRenderer() {
         this.paint = new Paint();
         this.paint.setAntiAlias(true);
@@ -108,6 +113,63 @@ public class TextRenderer {
         }
     }
 
+    /**
+     * Computes the advance of each character in the specified text using the current text size and typeface.
+     *
+     * @param text   the text to measure
+     * @param result an array with at least text.length() elements in which to return the character advances
+     *
+     * @return the result array set to the advance of each character, in pixels
+     */
+    public float[] getTextWidths(String text, float[] result) {
+        this.paint.getTextWidths(text, 0, text.length(), result);
+        return result;
+    }
+
+    /**
+     * Renders a single glyph in white on a transparent bitmap, for use as a mask modulated by the text color. The glyph
+     * is rendered with the current text size and typeface, and when the outline flag is set, is stroked with the
+     * current outline width. The glyph occupies the bitmap's top-left bounds.width() by bounds.height() pixels. The
+     * bitmap is reused by subsequent calls, so callers must copy its pixels rather than retain or recycle it.
+     *
+     * @param glyph   the characters forming the glyph, typically a single code point
+     * @param outline true to render the glyph's outline, false to render its fill
+     * @param bounds  a rectangle in which to return the bitmap's extent relative to the glyph's origin on the baseline,
+     *                with y increasing downward
+     *
+     * @return the glyph bitmap, or null if the glyph has no visible pixels
+     */
+    public Bitmap renderGlyph(String glyph, boolean outline, Rect bounds) {
+        this.paint.setStyle(outline ? Paint.Style.FILL_AND_STROKE : Paint.Style.FILL);
+        this.paint.setColor(Color.WHITE);
+        this.paint.getTextBounds(glyph, 0, glyph.length(), this.scratchBounds);
+        if (this.scratchBounds.isEmpty()) {
+            return null; // whitespace glyph
+        }
+
+        int pad = 1 + (outline ? (int) Math.ceil(this.paint.getStrokeWidth() * 0.5f) : 0);
+        bounds.set(this.scratchBounds.left - pad, this.scratchBounds.top - pad,
+            this.scratchBounds.right + pad, this.scratchBounds.bottom + pad);
+
+        Bitmap bitmap = this.glyphBitmap;
+        if (bitmap == null || bitmap.getWidth() < bounds.width() || bitmap.getHeight() < bounds.height()) {
+            int width = Math.max(bounds.width(), bitmap != null ? bitmap.getWidth() : 0);
+            int height = Math.max(bounds.height(), bitmap != null ? bitmap.getHeight() : 0);
+            if (bitmap != null) {
+                bitmap.recycle();
+            }
+            bitmap = this.glyphBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        } else {
+            bitmap.eraseColor(Color.TRANSPARENT);
+        }
+
+        this.canvas.setBitmap(bitmap);
+        this.canvas.drawText(glyph, 0, glyph.length(), -bounds.left, -bounds.top, this.paint);
+        this.canvas.setBitmap(null);
+
+        return bitmap;
+    }
+
     protected Bitmap drawText(String text) {
         this.paint.getTextBounds(text, 0, text.length(), this.scratchBounds);
         int x = -this.scratchBounds.left + 1;
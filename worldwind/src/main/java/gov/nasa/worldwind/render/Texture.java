@@ -35,7 +35,7 @@ public class Texture implements RenderResource {
 
     protected SparseIntArray texParameters;
 
-    protected Bitmap imageBitmap;
+    protected volatile Bitmap imageBitmap;
 
     protected boolean imageHasMipMap; /*TODO consider using Bitmap.hasMipMap*/
 
@@ -114,6 +114,18 @@ public class Texture implements RenderResource {
         }
     }
 
+    /**
+     * Indicates whether this texture's image data has been uploaded to OpenGL, and the texture may be drawn. Textures
+     * constructed with a bitmap upload the bitmap when first bound, subject to the draw context's per-frame upload
+     * budget, and are not ready until then. Textures constructed without a bitmap are always ready. This may be called
+     * from any thread; renderables use it to keep drawing a fallback texture until this texture is ready.
+     *
+     * @return true if this texture's image data has been uploaded, false otherwise
+     */
+    public boolean isReady() {
+        return this.imageBitmap == null;
+    }
+
     public int getTextureName(DrawContext dc) {
         if (this.textureName == UNINITIALIZED_NAME) {
             this.createTexture(dc);
@@ -124,7 +136,14 @@ public class Texture implements RenderResource {
 
     public boolean bindTexture(DrawContext dc) {
         if (this.textureName == UNINITIALIZED_NAME) {
-            this.createTexture(dc);
+            if (this.imageBitmap == null) {
+                this.createTexture(dc);
+            } else if (dc.beginUpload(this.textureByteCount)) {
+                this.createTexture(dc);
+                dc.endUpload(this.textureByteCount);
+            } else {
+                return false; // the frame's upload budget is exhausted; upload the bitmap in a subsequent frame
+            }
         }
 
         if (this.textureName[0] != 0) {
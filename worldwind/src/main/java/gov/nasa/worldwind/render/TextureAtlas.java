@@ -0,0 +1,365 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.render;
+
+import android.opengl.GLES20;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.WeakHashMap;
+
+import gov.nasa.worldwind.draw.DrawContext;
+import gov.nasa.worldwind.geom.Matrix4;
+
+/**
+ * Packs small textures, such as placemark icons, into a few large textures so that quads using different textures can
+ * be drawn in a single draw call. Each texture is copied into a region of an atlas page on the OpenGL thread the first
+ * time it is requested, by rendering the texture into the page. Pages are filled shelf by shelf, and are filtered
+ * linearly without mipmaps, as mipmap levels would blend neighbouring regions.
+ * <p>
+ * When every page is full the atlas evicts the least recently used page and reuses it, unless every page has been used
+ * during the current frame, in which case the texture is left out of the atlas. Regions in an evicted page are
+ * invalidated, which callers detect with {@link Region#isValid()}. Pages that have gone unused for several frames are
+ * released by {@link #releaseUnusedPages(DrawContext)}.
+ * <p>
+ * TextureAtlas is used exclusively on the OpenGL thread, and is owned by the {@link DrawContext}.
+ */
+public class TextureAtlas {
+
+    protected static final int DEFAULT_PAGE_SIZE = 1024;
+
+    protected static final int DEFAULT_MAX_PAGES = 4;
+
+    /**
+     * Number of frames a page may go unused before it is released.
+     */
+    protected static final int PAGE_EXPIRATION_FRAMES = 300;
+
+    /**
+     * Number of transparent texels surrounding each region, preventing adjacent regions from bleeding into one another
+     * when the atlas is filtered.
+     */
+    protected static final int REGION_PADDING = 2;
+
+    protected final int pageSize;
+
+    protected final int maxPages;
+
+    protected final int maxRegionSize;
+
+    protected final ArrayList<Page> pages = new ArrayList<>();
+
+    protected final WeakHashMap<Texture, Region> regions = new WeakHashMap<>();
+
+    protected long frameNumber;
+
+    private final Matrix4 mvpMatrix = new Matrix4();
+
+    private final Color white = new Color(1, 1, 1, 1);
+
+    public TextureAtlas() {
+        this(DEFAULT_PAGE_SIZE, DEFAULT_MAX_PAGES);
+    }
+
+    public TextureAtlas(int pageSize, int maxPages) {
+        this.pageSize = pageSize;
+        this.maxPages = maxPages;
+        this.maxRegionSize = pageSize / 4;
+    }
+
+    /**
+     * Returns the atlas region containing a specified texture, copying the texture into the atlas if necessary. This
+     * must be called outside of any framebuffer rendering, as copying a texture binds the atlas page's framebuffer.
+     *
+     * @param dc      the current draw context
+     * @param texture the texture to find or copy into the atlas
+     * @param program the program used to copy textures into the atlas
+     *
+     * @return the texture's region, or null if the texture is too large for the atlas or could not be copied
+     */
+    public Region getRegion(DrawContext dc, Texture texture, BasicShaderProgram program) {
+        Region region = this.regions.get(texture);
+        if (region != null) {
+            region.atlasPage.lastUsedFrame = this.frameNumber;
+            return region;
+        }
+
+        int width = texture.getWidth();
+        int height = texture.getHeight();
+        if (width > this.maxRegionSize || height > this.maxRegionSize) {
+            return null; // the texture is too large to share an atlas page efficiently
+        }
+
+        // Find space for the texture, evicting the least recently used page when every page is full.
+        Page page = this.allocateRegion(width, height);
+        if (page == null) {
+            Page lruPage = this.leastRecentlyUsedPage();
+            if (lruPage == null || lruPage.lastUsedFrame == this.frameNumber) {
+                return null; // every page is in use this frame; draw the texture on its own
+            }
+
+            this.evictPage(lruPage);
+            if (!lruPage.allocate(width + REGION_PADDING, height + REGION_PADDING, this.pageSize)) {
+                return null;
+            }
+            page = lruPage;
+        }
+
+        page.lastUsedFrame = this.frameNumber;
+        region = new Region(page);
+        int x = page.shelfX - width - REGION_PADDING;
+        int y = page.shelfY;
+        region.minS = (float) x / this.pageSize;
+        region.minT = (float) y / this.pageSize;
+        region.maxS = (float) (x + width) / this.pageSize;
+        region.maxT = (float) (y + height) / this.pageSize;
+
+        if (!this.copyTexture(dc, texture, program, page, x, y)) {
+            return null;
+        }
+
+        this.regions.put(texture, region);
+        return region;
+    }
+
+    /**
+     * Releases the pages that have gone unused for several frames, and advances the atlas to the next frame. This must
+     * be called once at the end of each frame.
+     *
+     * @param dc the current draw context
+     */
+    public void releaseUnusedPages(DrawContext dc) {
+        for (int idx = this.pages.size() - 1; idx >= 0; idx--) {
+            Page page = this.pages.get(idx);
+            if (this.frameNumber - page.lastUsedFrame >= PAGE_EXPIRATION_FRAMES) {
+                this.evictPage(page);
+                page.texture.release(dc);
+                this.pages.remove(idx);
+            }
+        }
+
+        this.frameNumber++;
+    }
+
+    /**
+     * Discards the contents of this atlas, keeping its pages for reuse.
+     */
+    public void clear() {
+        for (int idx = 0, len = this.pages.size(); idx < len; idx++) {
+            this.evictPage(this.pages.get(idx));
+        }
+    }
+
+    /**
+     * Releases the OpenGL resources associated with this atlas.
+     *
+     * @param dc the current draw context
+     */
+    public void release(DrawContext dc) {
+        for (int idx = 0, len = this.pages.size(); idx < len; idx++) {
+            Page page = this.pages.get(idx);
+            this.evictPage(page);
+            page.texture.release(dc);
+        }
+
+        this.pages.clear();
+    }
+
+    /**
+     * Discards a page's regions, leaving the page empty for reuse. Regions obtained from the page become invalid.
+     */
+    protected void evictPage(Page page) {
+        Iterator<Region> iterator = this.regions.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().atlasPage == page) {
+                iterator.remove();
+            }
+        }
+
+        page.shelfX = 0;
+        page.shelfY = 0;
+        page.shelfHeight = 0;
+        page.cleared = false;
+        page.generation++;
+    }
+
+    protected Page leastRecentlyUsedPage() {
+        Page lruPage = null;
+        for (int idx = 0, len = this.pages.size(); idx < len; idx++) {
+            Page page = this.pages.get(idx);
+            if (lruPage == null || lruPage.lastUsedFrame > page.lastUsedFrame) {
+                lruPage = page;
+            }
+        }
+
+        return lruPage;
+    }
+
+    protected Page allocateRegion(int width, int height) {
+        int paddedWidth = width + REGION_PADDING;
+        int paddedHeight = height + REGION_PADDING;
+
+        for (int idx = 0, len = this.pages.size(); idx < len; idx++) {
+            Page page = this.pages.get(idx);
+            if (page.allocate(paddedWidth, paddedHeight, this.pageSize)) {
+                return page;
+            }
+        }
+
+        if (this.pages.size() < this.maxPages) {
+            Texture texture = new Texture(this.pageSize, this.pageSize, GLES20.GL_RGBA, GLES20.GL_UNSIGNED_BYTE);
+            texture.setTexParameter(GLES20.GL_TEXTURE_MIN_FILTER, GLES20.GL_LINEAR);
+            Page page = new Page(texture);
+            this.pages.add(page);
+
+            if (page.allocate(paddedWidth, paddedHeight, this.pageSize)) {
+                return page;
+            }
+        }
+
+        return null;
+    }
+
+    protected boolean copyTexture(DrawContext dc, Texture texture, BasicShaderProgram program, Page page, int x, int y) {
+        if (program == null || !program.useProgram(dc)) {
+            return false; // program unspecified or failed to build
+        }
+
+        dc.activeTextureUnit(GLES20.GL_TEXTURE0);
+        if (!texture.bindTexture(dc)) {
+            return false; // texture failed to bind
+        }
+
+        Framebuffer framebuffer = dc.textureFramebuffer();
+        if (!framebuffer.attachTexture(dc, page.texture, GLES20.GL_COLOR_ATTACHMENT0)) {
+            return false; // framebuffer failed to attach the atlas page
+        }
+
+        try {
+            if (!framebuffer.bindFramebuffer(dc)) {
+                return false; // framebuffer failed to bind
+            }
+
+            // Render into the atlas page without depth testing. Clear pages the first time they're used after being
+            // created or discarded.
+            GLES20.glViewport(0, 0, this.pageSize, this.pageSize);
+            GLES20.glDisable(GLES20.GL_DEPTH_TEST);
+            if (!page.cleared) {
+                GLES20.glClear(GLES20.GL_COLOR_BUFFER_BIT);
+                page.cleared = true;
+            }
+
+            if (!dc.unitSquareBuffer().bindBuffer(dc)) {
+                return false; // vertex buffer failed to bind
+            }
+
+            // Transform the unit square to the region's rectangle in the page's normalized device coordinates.
+            double scale = 2.0 / this.pageSize;
+            this.mvpMatrix.setToIdentity();
+            this.mvpMatrix.multiplyByTranslation(x * scale - 1, y * scale - 1, 0);
+            this.mvpMatrix.multiplyByScale(texture.getWidth() * scale, texture.getHeight() * scale, 1);
+
+            // Copy the texture to the page, applying the texture's tex coord transform so that the region is upright.
+            program.enablePickMode(false);
+            program.enableTexture(true);
+            program.loadTexCoordMatrix(texture.getTexCoordTransform());
+            program.loadColor(this.white);
+            program.loadModelviewProjection(this.mvpMatrix);
+
+            GLES20.glEnableVertexAttribArray(1 /*vertexTexCoord*/); // only vertexPoint is enabled by default
+            GLES20.glVertexAttribPointer(0 /*vertexPoint*/, 2, GLES20.GL_FLOAT, false, 0, 0);
+            GLES20.glVertexAttribPointer(1 /*vertexTexCoord*/, 2, GLES20.GL_FLOAT, false, 0, 0);
+            GLES20.glDrawArrays(GLES20.GL_TRIANGLE_STRIP, 0, 4);
+            GLES20.glDisableVertexAttribArray(1 /*vertexTexCoord*/);
+
+            return true;
+        } finally {
+            // Restore the default WorldWind OpenGL state.
+            dc.bindFramebuffer(0);
+            GLES20.glViewport(dc.viewport.x, dc.viewport.y, dc.viewport.width, dc.viewport.height);
+            GLES20.glEnable(GLES20.GL_DEPTH_TEST);
+        }
+    }
+
+    /**
+     * A rectangle within an atlas page, expressed in texture coordinates of the page.
+     */
+    public static class Region {
+
+        public final Texture page;
+
+        public final int generation;
+
+        protected final Page atlasPage;
+
+        public float minS;
+
+        public float minT;
+
+        public float maxS;
+
+        public float maxT;
+
+        protected Region(Page atlasPage) {
+            this.page = atlasPage.texture;
+            this.generation = atlasPage.generation;
+            this.atlasPage = atlasPage;
+        }
+
+        /**
+         * Indicates whether this region still holds its texture, or whether its page has been evicted or released since
+         * the region was obtained.
+         *
+         * @return true if the region can be drawn, otherwise false
+         */
+        public boolean isValid() {
+            return this.generation == this.atlasPage.generation;
+        }
+    }
+
+    protected static class Page {
+
+        public final Texture texture;
+
+        public int shelfX;
+
+        public int shelfY;
+
+        public int shelfHeight;
+
+        public boolean cleared;
+
+        public int generation;
+
+        public long lastUsedFrame;
+
+        public Page(Texture texture) {
+            this.texture = texture;
+        }
+
+        /**
+         * Reserves a padded rectangle on the current shelf, or on a new shelf above it. On success the rectangle ends
+         * at shelfX on the shelf starting at shelfY.
+         */
+        public boolean allocate(int width, int height, int pageSize) {
+            if (this.shelfX + width <= pageSize && this.shelfY + height <= pageSize) {
+                this.shelfX += width; // the rectangle fits on the current shelf
+                this.shelfHeight = Math.max(this.shelfHeight, height);
+                return true;
+            }
+
+            int nextShelfY = this.shelfY + this.shelfHeight;
+            if (width <= pageSize && nextShelfY + height <= pageSize) {
+                this.shelfX = width; // start a new shelf above the current shelf
+                this.shelfY = nextShelfY;
+                this.shelfHeight = height;
+                return true;
+            }
+
+            return false; // no space left on this page
+        }
+    }
+}
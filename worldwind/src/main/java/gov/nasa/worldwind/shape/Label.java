@@ -8,6 +8,7 @@ package gov.nasa.worldwind.shape;
 import gov.nasa.worldwind.PickedObject;
 import gov.nasa.worldwind.WorldWind;
 import gov.nasa.worldwind.draw.DrawableScreenTexture;
+import gov.nasa.worldwind.draw.DrawableText;
 import gov.nasa.worldwind.geom.Matrix4;
 import gov.nasa.worldwind.geom.Position;
 import gov.nasa.worldwind.geom.Vec2;
@@ -17,7 +18,9 @@ import gov.nasa.worldwind.globe.Globe;
 import gov.nasa.worldwind.render.AbstractRenderable;
 import gov.nasa.worldwind.render.BasicShaderProgram;
 import gov.nasa.worldwind.render.Color;
+import gov.nasa.worldwind.render.GlyphAtlas;
 import gov.nasa.worldwind.render.RenderContext;
+import gov.nasa.worldwind.render.ScreenBatchProgram;
 import gov.nasa.worldwind.render.Texture;
 import gov.nasa.worldwind.util.Logger;
 import gov.nasa.worldwind.util.Pool;
@@ -87,6 +90,12 @@ public class Label extends AbstractRenderable implements Highlightable, Movable
      */
     protected boolean highlighted;
 
+    /**
+     * The glyph quads of the label's text, retained across frames and recomputed when the text, the font or the glyph
+     * atlas changes.
+     */
+    protected GlyphAtlas.TextLayout textLayout;
+
     /**
      * Constructs a label that displays text at a geographic position.
      *
@@ -429,6 +438,13 @@ public class Label extends AbstractRenderable implements Highlightable, Movable
     }
 
     protected void makeDrawable(RenderContext rc) {
+        // Draw the label's text as quads over shared glyphs when the text's script allows it. Otherwise render the
+        // text to a texture of its own.
+        if (GlyphAtlas.canLayoutText(this.text)) {
+            this.makeGlyphDrawable(rc);
+            return;
+        }
+
         // Render the label's texture when the label's position is in the frustum. If the label's position is outside
         // the frustum we don't do anything. This ensures that label textures are rendered only as necessary.
         Texture texture = rc.getText(this.text, this.activeAttributes);
@@ -497,6 +513,85 @@ public class Label extends AbstractRenderable implements Highlightable, Movable
 
         // Enqueue a drawable for processing on the OpenGL thread.
         rc.offerShapeDrawable(drawable, renderData.cameraDistance);
+        rc.offerScreenPickRect(this, renderData.screenBounds, renderData.cameraDistance);
+    }
+
+    protected void makeGlyphDrawable(RenderContext rc) {
+        // Lay out the label's text when the label's position is in the frustum and the text, the font or the glyph
+        // atlas has changed since the text was last laid out. If the label's position is outside the frustum and the
+        // layout is out of date we don't do anything.
+        TextAttributes attrs = this.activeAttributes;
+        GlyphAtlas.TextLayout layout = this.textLayout;
+        int generation = rc.getGlyphAtlas().getGeneration();
+        if (layout == null || !layout.matches(this.text, attrs.textSize, attrs.typeface, attrs.enableOutline, attrs.outlineWidth, generation)) {
+            if (!rc.frustum.containsPoint(renderData.placePoint)) {
+                return;
+            }
+
+            layout = (layout != null) ? layout : (this.textLayout = new GlyphAtlas.TextLayout());
+            rc.layoutText(this.text, attrs, layout);
+        }
+
+        if (layout.quadCount == 0 || layout.generation != generation) {
+            return; // the text has no visible glyphs, or the glyphs did not fit in the atlas
+        }
+
+        // Apply the label's translation according to its text size and text offset. The text offset is defined with its
+        // origin at the text's bottom-left corner and axes that extend up and to the right from the origin point.
+        Matrix4 transform = renderData.textTransform;
+        transform.setToIdentity();
+        attrs.textOffset.offsetForSize(layout.width, layout.height, renderData.offset);
+        transform.setTranslation(
+            renderData.screenPlacePoint.x - renderData.offset.x,
+            renderData.screenPlacePoint.y - renderData.offset.y,
+            renderData.screenPlacePoint.z);
+
+        // Apply the label's rotation according to its rotation value and orientation mode. The rotation is applied
+        // such that the text rotates around the text offset point.
+        double rotation = (this.rotationMode == WorldWind.RELATIVE_TO_GLOBE) ?
+            (rc.camera.heading - this.rotation) : -this.rotation;
+        if (rotation != 0) {
+            transform.multiplyByTranslation(renderData.offset.x, renderData.offset.y, 0);
+            transform.multiplyByRotation(0, 0, 1, rotation);
+            transform.multiplyByTranslation(-renderData.offset.x, -renderData.offset.y, 0);
+        }
+
+        // Compute the unit square transform corresponding to the text's bounding rectangle.
+        renderData.unitSquareTransform.set(transform);
+        renderData.unitSquareTransform.multiplyByScale(layout.width, layout.height, 1);
+
+        WWMath.boundingRectForUnitSquare(renderData.unitSquareTransform, renderData.screenBounds);
+        if (!rc.frustum.intersectsViewport(renderData.screenBounds)) {
+            return; // the text is outside the viewport
+        }
+
+        // Obtain a pooled drawable and configure it to draw the label's glyph quads.
+        Pool<DrawableText> pool = rc.getDrawablePool(DrawableText.class);
+        DrawableText drawable = DrawableText.obtain(pool);
+
+        // Use the screen batch GLSL program to draw the text.
+        drawable.program = (ScreenBatchProgram) rc.getShaderProgram(ScreenBatchProgram.KEY);
+        if (drawable.program == null) {
+            drawable.program = (ScreenBatchProgram) rc.putShaderProgram(ScreenBatchProgram.KEY, new ScreenBatchProgram(rc.resources));
+        }
+
+        // Transform the layout's glyph quads to screen coordinates.
+        drawable.setQuads(layout, transform);
+
+        // Configure the drawable according to the active attributes. Use a color appropriate for the pick mode. When
+        // picking use a unique color associated with the picked object ID for both the text and its outline.
+        if (rc.pickMode) {
+            drawable.textColor.set(renderData.pickColor);
+            drawable.outlineColor.set(renderData.pickColor);
+        } else {
+            drawable.textColor.set(attrs.textColor);
+            drawable.outlineColor.set(attrs.outlineColor);
+        }
+        drawable.enableDepthTest = attrs.enableDepthTest;
+
+        // Enqueue a drawable for processing on the OpenGL thread.
+        rc.offerShapeDrawable(drawable, renderData.cameraDistance);
+        rc.offerScreenPickRect(this, renderData.screenBounds, renderData.cameraDistance);
     }
 
     /**
@@ -524,6 +619,11 @@ public class Label extends AbstractRenderable implements Highlightable, Movable
          */
         public final Matrix4 unitSquareTransform = new Matrix4();
 
+        /**
+         * The screen coordinate transform to apply to the label's glyph quads.
+         */
+        public final Matrix4 textTransform = new Matrix4();
+
         /**
          * The screen viewport indicating the label's screen bounds.
          */
@@ -20,6 +20,7 @@ import gov.nasa.worldwind.render.BasicShaderProgram;
 import gov.nasa.worldwind.render.Color;
 import gov.nasa.worldwind.render.ImageSource;
 import gov.nasa.worldwind.render.RenderContext;
+import gov.nasa.worldwind.render.ScreenBatchProgram;
 import gov.nasa.worldwind.render.Texture;
 import gov.nasa.worldwind.util.Logger;
 import gov.nasa.worldwind.util.Pool;
@@ -755,6 +756,7 @@ public class Placemark extends AbstractRenderable implements Highlightable, Mova
             DrawableScreenTexture drawable = DrawableScreenTexture.obtain(pool);
             this.prepareDrawableIcon(rc, drawable);
             rc.offerShapeDrawable(drawable, this.cameraDistance);
+            rc.offerScreenPickRect(this, screenBounds, this.cameraDistance);
         }
 
         // Release references to objects stored in the render resource cache.
@@ -866,6 +868,12 @@ public class Placemark extends AbstractRenderable implements Highlightable, Mova
             drawable.program = (BasicShaderProgram) rc.putShaderProgram(BasicShaderProgram.KEY, new BasicShaderProgram(rc.resources));
         }
 
+        // Use the screen batch GLSL program to draw the placemark's icon in a batch with adjacent placemark icons.
+        drawable.batchProgram = (ScreenBatchProgram) rc.getShaderProgram(ScreenBatchProgram.KEY);
+        if (drawable.batchProgram == null) {
+            drawable.batchProgram = (ScreenBatchProgram) rc.putShaderProgram(ScreenBatchProgram.KEY, new ScreenBatchProgram(rc.resources));
+        }
+
         // Use the plaemark's unit square transform matrix.
         drawable.unitSquareTransform.set(unitSquareTransform);
 
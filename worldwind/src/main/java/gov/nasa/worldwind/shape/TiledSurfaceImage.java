@@ -147,7 +147,9 @@ public class TiledSurfaceImage extends AbstractRenderable {
             return; // ignore the tile and its descendants if it's not needed or not visible
         }
 
-        if (tile.level.isLastLevel() || !tile.mustSubdivide(rc, this.detailControl)) {
+        // Evaluate the subdivision criteria even for last level tiles. This computes each tile's distance to the camera,
+        // which prioritizes its texture retrieval.
+        if (!tile.mustSubdivide(rc, this.detailControl) || tile.level.isLastLevel()) {
             this.addTile(rc, tile);
             return; // use the tile if it does not need to be subdivided
         }
@@ -158,7 +160,7 @@ public class TiledSurfaceImage extends AbstractRenderable {
         ImageSource tileImageSource = tile.getImageSource();
         if (tileImageSource != null) { // tile has an image source; its level is not empty
             Texture tileTexture = rc.getTexture(tileImageSource);
-            if (tileTexture != null) { // tile has a texture; use it as a fallback tile for descendants
+            if (tileTexture != null && tileTexture.isReady()) { // tile has a texture; use it as a fallback tile for descendants
                 this.ancestorTile = tile;
                 this.ancestorTexture = tileTexture;
             }
@@ -180,20 +182,28 @@ public class TiledSurfaceImage extends AbstractRenderable {
 
         Texture texture = rc.getTexture(imageSource); // try to get the texture from the cache
         if (texture == null) {
-            texture = rc.retrieveTexture(imageSource, this.imageOptions); // puts retrieved textures in the cache
+            texture = rc.retrieveTexture(imageSource, this.imageOptions, tile.getRetrievalPriority()); // puts retrieved textures in the cache
         }
 
-        if (texture != null) { // use the tile's own texture
-            Pool<DrawableSurfaceTexture> pool = rc.getDrawablePool(DrawableSurfaceTexture.class);
-            Drawable drawable = DrawableSurfaceTexture.obtain(pool).set(this.activeProgram, tile.sector, texture, texture.getTexCoordTransform());
-            rc.offerSurfaceDrawable(drawable, 0 /*z-order*/);
-        } else if (this.ancestorTile != null) { // use the ancestor tile's texture, transformed to fill the tile sector
+        // Use the ancestor tile's texture, transformed to fill the tile sector, until the tile's own texture is ready. A
+        // texture that has been retrieved but not yet uploaded to OpenGL is not ready; the draw context defers uploads
+        // that exceed its per-frame budget.
+        boolean textureReady = texture != null && texture.isReady();
+        if (!textureReady && this.ancestorTile != null) {
             this.ancestorTexCoordMatrix.set(this.ancestorTexture.getTexCoordTransform());
             this.ancestorTexCoordMatrix.multiplyByTileTransform(tile.sector, this.ancestorTile.sector);
             Pool<DrawableSurfaceTexture> pool = rc.getDrawablePool(DrawableSurfaceTexture.class);
             Drawable drawable = DrawableSurfaceTexture.obtain(pool).set(this.activeProgram, tile.sector, this.ancestorTexture, this.ancestorTexCoordMatrix);
             rc.offerSurfaceDrawable(drawable, 0 /*z-order*/);
         }
+
+        // Use the tile's own texture. Offering the tile's texture before it is ready lets the draw context upload it, and
+        // draws it over the ancestor texture in the frame it becomes ready.
+        if (texture != null) {
+            Pool<DrawableSurfaceTexture> pool = rc.getDrawablePool(DrawableSurfaceTexture.class);
+            Drawable drawable = DrawableSurfaceTexture.obtain(pool).set(this.activeProgram, tile.sector, texture, texture.getTexCoordTransform());
+            rc.offerSurfaceDrawable(drawable, 0 /*z-order*/);
+        }
     }
 
     protected void invalidateTiles() {
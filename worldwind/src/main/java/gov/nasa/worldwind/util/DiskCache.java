@@ -0,0 +1,367 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded file cache for remote resources. Each entry is stored in its own file whose name is derived from a SHA-1
+ * digest of the entry's key, typically a resource URL. Entries are evicted in least recently used order when the total
+ * size of the cached files exceeds the cache's capacity. The cache's index is rebuilt from the cache directory on first
+ * use, using each file's last modified time as its last use, so cached entries survive application restarts. Listing
+ * the directory can take some time, so the index is not loaded on construction; the first call to access the cache,
+ * typically from a retrieval thread, loads the index while calls from other threads wait for it.
+ * <p>
+ * DiskCache is thread safe. Entry files are read and written outside the cache's lock, and new entries are written to a
+ * temporary file before being moved into place, so concurrent readers never observe a partially written entry.
+ */
+public class DiskCache {
+
+    protected static final String ENTRY_SUFFIX = ".entry";
+
+    protected static final String TEMP_SUFFIX = ".tmp";
+
+    protected static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    protected final Object lock = new Object();
+
+    protected final File directory;
+
+    protected final long capacity;
+
+    protected final long lowWater;
+
+    protected final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true); // access ordered
+
+    protected long usedCapacity;
+
+    protected boolean indexLoaded;
+
+    protected final AtomicLong hitCount = new AtomicLong();
+
+    protected final AtomicLong missCount = new AtomicLong();
+
+    protected final AtomicLong tempFileNumber = new AtomicLong();
+
+    public DiskCache(File directory, long capacity) {
+        this(directory, capacity, (long) (capacity * 0.75));
+    }
+
+    public DiskCache(File directory, long capacity, long lowWater) {
+        if (directory == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "DiskCache", "constructor", "missingDirectory"));
+        }
+
+        if (capacity < 1) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "DiskCache", "constructor", "invalidCapacity"));
+        }
+
+        if (lowWater >= capacity || lowWater < 0) {
+            throw new IllegalArgumentException(Logger.logMessage(Logger.ERROR, "DiskCache", "constructor",
+                "The specified low-water value is greater than or equal to the capacity, or less than 0"));
+        }
+
+        this.directory = directory;
+        this.capacity = capacity;
+        this.lowWater = lowWater;
+    }
+
+    public File getDirectory() {
+        return this.directory;
+    }
+
+    public long getCapacity() {
+        return this.capacity;
+    }
+
+    public long getUsedCapacity() {
+        synchronized (this.lock) {
+            this.ensureIndexLoaded();
+            return this.usedCapacity;
+        }
+    }
+
+    public int getEntryCount() {
+        synchronized (this.lock) {
+            this.ensureIndexLoaded();
+            return this.entries.size();
+        }
+    }
+
+    /**
+     * Returns the number of calls to {@link #get(String)} that found a cached entry.
+     *
+     * @return the cache hit count
+     */
+    public long getHitCount() {
+        return this.hitCount.get();
+    }
+
+    /**
+     * Returns the number of calls to {@link #get(String)} that did not find a cached entry.
+     *
+     * @return the cache miss count
+     */
+    public long getMissCount() {
+        return this.missCount.get();
+    }
+
+    /**
+     * Returns the contents of the entry associated with a specified key, or null if the cache has no such entry.
+     *
+     * @param key the entry's key
+     *
+     * @return the entry's contents, or null if the entry is not in the cache
+     */
+    public byte[] get(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "DiskCache", "get", "missingKey"));
+        }
+
+        String name = entryName(key);
+        synchronized (this.lock) {
+            this.ensureIndexLoaded();
+            if (this.entries.get(name) == null) { // marks the entry as most recently used
+                this.missCount.incrementAndGet();
+                return null;
+            }
+        }
+
+        File file = new File(this.directory, name);
+        try {
+            byte[] data = readFile(file);
+            file.setLastModified(System.currentTimeMillis()); // persist the entry's last use across restarts
+            this.hitCount.incrementAndGet();
+            return data;
+        } catch (IOException ex) { // the file was evicted concurrently or removed externally
+            this.removeEntry(name);
+            this.missCount.incrementAndGet();
+            return null;
+        }
+    }
+
+    /**
+     * Adds an entry to the cache, replacing any existing entry with the same key. The least recently used entries are
+     * evicted as necessary to keep the cache within its capacity. Entries larger than the cache's capacity are ignored.
+     *
+     * @param key    the entry's key
+     * @param data   the array containing the entry's contents
+     * @param offset the offset of the entry's contents in the data array
+     * @param length the length of the entry's contents
+     */
+    public void put(String key, byte[] data, int offset, int length) {
+        if (key == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "DiskCache", "put", "missingKey"));
+        }
+
+        if (data == null || offset < 0 || length < 0 || offset + length > data.length) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "DiskCache", "put", "invalidData"));
+        }
+
+        if (length > this.capacity) {
+            return; // the entry would evict everything else in the cache
+        }
+
+        // Load the index before writing the entry's file, so that loading the index never counts the new file.
+        synchronized (this.lock) {
+            this.ensureIndexLoaded();
+        }
+
+        String name = entryName(key);
+        File file = new File(this.directory, name);
+        File tempFile = new File(this.directory, name + "." + this.tempFileNumber.getAndIncrement() + TEMP_SUFFIX);
+
+        OutputStream stream = null;
+        try {
+            if (!this.directory.isDirectory() && !this.directory.mkdirs()) {
+                throw new IOException("Unable to create cache directory " + this.directory);
+            }
+
+            stream = new FileOutputStream(tempFile);
+            stream.write(data, offset, length);
+            stream.close();
+            stream = null;
+
+            synchronized (this.lock) {
+                if (!tempFile.renameTo(file)) {
+                    throw new IOException("Unable to move cache entry " + tempFile);
+                }
+
+                Long oldLength = this.entries.put(name, (long) length);
+                this.usedCapacity += length - (oldLength != null ? oldLength : 0);
+
+                if (this.usedCapacity > this.capacity) {
+                    this.makeSpace();
+                }
+            }
+        } catch (IOException ex) {
+            Logger.log(Logger.WARN, "Unable to write disk cache entry '" + key + "'", ex);
+        } finally {
+            WWUtil.closeSilently(stream);
+            tempFile.delete(); // no effect when the temp file has been moved into place
+        }
+    }
+
+    public boolean remove(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "DiskCache", "remove", "missingKey"));
+        }
+
+        return this.removeEntry(entryName(key));
+    }
+
+    public void clear() {
+        synchronized (this.lock) {
+            this.ensureIndexLoaded();
+            for (String name : this.entries.keySet()) {
+                new File(this.directory, name).delete();
+            }
+
+            this.entries.clear();
+            this.usedCapacity = 0;
+        }
+    }
+
+    protected boolean removeEntry(String name) {
+        synchronized (this.lock) {
+            this.ensureIndexLoaded();
+            Long length = this.entries.remove(name);
+            if (length != null) {
+                this.usedCapacity -= length;
+                new File(this.directory, name).delete();
+                return true;
+            } else {
+                return false;
+            }
+        }
+    }
+
+    protected void makeSpace() {
+        // Remove the least recently used entries until the cache's used capacity reaches the low water. The entry map
+        // is access ordered, so its iteration order is from least recently used to most recently used.
+        Iterator<Map.Entry<String, Long>> iterator = this.entries.entrySet().iterator();
+        while (iterator.hasNext() && this.usedCapacity > this.lowWater) {
+            Map.Entry<String, Long> entry = iterator.next();
+            iterator.remove();
+            this.usedCapacity -= entry.getValue();
+            new File(this.directory, entry.getKey()).delete();
+        }
+    }
+
+    /**
+     * Loads the cache's index from the cache directory the first time the cache is accessed. Must be called while
+     * holding the cache's lock.
+     */
+    protected void ensureIndexLoaded() {
+        if (!this.indexLoaded) {
+            this.indexLoaded = true;
+            this.loadIndex();
+        }
+    }
+
+    protected void loadIndex() {
+        File[] files = this.directory.listFiles();
+        if (files == null) {
+            return; // the cache directory does not exist yet
+        }
+
+        // Sort the entry files from least recently used to most recently used, then add them to the access ordered
+        // entry map in that order.
+        final long[] lastModified = new long[files.length];
+        Integer[] order = new Integer[files.length];
+        for (int idx = 0; idx < files.length; idx++) {
+            lastModified[idx] = files[idx].lastModified();
+            order[idx] = idx;
+        }
+        Arrays.sort(order, (lhs, rhs) -> Long.compare(lastModified[lhs], lastModified[rhs]));
+
+        synchronized (this.lock) {
+            for (Integer idx : order) {
+                File file = files[idx];
+                String name = file.getName();
+                if (name.endsWith(TEMP_SUFFIX)) {
+                    file.delete(); // left behind by a write that was interrupted
+                } else if (name.endsWith(ENTRY_SUFFIX) && file.isFile()) {
+                    long length = file.length();
+                    this.entries.put(name, length);
+                    this.usedCapacity += length;
+                }
+            }
+
+            if (this.usedCapacity > this.capacity) {
+                this.makeSpace();
+            }
+        }
+    }
+
+    protected static String entryName(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(key.getBytes(StandardCharsets.UTF_8));
+            char[] chars = new char[digest.length * 2];
+            for (int idx = 0; idx < digest.length; idx++) {
+                chars[idx * 2] = HEX_DIGITS[(digest[idx] >> 4) & 0xF];
+                chars[idx * 2 + 1] = HEX_DIGITS[digest[idx] & 0xF];
+            }
+            return new String(chars) + ENTRY_SUFFIX;
+        } catch (NoSuchAlgorithmException ex) {
+            throw new RuntimeException(ex); // every Java platform is required to support SHA-1
+        }
+    }
+
+    protected static byte[] readFile(File file) throws IOException {
+        InputStream stream = null;
+        try {
+            stream = new FileInputStream(file);
+            long length = file.length();
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("Cache entry too large " + file);
+            }
+
+            byte[] data = new byte[(int) length];
+            int offset = 0, readCount;
+            while (offset < data.length && (readCount = stream.read(data, offset, data.length - offset)) != -1) {
+                offset += readCount;
+            }
+
+            if (offset != data.length) {
+                throw new IOException("Cache entry truncated " + file);
+            }
+
+            return data;
+        } finally {
+            WWUtil.closeSilently(stream);
+        }
+    }
+
+    @Override
+    public String toString() {
+        synchronized (this.lock) {
+            this.ensureIndexLoaded();
+            return String.format(Locale.US, "DiskCache{directory=%s, capacity=%,d, usedCapacity=%,d, entries=%d, hits=%d, misses=%d}",
+                this.directory, this.capacity, this.usedCapacity, this.entries.size(), this.hitCount.get(), this.missCount.get());
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util;
+
+import java.util.Arrays;
+
+/**
+ * A set of primitive int values. IntSet stores its values in an open addressed hash table, and neither boxes values
+ * nor allocates when values are added unless the table must grow. Clearing the set retains its capacity, so a set that
+ * is cleared and reused performs no allocations once it reaches its working size.
+ */
+public class IntSet {
+
+    protected static final int MIN_CAPACITY = 16;
+
+    /**
+     * The hash table's slots. Zero marks an empty slot; the value zero is tracked separately by containsZero.
+     */
+    protected int[] slots;
+
+    protected boolean containsZero;
+
+    protected int size;
+
+    public IntSet() {
+        this.slots = new int[MIN_CAPACITY];
+    }
+
+    public IntSet(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "IntSet", "constructor", "invalidCapacity"));
+        }
+
+        this.slots = new int[tableCapacity(initialCapacity)];
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public boolean contains(int value) {
+        if (value == 0) {
+            return this.containsZero;
+        }
+
+        int[] slots = this.slots;
+        int mask = slots.length - 1;
+        for (int idx = hash(value) & mask; slots[idx] != 0; idx = (idx + 1) & mask) {
+            if (slots[idx] == value) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Adds a value to this set.
+     *
+     * @param value the value to add
+     *
+     * @return true if the set did not already contain the value
+     */
+    public boolean add(int value) {
+        if (value == 0) {
+            if (this.containsZero) {
+                return false;
+            }
+
+            this.containsZero = true;
+            this.size++;
+            return true;
+        }
+
+        int[] slots = this.slots;
+        int mask = slots.length - 1;
+        int idx = hash(value) & mask;
+        for (; slots[idx] != 0; idx = (idx + 1) & mask) {
+            if (slots[idx] == value) {
+                return false;
+            }
+        }
+
+        slots[idx] = value;
+        if (++this.size * 2 > slots.length) {
+            this.rehash(slots.length * 2); // keep the table at most half full
+        }
+
+        return true;
+    }
+
+    /**
+     * Removes all values from this set, retaining its capacity.
+     *
+     * @return this set
+     */
+    public IntSet clear() {
+        if (this.size > 0) {
+            Arrays.fill(this.slots, 0);
+            this.containsZero = false;
+            this.size = 0;
+        }
+
+        return this;
+    }
+
+    /**
+     * Copies this set's values into an array, in no particular order.
+     *
+     * @param result an array in which to return the values, or null to allocate a new array
+     *
+     * @return the result argument if it has at least size elements, otherwise a new array containing the values
+     */
+    public int[] toArray(int[] result) {
+        if (result == null || result.length < this.size) {
+            result = new int[this.size];
+        }
+
+        int pos = 0;
+        if (this.containsZero) {
+            result[pos++] = 0;
+        }
+
+        for (int value : this.slots) {
+            if (value != 0) {
+                result[pos++] = value;
+            }
+        }
+
+        return result;
+    }
+
+    protected void rehash(int capacity) {
+        int[] oldSlots = this.slots;
+        int[] newSlots = new int[capacity];
+        int mask = capacity - 1;
+
+        for (int value : oldSlots) {
+            if (value != 0) {
+                int idx = hash(value) & mask;
+                while (newSlots[idx] != 0) {
+                    idx = (idx + 1) & mask;
+                }
+                newSlots[idx] = value;
+            }
+        }
+
+        this.slots = newSlots;
+    }
+
+    protected static int hash(int value) {
+        // Spread sequential values, such as picked object identifiers, across the table.
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    protected static int tableCapacity(int valueCount) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < valueCount * 2 && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+
+        return capacity;
+    }
+}
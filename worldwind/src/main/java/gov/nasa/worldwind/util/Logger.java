@@ -33,17 +33,22 @@ public class Logger {
         messageTable.put("invalidClass", "The class is null or cannot be found");
         messageTable.put("invalidCount", "The count is invalid");
         messageTable.put("invalidClipDistance", "The clip distance is invalid");
+        messageTable.put("invalidData", "The data is null or the range is invalid");
+        messageTable.put("invalidEntry", "The entry is null or invalid");
         messageTable.put("invalidFieldOfView", "The field of view is invalid");
         messageTable.put("invalidHeight", "The height is invalid");
         messageTable.put("invalidIndex", "The index is invalid");
         messageTable.put("invalidNumIntervals", "The number of intervals is invalid");
         messageTable.put("invalidNumLevels", "The number of levels is invalid");
+        messageTable.put("invalidQueue", "The queue is invalid");
         messageTable.put("invalidRadius", "The radius is invalid");
         messageTable.put("invalidRange", "The range is invalid");
         messageTable.put("invalidResolution", "The resolution is invalid");
         messageTable.put("invalidResource", "The resource is invalid");
+        messageTable.put("invalidScale", "The scale is invalid");
         messageTable.put("invalidStride", "The stride is invalid");
         messageTable.put("invalidTileDelta", "The tile delta is invalid");
+        messageTable.put("invalidTime", "The time is invalid");
         messageTable.put("invalidWidth", "The width is invalid");
         messageTable.put("invalidWidthOrHeight", "The width or the height is invalid");
         messageTable.put("missingArray", "The array is null or insufficient length");
@@ -56,6 +61,7 @@ public class Logger {
         messageTable.put("missingConfig", "The configuration is null");
         messageTable.put("missingCoordinateSystem", "The coordinate system is null");
         messageTable.put("missingCoverage", "The coverage is null");
+        messageTable.put("missingDirectory", "The directory is null");
         messageTable.put("missingEllipsoid", "The ellipsoid is null");
         messageTable.put("missingFactory", "The factory is null");
         messageTable.put("missingFormat", "The format is null");
@@ -88,6 +94,7 @@ public class Logger {
         messageTable.put("missingResources", "The resources argument is null");
         messageTable.put("missingResult", "The result argument is null");
         messageTable.put("missingRunnable", "The runnable is null");
+        messageTable.put("missingScheduler", "The scheduler is null");
         messageTable.put("missingSector", "The sector is null");
         messageTable.put("missingServiceAddress", "The service address is null");
         messageTable.put("missingSource", "The source is null");
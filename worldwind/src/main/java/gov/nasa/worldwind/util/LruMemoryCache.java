@@ -5,18 +5,26 @@
 
 package gov.nasa.worldwind.util;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 
+/**
+ * Memory cache that evicts its least recently used entries when its capacity is exceeded. Entries are kept in an
+ * intrusive doubly-linked list ordered from least recently used to most recently used, so accessing an entry and
+ * evicting the least recently used entry are constant time operations.
+ * <p>
+ * Entry ages used by {@link #trimToAge(long)} are measured from the time an entry was put in the cache. Accessing an
+ * entry moves it to the most recently used end of the list and assigns it the most recent time recorded by the cache,
+ * which keeps entry times ordered along the list without reading the system clock on every access.
+ */
 public class LruMemoryCache<K, V> {
 
     protected final HashMap<K, Entry<K, V>> entries = new HashMap<>();
 
-    protected final Comparator<Entry<K, V>> lruComparator = (lhs, rhs) -> {
-        return (int) (lhs.lastUsed - rhs.lastUsed); // sorts entries from least recently used to most recently used
-    };
+    /**
+     * Sentinel node of the circular entry list. The sentinel's next entry is the least recently used entry, and its
+     * previous entry is the most recently used entry.
+     */
+    protected final Entry<K, V> head = new Entry<>(null, null, 0);
 
     protected int capacity;
 
@@ -32,6 +40,7 @@ public class LruMemoryCache<K, V> {
 
         this.capacity = capacity;
         this.lowWater = (int) (capacity * 0.75);
+        this.head.prev = this.head.next = this.head;
     }
 
     public LruMemoryCache(int capacity, int lowWater) {
@@ -47,6 +56,7 @@ public class LruMemoryCache<K, V> {
 
         this.capacity = capacity;
         this.lowWater = lowWater;
+        this.head.prev = this.head.next = this.head;
     }
 
     public int getCapacity() {
@@ -64,7 +74,11 @@ public class LruMemoryCache<K, V> {
     public V get(K key) {
         Entry<K, V> entry = this.entries.get(key);
         if (entry != null) {
-            entry.lastUsed = System.currentTimeMillis();
+            if (entry != this.head.prev) {
+                entry.lastUsed = this.head.prev.lastUsed; // the most recent time recorded by this cache
+                this.unlinkEntry(entry);
+                this.linkEntry(entry);
+            }
             return entry.value;
         } else {
             return null;
@@ -79,10 +93,12 @@ public class LruMemoryCache<K, V> {
         Entry<K, V> newEntry = new Entry<>(key, value, size);
         newEntry.lastUsed = System.currentTimeMillis();
         this.usedCapacity += newEntry.size;
+        this.linkEntry(newEntry);
 
         Entry<K, V> oldEntry = this.entries.put(key, newEntry);
         if (oldEntry != null) {
             this.usedCapacity -= oldEntry.size;
+            this.unlinkEntry(oldEntry);
 
             if (newEntry.value != oldEntry.value) {
                 this.entryRemoved(oldEntry.key, oldEntry.value, newEntry.value, false);
@@ -97,6 +113,7 @@ public class LruMemoryCache<K, V> {
         Entry<K, V> entry = this.entries.remove(key);
         if (entry != null) {
             this.usedCapacity -= entry.size;
+            this.unlinkEntry(entry);
             this.entryRemoved(entry.key, entry.value, null, false);
             return entry.value;
         } else {
@@ -107,20 +124,14 @@ public class LruMemoryCache<K, V> {
     public int trimToAge(long maxAgeMillis) {
         int trimmedCapacity = 0;
 
-        // Sort the entries from least recently used to most recently used.
-        ArrayList<Entry<K, V>> sortedEntries = this.assembleSortedEntries();
-
         // Remove the least recently used entries until the entry's age is within the specified maximum age.
-        for (int idx = 0, len = sortedEntries.size(); idx < len; idx++) {
-            Entry<K, V> entry = sortedEntries.get(idx);
-            if (entry.lastUsed < maxAgeMillis) {
-                this.entries.remove(entry.key);
-                this.usedCapacity -= entry.size;
-                trimmedCapacity += entry.size;
-                this.entryRemoved(entry.key, entry.value, null, false);
-            } else {
-                break;
-            }
+        Entry<K, V> entry;
+        while ((entry = this.head.next) != this.head && entry.lastUsed < maxAgeMillis) {
+            this.entries.remove(entry.key);
+            this.usedCapacity -= entry.size;
+            this.unlinkEntry(entry);
+            trimmedCapacity += entry.size;
+            this.entryRemoved(entry.key, entry.value, null, false);
         }
 
         return trimmedCapacity;
@@ -131,40 +142,48 @@ public class LruMemoryCache<K, V> {
     }
 
     public void clear() {
-        for (Entry<K, V> entry : this.entries.values()) {
+        for (Entry<K, V> entry = this.head.next; entry != this.head; entry = entry.next) {
             this.entryRemoved(entry.key, entry.value, null, false);
         }
 
-        this.entries.clear();
-        this.usedCapacity = 0;
+        this.clearEntries();
     }
 
     protected void makeSpace(int spaceRequired) {
-        // Sort the entries from least recently used to most recently used.
-        ArrayList<Entry<K, V>> sortedEntries = this.assembleSortedEntries();
-
         // Remove the least recently used entries until the cache capacity reaches the low water and the cache has
         // enough free capacity for the required space.
-        for (int idx = 0, len = sortedEntries.size(); idx < len; idx++) {
-            Entry<K, V> entry = sortedEntries.get(idx);
-            if (this.usedCapacity > this.lowWater || (this.capacity - this.usedCapacity) < spaceRequired) {
-                this.entries.remove(entry.key);
-                this.usedCapacity -= entry.size;
-                this.entryRemoved(entry.key, entry.value, null, true);
-            } else {
-                break;
-            }
+        Entry<K, V> entry;
+        while ((entry = this.head.next) != this.head &&
+            (this.usedCapacity > this.lowWater || (this.capacity - this.usedCapacity) < spaceRequired)) {
+            this.entries.remove(entry.key);
+            this.usedCapacity -= entry.size;
+            this.unlinkEntry(entry);
+            this.entryRemoved(entry.key, entry.value, null, true);
         }
     }
 
-    protected ArrayList<Entry<K, V>> assembleSortedEntries() {
-        // Gather the cache entries into a data structure that's efficiently sortable.
-        ArrayList<Entry<K, V>> sortedEntries = new ArrayList<>(this.entries.values());
+    /**
+     * Removes all entries from this cache without calling {@link #entryRemoved(Object, Object, Object, boolean)}.
+     */
+    protected void clearEntries() {
+        this.entries.clear();
+        this.head.prev = this.head.next = this.head;
+        this.usedCapacity = 0;
+    }
 
-        // Sort the entries from least recently used to most recently used.
-        Collections.sort(sortedEntries, this.lruComparator);
+    protected void linkEntry(Entry<K, V> entry) {
+        // Insert the entry at the most recently used end of the list.
+        entry.prev = this.head.prev;
+        entry.next = this.head;
+        this.head.prev.next = entry;
+        this.head.prev = entry;
+    }
 
-        return sortedEntries;
+    protected void unlinkEntry(Entry<K, V> entry) {
+        entry.prev.next = entry.next;
+        entry.next.prev = entry.prev;
+        entry.prev = null;
+        entry.next = null;
     }
 
     protected void entryRemoved(K key, V oldValue, V newValue, boolean evicted) {
@@ -180,6 +199,10 @@ public class LruMemoryCache<K, V> {
 
         public long lastUsed;
 
+        protected Entry<K, V> prev;
+
+        protected Entry<K, V> next;
+
         public Entry(K key, V value, int size) {
             this.key = key;
             this.value = value;
@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util;
+
+import java.util.ArrayList;
+import java.util.concurrent.RejectedExecutionException;
+
+import gov.nasa.worldwind.WorldWind;
+
+/**
+ * Schedules asynchronous retrievals from any number of {@link Retriever} instances on a shared pool of workers. Pending
+ * retrievals are started in priority order, lowest priority value first, subject to each retriever's limit on
+ * simultaneous retrievals. Requesting a retrieval that is already pending updates its priority, so callers that request
+ * resources every frame continuously reprioritize their retrievals.
+ * <p>
+ * RetrievalScheduler tracks a frame number advanced by {@link #advanceFrame()}, which WorldWindow calls once for each
+ * frame it renders. Pending retrievals that have not been requested within the scheduler's maximum number of idle
+ * frames are cancelled, and their callbacks notified via {@link Retriever.Callback#retrievalRejected}. This prevents
+ * resources that are no longer needed, such as tiles that left the view during navigation, from delaying resources
+ * that are.
+ * <p>
+ * Workers run on the WorldWind {@link TaskService}'s retrieval queue, leaving its network queue to other network
+ * tasks. Workers beyond the retrieval queue's thread count wait for a thread. RetrievalScheduler is thread safe.
+ */
+public class RetrievalScheduler {
+
+    protected final Object lock = new Object();
+
+    protected final ArrayList<Retriever.AsyncTask<?, ?, ?>> pendingTasks = new ArrayList<>();
+
+    protected final Runnable worker = this::runWorker;
+
+    protected int maxWorkers;
+
+    protected int maxIdleFrames;
+
+    protected int activeWorkers;
+
+    protected long frameNumber;
+
+    protected long sequenceNumber;
+
+    /**
+     * Constructs a retrieval scheduler with a specified worker count and maximum number of idle frames.
+     *
+     * @param maxWorkers    the maximum number of retrievals that may run simultaneously, across all retrievers
+     * @param maxIdleFrames the number of frames a pending retrieval may go without being requested before it is
+     *                      cancelled
+     *
+     * @throws IllegalArgumentException if maxWorkers is less than 1, or if maxIdleFrames is less than 0
+     */
+    public RetrievalScheduler(int maxWorkers, int maxIdleFrames) {
+        if (maxWorkers < 1) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "RetrievalScheduler", "constructor", "invalidCount"));
+        }
+
+        if (maxIdleFrames < 0) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "RetrievalScheduler", "constructor", "invalidCount"));
+        }
+
+        this.maxWorkers = maxWorkers;
+        this.maxIdleFrames = maxIdleFrames;
+    }
+
+    public int getMaxWorkers() {
+        synchronized (this.lock) {
+            return this.maxWorkers;
+        }
+    }
+
+    public void setMaxWorkers(int maxWorkers) {
+        if (maxWorkers < 1) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "RetrievalScheduler", "setMaxWorkers", "invalidCount"));
+        }
+
+        synchronized (this.lock) {
+            this.maxWorkers = maxWorkers;
+        }
+
+        this.startWorkers();
+    }
+
+    public int getMaxIdleFrames() {
+        synchronized (this.lock) {
+            return this.maxIdleFrames;
+        }
+    }
+
+    public void setMaxIdleFrames(int maxIdleFrames) {
+        if (maxIdleFrames < 0) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "RetrievalScheduler", "setMaxIdleFrames", "invalidCount"));
+        }
+
+        synchronized (this.lock) {
+            this.maxIdleFrames = maxIdleFrames;
+        }
+    }
+
+    public long getFrameNumber() {
+        synchronized (this.lock) {
+            return this.frameNumber;
+        }
+    }
+
+    public int getPendingCount() {
+        synchronized (this.lock) {
+            return this.pendingTasks.size();
+        }
+    }
+
+    public int getActiveWorkers() {
+        synchronized (this.lock) {
+            return this.activeWorkers;
+        }
+    }
+
+    /**
+     * Advances the scheduler's frame number and cancels pending retrievals that have not been requested within the
+     * maximum number of idle frames.
+     */
+    public void advanceFrame() {
+        ArrayList<Retriever.AsyncTask<?, ?, ?>> expiredTasks = null;
+
+        synchronized (this.lock) {
+            this.frameNumber++;
+
+            long minFrame = this.frameNumber - this.maxIdleFrames;
+            for (int idx = this.pendingTasks.size() - 1; idx >= 0; idx--) {
+                Retriever.AsyncTask<?, ?, ?> task = this.pendingTasks.get(idx);
+                if (task.requestFrame < minFrame && task.retriever.cancelIdleRetrievals) {
+                    if (expiredTasks == null) {
+                        expiredTasks = new ArrayList<>();
+                    }
+                    expiredTasks.add(task);
+                    this.removePendingTask(idx);
+                }
+            }
+        }
+
+        if (expiredTasks != null) {
+            this.cancelTasks(expiredTasks);
+        }
+    }
+
+    /**
+     * Cancels all pending retrievals. Retrievals that are already running are unaffected.
+     */
+    public void clear() {
+        ArrayList<Retriever.AsyncTask<?, ?, ?>> cancelledTasks;
+
+        synchronized (this.lock) {
+            cancelledTasks = new ArrayList<>(this.pendingTasks);
+            for (int idx = this.pendingTasks.size() - 1; idx >= 0; idx--) {
+                this.removePendingTask(idx);
+            }
+        }
+
+        this.cancelTasks(cancelledTasks);
+    }
+
+    protected void cancelTasks(ArrayList<Retriever.AsyncTask<?, ?, ?>> tasks) {
+        // Notify the callbacks of cancelled retrievals outside the lock.
+        for (int idx = 0, len = tasks.size(); idx < len; idx++) {
+            tasks.get(idx).cancel();
+        }
+    }
+
+    /**
+     * Adds a retrieval to the pending queue, or updates the priority of an already pending retrieval for the same key.
+     *
+     * @return false if a retrieval for the key is already running, otherwise true
+     */
+    protected <K, O, V> boolean submit(Retriever<K, O, V> retriever, K key, O options, Retriever.Callback<K, O, V> callback, double priority) {
+        synchronized (this.lock) {
+            if (retriever.asyncTaskSet.contains(key)) {
+                return false; // a retrieval for 'key' is already running
+            }
+
+            Retriever.AsyncTask<K, O, V> task = retriever.pendingTasks.get(key);
+            if (task == null) {
+                task = retriever.obtainAsyncTask(key, options, callback);
+                task.sequence = this.sequenceNumber++;
+                retriever.pendingTasks.put(key, task);
+                this.pendingTasks.add(task);
+            } else {
+                task.options = options;
+                task.callback = callback;
+            }
+
+            task.priority = priority;
+            task.requestFrame = this.frameNumber;
+        }
+
+        this.startWorkers();
+        return true;
+    }
+
+    /**
+     * Called by retrievers when a running retrieval completes, successfully or not.
+     */
+    protected <K, O, V> void taskFinished(Retriever<K, O, V> retriever, Retriever.AsyncTask<K, O, V> task) {
+        synchronized (this.lock) {
+            retriever.asyncTaskSet.remove(task.key);
+            retriever.asyncTaskPool.release(task.reset());
+        }
+    }
+
+    /**
+     * Called by retrievers when a pending retrieval has been cancelled and its callback notified.
+     */
+    protected <K, O, V> void taskCancelled(Retriever<K, O, V> retriever, Retriever.AsyncTask<K, O, V> task) {
+        synchronized (this.lock) {
+            retriever.asyncTaskPool.release(task.reset());
+        }
+    }
+
+    protected void startWorkers() {
+        while (true) {
+            synchronized (this.lock) {
+                if (this.activeWorkers >= this.maxWorkers || this.activeWorkers >= this.pendingTasks.size()) {
+                    return;
+                }
+
+                this.activeWorkers++;
+            }
+
+            try {
+                WorldWind.taskService().execute(TaskService.RETRIEVAL_QUEUE, this.worker);
+            } catch (RejectedExecutionException ignored) { // singleton task service is full
+                synchronized (this.lock) {
+                    this.activeWorkers--;
+                }
+                return;
+            }
+        }
+    }
+
+    protected void runWorker() {
+        Retriever.AsyncTask<?, ?, ?> task;
+        while ((task = this.nextTask()) != null) {
+            task.run();
+        }
+    }
+
+    /**
+     * Removes the highest priority pending retrieval whose retriever is below its simultaneous retrieval limit, and
+     * marks it as running. When no such retrieval exists this releases the calling worker and returns null.
+     */
+    protected Retriever.AsyncTask<?, ?, ?> nextTask() {
+        synchronized (this.lock) {
+            int nextIdx = -1;
+            Retriever.AsyncTask<?, ?, ?> next = null;
+
+            if (this.activeWorkers <= this.maxWorkers) { // the worker count may have been reduced
+                for (int idx = 0, len = this.pendingTasks.size(); idx < len; idx++) {
+                    Retriever.AsyncTask<?, ?, ?> task = this.pendingTasks.get(idx);
+                    if (task.retriever.asyncTaskSet.size() >= task.retriever.maxAsyncTasks) {
+                        continue; // the task's retriever is already running its maximum number of retrievals
+                    }
+
+                    if (next == null || task.priority < next.priority ||
+                        (task.priority == next.priority && task.sequence < next.sequence)) {
+                        nextIdx = idx;
+                        next = task;
+                    }
+                }
+            }
+
+            if (next == null) {
+                this.activeWorkers--;
+                return null;
+            }
+
+            this.removePendingTask(nextIdx);
+            next.markRunning();
+            return next;
+        }
+    }
+
+    protected void removePendingTask(int index) {
+        // Remove the task by swapping in the last element; the pending list is unordered.
+        int last = this.pendingTasks.size() - 1;
+        Retriever.AsyncTask<?, ?, ?> task = this.pendingTasks.get(index);
+        this.pendingTasks.set(index, this.pendingTasks.get(last));
+        this.pendingTasks.remove(last);
+        task.retriever.pendingTasks.remove(task.key);
+    }
+}
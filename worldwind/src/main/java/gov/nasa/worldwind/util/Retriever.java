@@ -5,9 +5,9 @@
 
 package gov.nasa.worldwind.util;
 
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.concurrent.RejectedExecutionException;
 
 import gov.nasa.worldwind.WorldWind;
 
@@ -22,21 +22,87 @@ public abstract class Retriever<K, O, V> {
         void retrievalRejected(Retriever<K, O, V> retriever, K key);
     }
 
-    protected final Object lock = new Object();
+    /**
+     * Default retrieval priority, used by {@link #retrieve(Object, Object, Callback)}. Lower values are retrieved
+     * sooner.
+     */
+    public static final double DEFAULT_PRIORITY = 0;
+
+    protected final RetrievalScheduler scheduler;
 
     protected final int maxAsyncTasks;
 
     protected final Set<K> asyncTaskSet;
 
+    protected final HashMap<K, AsyncTask<K, O, V>> pendingTasks;
+
     protected final Pool<AsyncTask<K, O, V>> asyncTaskPool;
 
+    protected volatile boolean cancelIdleRetrievals = true;
+
     public Retriever(int maxSimultaneousRetrievals) {
+        this(maxSimultaneousRetrievals, WorldWind.retrievalScheduler());
+    }
+
+    public Retriever(int maxSimultaneousRetrievals, RetrievalScheduler scheduler) {
+        if (scheduler == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "Retriever", "constructor", "missingScheduler"));
+        }
+
+        this.scheduler = scheduler;
         this.maxAsyncTasks = maxSimultaneousRetrievals;
         this.asyncTaskSet = new HashSet<>();
+        this.pendingTasks = new HashMap<>();
         this.asyncTaskPool = new BasicPool<>();
     }
 
+    public RetrievalScheduler getScheduler() {
+        return this.scheduler;
+    }
+
+    /**
+     * Indicates whether this retriever's pending retrievals are cancelled when they have not been requested within the
+     * scheduler's maximum number of idle frames.
+     *
+     * @return true if idle retrievals are cancelled, otherwise false
+     */
+    public boolean isCancelIdleRetrievals() {
+        return this.cancelIdleRetrievals;
+    }
+
+    /**
+     * Specifies whether this retriever's pending retrievals are cancelled when they have not been requested within the
+     * scheduler's maximum number of idle frames. Retrievers whose callers do not request resources every frame should
+     * disable idle cancellation, otherwise their retrievals may be cancelled and never requested again.
+     *
+     * @param cancel true to cancel idle retrievals, false to keep them pending until they run
+     */
+    public void setCancelIdleRetrievals(boolean cancel) {
+        this.cancelIdleRetrievals = cancel;
+    }
+
     public void retrieve(K key, O options, Callback<K, O, V> callback) {
+        this.retrieve(key, options, callback, DEFAULT_PRIORITY);
+    }
+
+    /**
+     * Requests an asynchronous retrieval with a specified priority. Retrievals with lower priority values are started
+     * before those with higher values. Tiled resources typically use {@link Tile#getRetrievalPriority()}, the tile's
+     * level number plus a fraction in [0, 1) that grows with the tile's distance to the camera, so that coarser levels
+     * are retrieved first and nearer tiles first within a level. The retrieval is queued in this retriever's
+     * {@link RetrievalScheduler}. Requesting a retrieval for a key that is already queued updates the queued
+     * retrieval's priority, options and callback, and keeps it from being cancelled as idle.
+     * <p>
+     * The callback is notified via {@link Callback#retrievalRejected} when a retrieval for the key is already running,
+     * or when the queued retrieval is cancelled by the scheduler.
+     *
+     * @param key      the key identifying the resource to retrieve
+     * @param options  the retrieval options, may be null
+     * @param callback the callback to notify when the retrieval completes
+     * @param priority the retrieval priority; lower values are retrieved sooner
+     */
+    public void retrieve(K key, O options, Callback<K, O, V> callback, double priority) {
         if (key == null) {
             throw new IllegalArgumentException(
                 Logger.logMessage(Logger.ERROR, "Retriever", "retrieve", "missingKey"));
@@ -47,16 +113,7 @@ public abstract class Retriever<K, O, V> {
                 Logger.logMessage(Logger.ERROR, "Retriever", "retrieve", "missingCallback"));
         }
 
-        AsyncTask<K, O, V> task = this.obtainAsyncTask(key, options, callback);
-        if (task == null) { // too many async tasks running, or a task for 'key' is already running
-            callback.retrievalRejected(this, key);
-            return;
-        }
-
-        try {
-            WorldWind.taskService().execute(task);
-        } catch (RejectedExecutionException ignored) { // singleton task service is full
-            this.recycleAsyncTask(task);
+        if (!this.scheduler.submit(this, key, options, callback, priority)) { // a task for 'key' is already running
             callback.retrievalRejected(this, key);
         }
     }
@@ -64,23 +121,8 @@ public abstract class Retriever<K, O, V> {
     protected abstract void retrieveAsync(K key, O options, Callback<K, O, V> callback);
 
     protected AsyncTask<K, O, V> obtainAsyncTask(K key, O options, Callback<K, O, V> callback) {
-        synchronized (this.lock) {
-            if (this.asyncTaskSet.size() >= this.maxAsyncTasks || this.asyncTaskSet.contains(key)) {
-                return null;
-            }
-
-            this.asyncTaskSet.add(key);
-
-            AsyncTask<K, O, V> instance = this.asyncTaskPool.acquire();
-            return (instance != null ? instance : new AsyncTask<K, O, V>()).set(this, key, options, callback);
-        }
-    }
-
-    protected void recycleAsyncTask(AsyncTask<K, O, V> instance) {
-        synchronized (this.lock) {
-            this.asyncTaskSet.remove(instance.key);
-            this.asyncTaskPool.release(instance.reset());
-        }
+        AsyncTask<K, O, V> instance = this.asyncTaskPool.acquire();
+        return (instance != null ? instance : new AsyncTask<K, O, V>()).set(this, key, options, callback);
     }
 
     protected static class AsyncTask<K, O, V> implements Runnable {
@@ -93,6 +135,12 @@ public abstract class Retriever<K, O, V> {
 
         protected Callback<K, O, V> callback;
 
+        protected double priority;
+
+        protected long requestFrame;
+
+        protected long sequence;
+
         public AsyncTask<K, O, V> set(Retriever<K, O, V> retriever, K key, O options, Callback<K, O, V> callback) {
             this.retriever = retriever;
             this.key = key;
@@ -106,9 +154,25 @@ public abstract class Retriever<K, O, V> {
             this.key = null;
             this.options = null;
             this.callback = null;
+            this.priority = 0;
+            this.requestFrame = 0;
+            this.sequence = 0;
             return this;
         }
 
+        protected void markRunning() {
+            this.retriever.asyncTaskSet.add(this.key);
+        }
+
+        protected void cancel() {
+            Retriever<K, O, V> retriever = this.retriever;
+            K key = this.key;
+            Callback<K, O, V> callback = this.callback;
+
+            retriever.scheduler.taskCancelled(retriever, this);
+            callback.retrievalRejected(retriever, key);
+        }
+
         @Override
         public void run() {
             try {
@@ -116,7 +180,7 @@ public abstract class Retriever<K, O, V> {
             } catch (Throwable ex) {
                 this.callback.retrievalFailed(this.retriever, this.key, ex);
             } finally {
-                this.retriever.recycleAsyncTask(this);
+                this.retriever.scheduler.taskFinished(this.retriever, this);
             }
         }
     }
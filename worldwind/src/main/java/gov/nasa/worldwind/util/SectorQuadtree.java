@@ -0,0 +1,369 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util;
+
+import java.util.ArrayList;
+
+import gov.nasa.worldwind.geom.Sector;
+
+/**
+ * Geographic index that associates values with sectors, and finds the values whose sectors intersect a query sector
+ * without visiting every value. The index divides the globe into a quadtree of sectors. Each entry is stored in the
+ * deepest node whose sector contains the entry's sector, and nodes are subdivided when their entry count exceeds a
+ * configurable maximum. Entries spanning the boundaries of smaller nodes therefore remain in larger nodes.
+ * <p>
+ * Entries are inserted, updated and removed incrementally. Updating an entry's sector moves the entry to the node that
+ * contains its new sector; the entry object returned by {@link #insert(Sector, Object)} remains valid until it is
+ * removed. SectorQuadtree is not thread safe.
+ *
+ * @param <T> the type of value associated with each sector
+ */
+public class SectorQuadtree<T> {
+
+    protected static final int DEFAULT_MAX_ENTRIES = 16;
+
+    protected static final int DEFAULT_MAX_DEPTH = 12;
+
+    protected final int maxEntries;
+
+    protected final int maxDepth;
+
+    protected Node<T> root;
+
+    /**
+     * Constructs an empty quadtree that subdivides nodes containing more than 16 entries, up to a depth of 12 levels.
+     */
+    public SectorQuadtree() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_DEPTH);
+    }
+
+    /**
+     * Constructs an empty quadtree with a specified node capacity and maximum depth.
+     *
+     * @param maxEntries the number of entries a node may contain before it is subdivided
+     * @param maxDepth   the maximum number of subdivisions below the node covering the globe
+     *
+     * @throws IllegalArgumentException if maxEntries is less than 1, or if maxDepth is less than 0
+     */
+    public SectorQuadtree(int maxEntries, int maxDepth) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "SectorQuadtree", "constructor", "invalidCount"));
+        }
+
+        if (maxDepth < 0) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "SectorQuadtree", "constructor", "invalidCount"));
+        }
+
+        this.maxEntries = maxEntries;
+        this.maxDepth = maxDepth;
+        this.root = new Node<>(null, new Sector().setFullSphere(), 0);
+    }
+
+    /**
+     * Returns the number of entries in this quadtree.
+     *
+     * @return the entry count
+     */
+    public int count() {
+        return this.root.subtreeCount;
+    }
+
+    /**
+     * Adds a value to this quadtree, associated with a specified sector. The sector is copied.
+     *
+     * @param sector the value's geographic extent
+     * @param value  the value to add, which may be null
+     *
+     * @return the quadtree entry for the value, used to update or remove it
+     *
+     * @throws IllegalArgumentException if the sector is null
+     */
+    public Entry<T> insert(Sector sector, T value) {
+        if (sector == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "SectorQuadtree", "insert", "missingSector"));
+        }
+
+        Entry<T> entry = new Entry<>(value);
+        entry.sector.set(sector);
+        this.insertEntry(this.root, entry);
+
+        return entry;
+    }
+
+    /**
+     * Changes the sector associated with an entry in this quadtree, moving the entry to the node that contains its new
+     * sector.
+     *
+     * @param entry  the entry to update
+     * @param sector the entry's new geographic extent
+     *
+     * @throws IllegalArgumentException if either argument is null, or if the entry is not in this quadtree
+     */
+    public void update(Entry<T> entry, Sector sector) {
+        if (entry == null || entry.node == null || entry.tree != this) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "SectorQuadtree", "update", "invalidEntry"));
+        }
+
+        if (sector == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "SectorQuadtree", "update", "missingSector"));
+        }
+
+        entry.sector.set(sector);
+
+        // Keep the entry in its current node when that node is still the deepest node containing the new sector.
+        Node<T> node = entry.node;
+        if ((node.parent == null || node.sector.contains(sector)) && node.childContaining(sector) == null) {
+            return;
+        }
+
+        // Otherwise reinsert the entry starting at the smallest ancestor containing its new sector.
+        this.removeEntry(entry);
+        while (node.parent != null && !node.sector.contains(sector)) {
+            node = node.parent;
+        }
+        this.insertEntry(node, entry);
+    }
+
+    /**
+     * Removes an entry from this quadtree.
+     *
+     * @param entry the entry to remove
+     *
+     * @return true if the entry was in this quadtree, otherwise false
+     */
+    public boolean remove(Entry<T> entry) {
+        if (entry == null || entry.node == null || entry.tree != this) {
+            return false;
+        }
+
+        this.removeEntry(entry);
+        return true;
+    }
+
+    /**
+     * Removes all entries from this quadtree.
+     */
+    public void clear() {
+        this.clearNode(this.root);
+        this.root = new Node<>(null, new Sector().setFullSphere(), 0);
+    }
+
+    /**
+     * Finds the values whose sectors intersect or are adjacent to a specified sector, appending them to a result list.
+     * Values are appended in no particular order.
+     *
+     * @param sector the sector to query
+     * @param result a list in which to append the values found
+     *
+     * @return the number of values appended to the result list
+     *
+     * @throws IllegalArgumentException if either argument is null
+     */
+    public int query(Sector sector, ArrayList<? super T> result) {
+        if (sector == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "SectorQuadtree", "query", "missingSector"));
+        }
+
+        if (result == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "SectorQuadtree", "query", "missingResult"));
+        }
+
+        int size = result.size();
+        this.queryNode(this.root, sector, result);
+
+        return result.size() - size;
+    }
+
+    protected void insertEntry(Node<T> node, Entry<T> entry) {
+        // Descend to the deepest existing node containing the entry's sector.
+        Node<T> child;
+        while ((child = node.childContaining(entry.sector)) != null) {
+            node = child;
+        }
+
+        node.addEntry(entry);
+        entry.tree = this;
+
+        for (Node<T> n = node; n != null; n = n.parent) {
+            n.subtreeCount++;
+        }
+
+        // Subdivide the node when it exceeds its capacity, moving entries that fit within a child to that child.
+        if (node.children == null && node.entries.size() > this.maxEntries && node.depth < this.maxDepth) {
+            this.subdivide(node);
+        }
+    }
+
+    protected void removeEntry(Entry<T> entry) {
+        Node<T> node = entry.node;
+        node.removeEntry(entry);
+        entry.tree = null;
+
+        for (Node<T> n = node; n != null; n = n.parent) {
+            n.subtreeCount--;
+        }
+    }
+
+    protected void subdivide(Node<T> node) {
+        Sector sector = node.sector;
+        double midLat = sector.centroidLatitude();
+        double midLon = sector.centroidLongitude();
+        double halfLat = sector.deltaLatitude() * 0.5;
+        double halfLon = sector.deltaLongitude() * 0.5;
+        int depth = node.depth + 1;
+
+        node.children = new ArrayList<>(4);
+        node.children.add(new Node<>(node, new Sector(sector.minLatitude(), sector.minLongitude(), halfLat, halfLon), depth));
+        node.children.add(new Node<>(node, new Sector(sector.minLatitude(), midLon, halfLat, halfLon), depth));
+        node.children.add(new Node<>(node, new Sector(midLat, sector.minLongitude(), halfLat, halfLon), depth));
+        node.children.add(new Node<>(node, new Sector(midLat, midLon, halfLat, halfLon), depth));
+
+        ArrayList<Entry<T>> entries = node.entries;
+        for (int idx = entries.size() - 1; idx >= 0; idx--) {
+            Entry<T> entry = entries.get(idx);
+            Node<T> child = node.childContaining(entry.sector);
+            if (child != null) {
+                node.removeEntry(entry);
+                child.addEntry(entry);
+                child.subtreeCount++;
+            }
+        }
+
+        // Subdivide children that received more entries than their capacity.
+        ArrayList<Node<T>> children = node.children;
+        for (int idx = 0, len = children.size(); idx < len; idx++) {
+            Node<T> child = children.get(idx);
+            if (child.entries.size() > this.maxEntries && child.depth < this.maxDepth) {
+                this.subdivide(child);
+            }
+        }
+    }
+
+    protected void queryNode(Node<T> node, Sector sector, ArrayList<? super T> result) {
+        if (node.subtreeCount == 0 || !node.sector.intersectsOrNextTo(sector)) {
+            return;
+        }
+
+        ArrayList<Entry<T>> entries = node.entries;
+        for (int idx = 0, len = entries.size(); idx < len; idx++) {
+            Entry<T> entry = entries.get(idx);
+            if (entry.sector.intersectsOrNextTo(sector)) {
+                result.add(entry.value);
+            }
+        }
+
+        if (node.children != null) {
+            ArrayList<Node<T>> children = node.children;
+            for (int idx = 0, len = children.size(); idx < len; idx++) {
+                this.queryNode(children.get(idx), sector, result);
+            }
+        }
+    }
+
+    protected void clearNode(Node<T> node) {
+        ArrayList<Entry<T>> entries = node.entries;
+        for (int idx = 0, len = entries.size(); idx < len; idx++) {
+            Entry<T> entry = entries.get(idx);
+            entry.node = null;
+            entry.tree = null;
+        }
+
+        if (node.children != null) {
+            ArrayList<Node<T>> children = node.children;
+            for (int idx = 0, len = children.size(); idx < len; idx++) {
+                this.clearNode(children.get(idx));
+            }
+        }
+    }
+
+    /**
+     * A value in a quadtree and the sector it is associated with.
+     *
+     * @param <T> the type of value
+     */
+    public static class Entry<T> {
+
+        public final T value;
+
+        protected final Sector sector = new Sector();
+
+        protected SectorQuadtree<T> tree;
+
+        protected Node<T> node;
+
+        protected int nodeIndex;
+
+        protected Entry(T value) {
+            this.value = value;
+        }
+
+        /**
+         * Returns the sector this entry is associated with. The returned sector must not be modified.
+         *
+         * @return the entry's sector
+         */
+        public Sector getSector() {
+            return this.sector;
+        }
+    }
+
+    protected static class Node<T> {
+
+        public final Node<T> parent;
+
+        public final Sector sector;
+
+        public final int depth;
+
+        public final ArrayList<Entry<T>> entries = new ArrayList<>();
+
+        public ArrayList<Node<T>> children;
+
+        public int subtreeCount;
+
+        public Node(Node<T> parent, Sector sector, int depth) {
+            this.parent = parent;
+            this.sector = sector;
+            this.depth = depth;
+        }
+
+        public Node<T> childContaining(Sector sector) {
+            if (this.children != null) {
+                for (int idx = 0, len = this.children.size(); idx < len; idx++) {
+                    Node<T> child = this.children.get(idx);
+                    if (child.sector.contains(sector)) {
+                        return child;
+                    }
+                }
+            }
+
+            return null;
+        }
+
+        public void addEntry(Entry<T> entry) {
+            entry.node = this;
+            entry.nodeIndex = this.entries.size();
+            this.entries.add(entry);
+        }
+
+        public void removeEntry(Entry<T> entry) {
+            // Remove the entry by swapping in the last entry; a node's entries are unordered.
+            int last = this.entries.size() - 1;
+            Entry<T> lastEntry = this.entries.get(last);
+            this.entries.set(entry.nodeIndex, lastEntry);
+            lastEntry.nodeIndex = entry.nodeIndex;
+            this.entries.remove(last);
+            entry.node = null;
+        }
+    }
+}
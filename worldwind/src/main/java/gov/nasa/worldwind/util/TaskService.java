@@ -5,40 +5,263 @@
 
 package gov.nasa.worldwind.util;
 
-import java.util.concurrent.ExecutorService;
+import androidx.annotation.IntDef;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.RejectedExecutionHandler;
-import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Runs asynchronous tasks on bounded pools of threads, one for each kind of work: network I/O, resource retrieval,
+ * disk I/O and decoding or other CPU bound work. Separating the queues keeps slow network requests from occupying the
+ * threads needed for local work, and keeps continuous tile retrieval from occupying the threads needed for one-off
+ * network requests, while bounding the number of threads that compete for the device's cores. Each queue runs a fixed
+ * maximum number of threads, and holds at most a fixed number of waiting tasks; submitting a task to a full queue
+ * throws a RejectedExecutionException.
+ * <p>
+ * Waiting tasks start in priority order, lowest priority value first, and in submission order among tasks of equal
+ * priority. Each queue counts its waiting tasks, its completed and rejected tasks, and the time tasks spent waiting,
+ * so that applications can monitor how well the service keeps up with its load.
+ * <p>
+ * TaskService is thread safe.
+ */
 public class TaskService {
 
-    protected ExecutorService executorService;
+    /**
+     * The queue for tasks that spend most of their time waiting on the network, such as requesting a service's
+     * capabilities.
+     */
+    public static final int NETWORK_QUEUE = 0;
+
+    /**
+     * The queue for tasks that read or write local files, such as opening a GeoPackage.
+     */
+    public static final int DISK_QUEUE = 1;
+
+    /**
+     * The queue for CPU bound tasks, such as decoding data or preparing terrain tiles.
+     */
+    public static final int DECODE_QUEUE = 2;
+
+    /**
+     * The queue for {@link RetrievalScheduler} workers. Each worker runs pending retrievals one after another for as
+     * long as retrievals are pending, so workers occupy their threads while tiles stream in.
+     */
+    public static final int RETRIEVAL_QUEUE = 3;
+
+    /**
+     * Task queue identifiers, indicating the kind of work a task performs.
+     */
+    @IntDef({NETWORK_QUEUE, DISK_QUEUE, DECODE_QUEUE, RETRIEVAL_QUEUE})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface TaskQueue {
+
+    }
+
+    /**
+     * Default task priority, used by {@link #execute(Runnable)} and {@link #execute(int, Runnable)}. Lower values run
+     * sooner.
+     */
+    public static final double DEFAULT_PRIORITY = 0;
+
+    /**
+     * The number of threads running the retrieval queue's tasks when not specified, matching the number of workers run
+     * by the WorldWind retrieval scheduler.
+     */
+    protected static final int DEFAULT_RETRIEVAL_THREADS = 10;
+
+    protected static final String[] QUEUE_NAMES = {"Network", "Disk", "Decode", "Retrieval"};
 
+    protected final Queue[] queues = new Queue[4];
+
+    protected final AtomicLong sequenceNumber = new AtomicLong();
+
+    /**
+     * Constructs a task service with thread counts suited to the device. The network queue runs four threads, the
+     * retrieval queue runs as many threads as the default {@link RetrievalScheduler} runs workers, the disk queue runs
+     * two threads, and the decode queue runs one thread fewer than the number of processors, leaving a core for the
+     * main and rendering threads.
+     */
+    public TaskService() {
+        this(4, DEFAULT_RETRIEVAL_THREADS, 2, Math.max(1, Runtime.getRuntime().availableProcessors() - 1), 256);
+    }
+
+    /**
+     * Constructs a task service with specified thread counts and a maximum number of waiting tasks for each queue. The
+     * retrieval queue runs as many threads as the default {@link RetrievalScheduler} runs workers.
+     *
+     * @param networkThreads the maximum number of threads running network tasks
+     * @param diskThreads    the maximum number of threads running disk tasks
+     * @param decodeThreads  the maximum number of threads running decode tasks
+     * @param maxQueueDepth  the maximum number of tasks waiting in each queue
+     *
+     * @throws IllegalArgumentException if any argument is less than 1
+     */
+    public TaskService(int networkThreads, int diskThreads, int decodeThreads, int maxQueueDepth) {
+        this(networkThreads, DEFAULT_RETRIEVAL_THREADS, diskThreads, decodeThreads, maxQueueDepth);
+    }
+
+    /**
+     * Constructs a task service with specified thread counts and a maximum number of waiting tasks for each queue.
+     *
+     * @param networkThreads   the maximum number of threads running network tasks
+     * @param retrievalThreads the maximum number of threads running retrieval scheduler workers
+     * @param diskThreads      the maximum number of threads running disk tasks
+     * @param decodeThreads    the maximum number of threads running decode tasks
+     * @param maxQueueDepth    the maximum number of tasks waiting in each queue
+     *
+     * @throws IllegalArgumentException if any argument is less than 1
+     */
+    public TaskService(int networkThreads, int retrievalThreads, int diskThreads, int decodeThreads, int maxQueueDepth) {
+        if (networkThreads < 1 || retrievalThreads < 1 || diskThreads < 1 || decodeThreads < 1 || maxQueueDepth < 1) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "TaskService", "constructor", "invalidCount"));
+        }
+
+        this.queues[NETWORK_QUEUE] = new Queue(NETWORK_QUEUE, networkThreads, maxQueueDepth);
+        this.queues[DISK_QUEUE] = new Queue(DISK_QUEUE, diskThreads, maxQueueDepth);
+        this.queues[DECODE_QUEUE] = new Queue(DECODE_QUEUE, decodeThreads, maxQueueDepth);
+        this.queues[RETRIEVAL_QUEUE] = new Queue(RETRIEVAL_QUEUE, retrievalThreads, maxQueueDepth);
+    }
+
+    /**
+     * Runs a task on the decode queue with the default priority.
+     *
+     * @param command the task to run, ignored if null
+     *
+     * @throws RejectedExecutionException if the decode queue is full
+     */
     public void execute(Runnable command) {
+        this.execute(DECODE_QUEUE, DEFAULT_PRIORITY, command);
+    }
+
+    /**
+     * Runs a task on a specified queue with the default priority.
+     *
+     * @param queue   the queue appropriate for the kind of work the task performs
+     * @param command the task to run, ignored if null
+     *
+     * @throws RejectedExecutionException if the queue is full
+     */
+    public void execute(@TaskQueue int queue, Runnable command) {
+        this.execute(queue, DEFAULT_PRIORITY, command);
+    }
+
+    /**
+     * Runs a task on a specified queue with a specified priority. Waiting tasks with lower priority values start before
+     * those with higher values.
+     *
+     * @param queue    the queue appropriate for the kind of work the task performs
+     * @param priority the task priority; lower values run sooner
+     * @param command  the task to run, ignored if null
+     *
+     * @throws IllegalArgumentException   if the queue is not one of the queue identifiers
+     * @throws RejectedExecutionException if the queue is full
+     */
+    public void execute(@TaskQueue int queue, double priority, Runnable command) {
         if (command == null) {
             return;
         }
 
-        this.executorService().execute(command);
+        this.queue(queue, "execute").execute(new Task(command, priority, this.sequenceNumber.getAndIncrement()));
+    }
+
+    /**
+     * Indicates the maximum number of threads running a queue's tasks.
+     */
+    public int getMaxThreads(@TaskQueue int queue) {
+        return this.queue(queue, "getMaxThreads").maxThreads;
+    }
+
+    /**
+     * Indicates the maximum number of tasks that may wait in a queue.
+     */
+    public int getMaxQueueDepth(@TaskQueue int queue) {
+        return this.queue(queue, "getMaxQueueDepth").maxDepth;
+    }
+
+    /**
+     * Indicates the number of a queue's tasks waiting to run.
+     */
+    public int getQueueDepth(@TaskQueue int queue) {
+        return this.queue(queue, "getQueueDepth").depth.get();
+    }
+
+    /**
+     * Indicates the number of a queue's tasks currently running.
+     */
+    public int getActiveCount(@TaskQueue int queue) {
+        return this.queue(queue, "getActiveCount").active.get();
+    }
+
+    /**
+     * Indicates the number of a queue's tasks that have finished running, successfully or not. Sampling this count
+     * periodically gives the queue's throughput.
+     */
+    public long getCompletedCount(@TaskQueue int queue) {
+        return this.queue(queue, "getCompletedCount").completed.get();
+    }
+
+    /**
+     * Indicates the number of tasks rejected because a queue was full.
+     */
+    public long getRejectedCount(@TaskQueue int queue) {
+        return this.queue(queue, "getRejectedCount").rejected.get();
+    }
+
+    /**
+     * Indicates the total time in milliseconds that a queue's started tasks spent waiting to run.
+     */
+    public double getTotalWaitTime(@TaskQueue int queue) {
+        return this.queue(queue, "getTotalWaitTime").totalWaitNanos.get() * 1.0e-6;
+    }
+
+    /**
+     * Indicates the average time in milliseconds that a queue's started tasks spent waiting to run.
+     */
+    public double getAverageWaitTime(@TaskQueue int queue) {
+        Queue q = this.queue(queue, "getAverageWaitTime");
+        long started = q.started.get();
+        return (started > 0) ? q.totalWaitNanos.get() * 1.0e-6 / started : 0;
+    }
+
+    /**
+     * Indicates the longest time in milliseconds that one of a queue's tasks spent waiting to run.
+     */
+    public double getMaxWaitTime(@TaskQueue int queue) {
+        return this.queue(queue, "getMaxWaitTime").maxWaitNanos.get() * 1.0e-6;
     }
 
-    protected ExecutorService executorService() {
-        if (this.executorService == null) {
-            this.executorService = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
-                    new SynchronousQueue<>(),
-                this.threadFactory(),
-                this.rejectedExecutionHandler());
+    /**
+     * Resets a queue's completed and rejected counts and its wait times to zero.
+     */
+    public void resetMetrics(@TaskQueue int queue) {
+        Queue q = this.queue(queue, "resetMetrics");
+        q.started.set(0);
+        q.completed.set(0);
+        q.rejected.set(0);
+        q.totalWaitNanos.set(0);
+        q.maxWaitNanos.set(0);
+    }
+
+    protected Queue queue(int queue, String methodName) {
+        if (queue < 0 || queue >= this.queues.length) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "TaskService", methodName, "invalidQueue"));
         }
 
-        return this.executorService;
+        return this.queues[queue];
     }
 
-    protected ThreadFactory threadFactory() {
-        final String threadName = "WorldWind Task Service ";
+    protected ThreadFactory threadFactory(int queue) {
+        final String threadName = "WorldWind " + QUEUE_NAMES[queue] + " Task ";
         final AtomicInteger threadNumber = new AtomicInteger(1);
 
         return r -> {
@@ -53,4 +276,132 @@ public class TaskService {
             throw new RejectedExecutionException(); // throw an exception but suppress the message to avoid string allocation
         };
     }
+
+    /**
+     * A task queue and the pool of threads running its tasks. Threads are created as tasks arrive, up to the queue's
+     * maximum, and exit after a minute without work.
+     */
+    protected class Queue {
+
+        public final int maxThreads;
+
+        public final int maxDepth;
+
+        public final AtomicInteger depth = new AtomicInteger();
+
+        public final AtomicInteger active = new AtomicInteger();
+
+        public final AtomicLong started = new AtomicLong();
+
+        public final AtomicLong completed = new AtomicLong();
+
+        public final AtomicLong rejected = new AtomicLong();
+
+        public final AtomicLong totalWaitNanos = new AtomicLong();
+
+        public final AtomicLong maxWaitNanos = new AtomicLong();
+
+        protected final int queue;
+
+        protected ThreadPoolExecutor executor;
+
+        public Queue(int queue, int maxThreads, int maxDepth) {
+            this.queue = queue;
+            this.maxThreads = maxThreads;
+            this.maxDepth = maxDepth;
+        }
+
+        public void execute(Task task) {
+            if (this.depth.incrementAndGet() > this.maxDepth) {
+                this.depth.decrementAndGet();
+                this.rejected.incrementAndGet();
+                throw new RejectedExecutionException(); // throw an exception but suppress the message to avoid string allocation
+            }
+
+            task.queue = this;
+            task.submitTime = System.nanoTime();
+
+            try {
+                this.executor().execute(task);
+            } catch (RejectedExecutionException ex) {
+                this.depth.decrementAndGet();
+                this.rejected.incrementAndGet();
+                throw ex;
+            }
+        }
+
+        protected synchronized ThreadPoolExecutor executor() {
+            if (this.executor == null) {
+                // The executor starts a new thread for each task until it's running its maximum number of threads, and
+                // queues tasks thereafter. The queue orders tasks by priority; its depth is bounded by execute.
+                this.executor = new ThreadPoolExecutor(this.maxThreads, this.maxThreads, 60, TimeUnit.SECONDS,
+                    new PriorityBlockingQueue<>(),
+                    threadFactory(this.queue),
+                    rejectedExecutionHandler());
+                this.executor.allowCoreThreadTimeOut(true);
+            }
+
+            return this.executor;
+        }
+
+        protected void taskStarted(Task task) {
+            long waitNanos = System.nanoTime() - task.submitTime;
+            this.depth.decrementAndGet();
+            this.active.incrementAndGet();
+            this.started.incrementAndGet();
+            this.totalWaitNanos.addAndGet(waitNanos);
+
+            long max;
+            while (waitNanos > (max = this.maxWaitNanos.get()) && !this.maxWaitNanos.compareAndSet(max, waitNanos)) {
+                // another thread updated the maximum; try again
+            }
+        }
+
+        protected void taskFinished(Task task) {
+            this.active.decrementAndGet();
+            this.completed.incrementAndGet();
+        }
+    }
+
+    /**
+     * Wraps a submitted command with its priority and submission order, and records the queue's metrics as the
+     * command runs.
+     */
+    protected static class Task implements Runnable, Comparable<Task> {
+
+        public final Runnable command;
+
+        public final double priority;
+
+        public final long sequence;
+
+        protected Queue queue;
+
+        protected long submitTime;
+
+        public Task(Runnable command, double priority, long sequence) {
+            this.command = command;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Task that) {
+            if (this.priority != that.priority) {
+                return (this.priority < that.priority) ? -1 : 1;
+            }
+
+            return (this.sequence < that.sequence) ? -1 : ((this.sequence == that.sequence) ? 0 : 1);
+        }
+
+        @Override
+        public void run() {
+            this.queue.taskStarted(this);
+            try {
+                this.command.run();
+            } finally {
+                this.queue.taskFinished(this);
+            }
+        }
+    }
 }
@@ -16,6 +16,7 @@ import gov.nasa.worldwind.geom.Frustum;
 import gov.nasa.worldwind.geom.Location;
 import gov.nasa.worldwind.geom.Sector;
 import gov.nasa.worldwind.geom.Vec3;
+import gov.nasa.worldwind.globe.ElevationModel;
 import gov.nasa.worldwind.render.RenderContext;
 
 /**
@@ -282,6 +283,29 @@ public class Tile {
         return this.sector.intersects(sector);
     }
 
+    /**
+     * Returns the distance from this tile to the camera, as computed by the most recent call to {@link
+     * #mustSubdivide(RenderContext, double)}.
+     *
+     * @return the distance in meters
+     */
+    public double getDistanceToCamera() {
+        return this.distanceToCamera;
+    }
+
+    /**
+     * Returns this tile's retrieval priority, based on its level and its distance to the camera as computed by the
+     * most recent call to {@link #mustSubdivide(RenderContext, double)}. Lower values are retrieved sooner. Tiles in
+     * coarser levels precede tiles in finer levels, so that the view is quickly covered at low resolution, and tiles
+     * nearer the camera precede farther tiles in the same level.
+     *
+     * @return the tile's retrieval priority
+     */
+    public double getRetrievalPriority() {
+        // The distance term lies in [0, 1), ordering tiles within a level without crossing into the next level.
+        return this.level.levelNumber + this.distanceToCamera / (this.distanceToCamera + 1);
+    }
+
     /**
      * Indicates whether this tile should be subdivided based on the current navigation state and a specified detail
      * factor.
@@ -404,8 +428,13 @@ public class Tile {
             this.extent = new BoundingBox();
         }
 
-        long elevationTimestamp = rc.globe.getElevationModel().getTimestamp();
-        if (elevationTimestamp != this.heightLimitsTimestamp) {
+        // Scan the height limits when the elevation model has changed within this tile's sector. Changes elsewhere only
+        // advance the tile's timestamp.
+        ElevationModel elevationModel = rc.globe.getElevationModel();
+        long elevationTimestamp = elevationModel.getTimestamp();
+        boolean heightsChanged = elevationTimestamp != this.heightLimitsTimestamp &&
+            elevationModel.hasChangedSince(this.heightLimitsTimestamp, this.sector);
+        if (heightsChanged) {
             // initialize the heights for elevation model scan
             this.heightLimits[0] = Float.MAX_VALUE;
             this.heightLimits[1] = -Float.MAX_VALUE;
@@ -417,8 +446,7 @@ public class Tile {
         }
 
         double verticalExaggeration = rc.verticalExaggeration;
-        if (verticalExaggeration != this.extentExaggeration ||
-            elevationTimestamp != this.heightLimitsTimestamp) {
+        if (verticalExaggeration != this.extentExaggeration || heightsChanged) {
             float minHeight = (float) (this.heightLimits[0] * verticalExaggeration);
             float maxHeight = (float) (this.heightLimits[1] * verticalExaggeration);
             this.extent.setToSector(this.sector, rc.globe, minHeight, maxHeight);
@@ -20,12 +20,27 @@ import gov.nasa.worldwind.util.Logger;
 
 public class XmlModelParser {
 
+    /**
+     * Creates XML model instances for an element name. Registering a factory, typically a constructor reference such as
+     * <code>WmsLayer::new</code>, avoids reflectively constructing a model for each element parsed.
+     */
+    public interface ModelFactory {
+
+        XmlModel createModel();
+    }
+
     protected XmlPullParser xpp;
 
-    protected final Map<QName, Class<? extends XmlModel>> xmlModelRegistry = new HashMap<>();
+    protected final Map<QName, ModelFactory> xmlModelRegistry = new HashMap<>();
 
     protected final Set<QName> txtModelRegistry = new HashSet<>();
 
+    /**
+     * Element names keyed by namespace and local name, used to look up the element name for each start tag without
+     * allocating a new QName.
+     */
+    protected final Map<String, Map<String, QName>> nameTable = new HashMap<>();
+
     protected final StringBuilder characters = new StringBuilder();
 
     public XmlModelParser() {
@@ -48,7 +63,7 @@ public class XmlModelParser {
             this.xpp.next(); // skip to the start of the first element
         }
 
-        QName name = new QName(this.xpp.getNamespace(), this.xpp.getName());
+        QName name = this.internName(this.xpp.getNamespace(), this.xpp.getName());
         return this.parseElement(name, null /*parent*/);
     }
 
@@ -56,17 +71,69 @@ public class XmlModelParser {
      * Registers a xpp for a specified element name. A xpp of the same type and namespace is returned when is called for
      * the same element name.
      */
-    public void registerXmlModel(String namespace, String name, Class<? extends XmlModel> parsableModel) {
-        this.xmlModelRegistry.put(new QName(namespace, name), parsableModel);
+    public void registerXmlModel(String namespace, String name, ModelFactory factory) {
+        this.xmlModelRegistry.put(this.internName(namespace, name), factory);
+    }
+
+    /**
+     * Registers a model class for a specified element name. Models of the class are created reflectively using the
+     * class' default constructor. Registering a {@link ModelFactory} is faster.
+     */
+    public void registerXmlModel(String namespace, String name, final Class<? extends XmlModel> parsableModel) {
+        this.registerXmlModel(namespace, name, new ModelFactory() {
+            @Override
+            public XmlModel createModel() {
+                try {
+                    return parsableModel.newInstance(); // create a new instance using the default constructor
+                } catch (Exception e) {
+                    Logger.logMessage(Logger.ERROR, "XmlModelParser", "createXmlModel",
+                        "Exception invoking default constructor for " + parsableModel.getName(), e);
+                    return null;
+                }
+            }
+        });
     }
 
     public void registerTxtModel(String namespace, String name) {
-        this.txtModelRegistry.add(new QName(namespace, name));
+        this.txtModelRegistry.add(this.internName(namespace, name));
     }
 
     public void registerAllModels(XmlModelParser registry) {
-        this.xmlModelRegistry.putAll(registry.xmlModelRegistry);
-        this.txtModelRegistry.addAll(registry.txtModelRegistry);
+        for (Map.Entry<QName, ModelFactory> entry : registry.xmlModelRegistry.entrySet()) {
+            this.xmlModelRegistry.put(this.internName(entry.getKey()), entry.getValue());
+        }
+
+        for (QName name : registry.txtModelRegistry) {
+            this.txtModelRegistry.add(this.internName(name));
+        }
+    }
+
+    /**
+     * Returns the element name for a specified namespace and local name, creating and retaining a new name the first
+     * time the namespace and local name are seen.
+     */
+    protected QName internName(String namespace, String localName) {
+        if (namespace == null) {
+            namespace = ""; // XmlPullParser reports no namespace as the empty string when namespaces are enabled
+        }
+
+        Map<String, QName> names = this.nameTable.get(namespace);
+        if (names == null) {
+            names = new HashMap<>();
+            this.nameTable.put(namespace, names);
+        }
+
+        QName name = names.get(localName);
+        if (name == null) {
+            name = new QName(namespace, localName);
+            names.put(localName, name);
+        }
+
+        return name;
+    }
+
+    protected QName internName(QName name) {
+        return this.internName(name.getNamespaceURI(), name.getLocalPart());
     }
 
     /**
@@ -75,23 +142,17 @@ public class XmlModelParser {
      * @return the new xpp, or null if no xpp has been registered for the specified element name.
      */
     protected XmlModel createXmlModel(QName name) {
-        Class<? extends XmlModel> clazz = this.xmlModelRegistry.get(name);
+        ModelFactory factory = this.xmlModelRegistry.get(name);
 
-        if (clazz == null) {
-            clazz = this.getUnrecognizedModel(); // use the unrecognized model
+        if (factory == null) {
+            return this.createUnrecognizedModel(); // use the unrecognized model
         }
 
-        try {
-            return clazz.newInstance(); // create a new instance using the default constructor
-        } catch (Exception e) {
-            Logger.logMessage(Logger.ERROR, "XmlModelParser", "createParsableModel",
-                "Exception invoking default constructor for " + clazz.getName(), e);
-            return null;
-        }
+        return factory.createModel();
     }
 
-    protected Class<? extends XmlModel> getUnrecognizedModel() {
-        return DefaultXmlModel.class;
+    protected XmlModel createUnrecognizedModel() {
+        return new DefaultXmlModel();
     }
 
     protected Object parseElement(QName name, XmlModel parent) throws XmlPullParserException, IOException {
@@ -120,7 +181,7 @@ public class XmlModelParser {
         // Parse the element's content until we reach either the end of the document or the end of the element.
         while (this.xpp.next() != XmlPullParser.END_DOCUMENT) {
             if (this.xpp.getEventType() == XmlPullParser.START_TAG) {
-                QName childName = new QName(this.xpp.getNamespace(), this.xpp.getName()); // store the child name before recursively parsing
+                QName childName = this.internName(this.xpp.getNamespace(), this.xpp.getName()); // store the child name before recursively parsing
                 Object childValue = this.parseElement(childName, model /*parent*/); // recursively assemble the child element
                 model.parseField(childName.getLocalPart(), childValue); // parse the child element
             } else if (this.xpp.getEventType() == XmlPullParser.TEXT) {
@@ -158,14 +219,41 @@ public class XmlModelParser {
         return this.characters.toString();
     }
 
+    /**
+     * Appends text to a character buffer, suppressing newlines and leading and trailing whitespace. Whitespace is any
+     * character less than or equal to a space, as with {@link String#trim()}.
+     *
+     * @return the character buffer, a new buffer if the buffer is null and the text is not whitespace, or null if the
+     * buffer is null and the text is whitespace
+     */
     protected static StringBuilder appendText(String text, StringBuilder result) {
-        if (text != null && !text.isEmpty()) { // ignore empty text
-            text = text.replaceAll("\n", "").trim(); // suppress newlines and leading/trailing whitespace
-            if (!text.isEmpty()) { // ignore whitespace
-                return (result != null) ? result.append(text) : new StringBuilder(text);
-            }
+        if (text == null) {
+            return result;
+        }
+
+        // Find the text between leading and trailing whitespace, ignoring whitespace only text.
+        int start = 0, end = text.length();
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (start == end) {
+            return result;
+        }
+
+        if (result == null) {
+            result = new StringBuilder(end - start);
+        }
+
+        // Append the text, suppressing newlines. Text without newlines is appended in one call.
+        int newline;
+        while ((newline = text.indexOf('\n', start)) != -1 && newline < end) {
+            result.append(text, start, newline);
+            start = newline + 1;
         }
 
-        return result;
+        return result.append(text, start, end);
     }
 }
@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+uniform bool enableTexture;
+uniform mat4 mvpMatrix;
+
+attribute vec4 vertexPoint;
+attribute vec2 vertexTexCoord;
+attribute vec4 vertexColor;
+
+varying vec2 texCoord;
+varying vec4 color;
+
+void main() {
+    /* Transform the vertex position by the modelview-projection matrix. */
+    gl_Position = mvpMatrix * vertexPoint;
+
+    /* Pass the vertex tex coord and the vertex color, which is premultiplied by its alpha, to the fragment shader. */
+    if (enableTexture) {
+        texCoord = vertexTexCoord;
+    }
+
+    color = vertexColor;
+}
\ No newline at end of file
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.powermock.api.mockito.PowerMockito;
+
+import gov.nasa.worldwind.geom.Matrix4;
+import gov.nasa.worldwind.geom.Viewport;
+import gov.nasa.worldwind.layer.RenderableLayer;
+import gov.nasa.worldwind.render.AbstractRenderable;
+import gov.nasa.worldwind.render.RenderContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PickBufferTest {
+
+    private PickBuffer buffer;
+
+    private PickedObjectList pickedObjects;
+
+    private PickedObject shape1;
+
+    private PickedObject shape2;
+
+    @Before
+    public void setUp() {
+        RenderableLayer layer = new RenderableLayer();
+        this.shape1 = PickedObject.fromRenderable(2, new TestRenderable(), layer);
+        this.shape2 = PickedObject.fromRenderable(3, new TestRenderable(), layer);
+        // PickedObjectList is backed by android.util.SparseArray, which does nothing in unit tests. Mock the lookups
+        // the buffer makes instead.
+        this.pickedObjects = PowerMockito.mock(PickedObjectList.class);
+        when(this.pickedObjects.count()).thenReturn(2);
+        when(this.pickedObjects.pickedObjectWithId(2)).thenReturn(this.shape1);
+        when(this.pickedObjects.pickedObjectWithId(3)).thenReturn(this.shape2);
+
+        // A 4x2 buffer covering an 8x4 viewport. The terrain has identifier 1 and covers the bottom row.
+        this.buffer = new PickBuffer();
+        this.buffer.reset(new Viewport(0, 0, 8, 4), new Matrix4(), new Matrix4(), 0, this.pickedObjects);
+        this.buffer.setTerrain(null, 1);
+        System.arraycopy(new int[]{1, 1, 1, 1, 0, 2, 2, 3}, 0, this.buffer.identifiers, 0, 8);
+        this.buffer.complete = true;
+    }
+
+    @Test
+    public void testReset_Scale() {
+        assertEquals("width", 4, this.buffer.getWidth());
+        assertEquals("height", 2, this.buffer.getHeight());
+
+        this.buffer.setScale(0.3);
+        this.buffer.reset(new Viewport(0, 0, 10, 5), new Matrix4(), new Matrix4(), 0, this.pickedObjects);
+        assertEquals("rounded width", 3, this.buffer.getWidth());
+        assertEquals("rounded height", 2, this.buffer.getHeight());
+        assertEquals("identifiers", 6, this.buffer.identifiers.length);
+    }
+
+    @Test
+    public void testIsValid() {
+        Viewport viewport = new Viewport(0, 0, 8, 4);
+        assertTrue("valid", this.buffer.isValid(viewport, new Matrix4(), new Matrix4(), 0));
+        assertFalse("scene changed", this.buffer.isValid(viewport, new Matrix4(), new Matrix4(), 1));
+        assertFalse("viewport changed", this.buffer.isValid(new Viewport(0, 0, 8, 5), new Matrix4(), new Matrix4(), 0));
+        assertFalse("camera changed", this.buffer.isValid(viewport, new Matrix4(), new Matrix4().setTranslation(1, 0, 0), 0));
+
+        this.buffer.invalidate();
+        assertFalse("invalidated", this.buffer.isValid(viewport, new Matrix4(), new Matrix4(), 0));
+    }
+
+    @Test
+    public void testIdentifierAt() {
+        assertEquals("terrain", 1, this.buffer.identifierAt(0, 0));
+        assertEquals("terrain", 1, this.buffer.identifierAt(7, 1));
+        assertEquals("nothing drawn", 0, this.buffer.identifierAt(1, 3));
+        assertEquals("shape", 2, this.buffer.identifierAt(3, 2));
+        assertEquals("shape", 3, this.buffer.identifierAt(7, 3));
+        assertEquals("outside viewport", 0, this.buffer.identifierAt(8, 3));
+        assertEquals("outside viewport", 0, this.buffer.identifierAt(-1, 0));
+    }
+
+    @Test
+    public void testTopShapeAt() {
+        PickedObject topObject = this.buffer.topShapeAt(4, 3);
+        assertSame("shape", this.shape1, topObject);
+        assertTrue("on top", topObject.isOnTop());
+        assertNull("terrain", this.buffer.topShapeAt(0, 0));
+        assertNull("nothing drawn", this.buffer.topShapeAt(0, 3));
+    }
+
+    @Test
+    public void testTopShapesInRect() {
+        PickedObjectList result = PowerMockito.mock(PickedObjectList.class);
+        this.buffer.topShapesInRect(0, 0, 4, 4, result);
+        verify(result).offerPickedObject(this.shape1);
+        verify(result, never()).offerPickedObject(this.shape2);
+
+        result = PowerMockito.mock(PickedObjectList.class);
+        this.buffer.topShapesInRect(-10, -10, 100, 100, result);
+        verify(result).offerPickedObject(this.shape1);
+        verify(result).offerPickedObject(this.shape2);
+        assertTrue("on top", this.shape2.isOnTop());
+
+        result = PowerMockito.mock(PickedObjectList.class);
+        this.buffer.topShapesInRect(0, 0, 8, 2, result);
+        verify(result, never()).offerPickedObject(any());
+    }
+
+    private static class TestRenderable extends AbstractRenderable {
+
+        @Override
+        protected void doRender(RenderContext rc) {
+        }
+    }
+}
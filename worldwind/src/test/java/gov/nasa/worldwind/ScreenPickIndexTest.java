@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.powermock.api.mockito.PowerMockito;
+
+import java.util.List;
+
+import gov.nasa.worldwind.geom.Viewport;
+import gov.nasa.worldwind.layer.RenderableLayer;
+import gov.nasa.worldwind.render.AbstractRenderable;
+import gov.nasa.worldwind.render.RenderContext;
+import gov.nasa.worldwind.render.Renderable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class ScreenPickIndexTest {
+
+    private ScreenPickIndex index;
+
+    private RenderableLayer layer;
+
+    private Renderable near;
+
+    private Renderable far;
+
+    private Renderable wide;
+
+    @Before
+    public void setUp() {
+        this.layer = new RenderableLayer();
+        this.near = new TestRenderable();
+        this.far = new TestRenderable();
+        this.wide = new TestRenderable();
+
+        // Two overlapping icons, and a wide label spanning several grid cells.
+        this.index = new ScreenPickIndex();
+        this.index.reset(new Viewport(0, 0, 640, 480));
+        this.index.offerRect(this.far, this.layer, new Viewport(10, 10, 40, 40), 2000);
+        this.index.offerRect(this.near, this.layer, new Viewport(30, 30, 40, 40), 1000);
+        this.index.offerRect(this.wide, this.layer, new Viewport(100, 200, 400, 20), 3000);
+    }
+
+    @Test
+    public void testTopObjectAt() {
+        PickedObject topObject = this.index.topObjectAt(20, 20);
+        assertSame("far only", this.far, topObject.getUserObject());
+        assertSame("layer", this.layer, topObject.getLayer());
+        assertTrue("on top", topObject.isOnTop());
+
+        assertSame("overlap", this.near, this.index.topObjectAt(40, 40).getUserObject());
+        assertSame("near only", this.near, this.index.topObjectAt(69, 69).getUserObject());
+        assertNull("outside rectangle", this.index.topObjectAt(70, 70));
+        assertSame("wide, distant cell", this.wide, this.index.topObjectAt(450, 210).getUserObject());
+        assertNull("outside viewport", this.index.topObjectAt(-1, 20));
+    }
+
+    @Test
+    public void testObjectsInRect() {
+        // PickedObjectList is backed by android.util.SparseArray, which does nothing in unit tests. Capture the objects
+        // offered to a mocked list instead.
+        PickedObjectList result = PowerMockito.mock(PickedObjectList.class);
+        ArgumentCaptor<PickedObject> offered = ArgumentCaptor.forClass(PickedObject.class);
+        this.index.objectsInRect(0, 0, 640, 480, result);
+        verify(result, times(3)).offerPickedObject(offered.capture());
+        assertEquals("entire viewport", 3, offered.getAllValues().size());
+
+        result = PowerMockito.mock(PickedObjectList.class);
+        offered = ArgumentCaptor.forClass(PickedObject.class);
+        this.index.objectsInRect(60, 60, 100, 150, result);
+        verify(result, times(2)).offerPickedObject(offered.capture());
+        List<PickedObject> nearAndWide = offered.getAllValues();
+        assertTrue("near and wide", this.offeredObject(nearAndWide, this.near) && this.offeredObject(nearAndWide, this.wide));
+        assertTrue("on top", nearAndWide.get(0).isOnTop());
+
+        result = PowerMockito.mock(PickedObjectList.class);
+        this.index.objectsInRect(200, 0, 100, 100, result);
+        verify(result, never()).offerPickedObject(any());
+    }
+
+    @Test
+    public void testReset() {
+        this.index.topObjectAt(20, 20); // assemble the grid
+        this.index.reset(new Viewport(0, 0, 100, 100));
+        assertEquals("count", 0, this.index.count());
+        assertNull("cleared", this.index.topObjectAt(20, 20));
+
+        this.index.offerRect(this.wide, this.layer, new Viewport(0, 0, 10, 10), 0);
+        this.index.offerRect(this.near, this.layer, new Viewport(200, 200, 10, 10), 0);
+        assertEquals("outside viewport ignored", 1, this.index.count());
+        assertSame("reassembled", this.wide, this.index.topObjectAt(5, 5).getUserObject());
+    }
+
+    private boolean offeredObject(List<PickedObject> pickedObjects, Renderable renderable) {
+        for (PickedObject pickedObject : pickedObjects) {
+            if (pickedObject.getUserObject() == renderable) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static class TestRenderable extends AbstractRenderable {
+
+        @Override
+        protected void doRender(RenderContext rc) {
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.draw;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.IntBuffer;
+
+import gov.nasa.worldwind.util.IntSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DrawContextTest {
+
+    private DrawContext dc;
+
+    @Before
+    public void setUp() {
+        this.dc = new DrawContext();
+        this.dc.setUploadBudgetBytes(1000);
+        this.dc.setUploadBudgetNanos(Long.MAX_VALUE);
+    }
+
+    @Test
+    public void testUploadBudget_Bytes() {
+        assertTrue("first upload", this.dc.beginUpload(600));
+        this.dc.endUpload(600);
+        assertTrue("within budget", this.dc.beginUpload(400));
+        this.dc.endUpload(400);
+        assertFalse("budget exhausted", this.dc.beginUpload(1));
+        assertFalse("budget still exhausted", this.dc.beginUpload(1));
+
+        assertEquals("uploaded bytes", 1000, this.dc.getUploadedBytes());
+        assertEquals("deferred count", 2, this.dc.getDeferredUploadCount());
+    }
+
+    @Test
+    public void testUploadBudget_FirstUploadExceedsBudget() {
+        assertTrue("first upload", this.dc.beginUpload(5000));
+        this.dc.endUpload(5000);
+        assertFalse("second upload", this.dc.beginUpload(1));
+    }
+
+    @Test
+    public void testUploadBudget_Time() {
+        this.dc.setUploadBudgetNanos(0);
+
+        assertTrue("first upload", this.dc.beginUpload(1));
+        this.dc.endUpload(1);
+        assertFalse("budget exhausted", this.dc.beginUpload(1));
+    }
+
+    @Test
+    public void testUploadBudget_ChargedUploads() {
+        this.dc.chargeUpload(5000);
+        assertTrue("first texture upload", this.dc.beginUpload(600));
+        this.dc.endUpload(600);
+        assertTrue("charged bytes excluded", this.dc.beginUpload(400));
+        this.dc.endUpload(400);
+        assertFalse("budget exhausted", this.dc.beginUpload(1));
+
+        assertEquals("uploaded bytes", 6000, this.dc.getUploadedBytes());
+    }
+
+    @Test
+    public void testUploadBudget_PickMode() {
+        this.dc.pickMode = true;
+        this.dc.beginUpload(1000);
+        this.dc.endUpload(1000);
+        assertTrue("pick frame", this.dc.beginUpload(1));
+    }
+
+    @Test
+    public void testUploadBudget_Reset() {
+        this.dc.beginUpload(1000);
+        this.dc.endUpload(1000);
+        this.dc.beginUpload(1);
+        this.dc.reset();
+
+        assertEquals("uploaded bytes", 0, this.dc.getUploadedBytes());
+        assertEquals("deferred count", 0, this.dc.getDeferredUploadCount());
+        assertTrue("next frame", this.dc.beginUpload(1));
+    }
+
+    @Test
+    public void testAddPixelIdentifiers() {
+        // RGBA 8888 pixels viewed as big-endian ints: the clear color, identifiers 1 and 0x010203 drawn with opaque
+        // alpha, and a pixel drawn with identifier 1 but translucent alpha.
+        int[] pixels = {0, 0x000001FF, 0x000001FF, 0, 0x010203FF, 0x000001FF, 0x00000180, 0};
+        IntSet result = new IntSet();
+        DrawContext.addPixelIdentifiers(IntBuffer.wrap(pixels), true, new int[3], result);
+
+        assertEquals("identifier count", 2, result.size());
+        assertTrue("identifier", result.contains(1));
+        assertTrue("identifier", result.contains(0x010203));
+        assertFalse("clear color", result.contains(0));
+    }
+
+    @Test
+    public void testAddPixelIdentifiers_LittleEndian() {
+        int[] pixels = {Integer.reverseBytes(0x010203FF), 0};
+        IntSet result = new IntSet();
+        DrawContext.addPixelIdentifiers(IntBuffer.wrap(pixels), false, new int[16], result);
+
+        assertEquals("identifier count", 1, result.size());
+        assertTrue("identifier", result.contains(0x010203));
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.draw;
+
+import org.junit.Test;
+
+import gov.nasa.worldwind.geom.Sector;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DrawableSectorIndexTest {
+
+    /**
+     * Adds a grid of 1 degree sectors covering the sector (0, 0, rows, cols), in row-major order.
+     */
+    private static void addGrid(DrawableSectorIndex index, int rows, int cols) {
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                index.add(new Sector(row, col, 1, 1));
+            }
+        }
+    }
+
+    @Test
+    public void testQuery_SmallBatch() {
+        DrawableSectorIndex index = new DrawableSectorIndex();
+        addGrid(index, 2, 2);
+
+        int count = index.query(new Sector(-10, -10, 1, 1));
+        assertEquals("every sector", 4, count);
+        for (int idx = 0; idx < count; idx++) {
+            assertEquals("order", idx, index.resultAt(idx));
+        }
+    }
+
+    @Test
+    public void testQuery() {
+        DrawableSectorIndex index = new DrawableSectorIndex();
+        addGrid(index, 10, 10);
+        index.add(new Sector(-90, -180, 180, 360)); // index 100, covering the globe
+
+        int count = index.query(new Sector(4.25, 4.25, 0.5, 0.5));
+        assertEquals("overlapping sectors", 2, count);
+        assertEquals("grid sector", 44, index.resultAt(0));
+        assertEquals("globe sector", 100, index.resultAt(1));
+
+        count = index.query(new Sector(2.5, 2.5, 3, 3));
+        for (int idx = 1; idx < count; idx++) {
+            assertTrue("ascending order", index.resultAt(idx - 1) < index.resultAt(idx));
+        }
+        assertEquals("overlapping sectors", 16 + 1, count);
+    }
+
+    @Test
+    public void testClear_Refill() {
+        DrawableSectorIndex index = new DrawableSectorIndex();
+        addGrid(index, 10, 10);
+        index.query(new Sector(0, 0, 1, 1));
+
+        // Refill the index with fewer sectors at other locations, reusing and removing quadtree entries.
+        index.clear();
+        for (int idx = 0; idx < 20; idx++) {
+            index.add(new Sector(-50, -50 + idx, 1, 1));
+        }
+
+        assertEquals("count", 20, index.count());
+        assertEquals("previous batch removed", 0, index.query(new Sector(4.25, 4.25, 0.5, 0.5)));
+        assertEquals("moved sector", 1, index.query(new Sector(-49.75, -40.75, 0.5, 0.5)));
+        assertEquals("moved sector", 9, index.resultAt(0));
+    }
+}
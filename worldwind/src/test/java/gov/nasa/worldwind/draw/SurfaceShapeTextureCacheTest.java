@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.draw;
+
+import android.opengl.GLES20;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import gov.nasa.worldwind.render.Texture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SurfaceShapeTextureCacheTest {
+
+    private static final int TEXTURE_BYTES = newTexture().texture.getByteCount();
+
+    private DrawContext dc;
+
+    private SurfaceShapeTextureCache cache;
+
+    @Before
+    public void setUp() {
+        this.dc = new DrawContext();
+        this.cache = new SurfaceShapeTextureCache(TEXTURE_BYTES * 2); // holds two textures
+    }
+
+    private static DrawableSurfaceShape.CachedTexture newTexture() {
+        return new DrawableSurfaceShape.CachedTexture(new Texture(16, 16, GLES20.GL_RGBA, GLES20.GL_UNSIGNED_BYTE));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_InvalidCapacity() {
+        new SurfaceShapeTextureCache(0);
+    }
+
+    @Test
+    public void testPut() {
+        DrawableSurfaceShape.CachedTexture texture = newTexture();
+
+        assertTrue("added", this.cache.put(this.dc, "a", texture));
+        assertSame("cached", texture, this.cache.get("a"));
+        assertEquals("used capacity", TEXTURE_BYTES, this.cache.getUsedCapacity());
+    }
+
+    @Test
+    public void testPut_EvictsLeastRecentlyUsed() {
+        this.cache.put(this.dc, "a", newTexture());
+        this.cache.put(this.dc, "b", newTexture());
+        this.cache.releaseUnusedTextures(this.dc);
+        this.cache.get("b");
+
+        assertTrue("added", this.cache.put(this.dc, "c", newTexture()));
+        assertNull("evicted", this.cache.get("a"));
+        assertEquals("entry count", 2, this.cache.getEntryCount());
+        assertEquals("used capacity", TEXTURE_BYTES * 2, this.cache.getUsedCapacity());
+    }
+
+    @Test
+    public void testPut_KeepsTexturesUsedThisFrame() {
+        this.cache.put(this.dc, "a", newTexture());
+        this.cache.put(this.dc, "b", newTexture());
+
+        assertFalse("cache full", this.cache.put(this.dc, "c", newTexture()));
+        assertEquals("entry count", 2, this.cache.getEntryCount());
+        assertNull("not added", this.cache.get("c"));
+    }
+
+    @Test
+    public void testReleaseUnusedTextures() {
+        this.cache.put(this.dc, "a", newTexture());
+        this.cache.put(this.dc, "b", newTexture());
+
+        // Keep using one texture while the other goes unused.
+        for (int frame = 0; frame <= SurfaceShapeTextureCache.TEXTURE_EXPIRATION_FRAMES; frame++) {
+            this.cache.get("b");
+            this.cache.releaseUnusedTextures(this.dc);
+        }
+
+        assertNull("released", this.cache.get("a"));
+        assertEquals("entry count", 1, this.cache.getEntryCount());
+        assertEquals("used capacity", TEXTURE_BYTES, this.cache.getUsedCapacity());
+    }
+}
@@ -18,6 +18,7 @@ import java.io.BufferedInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.ShortBuffer;
 import java.util.Arrays;
 import java.util.Objects;
 
@@ -31,12 +32,24 @@ public class TiffTest {
 
     protected byte[] blendtiffData;
 
+    protected byte[] lzwtiffData;
+
+    protected byte[] deflatetiffData;
+
+    protected byte[] packbitstiffData;
+
     @Before
     public void setup() throws IOException {
         String resourceName = "test_gov_nasa_worldwind_geotiff.tif";
         this.geotiffData = this.setupData(resourceName);
         resourceName = "test_gov_nasa_worldwind_blend.tif";
         this.blendtiffData = this.setupData(resourceName);
+        resourceName = "test_gov_nasa_worldwind_lzw.tif";
+        this.lzwtiffData = this.setupData(resourceName);
+        resourceName = "test_gov_nasa_worldwind_deflate.tif";
+        this.deflatetiffData = this.setupData(resourceName);
+        resourceName = "test_gov_nasa_worldwind_packbits.tif";
+        this.packbitstiffData = this.setupData(resourceName);
     }
 
     protected byte[] setupData(String resourceName) throws IOException {
@@ -433,4 +446,71 @@ public class TiffTest {
         assertEquals("tile 7 value", expectedTile7, actualTile7);
         assertEquals("tile 8 value", expectedTile8, actualTile8);
     }
+
+    /**
+     * The compressed test images are 100x70 pixels of 16 bit signed integers, with the value at each pixel computed by
+     * this method.
+     */
+    protected static short compressedTestValue(int x, int y) {
+        return (short) ((x * x + 3 * y * y + x * y) % 4001 - 1000 + (((x * 7919) ^ (y * 104729)) & 0x7F));
+    }
+
+    protected void assertCompressedTestData(byte[] tiffData, int expectedCompression, int expectedPredictor) {
+        Tiff tiff = new Tiff(ByteBuffer.wrap(tiffData));
+        Subfile file = tiff.getSubfiles().get(0);
+        ByteBuffer data = ByteBuffer.allocate(file.getDataSize());
+
+        file.getData(data);
+        data.clear();
+        ShortBuffer values = data.asShortBuffer();
+
+        assertEquals("compression", expectedCompression, file.getCompression());
+        assertEquals("predictor", expectedPredictor, file.getCompressionPredictor());
+        assertEquals("data size", 100 * 70 * 2, file.getDataSize());
+        for (int y = 0; y < 70; y++) {
+            for (int x = 0; x < 100; x++) {
+                assertEquals("value at " + x + "," + y, compressedTestValue(x, y), values.get(x + y * 100));
+            }
+        }
+    }
+
+    /**
+     * Little endian strips with LZW compression and the horizontal predictor. The first strip's LZW string table fills
+     * and is cleared, and the last strip is partial.
+     */
+    @Test
+    public void testGetData_LzwStrips() {
+        this.assertCompressedTestData(this.lzwtiffData, Tiff.LZW_COMPRESSION, Tiff.HORIZONTAL_PREDICTOR);
+    }
+
+    /**
+     * Big endian 32x32 tiles with Deflate compression and the horizontal predictor. The tiles at the right and bottom
+     * edges extend beyond the image.
+     */
+    @Test
+    public void testGetData_DeflateTiles() {
+        this.assertCompressedTestData(this.deflatetiffData, Tiff.DEFLATE_COMPRESSION, Tiff.HORIZONTAL_PREDICTOR);
+    }
+
+    /**
+     * Little endian strips with PackBits compression and no predictor.
+     */
+    @Test
+    public void testGetData_PackBitsStrips() {
+        this.assertCompressedTestData(this.packbitstiffData, Tiff.PACKBITS_COMPRESSION, Tiff.NO_PREDICTOR);
+    }
+
+    @Test
+    public void testGetData_DirectBuffer() {
+        Tiff tiff = new Tiff(ByteBuffer.wrap(this.lzwtiffData));
+        Subfile file = tiff.getSubfiles().get(0);
+        ByteBuffer data = ByteBuffer.allocateDirect(file.getDataSize());
+
+        file.getData(data);
+        data.clear();
+        ShortBuffer values = data.asShortBuffer();
+
+        assertEquals("first value", compressedTestValue(0, 0), values.get(0));
+        assertEquals("last value", compressedTestValue(99, 69), values.get(100 * 70 - 1));
+    }
 }
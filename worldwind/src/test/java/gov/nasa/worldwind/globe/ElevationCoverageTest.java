@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.globe;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import gov.nasa.worldwind.geom.Sector;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ElevationCoverageTest {
+
+    private SimpleCoverage coverage;
+
+    @Before
+    public void setUp() {
+        this.coverage = new SimpleCoverage(Sector.fromDegrees(0, 0, 10, 10), 100);
+    }
+
+    @Test
+    public void testGetHeights_DefaultImplementation() {
+        float[] result = {-1, -1, -1};
+
+        this.coverage.getHeights(new double[]{5, 20, 1}, new double[]{5, 5, 9}, 2, result);
+
+        assertEquals("inside coverage", 100, result[0], 0);
+        assertEquals("outside coverage", -1, result[1], 0);
+        assertEquals("beyond count", -1, result[2], 0);
+    }
+
+    @Test
+    public void testHasChangedSince_DefaultImplementation() {
+        Sector sector = Sector.fromDegrees(1, 1, 1, 1);
+        long timestamp = this.coverage.getTimestamp();
+        assertFalse("unchanged", this.coverage.hasChangedSince(timestamp, sector));
+
+        this.coverage.setTimestamp(timestamp + 1);
+        assertTrue("changed", this.coverage.hasChangedSince(timestamp, sector));
+        assertTrue("changed elsewhere", this.coverage.hasChangedSince(timestamp, Sector.fromDegrees(50, 50, 1, 1)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetHeights_ShortResult() {
+        this.coverage.getHeights(new double[2], new double[2], 2, new float[1]);
+    }
+
+    /**
+     * A coverage with a constant height within a sector, implementing only the methods ElevationCoverage requires.
+     */
+    private static class SimpleCoverage implements ElevationCoverage {
+
+        private final Sector sector;
+
+        private final float height;
+
+        private long timestamp = 1;
+
+        public SimpleCoverage(Sector sector, float height) {
+            this.sector = sector;
+            this.height = height;
+        }
+
+        public void setTimestamp(long timestamp) {
+            this.timestamp = timestamp;
+        }
+
+        @Override
+        public String getDisplayName() {
+            return null;
+        }
+
+        @Override
+        public void setDisplayName(String displayName) {
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+
+        @Override
+        public void setEnabled(boolean enabled) {
+        }
+
+        @Override
+        public long getTimestamp() {
+            return this.timestamp;
+        }
+
+        @Override
+        public Object getUserProperty(Object key) {
+            return null;
+        }
+
+        @Override
+        public Object putUserProperty(Object key, Object value) {
+            return null;
+        }
+
+        @Override
+        public Object removeUserProperty(Object key) {
+            return null;
+        }
+
+        @Override
+        public boolean hasUserProperty(Object key) {
+            return false;
+        }
+
+        @Override
+        public void getHeightGrid(Sector gridSector, int gridWidth, int gridHeight, float[] result) {
+            if (this.sector.contains(gridSector)) {
+                for (int idx = 0, len = gridWidth * gridHeight; idx < len; idx++) {
+                    result[idx] = this.height;
+                }
+            }
+        }
+
+        @Override
+        public void getHeightLimits(Sector sector, float[] result) {
+        }
+    }
+}
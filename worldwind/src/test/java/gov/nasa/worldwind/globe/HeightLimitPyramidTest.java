@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.globe;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HeightLimitPyramidTest {
+
+    private static short[] randomTile(int width, int height, Random random) {
+        short[] tileArray = new short[width * height];
+        for (int idx = 0; idx < tileArray.length; idx++) {
+            tileArray[idx] = (short) (random.nextInt(20000) - 10000);
+        }
+
+        return tileArray;
+    }
+
+    private static float[] scan(short[] tileArray, int width, int height, int i0, int i1, int j0, int j1) {
+        float[] limits = {Float.MAX_VALUE, -Float.MAX_VALUE};
+        for (int j = Math.max(j0, 0); j <= Math.min(j1, height - 1); j++) {
+            for (int i = Math.max(i0, 0); i <= Math.min(i1, width - 1); i++) {
+                limits[0] = Math.min(limits[0], tileArray[i + j * width]);
+                limits[1] = Math.max(limits[1], tileArray[i + j * width]);
+            }
+        }
+
+        return limits;
+    }
+
+    @Test
+    public void testGetHeightLimits_EntireTile() {
+        int[][] sizes = {{256, 256}, {257, 257}, {16, 16}, {5, 3}, {1, 1}};
+        Random random = new Random(1);
+        for (int[] size : sizes) {
+            short[] tileArray = randomTile(size[0], size[1], random);
+            HeightLimitPyramid pyramid = new HeightLimitPyramid(tileArray, size[0], size[1]);
+
+            float[] limits = {Float.MAX_VALUE, -Float.MAX_VALUE};
+            pyramid.getHeightLimits(0, size[0] - 1, 0, size[1] - 1, limits);
+
+            float[] expected = scan(tileArray, size[0], size[1], 0, size[0] - 1, 0, size[1] - 1);
+            assertEquals("min " + size[0] + "x" + size[1], expected[0], limits[0], 0);
+            assertEquals("max " + size[0] + "x" + size[1], expected[1], limits[1], 0);
+        }
+    }
+
+    @Test
+    public void testGetHeightLimits_AlignedRange() {
+        Random random = new Random(2);
+        short[] tileArray = randomTile(256, 256, random);
+        HeightLimitPyramid pyramid = new HeightLimitPyramid(tileArray, 256, 256);
+
+        // Ranges aligned with the pyramid's cells have exact limits.
+        int[][] ranges = {{0, 127, 128, 255}, {64, 127, 0, 63}, {4, 7, 8, 11}, {32, 95, 16, 47}};
+        for (int[] r : ranges) {
+            float[] limits = {Float.MAX_VALUE, -Float.MAX_VALUE};
+            pyramid.getHeightLimits(r[0], r[1], r[2], r[3], limits);
+
+            float[] expected = scan(tileArray, 256, 256, r[0], r[1], r[2], r[3]);
+            assertEquals("min", expected[0], limits[0], 0);
+            assertEquals("max", expected[1], limits[1], 0);
+        }
+    }
+
+    @Test
+    public void testGetHeightLimits_ArbitraryRange() {
+        Random random = new Random(3);
+        for (int trial = 0; trial < 200; trial++) {
+            int width = 1 + random.nextInt(300), height = 1 + random.nextInt(300);
+            short[] tileArray = randomTile(width, height, random);
+            HeightLimitPyramid pyramid = new HeightLimitPyramid(tileArray, width, height);
+
+            int i0 = random.nextInt(width), i1 = i0 + random.nextInt(width - i0);
+            int j0 = random.nextInt(height), j1 = j0 + random.nextInt(height - j0);
+            float[] limits = {Float.MAX_VALUE, -Float.MAX_VALUE};
+            pyramid.getHeightLimits(i0, i1, j0, j1, limits);
+
+            // The limits include the range's heights, and no heights more than 3 texels outside the range.
+            float[] inner = scan(tileArray, width, height, i0, i1, j0, j1);
+            float[] outer = scan(tileArray, width, height, i0 - 3, i1 + 3, j0 - 3, j1 + 3);
+            assertTrue("min lower bound", limits[0] <= inner[0] && limits[0] >= outer[0]);
+            assertTrue("max upper bound", limits[1] >= inner[1] && limits[1] <= outer[1]);
+        }
+    }
+
+    @Test
+    public void testGetHeightLimits_FloatHeights() {
+        float[] tileArray = new float[6 * 6];
+        for (int idx = 0; idx < tileArray.length; idx++) {
+            tileArray[idx] = idx * 0.5f - 3;
+        }
+
+        HeightLimitPyramid pyramid = new HeightLimitPyramid(tileArray, 6, 6);
+        float[] limits = {Float.MAX_VALUE, -Float.MAX_VALUE};
+        pyramid.getHeightLimits(0, 5, 0, 5, limits);
+
+        assertEquals("min", -3, limits[0], 0);
+        assertEquals("max", 14.5f, limits[1], 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_ShortArray() {
+        new HeightLimitPyramid(new short[15], 4, 4);
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.globe;
+
+import android.os.Handler;
+import android.util.LongSparseArray;
+import android.util.SparseIntArray;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.geom.TileMatrix;
+import gov.nasa.worldwind.geom.TileMatrixSet;
+import gov.nasa.worldwind.render.ImageSource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+@RunWith(PowerMockRunner.class) // Support for mocking constructors
+@PrepareForTest({TiledElevationCoverage.class, TiledElevationCoverage.TileBlock.class}) // Android classes do nothing in unit tests
+public class TiledElevationCoverageTest {
+
+    private TiledElevationCoverage coverage;
+
+    private List<Runnable> postedRunnables = new ArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        // Back the sparse arrays each TileBlock constructs with Java collections.
+        PowerMockito.whenNew(SparseIntArray.class).withNoArguments().thenAnswer(invocation -> mockSparseIntArray());
+        PowerMockito.whenNew(LongSparseArray.class).withNoArguments().thenAnswer(invocation -> mockLongSparseArray());
+
+        // Collect the retrieved tiles the coverage posts to the main thread, for tests to run.
+        Handler handler = PowerMockito.mock(Handler.class);
+        when(handler.post(any())).thenAnswer(invocation -> this.postedRunnables.add(invocation.getArgument(0)));
+        PowerMockito.whenNew(Handler.class).withAnyArguments().thenReturn(handler);
+
+        // A coverage that never retrieves tiles, so that missing tiles stay missing.
+        this.coverage = new TiledElevationCoverage() {
+            @Override
+            protected boolean isEnableRetrieval() {
+                return false;
+            }
+        };
+        this.coverage.setTileMatrixSet(TileMatrixSet.fromTilePyramid(Sector.fromDegrees(36, -113, 1, 1), 1, 1, 16, 16, 3));
+        this.coverage.setTileFactory((tileMatrix, row, column) ->
+            ImageSource.fromUrl("https://localhost/" + tileMatrix.ordinal + "/" + row + "/" + column));
+    }
+
+    private static SparseIntArray mockSparseIntArray() {
+        TreeMap<Integer, Integer> map = new TreeMap<>();
+        SparseIntArray array = PowerMockito.mock(SparseIntArray.class);
+        doAnswer(invocation -> map.put(invocation.getArgument(0), invocation.getArgument(1))).when(array).put(anyInt(), anyInt());
+        doAnswer(invocation -> map.put(invocation.getArgument(0), invocation.getArgument(1))).when(array).append(anyInt(), anyInt());
+        doAnswer(invocation -> {
+            map.clear();
+            return null;
+        }).when(array).clear();
+        when(array.size()).thenAnswer(invocation -> map.size());
+        when(array.keyAt(anyInt())).thenAnswer(invocation -> new ArrayList<>(map.keySet()).get(invocation.getArgument(0)));
+        return array;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static LongSparseArray<Object> mockLongSparseArray() {
+        Map<Long, Object> map = new HashMap<>();
+        LongSparseArray<Object> array = PowerMockito.mock(LongSparseArray.class);
+        doAnswer(invocation -> map.put(invocation.getArgument(0), invocation.getArgument(1))).when(array).put(anyLong(), any());
+        doAnswer(invocation -> {
+            map.clear();
+            return null;
+        }).when(array).clear();
+        when(array.get(anyLong())).thenAnswer(invocation -> map.get(invocation.<Long>getArgument(0)));
+        return array;
+    }
+
+    private void putTile(int matrixIdx, int row, int column, Random random) {
+        TileMatrix tileMatrix = this.coverage.getTileMatrixSet().matrix(matrixIdx);
+        short[] tileArray = new short[tileMatrix.tileWidth * tileMatrix.tileHeight];
+        for (int idx = 0; idx < tileArray.length; idx++) {
+            tileArray[idx] = (short) random.nextInt(1000);
+        }
+
+        ImageSource tileSource = this.coverage.tileFactory.createTileSource(tileMatrix, row, column);
+        this.coverage.coverageCache.put(tileSource, tileArray, tileArray.length * 2);
+    }
+
+    private void putFloatTile(int matrixIdx, int row, int column, float value) {
+        TileMatrix tileMatrix = this.coverage.getTileMatrixSet().matrix(matrixIdx);
+        float[] tileArray = new float[tileMatrix.tileWidth * tileMatrix.tileHeight];
+        Arrays.fill(tileArray, value);
+
+        ImageSource tileSource = this.coverage.tileFactory.createTileSource(tileMatrix, row, column);
+        this.coverage.coverageCache.put(tileSource, tileArray, tileArray.length * 4);
+    }
+
+    private float getHeightGrid(double latitude, double longitude) {
+        float[] height = new float[1];
+        this.coverage.getHeightGrid(Sector.fromDegrees(latitude, longitude, 1E-15, 1E-15), 1, 1, height);
+        return height[0];
+    }
+
+    @Test
+    public void testGetHeights_MatchesHeightGrid() {
+        Random random = new Random(1);
+        this.putTile(0, 0, 0, random);
+        this.putTile(1, 0, 0, random);
+        this.putTile(1, 1, 1, random);
+        for (int row = 0; row < 4; row++) {
+            for (int col = 0; col < 2; col++) { // only the western half of the finest matrix
+                this.putTile(2, row, col, random);
+            }
+        }
+
+        int count = 500;
+        double[] latitudes = new double[count];
+        double[] longitudes = new double[count];
+        for (int idx = 0; idx < count; idx++) {
+            latitudes[idx] = 35.9 + random.nextDouble() * 1.2; // includes locations outside the coverage
+            longitudes[idx] = -113.1 + random.nextDouble() * 1.2;
+        }
+
+        float[] heights = new float[count];
+        this.coverage.getHeights(latitudes, longitudes, count, heights);
+
+        for (int idx = 0; idx < count; idx++) {
+            float expected = this.getHeightGrid(latitudes[idx], longitudes[idx]);
+            assertEquals("height " + idx, expected, heights[idx], 1e-3);
+        }
+    }
+
+    @Test
+    public void testGetHeights_NoCoverage() {
+        double[] latitudes = {36.5, 10};
+        double[] longitudes = {-112.5, 10};
+        float[] heights = {-1, -1};
+
+        this.coverage.getHeights(latitudes, longitudes, 2, heights);
+
+        assertEquals("missing tiles", -1, heights[0], 0);
+        assertEquals("outside coverage", -1, heights[1], 0);
+    }
+
+    @Test
+    public void testFloatTiles() {
+        this.putFloatTile(0, 0, 0, 1234.5f);
+        this.putFloatTile(1, 0, 0, -0.25f);
+
+        float[] heights = new float[2];
+        this.coverage.getHeights(new double[]{36.75, 36.25}, new double[]{-112.75, -112.25}, 2, heights);
+        assertEquals("float tile", -0.25f, heights[0], 0);
+        assertEquals("coarser float tile", 1234.5f, heights[1], 0);
+        assertEquals("height grid", -0.25f, this.getHeightGrid(36.75, -112.75), 0);
+
+        float[] limits = {Float.MAX_VALUE, -Float.MAX_VALUE};
+        this.coverage.getHeightLimits(Sector.fromDegrees(36.6, -112.9, 0.1, 0.1), limits);
+        assertEquals("min height", -0.25f, limits[0], 0);
+        assertEquals("max height", -0.25f, limits[1], 0);
+    }
+
+    private void retrieveInt32Tile(int value) {
+        TileMatrix tileMatrix = this.coverage.getTileMatrixSet().matrix(0);
+        int[] array = new int[tileMatrix.tileWidth * tileMatrix.tileHeight];
+        Arrays.fill(array, value);
+        ImageSource key = this.coverage.tileFactory.createTileSource(tileMatrix, 0, 0);
+        this.coverage.retrievalSucceeded(null, key, new TiledElevationCoverage.CoverageTile(tileMatrix, 0, 0), IntBuffer.wrap(array));
+    }
+
+    @Test
+    public void testInt32Tiles() {
+        this.coverage.setInt32Scale(0.01);
+
+        this.retrieveInt32Tile(12345);
+        for (Runnable runnable : this.postedRunnables) {
+            runnable.run();
+        }
+
+        float[] heights = new float[1];
+        this.coverage.getHeights(new double[]{36.5}, new double[]{-112.5}, 1, heights);
+        assertEquals("scaled height", 123.45f, heights[0], 1e-4);
+    }
+
+    @Test
+    public void testInt32Tiles_ScaleChangedDuringRetrieval() {
+        this.coverage.setInt32Scale(0.01);
+
+        this.retrieveInt32Tile(12345);
+        this.coverage.setInt32Scale(1);
+        for (Runnable runnable : this.postedRunnables) {
+            runnable.run();
+        }
+
+        assertEquals("discarded tile", 0, this.coverage.coverageCache.getEntryCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetHeights_ShortResult() {
+        this.coverage.getHeights(new double[2], new double[2], 2, new float[1]);
+    }
+
+    @Test
+    public void testHasChangedSince_TileSector() {
+        ElevationModel model = new ElevationModel();
+        model.addCoverage(this.coverage);
+        long timestamp = model.getTimestamp();
+        Sector tileSector = Sector.fromDegrees(36.5, -112.5, 0.5, 0.5);
+        Sector adjacent = Sector.fromDegrees(36.5, -113, 0.5, 0.5);
+        Sector distant = Sector.fromDegrees(36, -113, 0.25, 0.25);
+
+        assertFalse("unchanged", model.hasChangedSince(timestamp, tileSector));
+        this.coverage.updateTimestamp(tileSector);
+
+        assertTrue("timestamp advanced", model.getTimestamp() > timestamp);
+        assertTrue("intersecting sector", model.hasChangedSince(timestamp, Sector.fromDegrees(36.6, -112.4, 0.1, 0.1)));
+        assertTrue("adjacent sector", model.hasChangedSince(timestamp, adjacent));
+        assertFalse("distant sector", model.hasChangedSince(timestamp, distant));
+        assertFalse("current timestamp", model.hasChangedSince(model.getTimestamp(), tileSector));
+    }
+
+    @Test
+    public void testHasChangedSince_GlobalChange() {
+        ElevationModel model = new ElevationModel();
+        model.addCoverage(this.coverage);
+        long timestamp = model.getTimestamp();
+        Sector distant = Sector.fromDegrees(36, -113, 0.25, 0.25);
+
+        this.coverage.updateTimestamp(Sector.fromDegrees(36.5, -112.5, 0.5, 0.5));
+        this.coverage.setEnabled(false);
+        assertTrue("disabled coverage", model.hasChangedSince(timestamp, distant));
+
+        timestamp = model.getTimestamp();
+        model.removeCoverage(this.coverage);
+        assertTrue("removed coverage", model.hasChangedSince(timestamp, distant));
+    }
+
+    @Test
+    public void testHasChangedSince_ForgottenChanges() {
+        long timestamp = this.coverage.getTimestamp();
+        Sector distant = Sector.fromDegrees(36, -113, 0.25, 0.25);
+
+        for (int idx = 0; idx <= AbstractElevationCoverage.MAX_CHANGES; idx++) {
+            this.coverage.updateTimestamp(Sector.fromDegrees(36.5, -112.5, 0.5, 0.5));
+        }
+
+        assertTrue("forgotten changes", this.coverage.hasChangedSince(timestamp, distant));
+        assertFalse("retained changes", this.coverage.hasChangedSince(this.coverage.getTimestamp() - 1, distant));
+    }
+}
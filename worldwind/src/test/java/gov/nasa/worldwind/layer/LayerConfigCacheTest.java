@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.layer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.ogc.WmsLayerConfig;
+import gov.nasa.worldwind.util.DiskCache;
+import gov.nasa.worldwind.util.LevelSetConfig;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LayerConfigCacheTest {
+
+    private File directory;
+
+    private LayerConfigCache cache;
+
+    @Before
+    public void setUp() throws Exception {
+        this.directory = Files.createTempDirectory("LayerConfigCacheTest").toFile();
+        this.cache = new LayerConfigCache(new DiskCache(this.directory, 1024 * 1024));
+    }
+
+    @After
+    public void tearDown() {
+        WorldWind.setDiskCache(null);
+        delete(this.directory);
+    }
+
+    private static void delete(File file) {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    @Test
+    public void testDefaultDiskCache_SeparateFromTileCache() {
+        DiskCache tileCache = new DiskCache(new File(this.directory, "tiles"), 1024 * 1024);
+        WorldWind.setDiskCache(tileCache);
+        LayerConfigCache cache = new LayerConfigCache();
+        String key = LayerConfigCache.wmtsKey("http://example.com/wmts", "layer");
+
+        cache.put(key, new LayerConfigCache.Entry());
+
+        assertNotNull("entry", cache.get(key));
+        assertEquals("tile cache entries", 0, tileCache.getEntryCount());
+        assertTrue("config directory", new File(this.directory, LayerConfigCache.DEFAULT_DIRECTORY).isDirectory());
+    }
+
+    @Test
+    public void testDefaultDiskCache_NoTileCache() {
+        LayerConfigCache cache = new LayerConfigCache();
+        String key = LayerConfigCache.wmtsKey("http://example.com/wmts", "layer");
+
+        cache.put(key, new LayerConfigCache.Entry());
+
+        assertNull("entry", cache.get(key));
+    }
+
+    @Test
+    public void testPutAndGet_Wms() {
+        LayerConfigCache.Entry entry = new LayerConfigCache.Entry();
+        entry.etag = "\"abc123\"";
+        entry.lastModified = 1500000000000L;
+        entry.displayName = "Layer Title";
+        entry.wmsLayerConfig = new WmsLayerConfig("http://example.com/wms", "1.3.0", "a,b", null, "EPSG:4326", "image/png", false, "2017-01-01");
+        entry.levelSetConfig = new LevelSetConfig(new Sector(-45, -90, 90, 180), 90, 12, 512, 512);
+        String key = LayerConfigCache.wmsKey("http://example.com/wms", Arrays.asList("a", "b"));
+
+        this.cache.put(key, entry);
+        LayerConfigCache.Entry result = this.cache.get(key);
+
+        assertNotNull("entry", result);
+        assertEquals("etag", entry.etag, result.etag);
+        assertEquals("last modified", entry.lastModified, result.lastModified);
+        assertEquals("display name", entry.displayName, result.displayName);
+        assertEquals("service address", "http://example.com/wms", result.wmsLayerConfig.serviceAddress);
+        assertEquals("layer names", "a,b", result.wmsLayerConfig.layerNames);
+        assertNull("style names", result.wmsLayerConfig.styleNames);
+        assertFalse("transparent", result.wmsLayerConfig.transparent);
+        assertEquals("time", "2017-01-01", result.wmsLayerConfig.timeString);
+        assertEquals("sector", new Sector(-45, -90, 90, 180), result.levelSetConfig.sector);
+        assertEquals("num levels", 12, result.levelSetConfig.numLevels);
+        assertEquals("tile width", 512, result.levelSetConfig.tileWidth);
+        assertNull("tile matrices", result.tileMatrixIdentifiers);
+        assertTrue("config equals", entry.configEquals(result));
+    }
+
+    @Test
+    public void testPutAndGet_Wmts() {
+        LayerConfigCache.Entry entry = new LayerConfigCache.Entry();
+        entry.tileUrlTemplate = "http://example.com/wmts/{TileMatrix}/{TileRow}/{TileCol}.png";
+        entry.tileMatrixIdentifiers = Arrays.asList("0", "1", "2");
+        String key = LayerConfigCache.wmtsKey("http://example.com/wmts", "layer");
+
+        this.cache.put(key, entry);
+        LayerConfigCache.Entry result = this.cache.get(key);
+
+        assertNotNull("entry", result);
+        assertNull("etag", result.etag);
+        assertNull("wms config", result.wmsLayerConfig);
+        assertEquals("template", entry.tileUrlTemplate, result.tileUrlTemplate);
+        assertEquals("tile matrices", entry.tileMatrixIdentifiers, result.tileMatrixIdentifiers);
+        assertTrue("config equals", entry.configEquals(result));
+    }
+
+    @Test
+    public void testConfigEquals_IgnoresValidators() {
+        LayerConfigCache.Entry entry = new LayerConfigCache.Entry();
+        entry.wmsLayerConfig = new WmsLayerConfig("http://example.com/wms", "a");
+        LayerConfigCache.Entry other = new LayerConfigCache.Entry();
+        other.wmsLayerConfig = new WmsLayerConfig("http://example.com/wms", "a");
+        other.etag = "\"changed\"";
+
+        assertTrue("validators ignored", entry.configEquals(other));
+
+        other.levelSetConfig.numLevels = 5;
+        assertFalse("level set differs", entry.configEquals(other));
+    }
+
+    @Test
+    public void testRemove() {
+        this.cache.put("key", new LayerConfigCache.Entry());
+
+        assertTrue("removed", this.cache.remove("key"));
+        assertNull("entry", this.cache.get("key"));
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.ogc.gpkg;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import gov.nasa.worldwind.geom.Location;
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.util.LevelSet;
+import gov.nasa.worldwind.util.Logger;
+import gov.nasa.worldwind.util.Tile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class)   // We mock the Logger class to avoid its calls to android.util.log
+public class GpkgTileExtractorTest {
+
+    private static final byte[] PNG_DATA = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    private LevelSet levelSet;
+
+    private GpkgTileWriter writer;
+
+    private List<GpkgTileUserData> writtenTiles;
+
+    private List<Tile> fetchedTiles;
+
+    @Before
+    public void setUp() {
+        PowerMockito.mockStatic(Logger.class);
+
+        // Two levels of 90 and 45 degree tiles covering the globe; the first level has 2 rows and 4 columns.
+        this.levelSet = new LevelSet(new Sector().setFullSphere(), new Location(-90, -180), 90, 2, 256, 256);
+        this.writtenTiles = new ArrayList<>();
+        this.fetchedTiles = new ArrayList<>();
+
+        this.writer = mock(GpkgTileWriter.class);
+        when(this.writer.readTileKeys(anyString(), anyInt())).thenReturn(new long[0]);
+        doAnswer(invocation -> {
+            this.writtenTiles.addAll(invocation.getArgument(1)); // the extractor reuses its batch list
+            return null;
+        }).when(this.writer).writeTiles(anyString(), any());
+    }
+
+    private GpkgTileExtractor createExtractor(Sector sector, int firstLevel, int lastLevel) {
+        return new GpkgTileExtractor(this.writer, "tiles", this.levelSet, Tile::new, sector, firstLevel, lastLevel) {
+            @Override
+            protected void executeFetch(Fetch fetch) {
+                fetch.run(); // fetch on the extraction thread
+            }
+
+            @Override
+            protected byte[] fetchTileData(Tile tile) throws IOException {
+                fetchedTiles.add(tile);
+                return PNG_DATA;
+            }
+        };
+    }
+
+    private GpkgTileUserData findWrittenTile(int zoomLevel, int tileColumn, int tileRow) {
+        for (GpkgTileUserData tile : this.writtenTiles) {
+            if (tile.getZoomLevel() == zoomLevel && tile.getTileColumn() == tileColumn && tile.getTileRow() == tileRow) {
+                return tile;
+            }
+        }
+
+        return null;
+    }
+
+    @Test
+    public void testRun_FlipsTileRows() {
+        // The southern half of the globe, which is the first level's bottom row.
+        GpkgTileExtractor extractor = this.createExtractor(Sector.fromDegrees(-90, -180, 90, 360), 0, 0);
+
+        extractor.run();
+
+        assertEquals("fetched count", 4, this.fetchedTiles.size());
+        for (Tile tile : this.fetchedTiles) {
+            assertEquals("WorldWind row", 0, tile.row);
+        }
+
+        assertEquals("written count", 4, extractor.getWrittenCount());
+        assertEquals("written tiles", 4, this.writtenTiles.size());
+        for (GpkgTileUserData tile : this.writtenTiles) {
+            assertEquals("GeoPackage row", 1, tile.getTileRow()); // GeoPackage rows count down from the top
+        }
+    }
+
+    @Test
+    public void testRun_FlipsTileRowsAtEachLevel() {
+        GpkgTileExtractor extractor = this.createExtractor(new Sector().setFullSphere(), 0, 1);
+
+        extractor.run();
+
+        assertEquals("written count", 8 + 32, extractor.getWrittenCount());
+        for (Tile tile : this.fetchedTiles) {
+            int matrixHeight = (tile.level.levelNumber == 0) ? 2 : 4;
+            int gpkgRow = matrixHeight - tile.row - 1;
+            assertNotNull("written " + tile.tileKey, this.findWrittenTile(tile.level.levelNumber, tile.column, gpkgRow));
+        }
+    }
+
+    @Test
+    public void testRun_SkipsWrittenTiles() {
+        // Tiles already written by an earlier extraction, identified by their GeoPackage rows.
+        long[] writtenKeys = {GpkgTileWriter.tileKey(0, 1), GpkgTileWriter.tileKey(2, 0)};
+        when(this.writer.readTileKeys(eq("tiles"), eq(0))).thenReturn(writtenKeys);
+        GpkgTileExtractor extractor = this.createExtractor(new Sector().setFullSphere(), 0, 0);
+
+        extractor.run();
+
+        assertEquals("tile count", 8, extractor.getTileCount());
+        assertEquals("skipped count", 2, extractor.getSkippedCount());
+        assertEquals("written count", 6, extractor.getWrittenCount());
+        assertEquals("fetched count", 6, this.fetchedTiles.size());
+        for (Tile tile : this.fetchedTiles) {
+            assertFalse("fetched written tile", tile.row == 0 && tile.column == 0); // GeoPackage row 1
+            assertFalse("fetched written tile", tile.row == 1 && tile.column == 2); // GeoPackage row 0
+        }
+        assertEquals("progress", 1, extractor.getProgress(), 0);
+    }
+
+    @Test(timeout = 5000)
+    public void testRun_CancelledDuringRetry() {
+        GpkgTileExtractor.Callback callback = mock(GpkgTileExtractor.Callback.class);
+        GpkgTileExtractor extractor = new GpkgTileExtractor(this.writer, "tiles", this.levelSet, Tile::new,
+            new Sector().setFullSphere(), 0, 0) {
+            @Override
+            protected void executeFetch(Fetch fetch) {
+                fetch.run(); // fetch on the extraction thread
+            }
+
+            @Override
+            protected byte[] fetchTileData(Tile tile) throws IOException {
+                fetchedTiles.add(tile);
+                if (fetchedTiles.size() == 1) {
+                    throw new IOException("first fetch fails");
+                }
+                this.cancel(); // cancel while the first tile waits to be retried
+                return PNG_DATA;
+            }
+        };
+        extractor.setMaxConcurrentFetches(1);
+        extractor.setCallback(callback);
+
+        extractor.run();
+
+        assertEquals("fetched count", 2, this.fetchedTiles.size());
+        assertEquals("failed count", 1, extractor.getFailedCount());
+        verify(callback).extractionCancelled(extractor);
+        verify(callback, never()).extractionSucceeded(any());
+        verify(callback, never()).extractionFailed(any(), any());
+    }
+
+    @Test
+    public void testCreateTileTable_InvalidTileOrigin() {
+        // A level set whose tile origin is not its sector's southwest corner.
+        LevelSet levelSet = new LevelSet(new Sector().setFullSphere(), new Location(-90, -90), 90, 2, 256, 256);
+        GpkgTileWriter writer = mock(GpkgTileWriter.class);
+        doCallRealMethod().when(writer).createTileTable(anyString(), any(), any(), any(), anyInt(), anyInt());
+
+        try {
+            writer.createTileTable("tiles", null, levelSet, new Sector().setFullSphere(), 0, 1);
+            fail("Expected an IllegalArgumentException to be thrown.");
+        } catch (IllegalArgumentException expected) {
+            // The origin is validated before the GeoPackage is modified.
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.render;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GlyphAtlasTest {
+
+    @Test
+    public void testCanLayoutText() {
+        assertTrue("latin", GlyphAtlas.canLayoutText("Washington, D.C."));
+        assertTrue("symbols", GlyphAtlas.canLayoutText("45\u00b0N \u2192 12\u20ac"));
+        assertTrue("cyrillic", GlyphAtlas.canLayoutText("\u041c\u043e\u0441\u043a\u0432\u0430"));
+        assertFalse("null", GlyphAtlas.canLayoutText(null));
+        assertFalse("empty", GlyphAtlas.canLayoutText(""));
+        assertFalse("combining mark", GlyphAtlas.canLayoutText("e\u0301"));
+        assertFalse("cyrillic combining mark", GlyphAtlas.canLayoutText("\u0430\u0483"));
+        assertFalse("symbol combining mark", GlyphAtlas.canLayoutText("a\u20d7"));
+        assertFalse("zero width joiner", GlyphAtlas.canLayoutText("a\u200db"));
+        assertFalse("bidirectional control", GlyphAtlas.canLayoutText("\u202eabc"));
+        assertFalse("arabic", GlyphAtlas.canLayoutText("\u0627\u0644\u0642\u0627\u0647\u0631\u0629"));
+        assertFalse("surrogate pair", GlyphAtlas.canLayoutText("\ud83c\udf0d"));
+        assertFalse("newline", GlyphAtlas.canLayoutText("two\nlines"));
+    }
+
+    @Test
+    public void testTextLayout_Finish() {
+        Texture page = new Texture(16, 16, 0, 0);
+        GlyphAtlas.Glyph glyph = new GlyphAtlas.Glyph(page);
+        glyph.left = -1;
+        glyph.bottom = -3;
+        glyph.width = 6;
+        glyph.height = 10;
+
+        GlyphAtlas.TextLayout layout = new GlyphAtlas.TextLayout();
+        layout.reset("ab");
+        layout.addQuad(glyph, 0);
+        layout.addQuad(glyph, 5);
+        layout.finish(7);
+
+        assertEquals("quad count", 2, layout.quadCount);
+        assertEquals("width", 11, layout.width, 0);
+        assertEquals("height", 10, layout.height, 0);
+        assertEquals("first quad min x", 0, layout.quads[0], 0);
+        assertEquals("first quad min y", 0, layout.quads[1], 0);
+        assertEquals("second quad min x", 5, layout.quads[GlyphAtlas.TextLayout.QUAD_STRIDE], 0);
+        assertEquals("generation", 7, layout.generation);
+    }
+
+    @Test
+    public void testTextLayout_Growth() {
+        Texture page = new Texture(16, 16, 0, 0);
+        GlyphAtlas.Glyph glyph = new GlyphAtlas.Glyph(page);
+        glyph.width = 1;
+        glyph.height = 1;
+
+        GlyphAtlas.TextLayout layout = new GlyphAtlas.TextLayout();
+        layout.reset("long text");
+        for (int idx = 0; idx < 100; idx++) {
+            layout.addQuad(glyph, idx);
+        }
+        layout.finish(0);
+
+        assertEquals("quad count", 100, layout.quadCount);
+        assertEquals("width", 100, layout.width, 0);
+        assertEquals("last page", page, layout.pages[99]);
+    }
+
+    @Test
+    public void testTextLayout_Matches() {
+        GlyphAtlas.TextLayout layout = new GlyphAtlas.TextLayout();
+        layout.reset("text");
+        layout.textSize = 24;
+        layout.outline = true;
+        layout.outlineWidth = 3;
+        layout.finish(2);
+
+        assertTrue("same", layout.matches("text", 24, null, true, 3, 2));
+        assertFalse("different text", layout.matches("next", 24, null, true, 3, 2));
+        assertFalse("different size", layout.matches("text", 12, null, true, 3, 2));
+        assertFalse("different outline", layout.matches("text", 24, null, false, 3, 2));
+        assertFalse("different outline width", layout.matches("text", 24, null, true, 5, 2));
+        assertFalse("different generation", layout.matches("text", 24, null, true, 3, 3));
+    }
+}
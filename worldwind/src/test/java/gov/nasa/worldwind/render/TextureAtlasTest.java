@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.render;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import gov.nasa.worldwind.draw.DrawContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TextureAtlasTest {
+
+    /**
+     * Number of 16x16 textures that fill a 64x64 page, with each region padded to 18x18.
+     */
+    private static final int REGIONS_PER_PAGE = 9;
+
+    private DrawContext dc;
+
+    private TextureAtlas atlas;
+
+    @Before
+    public void setUp() {
+        this.dc = new DrawContext();
+
+        // An atlas with two 64x64 pages, which copies textures without rendering.
+        this.atlas = new TextureAtlas(64, 2) {
+            @Override
+            protected boolean copyTexture(DrawContext dc, Texture texture, BasicShaderProgram program, Page page, int x, int y) {
+                return true;
+            }
+        };
+    }
+
+    private TextureAtlas.Region[] addTextures(Texture[] textures) {
+        TextureAtlas.Region[] regions = new TextureAtlas.Region[textures.length];
+        for (int idx = 0; idx < textures.length; idx++) {
+            textures[idx] = new Texture(16, 16, 0, 0);
+            regions[idx] = this.atlas.getRegion(this.dc, textures[idx], null);
+        }
+
+        return regions;
+    }
+
+    @Test
+    public void testGetRegion_Cached() {
+        Texture texture = new Texture(16, 16, 0, 0);
+        TextureAtlas.Region region = this.atlas.getRegion(this.dc, texture, null);
+
+        assertNotNull("region", region);
+        assertSame("cached region", region, this.atlas.getRegion(this.dc, texture, null));
+        assertTrue("valid", region.isValid());
+    }
+
+    @Test
+    public void testGetRegion_TooLarge() {
+        assertNull("too large", this.atlas.getRegion(this.dc, new Texture(17, 16, 0, 0), null));
+    }
+
+    @Test
+    public void testGetRegion_EvictsLeastRecentlyUsedPage() {
+        Texture[] firstTextures = new Texture[REGIONS_PER_PAGE];
+        TextureAtlas.Region[] firstRegions = this.addTextures(firstTextures);
+        this.atlas.releaseUnusedPages(this.dc);
+        Texture[] secondTextures = new Texture[REGIONS_PER_PAGE];
+        TextureAtlas.Region[] secondRegions = this.addTextures(secondTextures);
+        this.atlas.releaseUnusedPages(this.dc);
+
+        Texture texture = new Texture(16, 16, 0, 0);
+        TextureAtlas.Region region = this.atlas.getRegion(this.dc, texture, null);
+
+        assertNotNull("region", region);
+        assertSame("reused first page", firstRegions[0].page, region.page);
+        assertFalse("first page evicted", firstRegions[0].isValid());
+        assertTrue("second page kept", secondRegions[0].isValid());
+        assertSame("second page cached", secondRegions[0], this.atlas.getRegion(this.dc, secondTextures[0], null));
+        assertEquals("page count", 2, this.atlas.pages.size());
+    }
+
+    @Test
+    public void testGetRegion_KeepsPagesUsedThisFrame() {
+        Texture[] textures = new Texture[REGIONS_PER_PAGE * 2];
+        TextureAtlas.Region[] regions = this.addTextures(textures);
+
+        assertNull("atlas full", this.atlas.getRegion(this.dc, new Texture(16, 16, 0, 0), null));
+        for (TextureAtlas.Region region : regions) {
+            assertTrue("valid", region.isValid());
+        }
+    }
+
+    @Test
+    public void testReleaseUnusedPages() {
+        Texture[] firstTextures = new Texture[REGIONS_PER_PAGE];
+        TextureAtlas.Region[] firstRegions = this.addTextures(firstTextures);
+        Texture[] secondTextures = new Texture[REGIONS_PER_PAGE];
+        TextureAtlas.Region[] secondRegions = this.addTextures(secondTextures);
+
+        // Keep using a texture in the second page while the first page goes unused.
+        for (int frame = 0; frame <= TextureAtlas.PAGE_EXPIRATION_FRAMES; frame++) {
+            this.atlas.getRegion(this.dc, secondTextures[0], null);
+            this.atlas.releaseUnusedPages(this.dc);
+        }
+
+        assertEquals("page count", 1, this.atlas.pages.size());
+        assertFalse("first page released", firstRegions[0].isValid());
+        assertTrue("second page kept", secondRegions[0].isValid());
+    }
+
+    @Test
+    public void testClear() {
+        Texture texture = new Texture(16, 16, 0, 0);
+        TextureAtlas.Region region = this.atlas.getRegion(this.dc, texture, null);
+
+        this.atlas.clear();
+
+        assertFalse("invalidated", region.isValid());
+        TextureAtlas.Region newRegion = this.atlas.getRegion(this.dc, texture, null);
+        assertNotNull("new region", newRegion);
+        assertTrue("new region valid", newRegion.isValid());
+        assertEquals("page count", 1, this.atlas.pages.size());
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DiskCacheTest {
+
+    private File directory;
+
+    @Before
+    public void setUp() throws Exception {
+        this.directory = Files.createTempDirectory("DiskCacheTest").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = this.directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        this.directory.delete();
+    }
+
+    @Test
+    public void testPutAndGet() {
+        DiskCache cache = new DiskCache(this.directory, 100);
+        byte[] data = {1, 2, 3, 4};
+
+        cache.put("http://host/tile?x=1", data, 0, data.length);
+
+        assertArrayEquals("entry contents", data, cache.get("http://host/tile?x=1"));
+        assertEquals("used capacity", 4, cache.getUsedCapacity());
+        assertEquals("entry count", 1, cache.getEntryCount());
+    }
+
+    @Test
+    public void testPut_Range() {
+        DiskCache cache = new DiskCache(this.directory, 100);
+        byte[] data = {1, 2, 3, 4, 5};
+
+        cache.put("key", data, 1, 3);
+
+        assertArrayEquals("entry contents", new byte[]{2, 3, 4}, cache.get("key"));
+    }
+
+    @Test
+    public void testPut_Replace() {
+        DiskCache cache = new DiskCache(this.directory, 100);
+
+        cache.put("key", new byte[10], 0, 10);
+        cache.put("key", new byte[4], 0, 4);
+
+        assertEquals("used capacity", 4, cache.getUsedCapacity());
+        assertEquals("entry count", 1, cache.getEntryCount());
+    }
+
+    @Test
+    public void testPut_ExceedsCapacity() {
+        DiskCache cache = new DiskCache(this.directory, 10);
+
+        cache.put("key", new byte[11], 0, 11);
+
+        assertNull("oversized entry", cache.get("key"));
+        assertEquals("used capacity", 0, cache.getUsedCapacity());
+    }
+
+    @Test
+    public void testHitAndMissCounts() {
+        DiskCache cache = new DiskCache(this.directory, 100);
+        cache.put("key", new byte[1], 0, 1);
+
+        cache.get("key");
+        cache.get("key");
+        cache.get("absent");
+
+        assertEquals("hit count", 2, cache.getHitCount());
+        assertEquals("miss count", 1, cache.getMissCount());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        DiskCache cache = new DiskCache(this.directory, 30, 20);
+        cache.put("a", new byte[10], 0, 10);
+        cache.put("b", new byte[10], 0, 10);
+        cache.put("c", new byte[10], 0, 10);
+        cache.get("a"); // make "b" the least recently used entry
+
+        cache.put("d", new byte[10], 0, 10);
+
+        assertNotNull("a", cache.get("a"));
+        assertNull("b", cache.get("b"));
+        assertNull("c", cache.get("c"));
+        assertNotNull("d", cache.get("d"));
+        assertEquals("used capacity", 20, cache.getUsedCapacity());
+    }
+
+    @Test
+    public void testRemove() {
+        DiskCache cache = new DiskCache(this.directory, 100);
+        cache.put("key", new byte[4], 0, 4);
+
+        assertTrue("removed", cache.remove("key"));
+        assertFalse("removed twice", cache.remove("key"));
+        assertNull("entry", cache.get("key"));
+        assertEquals("used capacity", 0, cache.getUsedCapacity());
+    }
+
+    @Test
+    public void testClear() {
+        DiskCache cache = new DiskCache(this.directory, 100);
+        cache.put("a", new byte[4], 0, 4);
+        cache.put("b", new byte[4], 0, 4);
+
+        cache.clear();
+
+        assertEquals("entry count", 0, cache.getEntryCount());
+        assertEquals("used capacity", 0, cache.getUsedCapacity());
+        assertEquals("files", 0, this.directory.listFiles().length);
+    }
+
+    @Test
+    public void testLoadIndex() {
+        DiskCache cache = new DiskCache(this.directory, 100);
+        cache.put("a", new byte[]{7, 8}, 0, 2);
+        cache.put("b", new byte[4], 0, 4);
+
+        DiskCache reopened = new DiskCache(this.directory, 100);
+
+        assertEquals("entry count", 2, reopened.getEntryCount());
+        assertEquals("used capacity", 6, reopened.getUsedCapacity());
+        assertArrayEquals("entry contents", new byte[]{7, 8}, reopened.get("a"));
+    }
+
+    @Test
+    public void testLoadIndex_OnFirstUse() {
+        DiskCache reopened = new DiskCache(this.directory, 100); // constructed before the entries are written
+        DiskCache cache = new DiskCache(this.directory, 100);
+        cache.put("a", new byte[]{7, 8}, 0, 2);
+
+        assertEquals("entry count", 1, reopened.getEntryCount());
+        assertArrayEquals("entry contents", new byte[]{7, 8}, reopened.get("a"));
+    }
+
+    @Test
+    public void testGet_FileRemovedExternally() {
+        DiskCache cache = new DiskCache(this.directory, 100);
+        cache.put("key", new byte[4], 0, 4);
+        for (File file : this.directory.listFiles()) {
+            file.delete();
+        }
+
+        assertNull("entry", cache.get("key"));
+        assertEquals("entry count", 0, cache.getEntryCount());
+        assertEquals("miss count", 1, cache.getMissCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_InvalidCapacity() {
+        new DiskCache(this.directory, 0);
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class IntSetTest {
+
+    @Test
+    public void testAdd() {
+        IntSet set = new IntSet();
+
+        assertTrue("new value", set.add(5));
+        assertFalse("duplicate value", set.add(5));
+        assertTrue("zero", set.add(0));
+        assertFalse("duplicate zero", set.add(0));
+        assertTrue("negative value", set.add(-7));
+
+        assertEquals("size", 3, set.size());
+        assertTrue("contains", set.contains(5));
+        assertTrue("contains zero", set.contains(0));
+        assertTrue("contains negative", set.contains(-7));
+        assertFalse("does not contain", set.contains(6));
+    }
+
+    @Test
+    public void testAdd_Grow() {
+        IntSet set = new IntSet(0);
+        for (int value = 1; value <= 10000; value++) {
+            set.add(value * 31);
+        }
+
+        assertEquals("size", 10000, set.size());
+        for (int value = 1; value <= 10000; value++) {
+            assertTrue("contains " + value * 31, set.contains(value * 31));
+            assertFalse("does not contain " + (value * 31 + 1), set.contains(value * 31 + 1));
+        }
+    }
+
+    @Test
+    public void testClear() {
+        IntSet set = new IntSet();
+        set.add(0);
+        set.add(1);
+        set.add(2);
+
+        assertSame("returns this", set, set.clear());
+        assertEquals("size", 0, set.size());
+        assertTrue("empty", set.isEmpty());
+        assertFalse("cleared zero", set.contains(0));
+        assertFalse("cleared value", set.contains(1));
+        assertTrue("reused", set.add(1));
+    }
+
+    @Test
+    public void testToArray() {
+        IntSet set = new IntSet();
+        set.add(3);
+        set.add(0);
+        set.add(1);
+        set.add(3);
+
+        int[] result = set.toArray(null);
+        Arrays.sort(result);
+        assertArrayEquals("new array", new int[]{0, 1, 3}, result);
+
+        int[] array = new int[5];
+        assertSame("existing array", array, set.toArray(array));
+        Arrays.sort(array, 0, set.size());
+        assertArrayEquals("existing array", new int[]{0, 1, 3}, Arrays.copyOf(array, set.size()));
+    }
+}
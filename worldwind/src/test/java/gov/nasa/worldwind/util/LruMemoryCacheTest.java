@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class LruMemoryCacheTest {
+
+    private static class RecordingCache extends LruMemoryCache<String, String> {
+
+        final List<String> removed = new ArrayList<>();
+
+        final List<Boolean> evicted = new ArrayList<>();
+
+        RecordingCache(int capacity, int lowWater) {
+            super(capacity, lowWater);
+        }
+
+        @Override
+        protected void entryRemoved(String key, String oldValue, String newValue, boolean evicted) {
+            this.removed.add(key);
+            this.evicted.add(evicted);
+        }
+    }
+
+    @Test
+    public void testPutAndGet() {
+        LruMemoryCache<String, String> cache = new LruMemoryCache<>(10);
+
+        cache.put("a", "A", 1);
+        cache.put("b", "B", 2);
+
+        assertEquals("a", "A", cache.get("a"));
+        assertEquals("b", "B", cache.get("b"));
+        assertNull("absent", cache.get("c"));
+        assertEquals("used capacity", 3, cache.getUsedCapacity());
+        assertEquals("entry count", 2, cache.getEntryCount());
+    }
+
+    @Test
+    public void testPut_Replace() {
+        RecordingCache cache = new RecordingCache(10, 5);
+        cache.put("a", "A", 3);
+
+        String old = cache.put("a", "B", 2);
+
+        assertEquals("old value", "A", old);
+        assertEquals("used capacity", 2, cache.getUsedCapacity());
+        assertEquals("entry count", 1, cache.getEntryCount());
+        assertEquals("removed", "a", cache.removed.get(0));
+        assertFalse("not evicted", cache.evicted.get(0));
+    }
+
+    @Test
+    public void testMakeSpace_EvictsToLowWater() {
+        RecordingCache cache = new RecordingCache(4, 2);
+        cache.put("a", "A", 1);
+        cache.put("b", "B", 1);
+        cache.put("c", "C", 1);
+        cache.put("d", "D", 1);
+        cache.get("a"); // make "b" the least recently used entry
+
+        cache.put("e", "E", 1);
+
+        assertEquals("removed", "b", cache.removed.get(0));
+        assertEquals("removed", "c", cache.removed.get(1));
+        assertEquals("removed count", 2, cache.removed.size());
+        assertTrue("evicted", cache.evicted.get(0));
+        assertTrue("a retained", cache.containsKey("a"));
+        assertTrue("d retained", cache.containsKey("d"));
+        assertTrue("e added", cache.containsKey("e"));
+        assertEquals("used capacity", 3, cache.getUsedCapacity());
+    }
+
+    @Test
+    public void testMakeSpace_LargeEntry() {
+        RecordingCache cache = new RecordingCache(4, 3);
+        cache.put("a", "A", 1);
+        cache.put("b", "B", 1);
+        cache.put("c", "C", 1);
+
+        cache.put("d", "D", 3);
+
+        assertEquals("removed count", 2, cache.removed.size());
+        assertEquals("used capacity", 4, cache.getUsedCapacity());
+    }
+
+    @Test
+    public void testRemove() {
+        RecordingCache cache = new RecordingCache(10, 5);
+        cache.put("a", "A", 1);
+        cache.put("b", "B", 1);
+
+        assertEquals("removed value", "A", cache.remove("a"));
+        assertNull("removed twice", cache.remove("a"));
+        assertEquals("used capacity", 1, cache.getUsedCapacity());
+        assertEquals("removed", "a", cache.removed.get(0));
+        assertSame("remaining", "B", cache.get("b"));
+    }
+
+    @Test
+    public void testTrimToAge() {
+        RecordingCache cache = new RecordingCache(10, 5);
+        cache.put("a", "A", 1);
+        cache.put("b", "B", 1);
+
+        int trimmed = cache.trimToAge(Long.MAX_VALUE);
+
+        assertEquals("trimmed capacity", 2, trimmed);
+        assertEquals("entry count", 0, cache.getEntryCount());
+        assertEquals("removed", "a", cache.removed.get(0));
+        assertEquals("removed", "b", cache.removed.get(1));
+    }
+
+    @Test
+    public void testTrimToAge_RetainsRecentEntries() {
+        LruMemoryCache<String, String> cache = new LruMemoryCache<>(10);
+        cache.put("a", "A", 1);
+
+        int trimmed = cache.trimToAge(System.currentTimeMillis() - 60000);
+
+        assertEquals("trimmed capacity", 0, trimmed);
+        assertEquals("entry count", 1, cache.getEntryCount());
+    }
+
+    @Test
+    public void testClear() {
+        RecordingCache cache = new RecordingCache(10, 5);
+        cache.put("a", "A", 1);
+        cache.put("b", "B", 1);
+
+        cache.clear();
+
+        assertEquals("entry count", 0, cache.getEntryCount());
+        assertEquals("used capacity", 0, cache.getUsedCapacity());
+        assertEquals("removed count", 2, cache.removed.size());
+
+        cache.put("c", "C", 1);
+        assertEquals("reusable after clear", "C", cache.get("c"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_InvalidCapacity() {
+        new LruMemoryCache<String, String>(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_InvalidLowWater() {
+        new LruMemoryCache<String, String>(10, 10);
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RetrievalSchedulerTest {
+
+    private static class GatedRetriever extends Retriever<String, Void, String> {
+
+        final List<String> started = Collections.synchronizedList(new ArrayList<>());
+
+        final Semaphore gate = new Semaphore(0);
+
+        final CountDownLatch firstStarted = new CountDownLatch(1);
+
+        GatedRetriever(int maxSimultaneousRetrievals, RetrievalScheduler scheduler) {
+            super(maxSimultaneousRetrievals, scheduler);
+        }
+
+        @Override
+        protected void retrieveAsync(String key, Void options, Callback<String, Void, String> callback) {
+            this.started.add(key);
+            this.firstStarted.countDown();
+            this.gate.acquireUninterruptibly();
+            callback.retrievalSucceeded(this, key, options, key);
+        }
+    }
+
+    private static class RecordingCallback implements Retriever.Callback<String, Void, String> {
+
+        final List<String> succeeded = Collections.synchronizedList(new ArrayList<>());
+
+        final List<String> rejected = Collections.synchronizedList(new ArrayList<>());
+
+        final Semaphore completed = new Semaphore(0);
+
+        @Override
+        public void retrievalSucceeded(Retriever<String, Void, String> retriever, String key, Void options, String value) {
+            this.succeeded.add(key);
+            this.completed.release();
+        }
+
+        @Override
+        public void retrievalFailed(Retriever<String, Void, String> retriever, String key, Throwable ex) {
+            this.completed.release();
+        }
+
+        @Override
+        public void retrievalRejected(Retriever<String, Void, String> retriever, String key) {
+            this.rejected.add(key);
+        }
+    }
+
+    @Test
+    public void testPriorityOrder() throws Exception {
+        RetrievalScheduler scheduler = new RetrievalScheduler(1, 10);
+        GatedRetriever retriever = new GatedRetriever(8, scheduler);
+        RecordingCallback callback = new RecordingCallback();
+
+        retriever.retrieve("first", null, callback, 0);
+        assertTrue("first started", retriever.firstStarted.await(5, TimeUnit.SECONDS));
+
+        retriever.retrieve("far", null, callback, 100);
+        retriever.retrieve("near", null, callback, 1);
+        retriever.retrieve("middle", null, callback, 50);
+        retriever.retrieve("far", null, callback, 0); // reprioritize the pending retrieval
+
+        retriever.gate.release(4);
+        assertTrue("completed", callback.completed.tryAcquire(4, 5, TimeUnit.SECONDS));
+
+        assertEquals("order", Arrays.asList("first", "far", "near", "middle"), retriever.started);
+    }
+
+    @Test
+    public void testRetrieve_AlreadyRunning() throws Exception {
+        RetrievalScheduler scheduler = new RetrievalScheduler(1, 10);
+        GatedRetriever retriever = new GatedRetriever(8, scheduler);
+        RecordingCallback callback = new RecordingCallback();
+
+        retriever.retrieve("key", null, callback, 0);
+        assertTrue("started", retriever.firstStarted.await(5, TimeUnit.SECONDS));
+        retriever.retrieve("key", null, callback, 0);
+
+        assertEquals("rejected", Collections.singletonList("key"), callback.rejected);
+
+        retriever.gate.release();
+        assertTrue("completed", callback.completed.tryAcquire(1, 5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testAdvanceFrame_CancelsIdleRetrievals() throws Exception {
+        RetrievalScheduler scheduler = new RetrievalScheduler(1, 2);
+        GatedRetriever retriever = new GatedRetriever(8, scheduler);
+        RecordingCallback callback = new RecordingCallback();
+
+        retriever.retrieve("running", null, callback, 0);
+        assertTrue("started", retriever.firstStarted.await(5, TimeUnit.SECONDS));
+        retriever.retrieve("idle", null, callback, 0);
+        retriever.retrieve("requested", null, callback, 0);
+
+        for (int frame = 0; frame < 3; frame++) {
+            scheduler.advanceFrame();
+            retriever.retrieve("requested", null, callback, 0); // requested every frame
+        }
+
+        assertEquals("rejected", Collections.singletonList("idle"), callback.rejected);
+        assertEquals("pending count", 1, scheduler.getPendingCount());
+
+        retriever.gate.release(2);
+        assertTrue("completed", callback.completed.tryAcquire(2, 5, TimeUnit.SECONDS));
+        assertEquals("succeeded", Arrays.asList("running", "requested"), callback.succeeded);
+    }
+
+    @Test
+    public void testAdvanceFrame_IdleCancellationDisabled() throws Exception {
+        RetrievalScheduler scheduler = new RetrievalScheduler(1, 0);
+        GatedRetriever retriever = new GatedRetriever(8, scheduler);
+        retriever.setCancelIdleRetrievals(false);
+        RecordingCallback callback = new RecordingCallback();
+
+        retriever.retrieve("running", null, callback, 0);
+        assertTrue("started", retriever.firstStarted.await(5, TimeUnit.SECONDS));
+        retriever.retrieve("idle", null, callback, 0);
+        scheduler.advanceFrame();
+        scheduler.advanceFrame();
+
+        assertEquals("rejected", 0, callback.rejected.size());
+
+        retriever.gate.release(2);
+        assertTrue("completed", callback.completed.tryAcquire(2, 5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testMaxSimultaneousRetrievals() throws Exception {
+        RetrievalScheduler scheduler = new RetrievalScheduler(4, 10);
+        GatedRetriever limited = new GatedRetriever(1, scheduler);
+        GatedRetriever other = new GatedRetriever(4, scheduler);
+        RecordingCallback callback = new RecordingCallback();
+
+        limited.retrieve("a", null, callback, 0);
+        limited.retrieve("b", null, callback, 0);
+        other.retrieve("c", null, callback, 1);
+        assertTrue("limited started", limited.firstStarted.await(5, TimeUnit.SECONDS));
+        assertTrue("other started", other.firstStarted.await(5, TimeUnit.SECONDS));
+
+        assertEquals("limited retriever running count", 1, limited.started.size());
+
+        limited.gate.release(2);
+        other.gate.release();
+        assertTrue("completed", callback.completed.tryAcquire(3, 5, TimeUnit.SECONDS));
+        assertEquals("limited order", Arrays.asList("a", "b"), limited.started);
+    }
+}
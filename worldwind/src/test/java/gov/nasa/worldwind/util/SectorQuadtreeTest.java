@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+
+import gov.nasa.worldwind.geom.Sector;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SectorQuadtreeTest {
+
+    @Test
+    public void testQuery() {
+        SectorQuadtree<String> tree = new SectorQuadtree<>(1, 8);
+        tree.insert(Sector.fromDegrees(10, 10, 1, 1), "a");
+        tree.insert(Sector.fromDegrees(-20, -30, 1, 1), "b");
+        tree.insert(Sector.fromDegrees(-45, -90, 90, 180), "c"); // spans the root's children
+
+        ArrayList<String> result = new ArrayList<>();
+        int count = tree.query(Sector.fromDegrees(5, 5, 10, 10), result);
+        Collections.sort(result);
+
+        assertEquals("count", 2, count);
+        assertEquals("result", "[a, c]", result.toString());
+        assertEquals("tree count", 3, tree.count());
+    }
+
+    @Test
+    public void testQuery_MatchesLinearSearch() {
+        SectorQuadtree<Integer> tree = new SectorQuadtree<>(4, 10);
+        ArrayList<Sector> sectors = new ArrayList<>();
+        Random random = new Random(1);
+
+        for (int idx = 0; idx < 2000; idx++) {
+            double lat = random.nextDouble() * 170 - 85;
+            double lon = random.nextDouble() * 350 - 175;
+            Sector sector = Sector.fromDegrees(lat, lon, random.nextDouble() * 5, random.nextDouble() * 5);
+            sectors.add(sector);
+            tree.insert(sector, idx);
+        }
+
+        Sector query = Sector.fromDegrees(20, 30, 15, 25);
+        ArrayList<Integer> expected = new ArrayList<>();
+        for (int idx = 0; idx < sectors.size(); idx++) {
+            if (sectors.get(idx).intersectsOrNextTo(query)) {
+                expected.add(idx);
+            }
+        }
+
+        ArrayList<Integer> result = new ArrayList<>();
+        tree.query(query, result);
+        Collections.sort(result);
+
+        assertEquals("result", expected, result);
+    }
+
+    @Test
+    public void testUpdate() {
+        SectorQuadtree<String> tree = new SectorQuadtree<>(1, 8);
+        SectorQuadtree.Entry<String> entry = tree.insert(Sector.fromDegrees(10, 10, 1, 1), "a");
+        tree.insert(Sector.fromDegrees(60, 60, 1, 1), "b");
+
+        tree.update(entry, Sector.fromDegrees(-40, -40, 1, 1));
+
+        ArrayList<String> result = new ArrayList<>();
+        tree.query(Sector.fromDegrees(5, 5, 10, 10), result);
+        assertTrue("old location", result.isEmpty());
+
+        tree.query(Sector.fromDegrees(-45, -45, 10, 10), result);
+        assertEquals("new location", Collections.singletonList("a"), result);
+        assertEquals("tree count", 2, tree.count());
+    }
+
+    @Test
+    public void testRemove() {
+        SectorQuadtree<String> tree = new SectorQuadtree<>(1, 8);
+        SectorQuadtree.Entry<String> a = tree.insert(Sector.fromDegrees(10, 10, 1, 1), "a");
+        tree.insert(Sector.fromDegrees(10, 12, 1, 1), "b");
+
+        assertTrue("removed", tree.remove(a));
+        assertFalse("removed twice", tree.remove(a));
+
+        ArrayList<String> result = new ArrayList<>();
+        tree.query(Sector.fromDegrees(5, 5, 10, 10), result);
+        assertEquals("remaining", Collections.singletonList("b"), result);
+        assertEquals("tree count", 1, tree.count());
+    }
+
+    @Test
+    public void testClear() {
+        SectorQuadtree<String> tree = new SectorQuadtree<>();
+        SectorQuadtree.Entry<String> a = tree.insert(Sector.fromDegrees(10, 10, 1, 1), "a");
+
+        tree.clear();
+
+        assertEquals("tree count", 0, tree.count());
+        assertFalse("removed after clear", tree.remove(a));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_InvalidMaxEntries() {
+        new SectorQuadtree<String>(0, 8);
+    }
+}
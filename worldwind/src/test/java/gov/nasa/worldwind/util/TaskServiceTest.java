@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2016 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TaskServiceTest {
+
+    @Test
+    public void testExecute_PriorityOrder() throws InterruptedException {
+        TaskService service = new TaskService(1, 1, 1, 10);
+        CountDownLatch gate = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(4);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+
+        // Occupy the queue's only thread, so that the remaining tasks wait and are ordered by priority.
+        service.execute(TaskService.DISK_QUEUE, () -> {
+            started.countDown();
+            awaitUninterruptibly(gate);
+        });
+        assertTrue("blocking task started", started.await(5, TimeUnit.SECONDS));
+
+        service.execute(TaskService.DISK_QUEUE, 2, recordTask(order, "c", finished));
+        service.execute(TaskService.DISK_QUEUE, 1, recordTask(order, "a", finished));
+        service.execute(TaskService.DISK_QUEUE, 2, recordTask(order, "d", finished));
+        service.execute(TaskService.DISK_QUEUE, 1, recordTask(order, "b", finished));
+        assertEquals("queue depth", 4, service.getQueueDepth(TaskService.DISK_QUEUE));
+        assertEquals("active count", 1, service.getActiveCount(TaskService.DISK_QUEUE));
+
+        gate.countDown();
+        assertTrue("tasks finished", finished.await(5, TimeUnit.SECONDS));
+        assertEquals("order", Arrays.asList("a", "b", "c", "d"), order);
+    }
+
+    @Test
+    public void testExecute_BoundedQueue() throws InterruptedException {
+        TaskService service = new TaskService(1, 1, 1, 2);
+        CountDownLatch gate = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+
+        service.execute(TaskService.NETWORK_QUEUE, () -> {
+            started.countDown();
+            awaitUninterruptibly(gate);
+        });
+        assertTrue("blocking task started", started.await(5, TimeUnit.SECONDS));
+
+        service.execute(TaskService.NETWORK_QUEUE, () -> {});
+        service.execute(TaskService.NETWORK_QUEUE, () -> {});
+        try {
+            service.execute(TaskService.NETWORK_QUEUE, () -> {});
+            fail("Expected a RejectedExecutionException");
+        } catch (RejectedExecutionException expected) {
+            assertEquals("rejected count", 1, service.getRejectedCount(TaskService.NETWORK_QUEUE));
+        }
+
+        // Other queues are unaffected by the full network queue.
+        CountDownLatch decoded = new CountDownLatch(1);
+        service.execute(TaskService.DECODE_QUEUE, decoded::countDown);
+        assertTrue("decode task ran", decoded.await(5, TimeUnit.SECONDS));
+
+        gate.countDown();
+    }
+
+    @Test
+    public void testExecute_RetrievalQueue() throws InterruptedException {
+        TaskService service = new TaskService(1, 2, 1, 1, 10);
+        CountDownLatch gate = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(2);
+
+        // Occupy every retrieval thread, as retrieval scheduler workers do while retrievals are pending.
+        for (int idx = 0; idx < 2; idx++) {
+            service.execute(TaskService.RETRIEVAL_QUEUE, () -> {
+                started.countDown();
+                awaitUninterruptibly(gate);
+            });
+        }
+        assertTrue("retrieval tasks started", started.await(5, TimeUnit.SECONDS));
+        assertEquals("retrieval threads", 2, service.getActiveCount(TaskService.RETRIEVAL_QUEUE));
+
+        // Network tasks run on their own threads.
+        CountDownLatch requested = new CountDownLatch(1);
+        service.execute(TaskService.NETWORK_QUEUE, requested::countDown);
+        assertTrue("network task ran", requested.await(5, TimeUnit.SECONDS));
+
+        gate.countDown();
+    }
+
+    @Test
+    public void testMetrics() throws InterruptedException {
+        TaskService service = new TaskService(1, 1, 2, 10);
+        CountDownLatch finished = new CountDownLatch(5);
+        for (int idx = 0; idx < 5; idx++) {
+            service.execute(finished::countDown);
+        }
+        assertTrue("tasks finished", finished.await(5, TimeUnit.SECONDS));
+
+        // The completed count is updated after each task returns; wait for the last update.
+        long deadline = System.currentTimeMillis() + 5000;
+        while (service.getCompletedCount(TaskService.DECODE_QUEUE) < 5 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+
+        assertEquals("completed count", 5, service.getCompletedCount(TaskService.DECODE_QUEUE));
+        assertEquals("queue depth", 0, service.getQueueDepth(TaskService.DECODE_QUEUE));
+        assertEquals("other queue", 0, service.getCompletedCount(TaskService.NETWORK_QUEUE));
+        assertTrue("max wait time", service.getMaxWaitTime(TaskService.DECODE_QUEUE) >= service.getAverageWaitTime(TaskService.DECODE_QUEUE));
+
+        service.resetMetrics(TaskService.DECODE_QUEUE);
+        assertEquals("reset completed count", 0, service.getCompletedCount(TaskService.DECODE_QUEUE));
+        assertEquals("reset wait time", 0, service.getTotalWaitTime(TaskService.DECODE_QUEUE), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_InvalidThreadCount() {
+        new TaskService(0, 1, 1, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_InvalidRetrievalThreadCount() {
+        new TaskService(1, 0, 1, 1, 1);
+    }
+
+    private static Runnable recordTask(List<String> order, String name, CountDownLatch finished) {
+        return () -> {
+            order.add(name);
+            finished.countDown();
+        };
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        while (true) {
+            try {
+                latch.await();
+                return;
+            } catch (InterruptedException ignored) {
+            }
+        }
+    }
+}
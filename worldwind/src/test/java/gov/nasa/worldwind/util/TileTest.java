@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import gov.nasa.worldwind.geom.Location;
+import gov.nasa.worldwind.geom.Sector;
+
+import static org.junit.Assert.assertTrue;
+
+public class TileTest {
+
+    private LevelSet levelSet;
+
+    @Before
+    public void setUp() {
+        this.levelSet = new LevelSet(new Sector().setFullSphere(), new Location(-90, -180), 90, 10, 256, 256);
+    }
+
+    private Tile tile(int levelNumber, double distanceToCamera) {
+        Level level = this.levelSet.level(levelNumber);
+        Tile tile = new Tile(Sector.fromDegrees(-90, -180, level.tileDelta, level.tileDelta), level, 0, 0);
+        tile.distanceToCamera = distanceToCamera;
+        return tile;
+    }
+
+    @Test
+    public void testGetRetrievalPriority_NearerFirstWithinLevel() {
+        assertTrue("nearer", this.tile(3, 1e3).getRetrievalPriority() < this.tile(3, 1e4).getRetrievalPriority());
+        assertTrue("far nearer", this.tile(3, 1e7).getRetrievalPriority() < this.tile(3, 2e7).getRetrievalPriority());
+    }
+
+    @Test
+    public void testGetRetrievalPriority_CoarserLevelFirst() {
+        assertTrue("coarser level", this.tile(2, 1e8).getRetrievalPriority() < this.tile(3, 0).getRetrievalPriority());
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util.xml;
+
+import org.junit.Test;
+
+import javax.xml.namespace.QName;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class XmlModelParserTest {
+
+    @Test
+    public void testAppendText() {
+        assertEquals("trimmed", "3.14159018", XmlModelParser.appendText("\n\t3.14159018\n", null).toString());
+        assertEquals("newlines suppressed", "ab  c", XmlModelParser.appendText("  a\nb  c\n\n ", null).toString());
+        assertEquals("appended", "xyz", XmlModelParser.appendText(" z ", new StringBuilder("xy")).toString());
+        assertNull("whitespace", XmlModelParser.appendText(" \n\t \n", null));
+        assertNull("empty", XmlModelParser.appendText("", null));
+        assertNull("null", XmlModelParser.appendText(null, null));
+    }
+
+    @Test
+    public void testAppendText_MatchesRegex() {
+        String[] texts = {"a", " a ", "\na\n", "a\r\nb", "\n \n", "a \n b", "\u0000a\u0001", "a\n\n\nb\n"};
+        for (String text : texts) {
+            String expected = text.replaceAll("\n", "").trim();
+            StringBuilder result = XmlModelParser.appendText(text, null);
+            assertEquals(text, expected, (result != null) ? result.toString() : "");
+        }
+    }
+
+    @Test
+    public void testInternName() {
+        XmlModelParser parser = new XmlModelParser();
+        QName name = parser.internName("http://www.opengis.net/wms", "Layer");
+
+        assertSame("same name", name, parser.internName("http://www.opengis.net/wms", new String("Layer")));
+        assertEquals("equal to new name", new QName("http://www.opengis.net/wms", "Layer"), name);
+        assertNotSame("other namespace", name, parser.internName("", "Layer"));
+        assertSame("null namespace", parser.internName("", "Layer"), parser.internName(null, "Layer"));
+    }
+
+    @Test
+    public void testCreateXmlModel() {
+        XmlModelParser parser = new XmlModelParser();
+        parser.registerXmlModel("", "Factory", TestModel::new);
+        parser.registerXmlModel("", "Class", TestModel.class);
+
+        assertTrue("factory", parser.createXmlModel(new QName("", "Factory")) instanceof TestModel);
+        assertTrue("class", parser.createXmlModel(new QName("", "Class")) instanceof TestModel);
+        assertTrue("unrecognized", parser.createXmlModel(new QName("", "Unknown")) instanceof DefaultXmlModel);
+
+        XmlModelParser copy = new XmlModelParser();
+        copy.registerAllModels(parser);
+        assertTrue("copied", copy.createXmlModel(copy.internName("", "Factory")) instanceof TestModel);
+    }
+
+    public static class TestModel extends XmlModel {
+
+        public TestModel() {
+        }
+    }
+}